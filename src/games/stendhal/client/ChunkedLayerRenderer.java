@@ -0,0 +1,213 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.client;
+
+import java.awt.Graphics;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import games.stendhal.client.gui.TransparencyMode;
+import games.stendhal.client.sprite.EmptySprite;
+import games.stendhal.client.sprite.Sprite;
+import games.stendhal.client.sprite.Tileset;
+
+/**
+ * A LayerRenderer that pre-renders the static tiles of another layer in
+ * chunks, so that drawing a chunk takes one image draw instead of one per
+ * tile. Animated tiles are left out of the chunk images, and drawn on top of
+ * them separately. The most recently drawn chunks are kept, and the rest are
+ * dropped.
+ */
+class ChunkedLayerRenderer extends LayerRenderer {
+	/** Width and height of the chunks in tiles. */
+	static final int CHUNK_SIZE = 16;
+	/** Number of chunks that are kept at least. */
+	private static final int MIN_CACHED_CHUNKS = 16;
+
+	/** The drawn layer. */
+	private final TileRenderer layer;
+	/** Pre-rendered chunks, least recently drawn first. */
+	private final Map<Integer, Chunk> chunks;
+	/** Number of chunks to keep. Grows to cover the largest drawn area. */
+	private int capacity = MIN_CACHED_CHUNKS;
+
+	/**
+	 * Create a new ChunkedLayerRenderer.
+	 *
+	 * @param layer the layer to be drawn
+	 */
+	ChunkedLayerRenderer(TileRenderer layer) {
+		this.layer = layer;
+		width = layer.getWidth();
+		height = layer.getHeight();
+		chunks = new LinkedHashMap<Integer, Chunk>(MIN_CACHED_CHUNKS, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, Chunk> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	@Override
+	public void draw(Graphics g, int x, int y, int w, int h) {
+		final Sprite[] sprites = layer.spriteMap;
+		if (sprites == null) {
+			// Not a pre-initialized layer. Let it manage itself.
+			layer.draw(g, x, y, w, h);
+			return;
+		}
+
+		final int endX = Math.min(x + w, width);
+		final int endY = Math.min(y + h, height);
+		if ((x >= endX) || (y >= endY)) {
+			return;
+		}
+
+		final int startChunkX = x / CHUNK_SIZE;
+		final int startChunkY = y / CHUNK_SIZE;
+		final int endChunkX = (endX - 1) / CHUNK_SIZE;
+		final int endChunkY = (endY - 1) / CHUNK_SIZE;
+		// Keep at least twice the visible chunks, so that scrolling back and
+		// forth does not render the same chunks again
+		capacity = Math.max(capacity, 2 * (endChunkX - startChunkX + 1) * (endChunkY - startChunkY + 1));
+
+		final int chunksPerRow = (width + CHUNK_SIZE - 1) / CHUNK_SIZE;
+		for (int cy = startChunkY; cy <= endChunkY; cy++) {
+			for (int cx = startChunkX; cx <= endChunkX; cx++) {
+				Integer key = cy * chunksPerRow + cx;
+				Chunk chunk = chunks.get(key);
+				if (chunk == null) {
+					chunk = new Chunk(cx, cy, sprites);
+					chunks.put(key, chunk);
+				}
+				chunk.draw(g, sprites);
+			}
+		}
+	}
+
+	@Override
+	public void setTileset(Tileset tileset) {
+		layer.setTileset(tileset);
+		clear();
+	}
+
+	/**
+	 * Drop all pre-rendered chunks.
+	 */
+	void clear() {
+		chunks.clear();
+	}
+
+	/**
+	 * Get the number of pre-rendered chunks.
+	 *
+	 * @return number of chunks
+	 */
+	int getCachedChunks() {
+		return chunks.size();
+	}
+
+	/**
+	 * Area of CHUNK_SIZE x CHUNK_SIZE tiles, or less at the layer edges.
+	 */
+	private class Chunk {
+		/** Left side of the chunk in pixels. */
+		private final int x;
+		/** Top of the chunk in pixels. */
+		private final int y;
+		/**
+		 * The static tiles, or <code>null</code> if the chunk has none that
+		 * draw anything.
+		 */
+		private BufferedImage image;
+		/** Indices of the animated tiles in the sprite map. */
+		private final int[] animated;
+
+		/**
+		 * Create and render a chunk.
+		 *
+		 * @param chunkX x coordinate of the chunk in chunks
+		 * @param chunkY y coordinate of the chunk in chunks
+		 * @param sprites sprite map of the layer
+		 */
+		Chunk(int chunkX, int chunkY, Sprite[] sprites) {
+			final int startX = chunkX * CHUNK_SIZE;
+			final int startY = chunkY * CHUNK_SIZE;
+			final int endX = Math.min(startX + CHUNK_SIZE, width);
+			final int endY = Math.min(startY + CHUNK_SIZE, height);
+			x = startX * IGameScreen.SIZE_UNIT_PIXELS;
+			y = startY * IGameScreen.SIZE_UNIT_PIXELS;
+
+			int[] tmpAnimated = new int[(endX - startX) * (endY - startY)];
+			int numAnimated = 0;
+			Graphics g = null;
+			for (int j = startY; j < endY; j++) {
+				int mapidx = (j * width) + startX;
+				for (int i = startX; i < endX; i++) {
+					Sprite sprite = sprites[mapidx];
+					if (!sprite.isConstant()) {
+						tmpAnimated[numAnimated] = mapidx;
+						numAnimated++;
+					} else if (!(sprite instanceof EmptySprite)) {
+						if (g == null) {
+							image = createImage((endX - startX) * IGameScreen.SIZE_UNIT_PIXELS,
+									(endY - startY) * IGameScreen.SIZE_UNIT_PIXELS);
+							g = image.createGraphics();
+						}
+						sprite.draw(g, (i - startX) * IGameScreen.SIZE_UNIT_PIXELS,
+								(j - startY) * IGameScreen.SIZE_UNIT_PIXELS);
+					}
+					mapidx++;
+				}
+			}
+			if (g != null) {
+				g.dispose();
+			}
+			animated = new int[numAnimated];
+			System.arraycopy(tmpAnimated, 0, animated, 0, numAnimated);
+		}
+
+		/**
+		 * Draw the chunk.
+		 *
+		 * @param g graphics
+		 * @param sprites sprite map of the layer
+		 */
+		void draw(Graphics g, Sprite[] sprites) {
+			if (image != null) {
+				g.drawImage(image, x, y, null);
+			}
+			for (int mapidx : animated) {
+				sprites[mapidx].draw(g, (mapidx % width) * IGameScreen.SIZE_UNIT_PIXELS,
+						(mapidx / width) * IGameScreen.SIZE_UNIT_PIXELS);
+			}
+		}
+	}
+
+	/**
+	 * Create an image for a chunk.
+	 *
+	 * @param width image width
+	 * @param height image height
+	 * @return image compatible with the screen
+	 */
+	private static BufferedImage createImage(int width, int height) {
+		if (GraphicsEnvironment.isHeadless()) {
+			return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		}
+		GraphicsConfiguration gc = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+		return gc.createCompatibleImage(width, height, TransparencyMode.TRANSPARENCY);
+	}
+}
@@ -33,6 +33,7 @@ import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Locale;
 import java.util.Map;
 
 import javax.swing.JComponent;
@@ -52,6 +53,8 @@ import games.stendhal.client.gui.j2d.RemovableSprite;
 import games.stendhal.client.gui.j2d.entity.Entity2DView;
 import games.stendhal.client.gui.j2d.entity.EntityView;
 import games.stendhal.client.gui.spellcasting.SpellCastingGroundContainerMouseState;
+import games.stendhal.client.gui.wt.core.SettingChangeAdapter;
+import games.stendhal.client.gui.wt.core.WtWindowManager;
 import games.stendhal.client.sprite.Sprite;
 import games.stendhal.client.sprite.SpriteStore;
 import games.stendhal.common.MathHelper;
@@ -99,6 +102,12 @@ public final class GameScreen extends JComponent implements IGameScreen, DropTar
 	 * indicator icon.
 	 */
 	private static final int OFFLINE_MARGIN = 10;
+	/** Client setting for showing the frame rate. */
+	private static final String FRAME_TIME_PROPERTY = "gamescreen.frametime";
+	/** Space around the frame rate display. */
+	private static final int FRAME_TIME_MARGIN = 5;
+	/** Time between frame rate display updates in nanoseconds. */
+	private static final long FRAME_TIME_INTERVAL = 1000000000L;
 
 	private static final Sprite offlineIcon;
 
@@ -128,6 +137,17 @@ public final class GameScreen extends JComponent implements IGameScreen, DropTar
 	 */
 	private int blinkOffline;
 
+	/** <code>true</code> if the frame rate should be shown. */
+	private boolean showFrameTime;
+	/** Start of the current frame rate measuring interval. */
+	private long frameTimeStart;
+	/** Frames drawn in the current measuring interval. */
+	private int frames;
+	/** Time spent drawing the scene in the current measuring interval. */
+	private long sceneNanos;
+	/** Frame rate of the previous measuring interval. */
+	private String frameTimeText = "";
+
 	/**
 	 * The targeted center of view X coordinate (truncated).
 	 */
@@ -256,6 +276,18 @@ public final class GameScreen extends JComponent implements IGameScreen, DropTar
 		 */
 		setIgnoreRepaint(true);
 		client.getGameObjects().addGameObjectListener(this);
+
+		WtWindowManager.getInstance().registerSettingChangeListener(FRAME_TIME_PROPERTY,
+				new SettingChangeAdapter(FRAME_TIME_PROPERTY, "false") {
+			@Override
+			public void changed(String newValue) {
+				frames = 0;
+				sceneNanos = 0;
+				frameTimeText = "";
+				frameTimeStart = System.nanoTime();
+				showFrameTime = Boolean.parseBoolean(newValue);
+			}
+		});
 	}
 
 	/**
@@ -560,6 +592,7 @@ public final class GameScreen extends JComponent implements IGameScreen, DropTar
 		int xAdjust = -GameScreenSpriteHelper.getScreenViewX();
 		int yAdjust = -GameScreenSpriteHelper.getScreenViewY();
 
+		final long sceneStart = System.nanoTime();
 		if (useTripleBuffer) {
 			/*
 			 * Do the scaling in one pass to avoid artifacts at tile borders.
@@ -586,10 +619,14 @@ public final class GameScreen extends JComponent implements IGameScreen, DropTar
 		} else {
 			renderScene(graphics, xAdjust, yAdjust, fullRedraw);
 		}
+		final long sceneEnd = System.nanoTime();
 
 		// Don't scale text to keep it readable
 		drawText(g2d);
 		drawEmojis(g2d);
+		if (showFrameTime) {
+			drawFrameTime(g2d, sceneEnd, sceneEnd - sceneStart);
+		}
 
 		paintOffLineIfNeeded(g2d);
 
@@ -656,6 +693,32 @@ public final class GameScreen extends JComponent implements IGameScreen, DropTar
 		}
 	}
 
+	/**
+	 * Draw the frame rate, and the average time it took to draw the scene.
+	 * The values are updated once per measuring interval.
+	 *
+	 * @param g2d destination graphics
+	 * @param now current time in nanoseconds
+	 * @param sceneTime time taken to draw the scene of the current frame
+	 */
+	private void drawFrameTime(Graphics2D g2d, long now, long sceneTime) {
+		frames++;
+		sceneNanos += sceneTime;
+		long elapsed = now - frameTimeStart;
+		if (elapsed >= FRAME_TIME_INTERVAL) {
+			frameTimeText = String.format(Locale.ENGLISH, "%.1f fps, scene %.2f ms",
+					frames * 1e9 / elapsed, sceneNanos / 1e6 / frames);
+			frames = 0;
+			sceneNanos = 0;
+			frameTimeStart = now;
+		}
+		int y = FRAME_TIME_MARGIN + g2d.getFontMetrics().getAscent();
+		g2d.setColor(Color.BLACK);
+		g2d.drawString(frameTimeText, FRAME_TIME_MARGIN + 1, y + 1);
+		g2d.setColor(Color.WHITE);
+		g2d.drawString(frameTimeText, FRAME_TIME_MARGIN, y);
+	}
+
 	/**
 	 * Draw the offline indicator, blinking, if the client is offline.
 	 *
@@ -441,7 +441,7 @@ public class Zone {
 				adjLayer = null;
 			}
 
-			r = new CompositeLayerRenderer(subLayers, adjustment, adjLayer);
+			r = new ChunkedLayerRenderer(new CompositeLayerRenderer(subLayers, adjustment, adjLayer));
 			layers.put(compositeName, r);
 		}
 		return r;
@@ -115,6 +115,8 @@ class EventFactory {
 			event = new PlayerLoggedOnEvent();
 		} else if (name.equals(Events.PLAYER_LOGGED_OUT)) {
 			event = new PlayerLoggedOutEvent();
+		} else if (name.equals(Events.PLAYER_PRESENCE)) {
+			event = new PlayerPresenceEvent();
 		} else if (name.equals(Events.VIEW_CHANGE)) {
 			event = new ViewChangeEvent();
 		}  else if (name.equals(Events.IMAGE)) {
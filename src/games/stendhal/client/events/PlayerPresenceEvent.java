@@ -0,0 +1,40 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.client.events;
+
+import org.apache.log4j.Logger;
+
+import games.stendhal.client.World;
+import games.stendhal.client.entity.Entity;
+
+/**
+ * Players that logged on and off since the last update.
+ */
+class PlayerPresenceEvent extends Event<Entity> {
+	private static final Logger logger = Logger.getLogger(PlayerPresenceEvent.class);
+
+	@Override
+	public void execute() {
+		if (event.has("left")) {
+			for (String playerName : event.get("left").split(",")) {
+				logger.debug("Executing logout event for " + playerName);
+				World.get().removePlayerLoggingOut(playerName);
+			}
+		}
+		if (event.has("joined")) {
+			for (String playerName : event.get("joined").split(",")) {
+				logger.debug("Executing logon event for " + playerName);
+				World.get().addPlayerLoggingOn(playerName);
+			}
+		}
+	}
+}
@@ -80,6 +80,8 @@ class VisualSettings {
 	private static final String FONT_SIZE_PROPERTY = "ui.font_size";
 
 	private static final String GAMESCREEN_BLOOD = "gamescreen.blood";
+	/** Property used for showing the frame rate. */
+	private static final String GAMESCREEN_FRAMETIME = "gamescreen.frametime";
 
 	private static final String SCALE_SCREEN_PROPERTY = "ui.scale_screen";
 	/** Property used for toggling map coloring on. */
@@ -170,6 +172,10 @@ class VisualSettings {
 										"Show creature speech bubbles", "Show creature speech bubbles in the client display");
 		page.add(showCreatureSpeechToggle);
 
+		JCheckBox frameTimeToggle = SettingsComponentFactory.createSettingsToggle(GAMESCREEN_FRAMETIME, false,
+				"Show frame rate", "Show the frame rate, and the time it takes to draw the game screen.");
+		page.add(frameTimeToggle);
+
 		final JCheckBox scaleScreenToggle = SettingsComponentFactory.createSettingsToggle(SCALE_SCREEN_PROPERTY,
 				true, "Scale view to fit window", "<html>If selected, the game view will scale to fit the available space,<br>otherwise the default sized graphics are used.</html>");
 		page.add(scaleScreenToggle);
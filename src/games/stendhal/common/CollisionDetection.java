@@ -28,6 +28,9 @@ public class CollisionDetection {
 
 	private int height;
 
+	/** Incremented on every change of the collision data */
+	private int version;
+
 	/**
 	 * Clear the collision map.
 	 */
@@ -52,6 +55,7 @@ public class CollisionDetection {
 
 		this.width = width;
 		this.height = height;
+		version++;
 
 		clear();
 	}
@@ -67,6 +71,7 @@ public class CollisionDetection {
 			return;
 		}
 		map.set(x, y);
+		version++;
 	}
 
 	/**
@@ -211,4 +216,14 @@ public class CollisionDetection {
 	public int getHeight() {
 		return height;
 	}
+
+	/**
+	 * Get the version of the collision data. It changes whenever the data is
+	 * modified, so that users can find out if their derived data is outdated.
+	 *
+	 * @return version number
+	 */
+	public int getVersion() {
+		return version;
+	}
 }
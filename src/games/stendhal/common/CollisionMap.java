@@ -15,24 +15,30 @@ package games.stendhal.common;
 
 
 import java.awt.geom.Rectangle2D;
-import java.util.BitSet;
+import java.util.Arrays;
 
 import games.stendhal.common.tiled.LayerDefinition;
 
+/**
+ * Binary collision map of a zone.
+ *
+ * <p>The map is stored as a row major bitboard: Each row occupies a fixed
+ * number of longs with one bit per tile, so that rectangle tests can be
+ * done with word masks and without any allocation.</p>
+ */
 public class CollisionMap {
 
 	private final int width;
 	private final int height;
-	private final BitSet[] colls;
+	/** number of longs used per row */
+	private final int rowWords;
+	private final long[] bits;
 
 	public CollisionMap(final int width, final int height) {
 		this.width = width;
 		this.height = height;
-		colls = new BitSet[width];
-		for (int i = 0; i < width; i++) {
-			colls[i] = new BitSet();
-		}
-
+		rowWords = (width + 63) >>> 6;
+		bits = new long[rowWords * height];
 	}
 
 	public CollisionMap(final LayerDefinition layer) {
@@ -55,12 +61,17 @@ public class CollisionMap {
 	}
 
 	public boolean get(final int i, final int j) {
-		return colls[i].get(j);
+		if (j < 0 || j >= height) {
+			return false;
+		}
+		return (bits[index(i, j)] & (1L << i)) != 0;
 	}
 
 	public void set(final int i, final int j) {
-
-		colls[i].set(j);
+		if (j < 0 || j >= height) {
+			return;
+		}
+		bits[index(i, j)] |= 1L << i;
 	}
 
 	public boolean collides(final int x, final int y, final int width, final int height) {
@@ -72,20 +83,44 @@ public class CollisionMap {
 			return true;
 		}
 
-		final BitSet result = new BitSet();
-		for (int i = x; i < x + width; i++) {
-			result.or(colls[i]);
+		if (width <= 0 || height <= 0) {
+			return false;
 		}
 
-		return !result.get(y, y + height).isEmpty();
+		final int lastX = x + width - 1;
+		final int firstWord = x >>> 6;
+		final int lastWord = lastX >>> 6;
+		// Java shifts use the lowest 6 bits only, so these are x % 64 based
+		final long firstMask = -1L << x;
+		final long lastMask = -1L >>> (63 - (lastX & 63));
+
+		for (int row = y; row < y + height; row++) {
+			final int offset = row * rowWords;
+			if (firstWord == lastWord) {
+				if ((bits[offset + firstWord] & firstMask & lastMask) != 0) {
+					return true;
+				}
+			} else {
+				if ((bits[offset + firstWord] & firstMask) != 0) {
+					return true;
+				}
+				for (int word = firstWord + 1; word < lastWord; word++) {
+					if (bits[offset + word] != 0) {
+						return true;
+					}
+				}
+				if ((bits[offset + lastWord] & lastMask) != 0) {
+					return true;
+				}
+			}
+		}
+		return false;
 	}
 
 	public void clear() {
-		for (int i = 0; i < this.width; i++) {
-			colls[i].clear();
-		}
-
+		Arrays.fill(bits, 0L);
 	}
+
 	public static CollisionMap create(final LayerDefinition layer) {
 
 		CollisionMap collissionMap = new CollisionMap(layer.getWidth(), layer
@@ -101,17 +136,33 @@ public class CollisionMap {
 	}
 
 	public void unset(final int i, final int k) {
-		colls[i].clear(k);
-
+		if (k < 0 || k >= height) {
+			return;
+		}
+		bits[index(i, k)] &= ~(1L << i);
 	}
 
 	public void set(final Rectangle2D shape) {
 		int y = (int) shape.getY();
 		for (int x = (int) shape.getX(); x < shape.getX() + shape.getWidth(); x++) {
-
-			colls[x].set(y, (int) (y + shape.getHeight()));
+			for (int j = y; j < (int) (y + shape.getHeight()); j++) {
+				set(x, j);
+			}
 		}
 
 	}
 
+	/**
+	 * Get the index of the long holding a tile.
+	 *
+	 * @param x x coordinate
+	 * @param y y coordinate
+	 * @return index in bits
+	 */
+	private int index(final int x, final int y) {
+		if (x < 0 || x >= width) {
+			throw new ArrayIndexOutOfBoundsException(x);
+		}
+		return y * rowWords + (x >>> 6);
+	}
 }
@@ -12,6 +12,7 @@
  ***************************************************************************/
 package games.stendhal.common;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
@@ -61,4 +62,25 @@ public class IO {
 		}
 		return res;
 	}
+
+	/**
+	 * reads a stream into a byte array and closes it
+	 *
+	 * @param is input stream
+	 * @return byte-array with the remaining content of the stream
+	 * @throws IOException in case the stream cannot be read
+	 */
+	public static byte[] readFully(InputStream is) throws IOException {
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[16384];
+			int numRead;
+			while ((numRead = is.read(buffer)) != -1) {
+				out.write(buffer, 0, numRead);
+			}
+			return out.toByteArray();
+		} finally {
+			is.close();
+		}
+	}
 }
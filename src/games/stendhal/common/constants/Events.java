@@ -32,6 +32,9 @@ public final class Events {
 	/** a player on the buddy list logged off */
 	public static final String PLAYER_LOGGED_OUT = "player_logged_out";
 
+	/** players that logged on and off since the last update */
+	public static final String PLAYER_PRESENCE = "player_presence";
+
 	/** attack event during a fight */
 	public static final String ATTACK = "attack";
 
@@ -12,8 +12,6 @@
  ***************************************************************************/
 package games.stendhal.common.parser;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.StringTokenizer;
 
 import org.apache.log4j.Logger;
@@ -30,11 +28,21 @@ public final class ConversationParser extends ErrorBuffer {
 
 	private static final Logger LOGGER = Logger.getLogger(ConversationParser.class);
 
+	/** Maximum length of the texts kept in the sentence cache. */
+	static final int MAX_CACHED_TEXT_LENGTH = 32;
+
 	/** A cache to hold pre-parsed trigger Expressions. */
-    private static Map<String, Expression> triggerExpressionsCache = new HashMap<String, Expression>();
+    static final ParserCache<Expression> triggerExpressionsCache = new ParserCache<Expression>("trigger expressions", 8192);
 
     /** A cache to hold pre-parsed matching Sentences. */
-    private static Map<String, Sentence> matchingSentenceCache = new HashMap<String, Sentence>();
+    static final ParserCache<Sentence> matchingSentenceCache = new ParserCache<Sentence>("matching sentences", 2048);
+
+    /**
+     * A cache to hold the parsed short sentences players use most, like "hi"
+     * or "buy 5 potion". The cached sentences are never handed out, only
+     * copies of them.
+     */
+    static final ParserCache<Sentence> sentenceCache = new ParserCache<Sentence>("sentences", 1024);
 
     /** Tokenizer to split a sentence into words */
     private final transient StringTokenizer tokenizer;
@@ -68,9 +76,40 @@ public final class ConversationParser extends ErrorBuffer {
      * @return the sentence in normalized form.
      */
     public static String normalize(final String text) {
+        if (isCacheable(text)) {
+            return sentenceCache.get(text, t -> parse(t, new ConversationContext())).getNormalized();
+        }
+
         return parse(text).getNormalized();
     }
 
+    /**
+     * Return a summary of the parser caches.
+     *
+     * @return sizes and hit rates of the caches
+     */
+    public static String getCacheStatistics() {
+        return triggerExpressionsCache + "\n" + matchingSentenceCache + "\n" + sentenceCache;
+    }
+
+    /**
+     * Drop the cached sentences after words have been added to or removed
+     * from the word list, because they may be parsed differently now.
+     */
+    static void wordListChanged() {
+        sentenceCache.clear();
+    }
+
+    /**
+     * Check whether the parsed text may be kept in the sentence cache.
+     *
+     * @param text
+     * @return true for short texts
+     */
+    private static boolean isCacheable(final String text) {
+        return (text != null) && (text.length() <= MAX_CACHED_TEXT_LENGTH);
+    }
+
 
     /**
      * Create trigger expression to match the parsed user input in the FSM engine.
@@ -79,15 +118,7 @@ public final class ConversationParser extends ErrorBuffer {
      * @return Expression
      */
     public static Expression createTriggerExpression(final String text) {
-        Expression expr = triggerExpressionsCache.get(text);
-
-        if (expr == null) {
-        	expr = createTriggerExpression(text, null);
-
-        	triggerExpressionsCache.put(text, expr);
-        }
-
-        return expr;
+        return triggerExpressionsCache.get(text, t -> createTriggerExpression(t, null));
     }
 
     /**
@@ -132,6 +163,10 @@ public final class ConversationParser extends ErrorBuffer {
      * @return the parsed text
      */
     public static Sentence parse(final String text) {
+        if (isCacheable(text)) {
+            return new SentenceImplementation(sentenceCache.get(text, t -> parse(t, new ConversationContext())));
+        }
+
         return parse(text, new ConversationContext());
     }
 
@@ -154,15 +189,7 @@ public final class ConversationParser extends ErrorBuffer {
      * @return the parsed text
      */
     public static Sentence parseAsMatcher(final String text) {
-        Sentence sentence = matchingSentenceCache.get(text);
-
-        if (sentence == null) {
-        	sentence = parse(text, new ConvCtxForMatcher());
-
-        	matchingSentenceCache.put(text, sentence);
-        }
-
-        return sentence;
+        return matchingSentenceCache.get(text, t -> parse(t, new ConvCtxForMatcher()));
     }
 
     /**
@@ -176,7 +203,7 @@ public final class ConversationParser extends ErrorBuffer {
     	Sentence sentence;
 
         if (matcher == null) {
-            sentence = parse(text, new ConversationContext());
+            sentence = parse(text);
         } else {
             sentence = matcher.parseSentence(text, new ConvCtxForMatcher());
         }
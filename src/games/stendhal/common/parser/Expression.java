@@ -74,6 +74,21 @@ public final class Expression {
         type = new ExpressionType(typeString);
     }
 
+    /**
+     * Create a copy of the given Expression.
+     *
+     * @param other
+     */
+    Expression(final Expression other) {
+        original = other.original;
+        type = other.type;
+        normalized = other.normalized;
+        mainWord = other.mainWord;
+        amount = other.amount;
+        breakFlag = other.breakFlag;
+        matcher = other.matcher;
+    }
+
     /**
      * Parse the given numeric expression and assign the value to 'amount'.
      *  TODO mf - We may switch from Integer to Long
@@ -0,0 +1,148 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.common.parser;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A bounded, thread safe cache for parser results. When the cache is full,
+ * the least recently used entry is dropped.
+ *
+ * The values are created outside of the lock, so two threads may parse the
+ * same text at the same time. The first result is kept. Values created while
+ * the cache is cleared are not kept, as they may be outdated.
+ *
+ * @param <V> type of the cached values
+ */
+final class ParserCache<V> {
+	/** name for the statistics */
+	private final String name;
+
+	/** maximum number of entries */
+	private final int capacity;
+
+	/** the entries in access order */
+	private final Map<String, V> entries;
+
+	/** number of times the cache was cleared */
+	private int generation;
+
+	private long hits;
+
+	private long misses;
+
+	/**
+	 * Creates a new ParserCache.
+	 *
+	 * @param name name for the statistics
+	 * @param capacity maximum number of entries
+	 */
+	ParserCache(final String name, final int capacity) {
+		this.name = name;
+		this.capacity = capacity;
+		entries = new LinkedHashMap<String, V>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<String, V> eldest) {
+				return size() > ParserCache.this.capacity;
+			}
+		};
+	}
+
+	/**
+	 * Gets the value for a text, and creates it if it is not cached.
+	 *
+	 * @param text text
+	 * @param creator creates the value, if it is not cached
+	 * @return value
+	 */
+	V get(final String text, final Function<String, V> creator) {
+		final int created;
+		synchronized (this) {
+			final V value = entries.get(text);
+			if (value != null) {
+				hits++;
+				return value;
+			}
+			misses++;
+			created = generation;
+		}
+
+		final V value = creator.apply(text);
+
+		synchronized (this) {
+			final V other = entries.get(text);
+			if (other != null) {
+				return other;
+			}
+			if (created == generation) {
+				entries.put(text, value);
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * Removes all entries. The statistics are kept.
+	 */
+	synchronized void clear() {
+		entries.clear();
+		generation++;
+	}
+
+	/**
+	 * Gets the number of cached entries.
+	 *
+	 * @return number of entries
+	 */
+	synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Gets the maximum number of entries.
+	 *
+	 * @return capacity
+	 */
+	int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Gets the number of lookups that found a cached value.
+	 *
+	 * @return hits
+	 */
+	synchronized long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Gets the number of lookups that had to create the value.
+	 *
+	 * @return misses
+	 */
+	synchronized long getMisses() {
+		return misses;
+	}
+
+	@Override
+	public synchronized String toString() {
+		final long lookups = hits + misses;
+		final long rate = (lookups == 0) ? 0 : (100 * hits / lookups);
+		return name + ": " + entries.size() + "/" + capacity + " entries, "
+				+ hits + " hits, " + misses + " misses (" + rate + "% hits)";
+	}
+}
@@ -50,6 +50,24 @@ public final class SentenceImplementation extends Sentence {
         }
     }
 
+    /**
+     * Create a copy of the given sentence, which can be changed without
+     * touching the original.
+     *
+     * @param other
+     */
+    SentenceImplementation(final Sentence other) {
+        super(other.context);
+
+        originalText = other.originalText;
+        sentenceType = other.sentenceType;
+        errorBuffer = other.getErrorString();
+
+        for (final Expression e : other.expressions) {
+            expressions.add(new Expression(e));
+        }
+    }
+
     /**
      * Build sentence by using the given parser object.
      *
@@ -582,6 +582,8 @@ final public class WordList {
 
 			nameSet.add(new CompoundName(parsed, typeString));
 		}
+
+		ConversationParser.wordListChanged();
 	}
 
 	/**
@@ -645,6 +647,8 @@ final public class WordList {
 				words.remove(expr.getNormalized());
 			}
 		}
+
+		ConversationParser.wordListChanged();
 	}
 
 	/**
@@ -714,6 +718,7 @@ final public class WordList {
 			newEntry.setType(new ExpressionType(VERB_DYNAMIC));
 
 			words.put(key, newEntry);
+			ConversationParser.wordListChanged();
 //		} else if (!checkNameCompatibleLastType(entry, ExpressionType.VERB)) {
 //	 		logger.warn("verb name already registered with incompatible expression type: " +
 //			entry.getNormalizedWithTypeString());
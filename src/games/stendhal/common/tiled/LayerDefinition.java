@@ -12,6 +12,7 @@
  ***************************************************************************/
 package games.stendhal.common.tiled;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -69,6 +70,12 @@ public class LayerDefinition implements Serializable {
 	 */
 	private byte[] raw;
 
+	/**
+	 * The compressed serialization, kept until the layer is changed. The
+	 * server loads the maps on several threads and encodes the layers there.
+	 */
+	private byte[] encoded;
+
 	/**
 	 * Constructor.
 	 *
@@ -120,6 +127,8 @@ public class LayerDefinition implements Serializable {
 	 * @return the allocated raw array so it can be modified.
 	 */
 	public byte[] exposeRaw() {
+		// the caller may change it
+		encoded = null;
 		return raw;
 	}
 
@@ -147,6 +156,7 @@ public class LayerDefinition implements Serializable {
 		raw[1 + offset] = (byte) ((tileId >>> 8) & 0xFF);
 		raw[2 + offset] = (byte) ((tileId >>> 16) & 0xFF);
 		raw[3 + offset] = (byte) ((tileId >>> 24) & 0xFF);
+		encoded = null;
 
 		data[y * width + x] = tileId;
 	}
@@ -165,11 +175,20 @@ public class LayerDefinition implements Serializable {
 	}
 
 	/**
+	 * Get the compressed serialization of the layer. It is computed only
+	 * once, until the layer is changed.
 	 *
 	 * @return the encode byte array
 	 * @throws IOException
 	 */
 	public byte[] encode() throws IOException {
+		if (encoded == null) {
+			encoded = encodeRaw();
+		}
+		return encoded;
+	}
+
+	private byte[] encodeRaw() throws IOException {
 		final ByteArrayOutputStream array = new ByteArrayOutputStream();
 		final DeflaterOutputStream out_stream = new DeflaterOutputStream(array);
 		final OutputSerializer out = new OutputSerializer(out_stream);
@@ -201,6 +220,22 @@ public class LayerDefinition implements Serializable {
 		return layer;
 	}
 
+	/**
+	 * Deserializes a layer definition, and keeps the encoded form so that
+	 * {@link #encode()} does not need to compress it again.
+	 *
+	 * @param encoded the layer as returned by {@link #encode()}
+	 * @return an instance of a layer definition
+	 * @throws IOException
+	 * @throws ClassNotFoundException
+	 */
+	public static LayerDefinition decode(final byte[] encoded) throws IOException,
+			ClassNotFoundException {
+		final LayerDefinition layer = decode(new ByteArrayInputStream(encoded));
+		layer.encoded = encoded;
+		return layer;
+	}
+
 	/**
 	 * Returns the width of the layer.
 	 *
@@ -250,6 +285,7 @@ public class LayerDefinition implements Serializable {
 	 *            the name of the layer
 	 */
 	public void setName(final String layerName) {
+		encoded = null;
 		name = layerName;
 	}
 
@@ -264,6 +300,7 @@ public class LayerDefinition implements Serializable {
 
 	@Override
 	public void readObject(final InputSerializer in) throws IOException {
+		encoded = null;
 		name = in.readString();
 		width = in.readInt();
 		height = in.readInt();
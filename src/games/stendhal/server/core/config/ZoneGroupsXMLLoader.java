@@ -18,6 +18,7 @@ package games.stendhal.server.core.config;
 
 import java.io.IOException;
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.log4j.Logger;
@@ -54,22 +55,33 @@ public class ZoneGroupsXMLLoader extends DefaultHandler {
 	 *             If an I/O error occurred.
 	 */
 	public void load() throws SAXException, IOException {
+		final long start = System.nanoTime();
 		final GroupsXMLLoader groupsLoader = new GroupsXMLLoader(uri);
 		final List<URI> zoneGroups = groupsLoader.load();
 
-		// Load each group
+		// Read each group, so that the maps of all zones can be read ahead
+		final List<ZonesXMLLoader.ZoneDesc> zones = new ArrayList<ZonesXMLLoader.ZoneDesc>();
 		for (final URI tempUri : zoneGroups) {
 			LOGGER.debug("Loading zone group [" + tempUri + "]");
 
 			final ZonesXMLLoader loader = new ZonesXMLLoader(tempUri);
 
 			try {
-				loader.load();
+				zones.addAll(loader.readZones());
 			} catch (final SAXException ex) {
 				LOGGER.error("Error loading zone group: " + tempUri, ex);
 			} catch (final IOException ex) {
 				LOGGER.error("Error loading zone group: " + tempUri, ex);
 			}
 		}
+		LOGGER.info("Read " + zoneGroups.size() + " zone groups in "
+				+ (System.nanoTime() - start) / 1000000 + " ms");
+
+		final ZoneMapLoader maps = ZoneMapLoader.create();
+		try {
+			ZonesXMLLoader.load(zones, maps);
+		} finally {
+			maps.shutdown();
+		}
 	}
 }
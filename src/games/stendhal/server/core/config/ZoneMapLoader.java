@@ -0,0 +1,221 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.config;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+
+import games.stendhal.common.tiled.LayerDefinition;
+import games.stendhal.common.tiled.StendhalMapStructure;
+import games.stendhal.server.core.config.zone.MapCache;
+import games.stendhal.server.core.config.zone.TMXLoader;
+import games.stendhal.server.core.engine.StendhalRPWorld;
+import marauroa.common.Configuration;
+
+/**
+ * Reads the map files of the zones on a pool of threads, while the zones are
+ * created and configured on the thread that loads the world.
+ *
+ * <p>A map is read, decoded, and the layers sent to the clients are
+ * compressed on the pool. Only a few maps are read ahead of the zone that is
+ * being configured, so that not all maps are in memory at once. The number
+ * of threads can be set with <code>zone_loading_threads</code> in
+ * server.ini, it defaults to the number of processors. With 0 the maps are
+ * read on the loading thread, when they are needed.</p>
+ *
+ * <p>The maps are kept in a {@link MapCache} in the folder set with
+ * <code>map_cache_folder</code>, by default <code>cache/maps</code>. An empty
+ * value turns the cache off.</p>
+ */
+final class ZoneMapLoader {
+	private static final Logger logger = Logger.getLogger(ZoneMapLoader.class);
+
+	/** Maps read ahead per thread */
+	private static final int MAPS_PER_THREAD = 4;
+
+	/** Pool for the maps, or <code>null</code> if they are read when needed */
+	private final ExecutorService pool;
+
+	private final int threads;
+
+	/** Cache for the maps, or <code>null</code> if the map files are always read */
+	private final MapCache cache;
+
+	/** Time spent on reading the maps, on all threads */
+	private final AtomicLong readNanos = new AtomicLong();
+
+	/** Time the loading thread waited for maps */
+	private long waitNanos;
+
+	/**
+	 * Creates a new ZoneMapLoader.
+	 *
+	 * @param threads number of threads to read maps on, or 0 to read them on
+	 * 	the calling thread
+	 * @param cache cache for the maps, or <code>null</code> to always read the
+	 * 	map files
+	 */
+	ZoneMapLoader(final int threads, final MapCache cache) {
+		this.threads = threads;
+		this.cache = cache;
+		if (threads > 0) {
+			final AtomicInteger count = new AtomicInteger();
+			pool = Executors.newFixedThreadPool(threads, runnable -> {
+				final Thread thread = new Thread(runnable, "Zone loading " + count.getAndIncrement());
+				thread.setDaemon(true);
+				return thread;
+			});
+		} else {
+			pool = null;
+		}
+	}
+
+	/**
+	 * Creates a ZoneMapLoader as configured in server.ini.
+	 *
+	 * @return ZoneMapLoader
+	 */
+	static ZoneMapLoader create() {
+		int threads = Runtime.getRuntime().availableProcessors();
+		String folder = MapCache.DEFAULT_FOLDER;
+		try {
+			final Configuration config = Configuration.getConfiguration();
+			threads = config.getInt("zone_loading_threads", threads);
+			folder = config.get("map_cache_folder", folder).trim();
+		} catch (final IOException e) {
+			logger.error(e, e);
+		}
+		final MapCache cache = folder.isEmpty() ? null : new MapCache(new File(folder));
+		return new ZoneMapLoader(threads, cache);
+	}
+
+	/**
+	 * Gets the number of maps that should be submitted ahead of the one that
+	 * is needed.
+	 *
+	 * @return number of maps
+	 */
+	int getReadAhead() {
+		return threads * MAPS_PER_THREAD;
+	}
+
+	/**
+	 * Starts reading a map.
+	 *
+	 * @param file map file, relative to the maps folder
+	 * @param layers names of the layers to compress
+	 * @return the map, once it is read
+	 */
+	Future<StendhalMapStructure> submit(final String file, final String[] layers) {
+		final FutureTask<StendhalMapStructure> task = new FutureTask<StendhalMapStructure>(() -> read(file, layers));
+		if (pool != null) {
+			pool.execute(task);
+		}
+		return task;
+	}
+
+	/**
+	 * Gets a map, and waits for it if it is not read yet.
+	 *
+	 * @param map the map as returned by submit
+	 * @return map
+	 * @throws Exception if reading the map failed
+	 */
+	StendhalMapStructure get(final Future<StendhalMapStructure> map) throws Exception {
+		if (pool == null) {
+			((FutureTask<StendhalMapStructure>) map).run();
+		}
+		final long start = System.nanoTime();
+		try {
+			return map.get();
+		} catch (final ExecutionException e) {
+			if (e.getCause() instanceof Exception) {
+				throw (Exception) e.getCause();
+			}
+			throw e;
+		} finally {
+			waitNanos += System.nanoTime() - start;
+		}
+	}
+
+	/**
+	 * Stops the threads. Maps that are not read yet are dropped.
+	 */
+	void shutdown() {
+		if (pool != null) {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Gets the number of threads.
+	 *
+	 * @return threads, 0 if the maps are read on the loading thread
+	 */
+	int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * Gets the map cache.
+	 *
+	 * @return cache, or <code>null</code> if the map files are always read
+	 */
+	MapCache getCache() {
+		return cache;
+	}
+
+	/**
+	 * Gets the time spent on reading the maps, summed over all threads.
+	 *
+	 * @return time in milliseconds
+	 */
+	long getReadMillis() {
+		return readNanos.get() / 1000000;
+	}
+
+	/**
+	 * Gets the time the loading thread waited for maps that were not read
+	 * yet.
+	 *
+	 * @return time in milliseconds
+	 */
+	long getWaitMillis() {
+		return waitNanos / 1000000;
+	}
+
+	private StendhalMapStructure read(final String file, final String[] layers) throws Exception {
+		final long start = System.nanoTime();
+		try {
+			final String filename = StendhalRPWorld.MAPS_FOLDER + file;
+			final StendhalMapStructure map = (cache != null) ? cache.load(filename) : TMXLoader.load(filename);
+			for (final String name : layers) {
+				final LayerDefinition layer = map.getLayer(name);
+				if (layer != null) {
+					layer.encode();
+				}
+			}
+			return map;
+		} finally {
+			readNanos.addAndGet(System.nanoTime() - start);
+		}
+	}
+}
@@ -25,6 +25,8 @@ import java.net.URI;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Future;
 
 import org.apache.log4j.Logger;
 import org.w3c.dom.Document;
@@ -39,6 +41,7 @@ import games.stendhal.common.tiled.StendhalMapStructure;
 import games.stendhal.server.core.config.zone.AttributesXMLReader;
 import games.stendhal.server.core.config.zone.ConfiguratorXMLReader;
 import games.stendhal.server.core.config.zone.EntitySetupXMLReader;
+import games.stendhal.server.core.config.zone.MapCache;
 import games.stendhal.server.core.config.zone.PortalSetupXMLReader;
 import games.stendhal.server.core.config.zone.RegionNameSubstitutionHelper;
 import games.stendhal.server.core.config.zone.SetupDescriptor;
@@ -103,6 +106,28 @@ public final class ZonesXMLLoader {
 	 *             If the resource was not found.
 	 */
 	public void load() throws SAXException, IOException {
+		final List<ZoneDesc> zones = readZones();
+		final ZoneMapLoader maps = ZoneMapLoader.create();
+		try {
+			load(zones, maps);
+		} finally {
+			maps.shutdown();
+		}
+	}
+
+	/**
+	 * Read the descriptions of the zones in the group, without loading the
+	 * zones.
+	 *
+	 * @return descriptions of the zones to load
+	 * @throws SAXException
+	 *             If a SAX error occurred.
+	 * @throws IOException
+	 *             If an I/O error occurred.
+	 * @throws FileNotFoundException
+	 *             If the resource was not found.
+	 */
+	List<ZoneDesc> readZones() throws SAXException, IOException {
 		final InputStream in = ZonesXMLLoader.class.getResourceAsStream(uri.getPath());
 
 		if (in == null) {
@@ -110,24 +135,25 @@ public final class ZonesXMLLoader {
 		}
 
 		try {
-			load(in);
+			return readZones(in);
 		} finally {
 			in.close();
 		}
 	}
 
 	/**
-	 * Loads a group of zones into a world using a config file.
+	 * Reads the descriptions of a group of zones from a config file.
 	 *
 	 * @param in
 	 *            The config file stream.
+	 * @return descriptions of the zones to load
 	 *
 	 * @throws SAXException
 	 *             If a SAX error occurred.
 	 * @throws IOException
 	 *             If an I/O error occurred.
 	 */
-	protected void load(final InputStream in) throws SAXException, IOException {
+	private List<ZoneDesc> readZones(final InputStream in) throws SAXException, IOException {
 		final Document doc = XMLUtil.parse(in);
 
 		// just to speed up starting of the server in while developing
@@ -137,9 +163,7 @@ public final class ZonesXMLLoader {
 		// if there is a problem with the zone
 		final String regex = System.getProperty("stendhal.zone.regex", ".*");
 
-		/*
-		 * Load each zone
-		 */
+		final List<ZoneDesc> zones = new ArrayList<ZoneDesc>();
 		for (final Element element : XMLUtil.getElements(doc.getDocumentElement(), "zone")) {
 			final ZoneDesc zdesc = readZone(element);
 
@@ -152,18 +176,49 @@ public final class ZonesXMLLoader {
 				continue;
 			}
 
+			zones.add(zdesc);
+		}
+		return zones;
+	}
+
+	/**
+	 * Loads zones into the world. The maps are read by the map loader, a few
+	 * zones ahead. The zones are created, added to the world and configured
+	 * on the calling thread, in the given order.
+	 *
+	 * @param zones descriptions of the zones
+	 * @param maps loader for the maps
+	 */
+	static void load(final List<ZoneDesc> zones, final ZoneMapLoader maps) {
+		final long start = System.nanoTime();
+		long createNanos = 0;
+		long setupNanos = 0;
+
+		final List<Future<StendhalMapStructure>> pending = new ArrayList<Future<StendhalMapStructure>>(zones.size());
+		for (int i = 0; i < zones.size(); i++) {
+			// keep the pool busy with the next maps
+			final int ahead = Math.min(zones.size(), i + 1 + maps.getReadAhead());
+			while (pending.size() < ahead) {
+				pending.add(maps.submit(zones.get(pending.size()).getFile(), CLIENT_LAYERS));
+			}
+
+			final ZoneDesc zdesc = zones.get(i);
+			final String name = zdesc.getName();
 			logger.info("Loading zone: " + name);
 
 			try {
-				final StendhalMapStructure zonedata = TMXLoader.load(StendhalRPWorld.MAPS_FOLDER
-						+ zdesc.getFile());
+				final StendhalMapStructure zonedata = maps.get(pending.get(i));
+				pending.set(i, null);
 
 				if (verifyMap(zdesc, zonedata)) {
+					long time = System.nanoTime();
 					final StendhalRPZone zone = load(zdesc, zonedata);
+					createNanos += System.nanoTime() - time;
 
 					/*
 					 * Setup Descriptors
 					 */
+					time = System.nanoTime();
 					final Iterator<SetupDescriptor> diter = zdesc.getDescriptors();
 
 					while (diter.hasNext()) {
@@ -172,17 +227,31 @@ public final class ZonesXMLLoader {
 					// Zone configurators can add creatures, so this should be
 					// done after them
 					zone.calculateDangerLevel();
+					setupNanos += System.nanoTime() - time;
 				}
 			} catch (final Exception ex) {
 				logger.error("Error loading zone: " + name, ex);
 			}
 		}
+
+		logger.info(String.format(Locale.ENGLISH, "Loaded %d zones in %d ms: reading maps %d ms on %d threads"
+				+ " (waited %d ms), creating zones %d ms, configuring zones %d ms", zones.size(),
+				(System.nanoTime() - start) / 1000000, maps.getReadMillis(), maps.getThreads(),
+				maps.getWaitMillis(), createNanos / 1000000, setupNanos / 1000000));
+		final MapCache cache = maps.getCache();
+		if (cache != null) {
+			logger.info("Map cache: " + cache.getHits() + " maps up to date, " + cache.getMisses() + " maps updated");
+		}
 	}
 
 	private static final String[] REQUIRED_LAYERS = { "0_floor", "1_terrain",
 			"2_object", "objects", "collision", "protection" };
 
-	private boolean verifyMap(final ZoneDesc zdesc, final StendhalMapStructure zonedata) {
+	/** Layers sent to the clients. They are compressed while reading the map. */
+	private static final String[] CLIENT_LAYERS = { "0_floor", "1_terrain", "2_object",
+			"3_roof", "4_roof_add", "blend_ground", "blend_roof", "collision", "protection" };
+
+	private static boolean verifyMap(final ZoneDesc zdesc, final StendhalMapStructure zonedata) {
 		for (final String layer : REQUIRED_LAYERS) {
 			if (!zonedata.hasLayer(layer)) {
 				logger.error("Required layer " + layer + " missing in zone "
@@ -204,7 +273,7 @@ public final class ZonesXMLLoader {
 	 *
 	 *
 	 */
-	protected StendhalRPZone load(final ZoneDesc desc, final StendhalMapStructure zonedata)
+	protected static StendhalRPZone load(final ZoneDesc desc, final StendhalMapStructure zonedata)
 			throws SAXException, IOException {
 		final String name = desc.getName();
 
@@ -266,7 +335,7 @@ public final class ZonesXMLLoader {
 	 * @param layerName
 	 * @throws IOException
 	 */
-	private void loadOptionalLayer(StendhalRPZone zone,
+	private static void loadOptionalLayer(StendhalRPZone zone,
 			StendhalMapStructure zonedata, String layerName) throws IOException {
 		LayerDefinition layer = zonedata.getLayer(layerName);
 		if (layer != null) {
@@ -275,7 +344,7 @@ public final class ZonesXMLLoader {
 	}
 
 	@SuppressWarnings("unchecked")
-	private StendhalRPZone createZone(final ZoneDesc desc, final String name)  {
+	private static StendhalRPZone createZone(final ZoneDesc desc, final String name)  {
 		try {
 			Class<StendhalRPZone> zoneclass = (Class<StendhalRPZone>) Class.forName(desc.getImplementation());
 			Constructor<StendhalRPZone> constr = zoneclass.getConstructor(String.class);
@@ -0,0 +1,308 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.config.zone;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.DataFormatException;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+
+import org.apache.log4j.Logger;
+
+import games.stendhal.common.IO;
+import games.stendhal.common.tiled.LayerDefinition;
+import games.stendhal.common.tiled.StendhalMapStructure;
+import games.stendhal.common.tiled.TileSetDefinition;
+import marauroa.common.crypto.Hash;
+
+/**
+ * Keeps the maps in a binary form, so that the TMX files do not need to be
+ * parsed on each start.
+ *
+ * <p>For each map file there is a cache file in the cache folder, under the
+ * same path as the map. It starts with the hash of the map file, so that it
+ * is replaced automatically when the map changes. The rest is memory mapped
+ * on loading, and holds the tilesets and the layers in the compressed form
+ * that is sent to the clients. The layers keep that form, so it is not
+ * created again when the zone is set up.</p>
+ *
+ * <p>Layout of a cache file, all numbers are big endian ints:</p>
+ * <pre>
+ * magic, version, hash length, hash,
+ * width, height,
+ * number of tilesets, for each: name, source, first gid
+ * number of layers, for each: length, encoded layer
+ * </pre>
+ * Strings are stored as their length in UTF-8 and the UTF-8 bytes. Layers
+ * that are too large to be decoded by the network code are stored as length
+ * -1, name, width, height, and the compressed length and compressed bytes of
+ * the tiles.
+ */
+public final class MapCache {
+	private static final Logger logger = Logger.getLogger(MapCache.class);
+
+	/** Folder of the cache used by the server, unless configured otherwise. */
+	public static final String DEFAULT_FOLDER = "cache/maps";
+
+	/** "STMC" */
+	private static final int MAGIC = 0x53544d43;
+
+	/** Increment this when the layout changes. */
+	private static final int VERSION = 1;
+
+	private static final String SUFFIX = ".cache";
+
+	/** Largest layer, in bytes of tiles, that marauroa's deserializer accepts */
+	private static final int MAX_ENCODED_LAYER = 262144;
+
+	private final File folder;
+
+	private final AtomicInteger hits = new AtomicInteger();
+
+	private final AtomicInteger misses = new AtomicInteger();
+
+	/**
+	 * Creates a new MapCache.
+	 *
+	 * @param folder folder for the cache files
+	 */
+	public MapCache(final File folder) {
+		this.folder = folder;
+	}
+
+	/**
+	 * Loads a map, from the cache if it is up to date, from the map file
+	 * otherwise. In the latter case, the cache is updated.
+	 *
+	 * @param filename name of the map file
+	 * @return map
+	 * @throws Exception if the map file cannot be read
+	 */
+	public StendhalMapStructure load(final String filename) throws Exception {
+		final byte[] contents = IO.readFully(TMXLoader.open(filename));
+		final byte[] hash = Hash.hash(contents);
+		final File file = getCacheFile(filename);
+
+		if (isValid(file, hash)) {
+			try {
+				final StendhalMapStructure map = read(file);
+				hits.incrementAndGet();
+				return map;
+			} catch (final Exception e) {
+				logger.warn("Ignoring broken map cache " + file + ": " + e);
+			}
+		}
+
+		misses.incrementAndGet();
+		final StendhalMapStructure map = TMXLoader.load(filename, contents);
+		try {
+			write(file, hash, map);
+		} catch (final IOException e) {
+			logger.warn("Cannot write map cache " + file + ": " + e);
+		}
+		return map;
+	}
+
+	/**
+	 * Gets the number of maps that were loaded from the cache.
+	 *
+	 * @return number of maps
+	 */
+	public int getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * Gets the number of maps that had to be read from the map file.
+	 *
+	 * @return number of maps
+	 */
+	public int getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * Gets the cache file of a map.
+	 *
+	 * @param filename name of the map file
+	 * @return cache file
+	 */
+	File getCacheFile(final String filename) {
+		return new File(folder, filename + SUFFIX);
+	}
+
+	/**
+	 * Checks the header of a cache file, without mapping it.
+	 *
+	 * @param file cache file
+	 * @param hash hash of the map file
+	 * @return <code>true</code> if the cache file belongs to the map file
+	 */
+	private static boolean isValid(final File file, final byte[] hash) {
+		if (!file.isFile()) {
+			return false;
+		}
+		try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+			if ((in.readInt() != MAGIC) || (in.readInt() != VERSION) || (in.readInt() != hash.length)) {
+				return false;
+			}
+			final byte[] stored = new byte[hash.length];
+			in.readFully(stored);
+			return Arrays.equals(hash, stored);
+		} catch (final IOException e) {
+			return false;
+		}
+	}
+
+	private static StendhalMapStructure read(final File file) throws Exception {
+		final MappedByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+
+		// header, checked already
+		buffer.getInt();
+		buffer.getInt();
+		final int hashLength = buffer.getInt();
+		buffer.position(buffer.position() + hashLength);
+
+		final StendhalMapStructure map = new StendhalMapStructure(buffer.getInt(), buffer.getInt());
+		final int tilesets = buffer.getInt();
+		for (int i = 0; i < tilesets; i++) {
+			final String name = readString(buffer);
+			final String source = readString(buffer);
+			map.addTileset(new TileSetDefinition(name, source, buffer.getInt()));
+		}
+		final int layers = buffer.getInt();
+		for (int i = 0; i < layers; i++) {
+			final int length = buffer.getInt();
+			if (length < 0) {
+				map.addLayer(readPlainLayer(buffer));
+			} else {
+				final byte[] encoded = new byte[length];
+				buffer.get(encoded);
+				map.addLayer(LayerDefinition.decode(encoded));
+			}
+		}
+		return map;
+	}
+
+	private static void write(final File file, final byte[] hash, final StendhalMapStructure map) throws IOException {
+		final File dir = file.getParentFile();
+		if (!dir.isDirectory() && !dir.mkdirs() && !dir.isDirectory()) {
+			throw new IOException("Cannot create " + dir);
+		}
+
+		// written to a new file first, so that no half written file is read
+		final File temp = File.createTempFile("map", ".tmp", dir);
+		try {
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.writeInt(hash.length);
+				out.write(hash);
+				out.writeInt(map.getWidth());
+				out.writeInt(map.getHeight());
+				out.writeInt(map.getTilesets().size());
+				for (final TileSetDefinition set : map.getTilesets()) {
+					writeString(out, set.getName());
+					writeString(out, set.getSource());
+					out.writeInt(set.getFirstGid());
+				}
+				out.writeInt(map.getLayers().size());
+				for (final LayerDefinition layer : map.getLayers()) {
+					if (4 * layer.getWidth() * layer.getHeight() > MAX_ENCODED_LAYER) {
+						writePlainLayer(out, layer);
+					} else {
+						final byte[] encoded = layer.encode();
+						out.writeInt(encoded.length);
+						out.write(encoded);
+					}
+				}
+			}
+			Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} finally {
+			if (temp.exists() && !temp.delete()) {
+				temp.deleteOnExit();
+			}
+		}
+	}
+
+	private static LayerDefinition readPlainLayer(final ByteBuffer buffer) throws DataFormatException {
+		final String name = readString(buffer);
+		final LayerDefinition layer = new LayerDefinition(buffer.getInt(), buffer.getInt());
+		layer.setName(name);
+		final byte[] compressed = new byte[buffer.getInt()];
+		buffer.get(compressed);
+		final byte[] raw = layer.exposeRaw();
+		final Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(compressed);
+			if (inflater.inflate(raw) != raw.length) {
+				throw new DataFormatException("Truncated layer " + name);
+			}
+		} finally {
+			inflater.end();
+		}
+		layer.build();
+		return layer;
+	}
+
+	private static void writePlainLayer(final DataOutputStream out, final LayerDefinition layer) throws IOException {
+		final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		try (DeflaterOutputStream deflater = new DeflaterOutputStream(compressed)) {
+			deflater.write(layer.exposeRaw());
+		}
+		out.writeInt(-1);
+		writeString(out, layer.getName());
+		out.writeInt(layer.getWidth());
+		out.writeInt(layer.getHeight());
+		out.writeInt(compressed.size());
+		compressed.writeTo(out);
+	}
+
+	private static String readString(final ByteBuffer buffer) {
+		final int length = buffer.getInt();
+		if (length < 0) {
+			return null;
+		}
+		final byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static void writeString(final DataOutputStream out, final String string) throws IOException {
+		if (string == null) {
+			out.writeInt(-1);
+			return;
+		}
+		final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+}
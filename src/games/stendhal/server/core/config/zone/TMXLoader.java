@@ -14,6 +14,7 @@ package games.stendhal.server.core.config.zone;
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
@@ -250,10 +251,32 @@ public class TMXLoader {
 	}
 
 	public StendhalMapStructure readMap(final String filename) throws Exception {
+		return readMap(filename, open(filename));
+	}
+
+	private StendhalMapStructure readMap(final String filename, final InputStream in) throws Exception {
 		xmlPath = filename.substring(0,
 				filename.lastIndexOf(File.separatorChar) + 1);
 
-		InputStream is = getClass().getClassLoader().getResourceAsStream(
+		InputStream is = in;
+
+		// Wrap with GZIP decoder for .tmx.gz files
+		if (filename.endsWith(".gz")) {
+			is = new GZIPInputStream(is);
+		}
+
+		return unmarshal(is);
+	}
+
+	/**
+	 * Opens a map file, from the class path or from the file system.
+	 *
+	 * @param filename name of the map file
+	 * @return the file contents as they are stored, not unzipped
+	 * @throws IOException if the file cannot be opened
+	 */
+	public static InputStream open(final String filename) throws IOException {
+		InputStream is = TMXLoader.class.getClassLoader().getResourceAsStream(
 				filename);
 
 		if (is == null) {
@@ -264,12 +287,7 @@ public class TMXLoader {
 			is = url.openStream();
 		}
 
-		// Wrap with GZIP decoder for .tmx.gz files
-		if (filename.endsWith(".gz")) {
-			is = new GZIPInputStream(is);
-		}
-
-		return unmarshal(is);
+		return is;
 	}
 
 	public static void main(final String[] args) throws Exception {
@@ -321,4 +339,16 @@ public class TMXLoader {
 	public static StendhalMapStructure load(final String filename) throws Exception {
 		return new TMXLoader().readMap(filename);
 	}
+
+	/**
+	 * Loads a map from the contents of its file.
+	 *
+	 * @param filename name of the map file
+	 * @param contents the file contents as returned by {@link #open(String)}
+	 * @return the map
+	 * @throws Exception if the map cannot be read
+	 */
+	public static StendhalMapStructure load(final String filename, final byte[] contents) throws Exception {
+		return new TMXLoader().readMap(filename, new ByteArrayInputStream(contents));
+	}
 }
@@ -0,0 +1,371 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine;
+
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import games.stendhal.server.entity.Entity;
+import games.stendhal.server.entity.creature.Creature;
+import games.stendhal.server.entity.creature.DomesticAnimal;
+import games.stendhal.server.entity.player.Player;
+
+/**
+ * Uniform grid over the tiles of a zone, so that position based entity
+ * lookups only have to look at entities near that position.
+ *
+ * <p>Each cell covers {@value #CELL_SIZE}x{@value #CELL_SIZE} tiles and
+ * lists all entities overlapping it. Entities which are at least partially
+ * outside of the zone are kept in a separate list which is checked by every
+ * query. The grid also counts the players, creatures and domestic animals
+ * it contains.</p>
+ */
+final class EntityGrid {
+
+	private static final int CELL_BITS = 3;
+
+	/** width and height of a cell in tiles */
+	static final int CELL_SIZE = 1 << CELL_BITS;
+
+	private int width;
+
+	private int height;
+
+	private int columns;
+
+	private int rows;
+
+	private List<Entity>[] cells = createCells(0);
+
+	/** entities which are not completely inside the zone */
+	private final List<Entity> outside = new ArrayList<Entity>();
+
+	/** cells covered by each entity */
+	private final Map<Entity, Placement> placements = new IdentityHashMap<Entity, Placement>();
+
+	private int players;
+
+	private int creatures;
+
+	private int animals;
+
+	/**
+	 * Adapts the grid to the size of the zone. This is cheap if the size
+	 * did not change.
+	 *
+	 * @param width width of the zone in tiles
+	 * @param height height of the zone in tiles
+	 */
+	void resize(final int width, final int height) {
+		if (width == this.width && height == this.height) {
+			return;
+		}
+		this.width = width;
+		this.height = height;
+		columns = (width + CELL_SIZE - 1) >> CELL_BITS;
+		rows = (height + CELL_SIZE - 1) >> CELL_BITS;
+		cells = createCells(columns * rows);
+		outside.clear();
+		for (final Map.Entry<Entity, Placement> entry : placements.entrySet()) {
+			final Placement placement = entry.getValue();
+			place(entry.getKey(), placement);
+			link(entry.getKey(), placement);
+		}
+	}
+
+	/**
+	 * Adds an entity.
+	 *
+	 * @param entity entity to add
+	 */
+	void add(final Entity entity) {
+		if (placements.containsKey(entity)) {
+			update(entity);
+			return;
+		}
+		final Placement placement = new Placement();
+		place(entity, placement);
+		link(entity, placement);
+		placements.put(entity, placement);
+		count(entity, 1);
+	}
+
+	/**
+	 * Removes an entity.
+	 *
+	 * @param entity entity to remove
+	 */
+	void remove(final Entity entity) {
+		final Placement placement = placements.remove(entity);
+		if (placement != null) {
+			unlink(entity, placement.minColumn, placement.minRow, placement.maxColumn,
+					placement.maxRow, placement.outside);
+			count(entity, -1);
+		}
+	}
+
+	/**
+	 * Updates the cells of an entity after it moved or changed its size.
+	 *
+	 * @param entity entity to update
+	 */
+	void update(final Entity entity) {
+		final Placement placement = placements.get(entity);
+		if (placement == null) {
+			return;
+		}
+		final int minColumn = placement.minColumn;
+		final int minRow = placement.minRow;
+		final int maxColumn = placement.maxColumn;
+		final int maxRow = placement.maxRow;
+		final boolean wasOutside = placement.outside;
+		place(entity, placement);
+		if (minColumn == placement.minColumn && minRow == placement.minRow
+				&& maxColumn == placement.maxColumn && maxRow == placement.maxRow
+				&& wasOutside == placement.outside) {
+			return;
+		}
+
+		unlink(entity, minColumn, minRow, maxColumn, maxRow, wasOutside);
+		link(entity, placement);
+	}
+
+	/**
+	 * Finds the first entity that blocks the given entity in an area.
+	 *
+	 * @param entity entity which wants to occupy the area
+	 * @param area area to check
+	 * @return a blocking entity, or <code>null</code>
+	 */
+	Entity getCollidingEntity(final Entity entity, final Rectangle2D area) {
+		final Entity res = getCollidingEntity(entity, area, outside);
+		if (res != null || cells.length == 0) {
+			return res;
+		}
+		final int minColumn = clamp(column(Math.floor(area.getX())), columns);
+		final int maxColumn = clamp(column(Math.ceil(area.getMaxX()) - 1), columns);
+		final int minRow = clamp(row(Math.floor(area.getY())), rows);
+		final int maxRow = clamp(row(Math.ceil(area.getMaxY()) - 1), rows);
+		for (int row = minRow; row <= maxRow; row++) {
+			for (int column = minColumn; column <= maxColumn; column++) {
+				final List<Entity> cell = cells[row * columns + column];
+				if (cell != null) {
+					final Entity found = getCollidingEntity(entity, area, cell);
+					if (found != null) {
+						return found;
+					}
+				}
+			}
+		}
+		return null;
+	}
+
+	private static Entity getCollidingEntity(final Entity entity, final Rectangle2D area, final List<Entity> candidates) {
+		for (int i = 0; i < candidates.size(); i++) {
+			final Entity other = candidates.get(i);
+			// Ignore same object
+			if (entity != other) {
+				// Check if the objects overlap
+				if (area.intersects(other.getX(), other.getY(), other.getWidth(), other.getHeight())) {
+					// Check if it's blocking
+					if (other.isObstacle(entity)) {
+						return other;
+					}
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Collects the entities covering a position.
+	 *
+	 * @param x x coordinate
+	 * @param y y coordinate
+	 * @param clazz required class of the entities
+	 * @param result collection to add the found entities to
+	 * @param first <code>true</code> to stop after the first found entity
+	 */
+	<T extends Entity> void getEntitiesAt(final double x, final double y, final Class<T> clazz,
+			final Collection<T> result, final boolean first) {
+		if (getEntitiesAt(x, y, clazz, result, first, outside)) {
+			return;
+		}
+		final int column = column(Math.floor(x));
+		final int row = row(Math.floor(y));
+		if (column < 0 || column >= columns || row < 0 || row >= rows) {
+			return;
+		}
+		final List<Entity> cell = cells[row * columns + column];
+		if (cell != null) {
+			getEntitiesAt(x, y, clazz, result, first, cell);
+		}
+	}
+
+	private static <T extends Entity> boolean getEntitiesAt(final double x, final double y, final Class<T> clazz,
+			final Collection<T> result, final boolean first, final List<Entity> candidates) {
+		for (int i = 0; i < candidates.size(); i++) {
+			final Entity entity = candidates.get(i);
+			if (clazz.isInstance(entity) && entity.getArea().contains(x, y)) {
+				result.add(clazz.cast(entity));
+				if (first) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Gets the number of players.
+	 *
+	 * @return number of players
+	 */
+	int getPlayerCount() {
+		return players;
+	}
+
+	/**
+	 * Gets the number of creatures, including domestic animals.
+	 *
+	 * @return number of creatures
+	 */
+	int getCreatureCount() {
+		return creatures;
+	}
+
+	/**
+	 * Gets the number of domestic animals.
+	 *
+	 * @return number of domestic animals
+	 */
+	int getAnimalCount() {
+		return animals;
+	}
+
+	private void count(final Entity entity, final int diff) {
+		if (entity instanceof Player) {
+			players += diff;
+		}
+		if (entity instanceof Creature) {
+			creatures += diff;
+		}
+		if (entity instanceof DomesticAnimal) {
+			animals += diff;
+		}
+	}
+
+	/**
+	 * Calculates the cells covered by an entity.
+	 *
+	 * @param entity entity
+	 * @param placement placement to store the cells in
+	 */
+	private void place(final Entity entity, final Placement placement) {
+		final double x = entity.getX();
+		final double y = entity.getY();
+		final int minX = (int) Math.floor(x);
+		final int minY = (int) Math.floor(y);
+		final int maxX = Math.max(minX, (int) Math.ceil(x + entity.getWidth()) - 1);
+		final int maxY = Math.max(minY, (int) Math.ceil(y + entity.getHeight()) - 1);
+		placement.outside = (minX < 0) || (minY < 0) || (maxX >= width) || (maxY >= height);
+		placement.minColumn = clamp(column(minX), columns);
+		placement.maxColumn = clamp(column(maxX), columns);
+		placement.minRow = clamp(row(minY), rows);
+		placement.maxRow = clamp(row(maxY), rows);
+	}
+
+	private void link(final Entity entity, final Placement placement) {
+		if (placement.outside) {
+			outside.add(entity);
+			return;
+		}
+		for (int row = placement.minRow; row <= placement.maxRow; row++) {
+			for (int column = placement.minColumn; column <= placement.maxColumn; column++) {
+				final int index = row * columns + column;
+				List<Entity> cell = cells[index];
+				if (cell == null) {
+					cell = new ArrayList<Entity>(4);
+					cells[index] = cell;
+				}
+				cell.add(entity);
+			}
+		}
+	}
+
+	private void unlink(final Entity entity, final int minColumn, final int minRow,
+			final int maxColumn, final int maxRow, final boolean wasOutside) {
+		if (wasOutside) {
+			removeIdentical(outside, entity);
+			return;
+		}
+		for (int row = minRow; row <= maxRow; row++) {
+			for (int column = minColumn; column <= maxColumn; column++) {
+				final List<Entity> cell = cells[row * columns + column];
+				if (cell != null) {
+					removeIdentical(cell, entity);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Removes an entity from a list by identity. Entities compare equal by
+	 * their attributes, so List.remove(Object) could remove the wrong one.
+	 *
+	 * @param list list to remove from
+	 * @param entity entity to remove
+	 */
+	private static void removeIdentical(final List<Entity> list, final Entity entity) {
+		for (int i = list.size() - 1; i >= 0; i--) {
+			if (list.get(i) == entity) {
+				// order does not matter, so avoid shifting the other entries
+				final int last = list.size() - 1;
+				list.set(i, list.get(last));
+				list.remove(last);
+				return;
+			}
+		}
+	}
+
+	private static int column(final double x) {
+		return ((int) x) >> CELL_BITS;
+	}
+
+	private static int row(final double y) {
+		return ((int) y) >> CELL_BITS;
+	}
+
+	private static int clamp(final int value, final int count) {
+		return Math.max(0, Math.min(count - 1, value));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<Entity>[] createCells(final int count) {
+		return new List[count];
+	}
+
+	/**
+	 * Cells covered by an entity.
+	 */
+	private static final class Placement {
+		private int minColumn;
+		private int minRow;
+		private int maxColumn;
+		private int maxRow;
+		private boolean outside;
+	}
+}
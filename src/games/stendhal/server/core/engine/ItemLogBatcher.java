@@ -0,0 +1,152 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.apache.log4j.Logger;
+
+import games.stendhal.server.core.engine.dbcommand.AbstractLogItemEventCommand;
+import games.stendhal.server.core.engine.dbcommand.LogItemEventBatchCommand;
+import games.stendhal.server.core.events.TurnListener;
+import games.stendhal.server.core.events.TurnNotifier;
+import marauroa.server.db.command.DBCommandPriority;
+import marauroa.server.db.command.DBCommandQueue;
+import marauroa.server.game.Statistics;
+
+/**
+ * Collects the item log events of a few turns, so that they are written in
+ * one database transaction instead of one transaction each.
+ *
+ * <p>A batch is handed to the database queue when it is full, or a few turns
+ * after its first event. The game loop must not wait for the database, so if
+ * the database falls behind, the partial batches are held back until they
+ * are full. That way there are fewer and larger transactions while the
+ * database catches up.</p>
+ */
+public final class ItemLogBatcher implements TurnListener {
+	private static final Logger logger = Logger.getLogger(ItemLogBatcher.class);
+
+	/** Maximum number of events in a batch */
+	static final int BATCH_SIZE = 250;
+
+	/** Turns a batch collects events before it is written, about one second */
+	static final int FLUSH_TURNS = 3;
+
+	/** Events waiting to be written, above which partial batches are held back */
+	static final int MAX_OUTSTANDING = 2000;
+
+	private static ItemLogBatcher instance;
+
+	/** Receives the full batches */
+	private final Consumer<LogItemEventBatchCommand> queue;
+
+	private List<AbstractLogItemEventCommand> pending = new ArrayList<AbstractLogItemEventCommand>();
+
+	/** <code>true</code> if a flush is scheduled */
+	private boolean scheduled;
+
+	/** <code>true</code> while partial batches are held back */
+	private boolean holdingBack;
+
+	/**
+	 * Gets the batcher that writes to the database queue.
+	 *
+	 * @return ItemLogBatcher
+	 */
+	public static synchronized ItemLogBatcher get() {
+		if (instance == null) {
+			instance = new ItemLogBatcher(command -> DBCommandQueue.get().enqueue(command, DBCommandPriority.LOW));
+		}
+		return instance;
+	}
+
+	/**
+	 * Creates a new ItemLogBatcher.
+	 *
+	 * @param queue receiver of the batches
+	 */
+	ItemLogBatcher(final Consumer<LogItemEventBatchCommand> queue) {
+		this.queue = queue;
+	}
+
+	/**
+	 * Adds an event to the current batch.
+	 *
+	 * @param command event
+	 */
+	public synchronized void add(final AbstractLogItemEventCommand command) {
+		// the time of the event, not the time of the batch
+		command.setEnqueueTime(new Timestamp(System.currentTimeMillis()));
+		pending.add(command);
+		if (pending.size() >= BATCH_SIZE) {
+			flush();
+		} else if (!scheduled) {
+			scheduled = true;
+			TurnNotifier.get().notifyInTurns(FLUSH_TURNS, this);
+		}
+	}
+
+	@Override
+	public synchronized void onTurnReached(final int currentTurn) {
+		scheduled = false;
+		if (pending.isEmpty()) {
+			return;
+		}
+		final int outstanding = LogItemEventBatchCommand.getOutstandingEvents();
+		if (outstanding > MAX_OUTSTANDING) {
+			if (!holdingBack) {
+				holdingBack = true;
+				logger.warn("Item log is behind by " + outstanding + " events, writing full batches only");
+			}
+			scheduled = true;
+			TurnNotifier.get().notifyInTurns(FLUSH_TURNS, this);
+			updateStatistics();
+			return;
+		}
+		if (holdingBack) {
+			holdingBack = false;
+			logger.info("Item log caught up");
+		}
+		flush();
+	}
+
+	/**
+	 * Hands the current batch to the database queue, even if it is not full.
+	 */
+	public synchronized void flush() {
+		if (!pending.isEmpty()) {
+			final List<AbstractLogItemEventCommand> batch = pending;
+			pending = new ArrayList<AbstractLogItemEventCommand>();
+			queue.accept(new LogItemEventBatchCommand(batch));
+		}
+		updateStatistics();
+	}
+
+	/**
+	 * Gets the number of events in the current batch.
+	 *
+	 * @return number of events
+	 */
+	synchronized int getPendingEvents() {
+		return pending.size();
+	}
+
+	private void updateStatistics() {
+		final Statistics statistics = Statistics.getStatistics();
+		statistics.set("Item log queue", pending.size() + LogItemEventBatchCommand.getOutstandingEvents());
+		statistics.set("Item log write ms", LogItemEventBatchCommand.getLastWriteMillis());
+	}
+}
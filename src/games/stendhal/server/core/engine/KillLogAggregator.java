@@ -0,0 +1,143 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.function.Consumer;
+
+import games.stendhal.server.core.engine.db.KillLogBatch;
+import games.stendhal.server.core.engine.db.StendhalKillLogDAO;
+import games.stendhal.server.core.engine.dbcommand.LogKillBatchCommand;
+import games.stendhal.server.core.events.TurnListener;
+import games.stendhal.server.core.events.TurnNotifier;
+import games.stendhal.server.entity.Entity;
+import games.stendhal.server.entity.Killer;
+import marauroa.server.db.command.DBCommandPriority;
+import marauroa.server.db.command.DBCommandQueue;
+import marauroa.server.game.Statistics;
+import marauroa.server.game.db.DAORegister;
+
+/**
+ * Sums up the kills in memory, so that each row of the kills table is
+ * updated once every half minute instead of once per kill.
+ *
+ * <p>The counts are handed to the database queue about 30 seconds after the
+ * first kill of a batch, or earlier when the batch changes many rows, and
+ * when the world shuts down. Each batch is written in one transaction, so
+ * either all of its counts are added or none.</p>
+ *
+ * <p>If the server crashes, the kills since the last flush are lost, at most
+ * about 30 seconds worth. The kills table is a statistic, and the
+ * achievements and quests do not use it, so that is acceptable. A batch
+ * that fails to write is lost as well, just like a single kill was
+ * before.</p>
+ */
+public final class KillLogAggregator implements TurnListener {
+
+	/** Turns a batch collects kills before it is written, about 30 seconds */
+	static final int FLUSH_TURNS = 100;
+
+	/** Rows of the kills table in a batch, above which it is written at once */
+	static final int MAX_ROWS = 1000;
+
+	private static KillLogAggregator instance;
+
+	/** Receives the batches */
+	private final Consumer<LogKillBatchCommand> queue;
+
+	private final SimpleDateFormat dayFormat = new SimpleDateFormat("yyyy-MM-dd");
+
+	private KillLogBatch pending = new KillLogBatch();
+
+	/** <code>true</code> if a flush is scheduled */
+	private boolean scheduled;
+
+	/**
+	 * Gets the aggregator that writes to the database queue.
+	 *
+	 * @return KillLogAggregator
+	 */
+	public static synchronized KillLogAggregator get() {
+		if (instance == null) {
+			instance = new KillLogAggregator(command -> DBCommandQueue.get().enqueue(command, DBCommandPriority.LOW));
+		}
+		return instance;
+	}
+
+	/**
+	 * Creates a new KillLogAggregator.
+	 *
+	 * @param queue receiver of the batches
+	 */
+	KillLogAggregator(final Consumer<LogKillBatchCommand> queue) {
+		this.queue = queue;
+	}
+
+	/**
+	 * Counts a kill.
+	 *
+	 * @param killed killed entity
+	 * @param killer killer
+	 */
+	public void add(final Entity killed, final Killer killer) {
+		final StendhalKillLogDAO killLog = DAORegister.get().get(StendhalKillLogDAO.class);
+		add(killed.getName(), killLog.entityToType(killed), killer.getName(), killLog.entityToType(killer));
+	}
+
+	/**
+	 * Counts a kill.
+	 *
+	 * @param killed name of the killed entity
+	 * @param killedType type of the killed entity
+	 * @param killer name of the killer
+	 * @param killerType type of the killer
+	 */
+	synchronized void add(final String killed, final String killedType, final String killer, final String killerType) {
+		// the day of the kill, not the day of the flush
+		pending.add(killed, killedType, killer, killerType, dayFormat.format(new Date()));
+		if (pending.getRows() >= MAX_ROWS) {
+			flush();
+		} else if (!scheduled) {
+			scheduled = true;
+			TurnNotifier.get().notifyInTurns(FLUSH_TURNS, this);
+		}
+	}
+
+	@Override
+	public synchronized void onTurnReached(final int currentTurn) {
+		scheduled = false;
+		flush();
+	}
+
+	/**
+	 * Hands the current batch to the database queue.
+	 */
+	public synchronized void flush() {
+		if (!pending.isEmpty()) {
+			final KillLogBatch batch = pending;
+			pending = new KillLogBatch();
+			queue.accept(new LogKillBatchCommand(batch));
+		}
+		// the rows and the write time are published when the batch is written
+		Statistics.getStatistics().set("Kill log queue", LogKillBatchCommand.getOutstandingKills());
+	}
+
+	/**
+	 * Gets the number of kills in the current batch.
+	 *
+	 * @return number of kills
+	 */
+	synchronized int getPendingKills() {
+		return pending.getKills();
+	}
+}
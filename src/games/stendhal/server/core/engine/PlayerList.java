@@ -11,7 +11,11 @@
  ***************************************************************************/
 package games.stendhal.server.core.engine;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -35,6 +39,12 @@ public class PlayerList {
 
 	private final Map<String, Player> players;
 
+	/**
+	 * The online players by the names on their buddy lists, so that buddies
+	 * can be notified without checking every player.
+	 */
+	private final Map<String, List<Player>> buddyIndex = new HashMap<String, List<Player>>();
+
 	/**
 	 * Retrieve from this list a player specified by its name.
 	 *
@@ -114,7 +124,13 @@ public class PlayerList {
 		final String playerName = player.getName();
 
 		if (playerName != null) {
-			players.put(playerName.toLowerCase(), player);
+			final Player old = players.put(playerName.toLowerCase(), player);
+			if ((old != null) && (old != player)) {
+				unindexBuddies(old);
+			}
+			if (old != player) {
+				indexBuddies(player);
+			}
 		} else {
 			throw new IllegalArgumentException("can't add player without name");
 		}
@@ -130,7 +146,11 @@ public class PlayerList {
 		final String playerName = player.getName();
 
 		if (playerName != null) {
-			return players.remove(playerName.toLowerCase()) != null;
+			final Player removed = players.remove(playerName.toLowerCase());
+			if (removed != null) {
+				unindexBuddies(removed);
+			}
+			return removed != null;
 		} else {
 			throw new IllegalArgumentException("can't remove player without name");
 		}
@@ -145,4 +165,119 @@ public class PlayerList {
 		return players.values();
 	}
 
+	/**
+	 * Gets the online players that have a name on their buddy list.
+	 *
+	 * @param buddyName name of the buddy
+	 * @return players having the buddy
+	 */
+	public List<Player> getPlayersWithBuddy(final String buddyName) {
+		synchronized (buddyIndex) {
+			final List<Player> list = buddyIndex.get(buddyName);
+			if (list == null) {
+				return Collections.emptyList();
+			}
+			return new ArrayList<Player>(list);
+		}
+	}
+
+	/**
+	 * Updates the buddy index after a player added a buddy.
+	 *
+	 * @param player player whose buddy list changed
+	 * @param buddyName name of the new buddy
+	 */
+	public void onBuddyAdded(final Player player, final String buddyName) {
+		if (!isListed(player)) {
+			return;
+		}
+		synchronized (buddyIndex) {
+			List<Player> list = buddyIndex.get(buddyName);
+			if (list == null) {
+				list = new ArrayList<Player>(1);
+				buddyIndex.put(buddyName, list);
+			}
+			if (!containsSame(list, player)) {
+				list.add(player);
+			}
+		}
+	}
+
+	/**
+	 * Updates the buddy index after a player removed a buddy.
+	 *
+	 * @param player player whose buddy list changed
+	 * @param buddyName name of the removed buddy
+	 */
+	public void onBuddyRemoved(final Player player, final String buddyName) {
+		if (!isListed(player)) {
+			return;
+		}
+		synchronized (buddyIndex) {
+			removeFromIndex(player, buddyName);
+		}
+	}
+
+	/**
+	 * Checks if this exact player object is in the list.
+	 *
+	 * @param player player
+	 * @return <code>true</code> if the player is in the list
+	 */
+	private boolean isListed(final Player player) {
+		final String playerName = player.getName();
+		return (playerName != null) && (players.get(playerName.toLowerCase()) == player);
+	}
+
+	private void indexBuddies(final Player player) {
+		if (!player.hasMap("buddies")) {
+			return;
+		}
+		synchronized (buddyIndex) {
+			for (final String buddyName : player.getMap("buddies").keySet()) {
+				List<Player> list = buddyIndex.get(buddyName);
+				if (list == null) {
+					list = new ArrayList<Player>(1);
+					buddyIndex.put(buddyName, list);
+				}
+				list.add(player);
+			}
+		}
+	}
+
+	private void unindexBuddies(final Player player) {
+		if (!player.hasMap("buddies")) {
+			return;
+		}
+		synchronized (buddyIndex) {
+			for (final String buddyName : player.getMap("buddies").keySet()) {
+				removeFromIndex(player, buddyName);
+			}
+		}
+	}
+
+	private void removeFromIndex(final Player player, final String buddyName) {
+		final List<Player> list = buddyIndex.get(buddyName);
+		if (list == null) {
+			return;
+		}
+		for (int i = 0; i < list.size(); i++) {
+			if (list.get(i) == player) {
+				list.remove(i);
+				break;
+			}
+		}
+		if (list.isEmpty()) {
+			buddyIndex.remove(buddyName);
+		}
+	}
+
+	private static boolean containsSame(final List<Player> list, final Player player) {
+		for (final Player p : list) {
+			if (p == player) {
+				return true;
+			}
+		}
+		return false;
+	}
 }
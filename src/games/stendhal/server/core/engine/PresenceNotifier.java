@@ -0,0 +1,216 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import games.stendhal.server.entity.player.Player;
+import games.stendhal.server.events.PlayerLoggedOnEvent;
+import games.stendhal.server.events.PlayerLoggedOutEvent;
+import games.stendhal.server.events.PlayerPresenceEvent;
+
+/**
+ * Keeps the lists of online players of the clients up to date. Logins and
+ * logouts are collected during a turn, and sent at the end of the turn with
+ * one event per player. Before, each login sent an event to every player, so
+ * that a crowd logging in after a restart caused a quadratic number of
+ * events.
+ *
+ * Players that logged in get the complete list once their client version is
+ * known, so that the compact event is sent only to clients that understand
+ * it. Older clients get a PlayerLoggedOnEvent or PlayerLoggedOutEvent per
+ * name as before.
+ *
+ * Ghosts are visible only to other ghosts.
+ */
+final class PresenceNotifier {
+	/** Clients newer than this version understand PlayerPresenceEvent. */
+	static final String COMPACT_EVENT_VERSION = "1.44.5";
+	/**
+	 * Number of turns to wait for the client version of a new player, before
+	 * sending the complete list in the old format.
+	 */
+	static final int VERSION_WAIT_TURNS = 10;
+
+	/**
+	 * Logins and logouts since the last flush by player name. The value is
+	 * the player for logins, and <code>null</code> for logouts.
+	 */
+	private final Map<String, Player> changes = new LinkedHashMap<String, Player>();
+	/** Players waiting for the complete list, in login order. */
+	private final List<Newcomer> newcomers = new ArrayList<Newcomer>();
+
+	/**
+	 * A player that logged in and has not got the complete list yet.
+	 */
+	private static class Newcomer {
+		final Player player;
+		final int loginTurn;
+
+		Newcomer(final Player player, final int loginTurn) {
+			this.player = player;
+			this.loginTurn = loginTurn;
+		}
+	}
+
+	/**
+	 * Records a login. The player must be in the list of online players.
+	 *
+	 * @param player player that logged in
+	 * @param turn current turn
+	 */
+	void onLoggedIn(final Player player, final int turn) {
+		changes.put(player.getName(), player);
+		newcomers.add(new Newcomer(player, turn));
+	}
+
+	/**
+	 * Records a logout.
+	 *
+	 * @param player player that logged out
+	 */
+	void onLoggedOut(final Player player) {
+		changes.put(player.getName(), null);
+		final Iterator<Newcomer> it = newcomers.iterator();
+		while (it.hasNext()) {
+			if (it.next().player == player) {
+				it.remove();
+			}
+		}
+	}
+
+	/**
+	 * Sends the changes since the last flush to the online players.
+	 *
+	 * @param onlinePlayers the online players
+	 * @param turn current turn
+	 */
+	void flush(final Collection<Player> onlinePlayers, final int turn) {
+		final Set<Player> waiting = Collections.newSetFromMap(new IdentityHashMap<Player, Boolean>());
+		final Set<Player> ready = Collections.newSetFromMap(new IdentityHashMap<Player, Boolean>());
+		final Iterator<Newcomer> it = newcomers.iterator();
+		while (it.hasNext()) {
+			final Newcomer newcomer = it.next();
+			if ((newcomer.player.getClientVersion() != null) || (turn - newcomer.loginTurn >= VERSION_WAIT_TURNS)) {
+				ready.add(newcomer.player);
+				it.remove();
+			} else {
+				waiting.add(newcomer.player);
+			}
+		}
+		if (changes.isEmpty() && ready.isEmpty()) {
+			return;
+		}
+
+		final Delta delta = new Delta();
+		for (final Map.Entry<String, Player> entry : changes.entrySet()) {
+			final Player player = entry.getValue();
+			if (player == null) {
+				delta.left.add(entry.getKey());
+			} else {
+				delta.addJoined(player);
+			}
+		}
+		changes.clear();
+
+		Delta all = null;
+		if (!ready.isEmpty()) {
+			all = new Delta();
+			for (final Player player : onlinePlayers) {
+				all.addJoined(player);
+			}
+		}
+
+		for (final Player recipient : onlinePlayers) {
+			if (waiting.contains(recipient)) {
+				// gets the complete list later
+				continue;
+			}
+			if (ready.contains(recipient)) {
+				all.sendTo(recipient);
+			} else {
+				delta.sendTo(recipient);
+			}
+		}
+	}
+
+	/**
+	 * Names of players that logged in and out.
+	 */
+	private static class Delta {
+		/** Players visible to everyone. */
+		final List<String> joinedVisible = new ArrayList<String>();
+		/** Ghosts, visible only to other ghosts. */
+		final List<String> joinedGhosts = new ArrayList<String>();
+		final List<String> left = new ArrayList<String>();
+		/** Compact event contents, created when needed. */
+		private String joinedVisibleText;
+		private String joinedAllText;
+		private String leftText;
+
+		void addJoined(final Player player) {
+			if (player.isGhost()) {
+				joinedGhosts.add(player.getName());
+			} else {
+				joinedVisible.add(player.getName());
+			}
+		}
+
+		/**
+		 * Sends the changes visible to a player.
+		 *
+		 * @param recipient receiving player
+		 */
+		void sendTo(final Player recipient) {
+			final boolean ghost = recipient.isGhost();
+			if (left.isEmpty() && joinedVisible.isEmpty() && (!ghost || joinedGhosts.isEmpty())) {
+				return;
+			}
+
+			if (recipient.isClientNewerThan(COMPACT_EVENT_VERSION)) {
+				if (leftText == null) {
+					leftText = String.join(",", left);
+					joinedVisibleText = String.join(",", joinedVisible);
+					if (joinedGhosts.isEmpty()) {
+						joinedAllText = joinedVisibleText;
+					} else if (joinedVisible.isEmpty()) {
+						joinedAllText = String.join(",", joinedGhosts);
+					} else {
+						joinedAllText = joinedVisibleText + "," + String.join(",", joinedGhosts);
+					}
+				}
+				recipient.addEvent(new PlayerPresenceEvent(ghost ? joinedAllText : joinedVisibleText, leftText));
+			} else {
+				for (final String name : left) {
+					recipient.addEvent(new PlayerLoggedOutEvent(name));
+				}
+				for (final String name : joinedVisible) {
+					recipient.addEvent(new PlayerLoggedOnEvent(name));
+				}
+				if (ghost) {
+					for (final String name : joinedGhosts) {
+						recipient.addEvent(new PlayerLoggedOnEvent(name));
+					}
+				}
+			}
+			recipient.notifyWorldAboutChanges();
+		}
+	}
+}
@@ -25,6 +25,7 @@ import games.stendhal.server.core.engine.db.PostmanDAO;
 import games.stendhal.server.core.engine.db.StendhalBuddyDAO;
 import games.stendhal.server.core.engine.db.StendhalCharacterDAO;
 import games.stendhal.server.core.engine.db.StendhalCreatureDAO;
+import games.stendhal.server.core.engine.db.StendhalDumpHashDAO;
 import games.stendhal.server.core.engine.db.StendhalGroupQuestDAO;
 import games.stendhal.server.core.engine.db.StendhalHallOfFameDAO;
 import games.stendhal.server.core.engine.db.StendhalItemDAO;
@@ -305,5 +306,6 @@ public class StendhalPlayerDatabase {
 		DAORegister.get().register(StendhalRPZoneDAO.class, new StendhalRPZoneDAO());
 		DAORegister.get().register(StendhalShopDAO.class, new StendhalShopDAO());
 		DAORegister.get().register(StendhalSearchIndexDAO.class, new StendhalSearchIndexDAO());
+		DAORegister.get().register(StendhalDumpHashDAO.class, new StendhalDumpHashDAO());
 	}
 }
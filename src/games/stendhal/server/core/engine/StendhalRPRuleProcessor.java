@@ -49,14 +49,11 @@ import games.stendhal.server.entity.npc.NPCList;
 import games.stendhal.server.entity.npc.behaviour.impl.OutfitChangerBehaviour.ExpireOutfit;
 import games.stendhal.server.entity.player.AfkTimeouter;
 import games.stendhal.server.entity.player.Player;
-import games.stendhal.server.events.PlayerLoggedOnEvent;
-import games.stendhal.server.events.PlayerLoggedOutEvent;
 import games.stendhal.server.extension.StendhalServerExtension;
 import marauroa.common.Configuration;
 import marauroa.common.Pair;
 import marauroa.common.game.AccountResult;
 import marauroa.common.game.CharacterResult;
-import marauroa.common.game.IRPZone;
 import marauroa.common.game.RPAction;
 import marauroa.common.game.RPObject;
 import marauroa.common.io.UnicodeSupportingInputStreamReader;
@@ -106,6 +103,12 @@ public class StendhalRPRuleProcessor implements IRPRuleProcessor {
 
 	private LinkedList<marauroa.server.game.rp.GameEvent> gameEvents = new LinkedList<>();
 
+	/** runs the logic of the zones at the end of each turn */
+	private final ZoneLogicRunner zoneLogic;
+
+	/** tells the players about logins and logouts once per turn */
+	private final PresenceNotifier presenceNotifier = new PresenceNotifier();
+
 
 	/**
 	 * gets the singleton instance of StendhalRPRuleProcessor
@@ -132,6 +135,7 @@ public class StendhalRPRuleProcessor implements IRPRuleProcessor {
 		onlinePlayers = new PlayerList();
 		playersRmText = new LinkedList<Player>();
 		entityToKill = new LinkedList<Pair<RPEntity, Entity>>();
+		zoneLogic = ZoneLogicRunner.create();
 	}
 
 	/**
@@ -223,6 +227,9 @@ public class StendhalRPRuleProcessor implements IRPRuleProcessor {
 	 * @param killer
 	 */
 	public void killRPEntity(final RPEntity entity, final Entity killer) {
+		if (ZoneLogicRunner.defer(() -> killRPEntity(entity, killer))) {
+			return;
+		}
 		entityToKill.add(new Pair<RPEntity, Entity>(entity, killer));
 	}
 
@@ -246,6 +253,9 @@ public class StendhalRPRuleProcessor implements IRPRuleProcessor {
 	}
 
 	public void removePlayerText(final Player player) {
+		if (ZoneLogicRunner.defer(() -> removePlayerText(player))) {
+			return;
+		}
 		playersRmText.add(player);
 	}
 
@@ -393,16 +403,17 @@ public class StendhalRPRuleProcessor implements IRPRuleProcessor {
 
 			SingletonRepository.getTurnNotifier().logic(currentTurn);
 
-			for (final IRPZone zoneI : SingletonRepository.getRPWorld()) {
-				final StendhalRPZone zone = (StendhalRPZone) zoneI;
-				zone.logic();
-			}
-
-			// run registered object's logic method for this turn
+			// run the logic of the zones, maybe in parallel
+			zoneLogic.logic(SingletonRepository.getRPWorld());
 
 		} catch (final Exception e) {
 			logger.error("error in endTurn", e);
 		}
+		try {
+			presenceNotifier.flush(getOnlinePlayers().getAllPlayers(), currentTurn);
+		} catch (final Exception e) {
+			logger.error("error while sending the online players", e);
+		}
 	}
 
 	/**
@@ -483,7 +494,7 @@ public class StendhalRPRuleProcessor implements IRPRuleProcessor {
 					DBCommand command = new SetOnlineStatusCommand(player.getName(), true);
 					DBCommandQueue.get().enqueue(command);
 				}
-				updatePlayerNameListForPlayersOnLogin(player);
+				presenceNotifier.onLoggedIn(player, getTurn());
 				String[] params = {};
 
 				new GameEvent(player.getName(), "login", params).raise();
@@ -582,7 +593,7 @@ public class StendhalRPRuleProcessor implements IRPRuleProcessor {
 				if (!player.isGhost()) {
 					notifyOnlineStatus(false, player);
 				}
-				updatePlayerNameListForPlayersOnLogout(player);
+				presenceNotifier.onLoggedOut(player);
 
 				Player.destroy(player);
 				getOnlinePlayers().remove(player);
@@ -697,66 +708,15 @@ public class StendhalRPRuleProcessor implements IRPRuleProcessor {
 	 */
 	public void notifyOnlineStatus(final boolean isOnline, final Player playerToNotifyAbout) {
 		if (instance != null) {
-			if (isOnline) {
-				SingletonRepository.getRuleProcessor().getOnlinePlayers().forAllPlayersExecute(new Task<Player>() {
-					@Override
-					public void execute(final Player player) {
-						player.notifyOnline(playerToNotifyAbout.getName());
-					}
-				});
-
-			} else {
-				SingletonRepository.getRuleProcessor().getOnlinePlayers().forAllPlayersExecute(new Task<Player>() {
-					@Override
-					public void execute(final Player player) {
-						player.notifyOffline(playerToNotifyAbout.getName());
-					}
-				});
-			}
-		}
-	}
-
-	/**
-	 * Update all player's lists of online player names on login of a new player
-	 *
-	 * @param playerToNotifyAbout
-	 */
-	private void updatePlayerNameListForPlayersOnLogin(final Player playerToNotifyAbout) {
-		SingletonRepository.getRuleProcessor().getOnlinePlayers().forAllPlayersExecute(new Task<Player>() {
-			@Override
-			public void execute(final Player player) {
-				if(playerToNotifyAbout.isGhost()) {
-					playerToNotifyAbout.addEvent(new PlayerLoggedOnEvent(player.getName()));
-					playerToNotifyAbout.notifyWorldAboutChanges();
-					if (player.isGhost() && (player != playerToNotifyAbout)) {
-						player.addEvent(new PlayerLoggedOnEvent(playerToNotifyAbout.getName()));
-						player.notifyWorldAboutChanges();
-					}
+			final String name = playerToNotifyAbout.getName();
+			for (final Player player : SingletonRepository.getRuleProcessor().getOnlinePlayers().getPlayersWithBuddy(name)) {
+				if (isOnline) {
+					player.notifyOnline(name);
 				} else {
-					player.addEvent(new PlayerLoggedOnEvent(playerToNotifyAbout.getName()));
-					player.notifyWorldAboutChanges();
-					if (!player.isGhost() && (player != playerToNotifyAbout)) {
-						playerToNotifyAbout.addEvent(new PlayerLoggedOnEvent(player.getName()));
-						playerToNotifyAbout.notifyWorldAboutChanges();
-					}
+					player.notifyOffline(name);
 				}
 			}
-		});
-	}
-
-	/**
-	 * Update all player's lists of online player names on login of a new player
-	 *
-	 * @param playerToNotifyAbout
-	 */
-	private void updatePlayerNameListForPlayersOnLogout(final Player playerToNotifyAbout) {
-		SingletonRepository.getRuleProcessor().getOnlinePlayers().forAllPlayersExecute(new Task<Player>() {
-			@Override
-			public void execute(final Player player) {
-				player.addEvent(new PlayerLoggedOutEvent(playerToNotifyAbout.getName()));
-				player.notifyWorldAboutChanges();
-			}
-		});
+		}
 	}
 
 	/**
@@ -765,6 +725,9 @@ public class StendhalRPRuleProcessor implements IRPRuleProcessor {
 	 * @param zone StendhalRPZone to remove
 	 */
 	public void removeZone(final StendhalRPZone zone) {
+		if (ZoneLogicRunner.defer(() -> removeZone(zone))) {
+			return;
+		}
 		zonesToRemove.add(zone);
 	}
 
@@ -794,6 +757,9 @@ public class StendhalRPRuleProcessor implements IRPRuleProcessor {
 	 * @param params parameters
 	 */
 	public void logGameEvent(String source, String event, String... params) {
+		if (ZoneLogicRunner.defer(() -> logGameEvent(source, event, params))) {
+			return;
+		}
 		this.gameEvents.add(new marauroa.server.game.rp.GameEvent(source, event, params));
 
 		// we collect one second of game events and write them as batch to the database
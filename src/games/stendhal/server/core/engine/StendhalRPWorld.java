@@ -180,6 +180,8 @@ public class StendhalRPWorld extends RPWorld {
 	@Override
 	public void onFinish() {
 		super.onFinish();
+		ItemLogBatcher.get().flush();
+		KillLogAggregator.get().flush();
 		new GameEvent("server system", "shutdown").raise();
 		try {
 			//TODO: find a more appropriate way to do this
@@ -55,7 +55,6 @@ import games.stendhal.server.entity.RPEntity;
 import games.stendhal.server.entity.creature.AttackableCreature;
 import games.stendhal.server.entity.creature.BabyDragon;
 import games.stendhal.server.entity.creature.Creature;
-import games.stendhal.server.entity.creature.DomesticAnimal;
 import games.stendhal.server.entity.creature.Sheep;
 import games.stendhal.server.entity.item.Item;
 import games.stendhal.server.entity.mapstuff.area.WalkBlocker;
@@ -129,11 +128,6 @@ public class StendhalRPZone extends MarauroaRPZone {
 
 	private boolean moveToAllowed = true;
 
-	/**
-	 * Objects that implement MovementListener.
-	 */
-	private final List<MovementListener> movementListeners;
-
 
 	private final List<ZoneEnterExitListener> zoneListeners;
 
@@ -144,6 +138,24 @@ public class StendhalRPZone extends MarauroaRPZone {
 	 */
 	private final Set<Item> itemsOnGround;
 
+	/** Spatial index of the entities in this zone. */
+	private final EntityGrid entityGrid = new EntityGrid();
+
+	/** Spatial index of the portals and movement listeners. */
+	private final TriggerGrid triggerGrid = new TriggerGrid();
+
+	/** Walkable areas of the collision map. */
+	private final ZoneConnectivity connectivity = new ZoneConnectivity();
+
+	/** Walkable areas of the collision map and the fixed obstacles. */
+	private final ZoneConnectivity obstacleConnectivity = new ZoneConnectivity();
+
+	/** Decides if the NPCs and portals need their logic. */
+	private final ZoneActivity activity = new ZoneActivity();
+
+	/** turn of the last call of logic(), -1 before the first one */
+	private int lastLogicTurn = -1;
+
 	/** contains data to if a certain area is walkable. */
 	public CollisionDetection collisionMap;
 
@@ -220,7 +232,6 @@ public class StendhalRPZone extends MarauroaRPZone {
 		players = new LinkedList<Player>();
 		playersAndFriends = new LinkedList<RPEntity>();
 
-		movementListeners = new LinkedList<MovementListener>();
 		zoneListeners = new LinkedList<ZoneEnterExitListener>();
 
 		collisionMap = new CollisionDetection();
@@ -307,13 +318,7 @@ public class StendhalRPZone extends MarauroaRPZone {
 	 * @return The portal, or <code>null</code>.
 	 */
 	public Portal getPortal(final int x, final int y) {
-		for (final Portal portal : portals) {
-			if ((portal.getX() == x) && (portal.getY() == y)) {
-				return portal;
-			}
-		}
-
-		return null;
+		return getTriggerGrid().getPortal(x, y);
 	}
 
 	/**
@@ -925,6 +930,10 @@ public class StendhalRPZone extends MarauroaRPZone {
 		 */
 		assignRPObjectID(object);
 		super.add(object);
+		if (object instanceof Entity) {
+			getEntityGrid().add((Entity) object);
+			getConnectivity(obstacleConnectivity).update((Entity) object);
+		}
 
 		notifyAdded(object);
 
@@ -973,6 +982,7 @@ public class StendhalRPZone extends MarauroaRPZone {
 			SingletonRepository.getNPCList().add((SpeakerNPC) object);
 		} else if (object instanceof Portal) {
 			portals.add((Portal) object);
+			getTriggerGrid().add((Portal) object);
 		}
 
 		if (object instanceof NPC) {
@@ -1036,6 +1046,7 @@ public class StendhalRPZone extends MarauroaRPZone {
 			SingletonRepository.getNPCList().remove(((SpeakerNPC) object).getName());
 		} else if (object instanceof Portal) {
 			portals.remove(object);
+			getTriggerGrid().remove((Portal) object);
 		}
 
 		if (object instanceof ZoneEnterExitListener) {
@@ -1046,6 +1057,10 @@ public class StendhalRPZone extends MarauroaRPZone {
 		}
 
 		super.remove(id);
+		if (object instanceof Entity) {
+			getEntityGrid().remove((Entity) object);
+			getConnectivity(obstacleConnectivity).remove((Entity) object);
+		}
 
 		if (object instanceof Item) {
 			final Item item = (Item) object;
@@ -1193,29 +1208,10 @@ public class StendhalRPZone extends MarauroaRPZone {
 		return false;
 	}
 
-	public boolean collidesObjects(final Entity entity, final Rectangle2D area) {
-		// For every other object in this zone, check whether it's in the
+	public synchronized boolean collidesObjects(final Entity entity, final Rectangle2D area) {
+		// For every other object near the area, check whether it's in the
 		// way.
-		return getCollidingObject(entity, area) != null;
-	}
-
-	private Entity getCollidingObject(final Entity entity, final Rectangle2D area) {
-		for (final RPObject other : objects.values()) {
-			// Ignore same object
-			if (entity != other) {
-				final Entity otherEntity = (Entity) other;
-
-				// Check if the objects overlap
-				if (area.intersects(otherEntity.getX(), otherEntity.getY(), otherEntity.getWidth(), otherEntity.getHeight())) {
-					// Check if it's blocking
-					if (otherEntity.isObstacle(entity)) {
-						return otherEntity;
-					}
-				}
-			}
-		}
-
-		return null;
+		return getEntityGrid().getCollidingEntity(entity, area) != null;
 	}
 
 	/**
@@ -1226,15 +1222,12 @@ public class StendhalRPZone extends MarauroaRPZone {
 	 * @return the first entity found if there are more than one or null if there are none
 	 */
 	public synchronized Entity getEntityAt(final double x, final double y) {
-		for (final RPObject other : objects.values()) {
-			final Entity otherEntity = (Entity) other;
-
-			final Rectangle2D rect = otherEntity.getArea();
-			if (rect.contains(x, y)) {
-				return otherEntity;
-			}
+		final List<Entity> entities = new ArrayList<Entity>(1);
+		getEntityGrid().getEntitiesAt(x, y, Entity.class, entities, true);
+		if (entities.isEmpty()) {
+			return null;
 		}
-		return null;
+		return entities.get(0);
 	}
 
 	/**
@@ -1245,16 +1238,7 @@ public class StendhalRPZone extends MarauroaRPZone {
 	 */
 	public synchronized List<Entity> getEntitiesAt(final double x, final double y) {
 		List<Entity> entities = new LinkedList<Entity>();
-
-		for (final RPObject other : objects.values()) {
-			final Entity entity = (Entity) other;
-
-			final Rectangle2D rect = entity.getArea();
-			if (rect.contains(x, y)) {
-				entities.add(entity);
-			}
-		}
-
+		getEntityGrid().getEntitiesAt(x, y, Entity.class, entities, false);
 		return entities;
 	}
 
@@ -1267,20 +1251,94 @@ public class StendhalRPZone extends MarauroaRPZone {
 	 */
 	public synchronized <T extends Entity> List<T> getEntitiesAt(final double x, final double y, Class<T> clazz) {
 		List<T> entities = new LinkedList<T>();
+		getEntityGrid().getEntitiesAt(x, y, clazz, entities, false);
+		return entities;
+	}
 
-		for (final RPObject other : objects.values()) {
-			final Entity entity = (Entity) other;
-			if (!clazz.isInstance(entity)) {
-				continue;
-			}
+	/**
+	 * Updates the spatial index after an entity in this zone changed its
+	 * position, size or resistance. This is called by Entity.
+	 *
+	 * @param entity entity which moved or was resized
+	 */
+	public synchronized void updateEntityArea(final Entity entity) {
+		getEntityGrid().update(entity);
+		getConnectivity(obstacleConnectivity).update(entity);
+		if (entity instanceof Portal) {
+			getTriggerGrid().update((Portal) entity);
+		}
+		if (entity instanceof MovementListener) {
+			getTriggerGrid().update((MovementListener) entity);
+		}
+	}
 
-			final Rectangle2D rect = entity.getArea();
-			if (rect.contains(x, y)) {
-				entities.add(clazz.cast(entity));
-			}
+	/**
+	 * Checks if a destination certainly can not be reached from a position,
+	 * considering only the collision map. This is much cheaper than path
+	 * finding.
+	 *
+	 * @param x start x
+	 * @param y start y
+	 * @param destination destination area
+	 * @return <code>true</code> if there is no path, <code>false</code> if
+	 * 	there may be one
+	 */
+	public synchronized boolean isUnreachable(final int x, final int y, final Rectangle2D destination) {
+		return getConnectivity(connectivity).isUnreachable(x, y, destination);
+	}
+
+	/**
+	 * Checks if a destination certainly can not be reached by an entity,
+	 * considering the collision map and fixed obstacles such as walls, signs
+	 * and closed gates. This is much cheaper than path finding.
+	 *
+	 * @param entity entity looking for a path
+	 * @param x start x
+	 * @param y start y
+	 * @param destination destination area
+	 * @return <code>true</code> if there is no path, <code>false</code> if
+	 * 	there may be one
+	 */
+	public synchronized boolean isUnreachable(final Entity entity, final int x, final int y,
+			final Rectangle2D destination) {
+		// Entities that are not fully resistant can pass through obstacles
+		if (entity.getResistance() > 95) {
+			return getConnectivity(obstacleConnectivity).isUnreachable(x, y, destination);
 		}
+		return isUnreachable(x, y, destination);
+	}
 
-		return entities;
+	/**
+	 * Adapts a connectivity to the current collision map.
+	 *
+	 * @param zoneConnectivity connectivity to adapt
+	 * @return zoneConnectivity
+	 */
+	private ZoneConnectivity getConnectivity(final ZoneConnectivity zoneConnectivity) {
+		zoneConnectivity.setCollisionMap(collisionMap);
+		return zoneConnectivity;
+	}
+
+	/**
+	 * Gets the spatial index of the entities, adapted to the current size
+	 * of the collision map.
+	 *
+	 * @return entity grid
+	 */
+	private EntityGrid getEntityGrid() {
+		entityGrid.resize(collisionMap.getWidth(), collisionMap.getHeight());
+		return entityGrid;
+	}
+
+	/**
+	 * Gets the spatial index of the portals and movement listeners, adapted
+	 * to the current size of the collision map.
+	 *
+	 * @return trigger grid
+	 */
+	private TriggerGrid getTriggerGrid() {
+		triggerGrid.resize(collisionMap.getWidth(), collisionMap.getHeight());
+		return triggerGrid;
 	}
 
 	/**
@@ -1346,16 +1404,11 @@ public class StendhalRPZone extends MarauroaRPZone {
 	 *            The new Y coordinate.
 	 */
 	public void notifyEntered(final ActiveEntity entity, final int newX, final int newY) {
-		Rectangle2D eArea;
-
-		eArea = entity.getArea(newX, newY);
-
-		for (final MovementListener l : movementListeners) {
-			Rectangle2D area = l.getArea();
-			if (area.intersects(eArea)) {
-				l.onEntered(entity, this, newX, newY);
-			}
+		if (entity instanceof Player) {
+			wake(SingletonRepository.getTurnNotifier().getCurrentTurn());
 		}
+
+		getTriggerGrid().notifyEntered(entity, this, newX, newY);
 	}
 
 	/**
@@ -1369,16 +1422,7 @@ public class StendhalRPZone extends MarauroaRPZone {
 	 *            The old Y coordinate.
 	 */
 	public void notifyExited(final ActiveEntity entity, final int oldX, final int oldY) {
-		Rectangle2D eArea;
-
-		eArea = entity.getArea(oldX, oldY);
-
-		for (final MovementListener l : movementListeners) {
-			Rectangle2D area = l.getArea();
-			if (area.intersects(eArea)) {
-				l.onExited(entity, this, oldX, oldY);
-			}
-		}
+		getTriggerGrid().notifyExited(entity, this, oldX, oldY);
 	}
 
 	/**
@@ -1397,51 +1441,12 @@ public class StendhalRPZone extends MarauroaRPZone {
 	 */
 	public void notifyMovement(final ActiveEntity entity, final int oldX, final int oldY,
 			final int newX, final int newY) {
-		Rectangle2D oeArea;
-		Rectangle2D neArea;
-		boolean oldIn;
-		boolean newIn;
-
-		oeArea = entity.getArea(oldX, oldY);
-		neArea = entity.getArea(newX, newY);
-
-		for (final MovementListener l : movementListeners) {
-			Rectangle2D area = l.getArea();
-
-			oldIn = area.intersects(oeArea);
-			newIn = area.intersects(neArea);
-
-			if (!oldIn && newIn) {
-				l.onEntered(entity, this, newX, newY);
-			}
-
-			if (oldIn && newIn) {
-				l.onMoved(entity, this, oldX, oldY, newX, newY);
-			}
-
-			if (oldIn && !newIn) {
-				l.onExited(entity, this, oldX, oldY);
-			}
-		}
+		getTriggerGrid().notifyMovement(entity, this, oldX, oldY, newX, newY);
 	}
 
 	public void notifyBeforeMovement(final ActiveEntity entity, final int oldX, final int oldY,
 			final int newX, final int newY) {
-		Rectangle2D neArea;
-		boolean newIn;
-
-		neArea = entity.getArea(newX, newY);
-
-		for (final MovementListener l : movementListeners) {
-			Rectangle2D area = l.getArea();
-
-			newIn = area.intersects(neArea);
-
-			if (newIn) {
-				l.beforeMove(entity, this, oldX, oldY, newX, newY);
-			}
-
-		}
+		getTriggerGrid().notifyBeforeMovement(entity, this, oldX, oldY, newX, newY);
 	}
 
 	public void addZoneEnterExitListener(final ZoneEnterExitListener listener) {
@@ -1455,14 +1460,16 @@ public class StendhalRPZone extends MarauroaRPZone {
 
 
 	/**
-	 * Register a movement listener for notification. Eventually create a
-	 * macro-block hash to cut down on listeners to check.
+	 * Register a movement listener for notification. The area of the
+	 * listener is looked up when it is registered, and when the listener is
+	 * an entity of this zone that moves or changes size. Other listeners
+	 * must not change their area while they are registered.
 	 *
 	 * @param listener
 	 *            A movement listener to register.
 	 */
 	public void addMovementListener(final MovementListener listener) {
-		movementListeners.add(listener);
+		getTriggerGrid().add(listener);
 	}
 
 	/**
@@ -1472,7 +1479,7 @@ public class StendhalRPZone extends MarauroaRPZone {
 	 *            A movement listener to unregister.
 	 */
 	public void removeMovementListener(final MovementListener listener) {
-		movementListeners.remove(listener);
+		getTriggerGrid().remove(listener);
 	}
 
 	@Override
@@ -1546,7 +1553,7 @@ public class StendhalRPZone extends MarauroaRPZone {
 			final StringBuilder os = new StringBuilder("Name: " + this.getID());
 			os.append("blood: " + bloods.size() + "\n");
 			os.append("itemsOnGround: " + itemsOnGround.size() + "\n");
-			os.append("movementListeners: " + movementListeners.size() + "\n");
+			os.append("movementListeners: " + getTriggerGrid().getListenerCount() + "\n");
 			os.append("npcs: " + npcs.size() + "\n");
 			os.append("plantGrowers: " + plantGrowers.size() + "\n");
 			os.append("players: " + players.size() + "\n");
@@ -1560,6 +1567,19 @@ public class StendhalRPZone extends MarauroaRPZone {
 	}
 
 	public void logic() {
+		final int turn = SingletonRepository.getTurnNotifier().getCurrentTurn();
+		final boolean observed = !playersAndFriends.isEmpty();
+		if (observed) {
+			wake(turn);
+		}
+		lastLogicTurn = turn;
+		if (!activity.update(observed, turn)) {
+			if (activity.isCatchUpDue(turn)) {
+				catchUp(turn);
+			}
+			return;
+		}
+
 		for (final NPC npc : npcs) {
 			try {
 				npc.logic();
@@ -1576,6 +1596,61 @@ public class StendhalRPZone extends MarauroaRPZone {
 		}
 	}
 
+	/**
+	 * Wakes up the zone if it is dormant, and catches up the turns it
+	 * skipped.
+	 *
+	 * @param turn current turn
+	 */
+	private void wake(final int turn) {
+		if (activity.wake()) {
+			// a player entering before the TurnNotifier moved on, such as one
+			// added in beginTurn, still sees the turn the zone skipped last
+			catchUp(Math.max(turn - 1, lastLogicTurn));
+		}
+	}
+
+	/**
+	 * Lets the NPCs catch up on the turns their logic was skipped.
+	 *
+	 * @param turn last turn to catch up
+	 */
+	private void catchUp(final int turn) {
+		final int from = activity.catchUp(turn);
+		if (from > turn) {
+			return;
+		}
+		for (final NPC npc : npcs) {
+			try {
+				npc.catchUp(from, turn);
+			} catch (final Exception e) {
+				logger.error("Error in npc catch up for zone " + getID().getID(), e);
+			}
+		}
+	}
+
+	/**
+	 * Checks if the zone skips the logic of its NPCs and portals, because
+	 * no one has been around for a while.
+	 *
+	 * @return <code>true</code> if the zone is dormant
+	 */
+	public boolean isDormant() {
+		return activity.getState() == ZoneActivity.State.DORMANT;
+	}
+
+	/**
+	 * Gets the number of entities whose logic the zone skips in a turn.
+	 *
+	 * @return number of NPCs and portals if the zone is dormant, otherwise 0
+	 */
+	int getSkippedEntityCount() {
+		if (!isDormant()) {
+			return 0;
+		}
+		return npcs.size() + portals.size();
+	}
+
 	/**
 	 * Return whether the zone is completely empty.
 	 * @return true if there are no objects in zone
@@ -1589,13 +1664,7 @@ public class StendhalRPZone extends MarauroaRPZone {
 	 * @return if there are players in zone
 	 */
 	public boolean containsPlayer() {
-		for (final RPObject obj : objects.values()) {
-			if (obj instanceof Player) {
-				return true;
-			}
-		}
-
-		return false;
+		return entityGrid.getPlayerCount() > 0;
 	}
 
 	/**
@@ -1603,13 +1672,7 @@ public class StendhalRPZone extends MarauroaRPZone {
 	 * @return true if there are domesticalanimals in zone
 	 */
 	public boolean containsAnimal() {
-		for (final RPObject obj : objects.values()) {
-			if (obj instanceof DomesticAnimal) {
-				return true;
-			}
-		}
-
-		return false;
+		return entityGrid.getAnimalCount() > 0;
 	}
 
 	/**
@@ -1617,13 +1680,7 @@ public class StendhalRPZone extends MarauroaRPZone {
 	 * @return true if there are creatures in zone
 	 */
 	public boolean containsCreature() {
-		for (final RPObject obj : objects.values()) {
-			if (obj instanceof Creature) {
-				return true;
-			}
-		}
-
-		return false;
+		return entityGrid.getCreatureCount() > 0;
 	}
 
 
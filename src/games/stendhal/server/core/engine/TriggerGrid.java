@@ -0,0 +1,498 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine;
+
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.List;
+
+import games.stendhal.server.core.events.MovementListener;
+import games.stendhal.server.entity.ActiveEntity;
+import games.stendhal.server.entity.mapstuff.portal.Portal;
+
+/**
+ * Uniform grid over the tiles of a zone, listing the portals and the
+ * movement listener areas in each cell. A step then only has to check the
+ * triggers in the cells covered by the old and the new position of the
+ * moving entity.
+ *
+ * <p>Each cell covers {@value #CELL_SIZE}x{@value #CELL_SIZE} tiles.
+ * Areas reaching outside the zone are put in the cells at the zone edge.
+ * The lookups do not allocate any objects.</p>
+ *
+ * <p>The areas of movement listeners are assumed not to change while they
+ * are registered, unless {@link #update(MovementListener)} is called. The
+ * zone does that for listeners that are entities.</p>
+ */
+final class TriggerGrid {
+
+	private static final int CELL_BITS = 3;
+
+	/** width and height of a cell in tiles */
+	static final int CELL_SIZE = 1 << CELL_BITS;
+
+	private int width;
+
+	private int height;
+
+	private int columns = 1;
+
+	private int rows = 1;
+
+	private List<Trigger>[] cells = createCells(1);
+
+	/** all triggers in the order they were added */
+	private final List<Trigger> triggers = new ArrayList<Trigger>();
+
+	private int listeners;
+
+	/**
+	 * Adapts the grid to the size of the zone. This is cheap if the size
+	 * did not change.
+	 *
+	 * @param width width of the zone in tiles
+	 * @param height height of the zone in tiles
+	 */
+	void resize(final int width, final int height) {
+		if (width == this.width && height == this.height) {
+			return;
+		}
+		this.width = width;
+		this.height = height;
+		columns = Math.max(1, (width + CELL_SIZE - 1) >> CELL_BITS);
+		rows = Math.max(1, (height + CELL_SIZE - 1) >> CELL_BITS);
+		cells = createCells(columns * rows);
+		for (final Trigger trigger : triggers) {
+			place(trigger);
+			link(trigger);
+		}
+	}
+
+	/**
+	 * Adds a movement listener. Adding a listener again only updates its
+	 * area.
+	 *
+	 * @param listener listener to add
+	 */
+	void add(final MovementListener listener) {
+		if (find(listener) != null) {
+			update(listener);
+			return;
+		}
+		add(new Trigger(listener, null));
+		listeners++;
+	}
+
+	/**
+	 * Adds a portal. Adding a portal again only updates its position.
+	 *
+	 * @param portal portal to add
+	 */
+	void add(final Portal portal) {
+		if (find(portal) != null) {
+			update(portal);
+			return;
+		}
+		add(new Trigger(null, portal));
+	}
+
+	private void add(final Trigger trigger) {
+		triggers.add(trigger);
+		place(trigger);
+		link(trigger);
+	}
+
+	/**
+	 * Removes a movement listener.
+	 *
+	 * @param listener listener to remove
+	 */
+	void remove(final MovementListener listener) {
+		if (remove(find(listener))) {
+			listeners--;
+		}
+	}
+
+	/**
+	 * Removes a portal.
+	 *
+	 * @param portal portal to remove
+	 */
+	void remove(final Portal portal) {
+		remove(find(portal));
+	}
+
+	private boolean remove(final Trigger trigger) {
+		if (trigger == null) {
+			return false;
+		}
+		unlink(trigger, trigger.minColumn, trigger.minRow, trigger.maxColumn, trigger.maxRow);
+		triggers.remove(trigger);
+		return true;
+	}
+
+	/**
+	 * Updates the cells of a movement listener after its area changed.
+	 *
+	 * @param listener listener to update
+	 */
+	void update(final MovementListener listener) {
+		update(find(listener));
+	}
+
+	/**
+	 * Updates the cell of a portal after it moved.
+	 *
+	 * @param portal portal to update
+	 */
+	void update(final Portal portal) {
+		update(find(portal));
+	}
+
+	private void update(final Trigger trigger) {
+		if (trigger == null) {
+			return;
+		}
+		final int minColumn = trigger.minColumn;
+		final int minRow = trigger.minRow;
+		final int maxColumn = trigger.maxColumn;
+		final int maxRow = trigger.maxRow;
+		place(trigger);
+		if (minColumn == trigger.minColumn && minRow == trigger.minRow
+				&& maxColumn == trigger.maxColumn && maxRow == trigger.maxRow) {
+			return;
+		}
+		unlink(trigger, minColumn, minRow, maxColumn, maxRow);
+		link(trigger);
+	}
+
+	/**
+	 * Gets the number of movement listeners.
+	 *
+	 * @return number of listeners
+	 */
+	int getListenerCount() {
+		return listeners;
+	}
+
+	/**
+	 * Gets the portal at a position.
+	 *
+	 * @param x x coordinate
+	 * @param y y coordinate
+	 * @return the first added portal at that position, or <code>null</code>
+	 */
+	Portal getPortal(final int x, final int y) {
+		final List<Trigger> cell = cells[clamp(column(x), columns) + clamp(row(y), rows) * columns];
+		if (cell != null) {
+			for (int i = 0; i < cell.size(); i++) {
+				final Portal portal = cell.get(i).portal;
+				if (portal != null && portal.getX() == x && portal.getY() == y) {
+					return portal;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Notifies the movement listeners whose area an entity entered.
+	 *
+	 * @param entity the entity
+	 * @param zone the zone
+	 * @param newX x coordinate of the entity
+	 * @param newY y coordinate of the entity
+	 */
+	void notifyEntered(final ActiveEntity entity, final StendhalRPZone zone, final int newX, final int newY) {
+		final double w = entity.getWidth();
+		final double h = entity.getHeight();
+		final int minColumn = minColumn(newX);
+		final int minRow = minRow(newY);
+		final int maxColumn = maxColumn(newX, w);
+		final int maxRow = maxRow(newY, h);
+		for (int row = minRow; row <= maxRow; row++) {
+			for (int column = minColumn; column <= maxColumn; column++) {
+				final List<Trigger> cell = cells[row * columns + column];
+				if (cell == null) {
+					continue;
+				}
+				for (int i = 0; i < cell.size(); i++) {
+					final Trigger trigger = cell.get(i);
+					if (trigger.isListenerCheckedIn(column, row, minColumn, minRow)
+							&& trigger.listener.getArea().intersects(newX, newY, w, h)) {
+						trigger.listener.onEntered(entity, zone, newX, newY);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Notifies the movement listeners whose area an entity left.
+	 *
+	 * @param entity the entity
+	 * @param zone the zone
+	 * @param oldX x coordinate of the entity
+	 * @param oldY y coordinate of the entity
+	 */
+	void notifyExited(final ActiveEntity entity, final StendhalRPZone zone, final int oldX, final int oldY) {
+		final double w = entity.getWidth();
+		final double h = entity.getHeight();
+		final int minColumn = minColumn(oldX);
+		final int minRow = minRow(oldY);
+		final int maxColumn = maxColumn(oldX, w);
+		final int maxRow = maxRow(oldY, h);
+		for (int row = minRow; row <= maxRow; row++) {
+			for (int column = minColumn; column <= maxColumn; column++) {
+				final List<Trigger> cell = cells[row * columns + column];
+				if (cell == null) {
+					continue;
+				}
+				for (int i = 0; i < cell.size(); i++) {
+					final Trigger trigger = cell.get(i);
+					if (trigger.isListenerCheckedIn(column, row, minColumn, minRow)
+							&& trigger.listener.getArea().intersects(oldX, oldY, w, h)) {
+						trigger.listener.onExited(entity, zone, oldX, oldY);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Notifies the movement listeners whose area an entity entered, moved
+	 * within, or left.
+	 *
+	 * @param entity the entity
+	 * @param zone the zone
+	 * @param oldX old x coordinate of the entity
+	 * @param oldY old y coordinate of the entity
+	 * @param newX new x coordinate of the entity
+	 * @param newY new y coordinate of the entity
+	 */
+	void notifyMovement(final ActiveEntity entity, final StendhalRPZone zone, final int oldX, final int oldY,
+			final int newX, final int newY) {
+		final double w = entity.getWidth();
+		final double h = entity.getHeight();
+		final int minColumn = minColumn(Math.min(oldX, newX));
+		final int minRow = minRow(Math.min(oldY, newY));
+		final int maxColumn = maxColumn(Math.max(oldX, newX), w);
+		final int maxRow = maxRow(Math.max(oldY, newY), h);
+		for (int row = minRow; row <= maxRow; row++) {
+			for (int column = minColumn; column <= maxColumn; column++) {
+				final List<Trigger> cell = cells[row * columns + column];
+				if (cell == null) {
+					continue;
+				}
+				for (int i = 0; i < cell.size(); i++) {
+					final Trigger trigger = cell.get(i);
+					if (!trigger.isListenerCheckedIn(column, row, minColumn, minRow)) {
+						continue;
+					}
+					final MovementListener listener = trigger.listener;
+					final Rectangle2D area = listener.getArea();
+					final boolean oldIn = area.intersects(oldX, oldY, w, h);
+					final boolean newIn = area.intersects(newX, newY, w, h);
+
+					if (!oldIn && newIn) {
+						listener.onEntered(entity, zone, newX, newY);
+					}
+
+					if (oldIn && newIn) {
+						listener.onMoved(entity, zone, oldX, oldY, newX, newY);
+					}
+
+					if (oldIn && !newIn) {
+						listener.onExited(entity, zone, oldX, oldY);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Notifies the movement listeners whose area an entity is about to move
+	 * to.
+	 *
+	 * @param entity the entity
+	 * @param zone the zone
+	 * @param oldX old x coordinate of the entity
+	 * @param oldY old y coordinate of the entity
+	 * @param newX new x coordinate of the entity
+	 * @param newY new y coordinate of the entity
+	 */
+	void notifyBeforeMovement(final ActiveEntity entity, final StendhalRPZone zone, final int oldX, final int oldY,
+			final int newX, final int newY) {
+		final double w = entity.getWidth();
+		final double h = entity.getHeight();
+		final int minColumn = minColumn(newX);
+		final int minRow = minRow(newY);
+		final int maxColumn = maxColumn(newX, w);
+		final int maxRow = maxRow(newY, h);
+		for (int row = minRow; row <= maxRow; row++) {
+			for (int column = minColumn; column <= maxColumn; column++) {
+				final List<Trigger> cell = cells[row * columns + column];
+				if (cell == null) {
+					continue;
+				}
+				for (int i = 0; i < cell.size(); i++) {
+					final Trigger trigger = cell.get(i);
+					if (trigger.isListenerCheckedIn(column, row, minColumn, minRow)
+							&& trigger.listener.getArea().intersects(newX, newY, w, h)) {
+						trigger.listener.beforeMove(entity, zone, oldX, oldY, newX, newY);
+					}
+				}
+			}
+		}
+	}
+
+	private Trigger find(final MovementListener listener) {
+		for (int i = 0; i < triggers.size(); i++) {
+			final Trigger trigger = triggers.get(i);
+			if (trigger.listener == listener) {
+				return trigger;
+			}
+		}
+		return null;
+	}
+
+	private Trigger find(final Portal portal) {
+		for (int i = 0; i < triggers.size(); i++) {
+			final Trigger trigger = triggers.get(i);
+			if (trigger.portal == portal) {
+				return trigger;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Calculates the cells covered by a trigger.
+	 *
+	 * @param trigger trigger
+	 */
+	private void place(final Trigger trigger) {
+		if (trigger.portal != null) {
+			final int column = clamp(column(trigger.portal.getX()), columns);
+			final int row = clamp(row(trigger.portal.getY()), rows);
+			trigger.setCells(column, row, column, row);
+		} else {
+			final Rectangle2D area = trigger.listener.getArea();
+			final int minX = (int) Math.floor(area.getX());
+			final int minY = (int) Math.floor(area.getY());
+			trigger.setCells(minColumn(minX), minRow(minY), maxColumn(minX, area.getMaxX() - minX),
+					maxRow(minY, area.getMaxY() - minY));
+		}
+	}
+
+	private void link(final Trigger trigger) {
+		for (int row = trigger.minRow; row <= trigger.maxRow; row++) {
+			for (int column = trigger.minColumn; column <= trigger.maxColumn; column++) {
+				final int index = row * columns + column;
+				List<Trigger> cell = cells[index];
+				if (cell == null) {
+					cell = new ArrayList<Trigger>(4);
+					cells[index] = cell;
+				}
+				cell.add(trigger);
+			}
+		}
+	}
+
+	private void unlink(final Trigger trigger, final int minColumn, final int minRow,
+			final int maxColumn, final int maxRow) {
+		for (int row = minRow; row <= maxRow; row++) {
+			for (int column = minColumn; column <= maxColumn; column++) {
+				final List<Trigger> cell = cells[row * columns + column];
+				if (cell != null) {
+					// keep the order, the triggers in a cell are checked in
+					// the order they were added
+					cell.remove(trigger);
+				}
+			}
+		}
+	}
+
+	private int minColumn(final int x) {
+		return clamp(column(x), columns);
+	}
+
+	private int minRow(final int y) {
+		return clamp(row(y), rows);
+	}
+
+	private int maxColumn(final int x, final double width) {
+		return clamp(column(Math.max(x, (int) Math.ceil(x + width) - 1)), columns);
+	}
+
+	private int maxRow(final int y, final double height) {
+		return clamp(row(Math.max(y, (int) Math.ceil(y + height) - 1)), rows);
+	}
+
+	private static int column(final int x) {
+		return x >> CELL_BITS;
+	}
+
+	private static int row(final int y) {
+		return y >> CELL_BITS;
+	}
+
+	private static int clamp(final int value, final int count) {
+		return Math.max(0, Math.min(count - 1, value));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<Trigger>[] createCells(final int count) {
+		return new List[count];
+	}
+
+	/**
+	 * A movement listener or a portal, and the cells it covers.
+	 */
+	private static final class Trigger {
+		private final MovementListener listener;
+		private final Portal portal;
+		private int minColumn;
+		private int minRow;
+		private int maxColumn;
+		private int maxRow;
+
+		private Trigger(final MovementListener listener, final Portal portal) {
+			this.listener = listener;
+			this.portal = portal;
+		}
+
+		private void setCells(final int minColumn, final int minRow, final int maxColumn, final int maxRow) {
+			this.minColumn = minColumn;
+			this.minRow = minRow;
+			this.maxColumn = maxColumn;
+			this.maxRow = maxRow;
+		}
+
+		/**
+		 * Checks if this is a movement listener that should be checked in a
+		 * cell. A listener covering several cells of a query area is checked
+		 * only in the first of them.
+		 *
+		 * @param column column of the cell
+		 * @param row row of the cell
+		 * @param queryMinColumn first column of the query area
+		 * @param queryMinRow first row of the query area
+		 * @return <code>true</code> if the listener should be checked
+		 */
+		private boolean isListenerCheckedIn(final int column, final int row, final int queryMinColumn,
+				final int queryMinRow) {
+			return listener != null && column == Math.max(minColumn, queryMinColumn)
+					&& row == Math.max(minRow, queryMinRow);
+		}
+	}
+}
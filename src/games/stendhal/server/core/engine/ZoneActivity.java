@@ -0,0 +1,112 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine;
+
+/**
+ * Decides whether a zone needs its NPC and portal logic in a turn.
+ *
+ * <p>A zone is active while players or their friends are in it. When the
+ * last of them leaves, the zone keeps running its logic while cooling down,
+ * so that creatures can give up their targets and NPCs finish what they
+ * were doing. After that the zone is dormant and its logic is skipped. The
+ * turns skipped are handed out in coarse catch-up ticks, and once more when
+ * the zone wakes up.</p>
+ */
+final class ZoneActivity {
+	/** State of a zone */
+	enum State {
+		/** observed, the logic runs every turn */
+		ACTIVE,
+		/** no longer observed, the logic still runs for a while */
+		COOLING,
+		/** not observed for a while, the logic is skipped */
+		DORMANT
+	}
+
+	/** Turns between the last observer leaving and the zone falling asleep, 30 seconds */
+	static final int COOLING_TURNS = 100;
+
+	/** Turns between catch-up ticks of a dormant zone, 15 seconds */
+	static final int CATCH_UP_TURNS = 50;
+
+	private State state = State.ACTIVE;
+
+	/** Turn the cooling started */
+	private int coolingSince;
+
+	/** Last turn that is covered by logic or a catch-up tick */
+	private int caughtUp;
+
+	/**
+	 * Gets the current state.
+	 *
+	 * @return state
+	 */
+	State getState() {
+		return state;
+	}
+
+	/**
+	 * Updates the state for a new turn.
+	 *
+	 * @param observed <code>true</code> if there are players or their friends
+	 * 	in the zone
+	 * @param turn current turn
+	 * @return <code>true</code> if the zone should run its logic this turn
+	 */
+	boolean update(final boolean observed, final int turn) {
+		if (observed) {
+			state = State.ACTIVE;
+		} else if (state == State.ACTIVE) {
+			state = State.COOLING;
+			coolingSince = turn;
+		} else if ((state == State.COOLING) && (turn - coolingSince >= COOLING_TURNS)) {
+			state = State.DORMANT;
+			caughtUp = turn - 1;
+		}
+		return state != State.DORMANT;
+	}
+
+	/**
+	 * Checks if a dormant zone is due for a catch-up tick.
+	 *
+	 * @param turn current turn
+	 * @return <code>true</code> if the skipped turns should be caught up now
+	 */
+	boolean isCatchUpDue(final int turn) {
+		return (state == State.DORMANT) && (turn - caughtUp >= CATCH_UP_TURNS);
+	}
+
+	/**
+	 * Wakes up the zone, because an observer entered.
+	 *
+	 * @return <code>true</code> if the zone was dormant, and the turns skipped
+	 * 	before the current one need to be caught up
+	 */
+	boolean wake() {
+		final boolean wasDormant = (state == State.DORMANT);
+		state = State.ACTIVE;
+		return wasDormant;
+	}
+
+	/**
+	 * Marks all turns up to a turn as caught up.
+	 *
+	 * @param turn last turn that is caught up
+	 * @return first turn that was not caught up before
+	 */
+	int catchUp(final int turn) {
+		final int from = caughtUp + 1;
+		caughtUp = turn;
+		return from;
+	}
+}
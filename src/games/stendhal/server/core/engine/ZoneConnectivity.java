@@ -0,0 +1,306 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine;
+
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import games.stendhal.common.CollisionDetection;
+import games.stendhal.server.entity.ActiveEntity;
+import games.stendhal.server.entity.Entity;
+import games.stendhal.server.entity.mapstuff.portal.Portal;
+
+/**
+ * Connected components of the walkable tiles of a zone, so that searches
+ * for paths that can not exist can be rejected without running A*.
+ *
+ * <p>A tile is blocked if the collision map says so, or if it is covered by
+ * a fixed obstacle: a fully resistant entity that can not move by itself,
+ * such as walls, signs and closed gates. Portals are not counted, because
+ * players may walk onto them.</p>
+ *
+ * <p>Freeing a tile merges the components around it right away. Blocking
+ * a tile can split a component, which is handled by labelling the zone
+ * again before the next query. Until then the old components are larger
+ * than the real ones, so queries never claim a reachable destination to be
+ * unreachable.</p>
+ */
+final class ZoneConnectivity {
+	private static final int BLOCKED = -1;
+
+	private CollisionDetection collisionMap;
+
+	/** Collision map version the labels were made for */
+	private int collisionVersion;
+
+	private int width;
+
+	private int height;
+
+	/** Component of each tile, or BLOCKED */
+	private int[] labels = new int[0];
+
+	/** Number of fixed obstacles covering each tile */
+	private short[] obstacles = new short[0];
+
+	/** Union-find parents of the components */
+	private int[] components = new int[16];
+
+	private int componentCount;
+
+	/** <code>true</code> if the zone needs to be labelled again */
+	private boolean dirty = true;
+
+	/** Areas of the fixed obstacles */
+	private final Map<Entity, Rectangle2D> placements = new IdentityHashMap<Entity, Rectangle2D>();
+
+	/** Work queue for labelling */
+	private int[] queue = new int[0];
+
+	/**
+	 * Sets the collision map the components are made of. This is cheap if
+	 * the map did not change.
+	 *
+	 * @param collisionMap collision map of the zone
+	 */
+	void setCollisionMap(final CollisionDetection collisionMap) {
+		if ((collisionMap == this.collisionMap) && (collisionMap.getVersion() == collisionVersion)) {
+			return;
+		}
+		this.collisionMap = collisionMap;
+		collisionVersion = collisionMap.getVersion();
+		dirty = true;
+		if ((collisionMap.getWidth() != width) || (collisionMap.getHeight() != height)) {
+			width = collisionMap.getWidth();
+			height = collisionMap.getHeight();
+			labels = new int[width * height];
+			obstacles = new short[width * height];
+			queue = new int[width * height];
+			for (final Rectangle2D area : placements.values()) {
+				mark(area, 1);
+			}
+		}
+	}
+
+	/**
+	 * Updates the tiles covered by an entity after it was added, moved,
+	 * resized, or its resistance changed.
+	 *
+	 * @param entity changed entity
+	 */
+	void update(final Entity entity) {
+		final Rectangle2D old = placements.get(entity);
+		if (!isFixedObstacle(entity)) {
+			if (old != null) {
+				remove(entity);
+			}
+			return;
+		}
+		if (entity.getArea().equals(old)) {
+			return;
+		}
+		if (old != null) {
+			mark(old, -1);
+		}
+		// the entity keeps changing its own area object
+		final Rectangle2D area = (Rectangle2D) entity.getArea().clone();
+		placements.put(entity, area);
+		mark(area, 1);
+	}
+
+	/**
+	 * Removes an entity.
+	 *
+	 * @param entity removed entity
+	 */
+	void remove(final Entity entity) {
+		final Rectangle2D area = placements.remove(entity);
+		if (area != null) {
+			mark(area, -1);
+		}
+	}
+
+	/**
+	 * Checks if a destination certainly can not be reached from a position.
+	 *
+	 * @param x start x
+	 * @param y start y
+	 * @param destination destination area. Reaching any tile of it is
+	 * 	enough
+	 * @return <code>true</code> if no tile of the destination is connected
+	 * 	to the start, <code>false</code> if a path may exist
+	 */
+	boolean isUnreachable(final int x, final int y, final Rectangle2D destination) {
+		if ((x < 0) || (x >= width) || (y < 0) || (y >= height)) {
+			return false;
+		}
+		if (dirty) {
+			label();
+		}
+		final int start = labels[x + y * width];
+		if (start == BLOCKED) {
+			// Path finding does not check the start position
+			return false;
+		}
+		final int component = find(start);
+
+		// Tiles whose position is contained in the destination
+		final int minX = Math.max(0, (int) Math.ceil(destination.getMinX()));
+		final int maxX = Math.min(width, (int) Math.ceil(destination.getMaxX()));
+		final int minY = Math.max(0, (int) Math.ceil(destination.getMinY()));
+		final int maxY = Math.min(height, (int) Math.ceil(destination.getMaxY()));
+		for (int tileY = minY; tileY < maxY; tileY++) {
+			for (int tileX = minX; tileX < maxX; tileX++) {
+				final int label = labels[tileX + tileY * width];
+				if ((label != BLOCKED) && (find(label) == component)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks if an entity blocks the tiles it covers for all entities that
+	 * do not pass through obstacles.
+	 *
+	 * @param entity entity to check
+	 * @return <code>true</code> if the entity is a fixed obstacle
+	 */
+	private static boolean isFixedObstacle(final Entity entity) {
+		return !(entity instanceof ActiveEntity) && !(entity instanceof Portal)
+				&& (entity.getResistance() == 100);
+	}
+
+	/**
+	 * Changes the obstacle count of the tiles of an area. The covered tiles
+	 * are the same that path finding uses for resistance.
+	 *
+	 * @param area area of an obstacle
+	 * @param diff change of the count
+	 */
+	private void mark(final Rectangle2D area, final int diff) {
+		final int startX = (int) Math.max(0, area.getX());
+		final int endX = (int) Math.min(width, area.getX() + area.getWidth());
+		final int startY = (int) Math.max(0, area.getY());
+		final int endY = (int) Math.min(height, area.getY() + area.getHeight());
+		for (int y = startY; y < endY; y++) {
+			for (int x = startX; x < endX; x++) {
+				final int tile = x + y * width;
+				obstacles[tile] += diff;
+				if (dirty || collisionMap.collides(x, y)) {
+					continue;
+				}
+				if ((diff > 0) && (obstacles[tile] == 1)) {
+					// may split the component
+					labels[tile] = BLOCKED;
+					dirty = true;
+				} else if (obstacles[tile] == 0) {
+					free(x, y);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds a freed tile to the components, merging all components around it.
+	 *
+	 * @param x x coordinate
+	 * @param y y coordinate
+	 */
+	private void free(final int x, final int y) {
+		final int component = newComponent();
+		labels[x + y * width] = component;
+		merge(component, x - 1, y);
+		merge(component, x + 1, y);
+		merge(component, x, y - 1);
+		merge(component, x, y + 1);
+	}
+
+	private void merge(final int component, final int x, final int y) {
+		if ((x < 0) || (x >= width) || (y < 0) || (y >= height)) {
+			return;
+		}
+		final int label = labels[x + y * width];
+		if (label != BLOCKED) {
+			final int root = find(label);
+			final int otherRoot = find(component);
+			if (root != otherRoot) {
+				components[root] = otherRoot;
+			}
+		}
+	}
+
+	private int find(int component) {
+		while (components[component] != component) {
+			// path halving
+			components[component] = components[components[component]];
+			component = components[component];
+		}
+		return component;
+	}
+
+	private int newComponent() {
+		if (componentCount == components.length) {
+			components = Arrays.copyOf(components, componentCount * 2);
+		}
+		components[componentCount] = componentCount;
+		return componentCount++;
+	}
+
+	/**
+	 * Labels the components of the whole zone with a flood fill.
+	 */
+	private void label() {
+		componentCount = 0;
+		final int size = width * height;
+		for (int tile = 0; tile < size; tile++) {
+			labels[tile] = ((obstacles[tile] > 0) || collisionMap.collides(tile % width, tile / width)) ? BLOCKED : size;
+		}
+		for (int tile = 0; tile < size; tile++) {
+			if (labels[tile] == size) {
+				fill(tile, newComponent());
+			}
+		}
+		dirty = false;
+	}
+
+	private void fill(final int first, final int component) {
+		int head = 0;
+		int tail = 0;
+		labels[first] = component;
+		queue[tail++] = first;
+		final int unlabelled = width * height;
+		while (head < tail) {
+			final int tile = queue[head++];
+			final int x = tile % width;
+			if ((x > 0) && (labels[tile - 1] == unlabelled)) {
+				labels[tile - 1] = component;
+				queue[tail++] = tile - 1;
+			}
+			if ((x < width - 1) && (labels[tile + 1] == unlabelled)) {
+				labels[tile + 1] = component;
+				queue[tail++] = tile + 1;
+			}
+			if ((tile >= width) && (labels[tile - width] == unlabelled)) {
+				labels[tile - width] = component;
+				queue[tail++] = tile - width;
+			}
+			if ((tile + width < unlabelled) && (labels[tile + width] == unlabelled)) {
+				labels[tile + width] = component;
+				queue[tail++] = tile + width;
+			}
+		}
+	}
+}
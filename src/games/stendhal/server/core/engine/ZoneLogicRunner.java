@@ -0,0 +1,329 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+
+import org.apache.log4j.Logger;
+
+import marauroa.common.Configuration;
+import marauroa.common.game.IRPZone;
+import marauroa.server.game.Statistics;
+
+/**
+ * Runs the logic of all zones at the end of a turn and keeps track of the
+ * time each zone needs, and of the zones that skip their logic because they
+ * are dormant.
+ *
+ * <p>By default the zones are run one after the other. With
+ * <code>parallel_zone_logic=true</code> in server.ini the zones are split
+ * into work units that run on a fork-join pool. The number of threads can be
+ * set with <code>zone_logic_threads</code>, it defaults to the number of
+ * processors.</p>
+ *
+ * <p>While a zone runs on the pool, effects that reach beyond it are not
+ * applied right away, but collected with {@link #defer(Runnable)}. Once all
+ * zones are done, the effects are applied on the turn thread, zone by zone in
+ * the order of the world, so that the result does not depend on the
+ * scheduling of the threads. Such effects are moving entities to another
+ * zone, turn notifications, killed entities and database logging.</p>
+ */
+public final class ZoneLogicRunner {
+	private static final Logger logger = Logger.getLogger(ZoneLogicRunner.class);
+
+	/** Turns between timing reports, about a minute */
+	private static final int REPORT_INTERVAL = 200;
+
+	/** Number of zones listed in the timing report */
+	private static final int REPORTED_ZONES = 10;
+
+	/** Work units per thread, so that a slow unit does not hold up the others */
+	private static final int UNITS_PER_THREAD = 4;
+
+	/** Effects of the zone that is run by the current thread */
+	private static final ThreadLocal<List<Runnable>> deferred = new ThreadLocal<List<Runnable>>();
+
+	/** Pool for the zones, or <code>null</code> if they are run serially */
+	private final ForkJoinPool pool;
+
+	private final Map<StendhalRPZone, ZoneTiming> timings = new IdentityHashMap<StendhalRPZone, ZoneTiming>();
+
+	/** Turns since the last report */
+	private int turns;
+
+	/**
+	 * Time spent on a zone, and its effects in the current turn.
+	 */
+	static final class ZoneTiming {
+		final StendhalRPZone zone;
+
+		/** Time spent in the current reporting period */
+		long periodNanos;
+
+		/** Smoothed time per turn, used to balance the work units */
+		long cost;
+
+		/** Effects deferred during the current turn */
+		final List<Runnable> effects = new ArrayList<Runnable>();
+
+		/** <code>true</code> if the zone was run in the current period */
+		boolean seen;
+
+		ZoneTiming(final StendhalRPZone zone) {
+			this.zone = zone;
+		}
+	}
+
+	/**
+	 * Creates a new ZoneLogicRunner.
+	 *
+	 * @param threads number of threads to run zones on, or 0 to run them
+	 * 	serially on the calling thread
+	 */
+	ZoneLogicRunner(final int threads) {
+		if (threads > 0) {
+			pool = new ForkJoinPool(threads, pool -> {
+				final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+				thread.setName("Zone logic " + thread.getPoolIndex());
+				return thread;
+			}, null, false);
+		} else {
+			pool = null;
+		}
+	}
+
+	/**
+	 * Creates a ZoneLogicRunner as configured in server.ini.
+	 *
+	 * @return ZoneLogicRunner
+	 */
+	static ZoneLogicRunner create() {
+		int threads = 0;
+		try {
+			final Configuration config = Configuration.getConfiguration();
+			if (Boolean.parseBoolean(config.get("parallel_zone_logic", "false"))) {
+				threads = config.getInt("zone_logic_threads", Runtime.getRuntime().availableProcessors());
+				logger.info("Running zone logic on " + threads + " threads");
+			}
+		} catch (final IOException e) {
+			logger.error(e, e);
+		}
+		return new ZoneLogicRunner(threads);
+	}
+
+	/**
+	 * Checks if zones are run in parallel.
+	 *
+	 * @return <code>true</code> if zones run on a pool
+	 */
+	boolean isParallel() {
+		return pool != null;
+	}
+
+	/**
+	 * Defers an effect that reaches beyond the zone whose logic is currently
+	 * run, until the logic of all zones is done.
+	 *
+	 * @param effect effect to apply later
+	 * @return <code>true</code> if the effect was deferred, <code>false</code>
+	 * 	if the caller is not running zone logic in parallel and should apply
+	 * 	the effect itself
+	 */
+	public static boolean defer(final Runnable effect) {
+		final List<Runnable> effects = deferred.get();
+		if (effects == null) {
+			return false;
+		}
+		effects.add(effect);
+		return true;
+	}
+
+	/**
+	 * Runs the logic of all zones once.
+	 *
+	 * @param world zones to run
+	 */
+	void logic(final Iterable<IRPZone> world) {
+		final List<ZoneTiming> zones = new ArrayList<ZoneTiming>();
+		for (final IRPZone zone : world) {
+			ZoneTiming timing = timings.get(zone);
+			if (timing == null) {
+				timing = new ZoneTiming((StendhalRPZone) zone);
+				timings.put(timing.zone, timing);
+			}
+			timing.seen = true;
+			zones.add(timing);
+		}
+
+		if (pool == null) {
+			for (final ZoneTiming timing : zones) {
+				run(timing);
+			}
+		} else {
+			for (final Future<Void> unit : pool.invokeAll(createUnits(zones))) {
+				try {
+					unit.get();
+				} catch (final InterruptedException | ExecutionException e) {
+					logger.error("Error in zone logic", e);
+				}
+			}
+			for (final ZoneTiming timing : zones) {
+				applyEffects(timing);
+			}
+		}
+
+		int dormant = 0;
+		int skipped = 0;
+		for (final ZoneTiming timing : zones) {
+			if (timing.zone.isDormant()) {
+				dormant++;
+				skipped += timing.zone.getSkippedEntityCount();
+			}
+		}
+		final Statistics statistics = Statistics.getStatistics();
+		statistics.set("Dormant zones", dormant);
+		statistics.set("Skipped entities", skipped);
+
+		turns++;
+		if (turns >= REPORT_INTERVAL) {
+			report();
+		}
+	}
+
+	/**
+	 * Splits the zones into work units of about the same cost, by handing
+	 * the most expensive zones out first, each to the cheapest unit so far.
+	 *
+	 * @param zones zones to split
+	 * @return work units
+	 */
+	private List<Callable<Void>> createUnits(final List<ZoneTiming> zones) {
+		final int count = Math.min(zones.size(), pool.getParallelism() * UNITS_PER_THREAD);
+		final List<List<ZoneTiming>> units = new ArrayList<List<ZoneTiming>>(count);
+		final long[] costs = new long[count];
+		for (int i = 0; i < count; i++) {
+			units.add(new ArrayList<ZoneTiming>());
+		}
+
+		final List<ZoneTiming> sorted = new ArrayList<ZoneTiming>(zones);
+		Collections.sort(sorted, (a, b) -> Long.compare(b.cost, a.cost));
+		for (final ZoneTiming timing : sorted) {
+			int cheapest = 0;
+			for (int i = 1; i < count; i++) {
+				if (costs[i] < costs[cheapest]) {
+					cheapest = i;
+				}
+			}
+			units.get(cheapest).add(timing);
+			// count empty zones too, so that they are spread over the units
+			costs[cheapest] += timing.cost + 1;
+		}
+
+		final List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(count);
+		for (final List<ZoneTiming> unit : units) {
+			tasks.add(() -> {
+				for (final ZoneTiming timing : unit) {
+					deferred.set(timing.effects);
+					try {
+						run(timing);
+					} finally {
+						deferred.remove();
+					}
+				}
+				return null;
+			});
+		}
+		return tasks;
+	}
+
+	private static void run(final ZoneTiming timing) {
+		final long start = System.nanoTime();
+		try {
+			timing.zone.logic();
+		} catch (final RuntimeException e) {
+			logger.error("Error in logic of zone " + timing.zone.getName(), e);
+		}
+		final long nanos = System.nanoTime() - start;
+		timing.periodNanos += nanos;
+		timing.cost += (nanos - timing.cost) / 8;
+	}
+
+	private static void applyEffects(final ZoneTiming timing) {
+		for (final Runnable effect : timing.effects) {
+			try {
+				effect.run();
+			} catch (final RuntimeException e) {
+				logger.error("Error in deferred effect of zone " + timing.zone.getName(), e);
+			}
+		}
+		timing.effects.clear();
+	}
+
+	/**
+	 * Gets the time spent on each zone since the last report.
+	 *
+	 * @return zone timings, the most expensive first
+	 */
+	List<ZoneTiming> getTimings() {
+		final List<ZoneTiming> result = new ArrayList<ZoneTiming>(timings.values());
+		Collections.sort(result, (a, b) -> Long.compare(b.periodNanos, a.periodNanos));
+		return result;
+	}
+
+	/**
+	 * Logs the zones that took the most time and starts a new period.
+	 */
+	private void report() {
+		long total = 0;
+		for (final ZoneTiming timing : timings.values()) {
+			total += timing.periodNanos;
+		}
+		Statistics.getStatistics().set("Zone logic us", (int) (total / turns / 1000));
+
+		if (logger.isInfoEnabled()) {
+			final StringBuilder message = new StringBuilder();
+			message.append(String.format(Locale.ENGLISH, "Zone logic: %.2f ms per turn, slowest zones:",
+					total / (turns * 1000000.0)));
+			final List<ZoneTiming> sorted = getTimings();
+			for (int i = 0; (i < REPORTED_ZONES) && (i < sorted.size()); i++) {
+				final ZoneTiming timing = sorted.get(i);
+				message.append(String.format(Locale.ENGLISH, " %s %.3f ms", timing.zone.getName(),
+						timing.periodNanos / (turns * 1000000.0)));
+			}
+			logger.info(message);
+		}
+
+		// forget removed zones
+		final Iterator<ZoneTiming> itr = timings.values().iterator();
+		while (itr.hasNext()) {
+			final ZoneTiming timing = itr.next();
+			if (!timing.seen) {
+				itr.remove();
+			}
+			timing.periodNanos = 0;
+			timing.seen = false;
+		}
+		turns = 0;
+	}
+}
@@ -0,0 +1,215 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine.db;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+
+import com.google.common.collect.ObjectArrays;
+
+import marauroa.server.db.DBTransaction;
+import marauroa.server.game.db.DAORegister;
+
+/**
+ * Writes a website table with an <code>active</code> and a <code>name</code>
+ * column, skipping the rows that did not change since the last dump.
+ *
+ * <p>Rows that are no longer dumped are marked inactive. If the hash of the
+ * whole table matches the stored one, nothing is read or written besides
+ * the stored hashes.</p>
+ */
+class IncrementalDump {
+	private static Logger logger = Logger.getLogger(IncrementalDump.class);
+
+	private final String table;
+
+	/** columns without active, starting with name */
+	private final String[] columns;
+
+	private final Map<String, Object[]> rows = new LinkedHashMap<String, Object[]>();
+
+	private final Map<String, String> hashes = new HashMap<String, String>();
+
+	/** names of rows that were written or marked inactive */
+	private final Set<String> changed = new LinkedHashSet<String>();
+
+	private int writtenRows;
+
+	/**
+	 * creates a new IncrementalDump
+	 *
+	 * @param table name of the table
+	 * @param columns columns without active, starting with name
+	 */
+	IncrementalDump(final String table, final String... columns) {
+		this.table = table;
+		this.columns = columns.clone();
+	}
+
+	/**
+	 * adds a row
+	 *
+	 * @param values values in the order of the columns, starting with the name
+	 * @param dependencies values that are not written to this table, but which
+	 * 	cause the row to be treated as changed, when they change
+	 */
+	void add(final Object[] values, final Object... dependencies) {
+		final String name = (String) values[0];
+		rows.put(name, values);
+		hashes.put(name, StendhalDumpHashDAO.hash(ObjectArrays.concat(values, dependencies, Object.class)));
+	}
+
+	/**
+	 * writes the rows that changed
+	 *
+	 * @param transaction DBTransaction
+	 * @return <code>false</code> if the table was skipped because nothing changed
+	 * @throws SQLException in case of a database error
+	 */
+	boolean write(final DBTransaction transaction) throws SQLException {
+		final long start = System.currentTimeMillis();
+		final StendhalDumpHashDAO hashDAO = DAORegister.get().get(StendhalDumpHashDAO.class);
+		final String tableHash = StendhalDumpHashDAO.tableHash(hashes);
+		final Map<String, String> stored = hashDAO.readHashes(transaction, table);
+		if (tableHash.equals(stored.get(StendhalDumpHashDAO.TABLE_HASH))) {
+			logger.info("Skipped dumping of " + table + " with " + rows.size() + " unchanged rows in "
+					+ (System.currentTimeMillis() - start) + " milliseconds.");
+			return false;
+		}
+
+		final Map<String, Boolean> existing = readActive(transaction);
+		final PreparedStatement update = transaction.prepareStatement(updateSql(), null);
+		final PreparedStatement insert = transaction.prepareStatement(insertSql(), null);
+		final Map<String, String> changedHashes = new HashMap<String, String>();
+		for (final Map.Entry<String, Object[]> row : rows.entrySet()) {
+			final String name = row.getKey();
+			final Boolean active = existing.get(name);
+			final String hash = hashes.get(name);
+			if (hash.equals(stored.get(name)) && Boolean.TRUE.equals(active)) {
+				continue;
+			}
+			final Object[] values = row.getValue();
+			final PreparedStatement stmt = (active == null) ? insert : update;
+			for (int i = 0; i < values.length; i++) {
+				stmt.setObject(i + 1, values[i]);
+			}
+			if (active != null) {
+				update.setString(values.length + 1, name);
+			}
+			stmt.addBatch();
+			changed.add(name);
+			changedHashes.put(name, hash);
+		}
+		update.executeBatch();
+		insert.executeBatch();
+		update.close();
+		insert.close();
+
+		final PreparedStatement deactivate = transaction.prepareStatement(
+				"UPDATE " + table + " SET active=0 WHERE name=?", null);
+		for (final Map.Entry<String, Boolean> entry : existing.entrySet()) {
+			if (entry.getValue().booleanValue() && !rows.containsKey(entry.getKey())) {
+				deactivate.setString(1, entry.getKey());
+				deactivate.addBatch();
+				changed.add(entry.getKey());
+			}
+		}
+		deactivate.executeBatch();
+		deactivate.close();
+		writtenRows = changed.size();
+
+		final List<String> removed = new ArrayList<String>();
+		for (final String name : stored.keySet()) {
+			if (!name.equals(StendhalDumpHashDAO.TABLE_HASH) && !rows.containsKey(name)) {
+				removed.add(name);
+			}
+		}
+		changedHashes.put(StendhalDumpHashDAO.TABLE_HASH, tableHash);
+		hashDAO.writeHashes(transaction, table, changedHashes, removed);
+
+		logger.info("Dumped " + table + " with " + rows.size() + " rows in " + (System.currentTimeMillis() - start)
+				+ " milliseconds, wrote " + writtenRows + " changed rows.");
+		return true;
+	}
+
+	/**
+	 * reads the names in the table
+	 *
+	 * @param transaction DBTransaction
+	 * @return active flag by name
+	 * @throws SQLException in case of a database error
+	 */
+	private Map<String, Boolean> readActive(final DBTransaction transaction) throws SQLException {
+		final Map<String, Boolean> res = new HashMap<String, Boolean>();
+		final ResultSet resultSet = transaction.query("SELECT name, active FROM " + table, null);
+		try {
+			while (resultSet.next()) {
+				final String name = resultSet.getString(1);
+				if (name != null) {
+					// a duplicate inactive row must not hide an active one
+					res.put(name, Boolean.valueOf(resultSet.getInt(2) == 1 || Boolean.TRUE.equals(res.get(name))));
+				}
+			}
+		} finally {
+			resultSet.close();
+		}
+		return res;
+	}
+
+	private String updateSql() {
+		final StringBuilder sql = new StringBuilder("UPDATE " + table + " SET active=1");
+		for (final String column : columns) {
+			sql.append(", ").append(column).append("=?");
+		}
+		sql.append(" WHERE name=?");
+		return sql.toString();
+	}
+
+	private String insertSql() {
+		final StringBuilder sql = new StringBuilder("INSERT INTO " + table + " (active");
+		final StringBuilder values = new StringBuilder(") VALUES (1");
+		for (final String column : columns) {
+			sql.append(", ").append(column);
+			values.append(", ?");
+		}
+		return sql.append(values).append(")").toString();
+	}
+
+	/**
+	 * gets the names of the rows that were written or marked inactive
+	 *
+	 * @return names
+	 */
+	Set<String> getChangedNames() {
+		return Collections.unmodifiableSet(changed);
+	}
+
+	/**
+	 * gets the number of rows that were written or marked inactive
+	 *
+	 * @return number of rows
+	 */
+	int getWrittenRows() {
+		return writtenRows;
+	}
+}
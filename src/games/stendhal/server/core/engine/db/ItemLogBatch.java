@@ -0,0 +1,144 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine.db;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import games.stendhal.server.entity.RPEntity;
+import marauroa.common.game.RPObject;
+
+/**
+ * Item log events that are written to the database together.
+ *
+ * <p>The events are collected in two steps: First the items that need a log
+ * id are requested, so that the ids can be assigned in bulk. Then the log
+ * entries are added, in the order they are written.</p>
+ */
+public class ItemLogBatch {
+
+	/**
+	 * A row of the itemlog table.
+	 */
+	static final class Entry {
+		final Timestamp timestamp;
+		final int itemid;
+		final String source;
+		final String event;
+		final String param1;
+		final String param2;
+		final String param3;
+		final String param4;
+
+		Entry(final Timestamp timestamp, final int itemid, final String source, final String event,
+				final String param1, final String param2, final String param3, final String param4) {
+			this.timestamp = timestamp;
+			this.itemid = itemid;
+			this.source = source;
+			this.event = event;
+			this.param1 = param1;
+			this.param2 = param2;
+			this.param3 = param3;
+			this.param4 = param4;
+		}
+	}
+
+	/** items that get a log id, in the order they were requested */
+	private final List<RPObject> newItems = new ArrayList<RPObject>();
+
+	/** time the items were first logged */
+	private final List<Timestamp> newItemTimestamps = new ArrayList<Timestamp>();
+
+	/** the same items, for quick lookup. RPObject.equals() compares the attributes */
+	private final Set<RPObject> newItemSet = Collections.newSetFromMap(new IdentityHashMap<RPObject, Boolean>());
+
+	private final List<Entry> entries = new ArrayList<Entry>();
+
+	/**
+	 * Requests a log id for an item, unless it already has one.
+	 *
+	 * @param item item
+	 * @param timestamp time the item is first logged
+	 */
+	public void assignIDIfNotPresent(final RPObject item, final Timestamp timestamp) {
+		if (hasID(item)) {
+			return;
+		}
+		newItems.add(item);
+		newItemTimestamps.add(timestamp);
+		newItemSet.add(item);
+	}
+
+	/**
+	 * Checks if an item has a log id, or will get one with this batch.
+	 *
+	 * @param item item
+	 * @return <code>true</code> if the item is logged
+	 */
+	public boolean hasID(final RPObject item) {
+		return item.has(StendhalItemDAO.ATTR_ITEM_LOGID) || newItemSet.contains(item);
+	}
+
+	/**
+	 * Adds a log entry.
+	 *
+	 * @param timestamp timestamp
+	 * @param itemid log id of the item
+	 * @param player player object, may be <code>null</code>
+	 * @param event  name of event
+	 * @param param1 param 1
+	 * @param param2 param 2
+	 * @param param3 param 3
+	 * @param param4 param 4
+	 */
+	public void addEntry(final Timestamp timestamp, final int itemid, final RPEntity player, final String event,
+			final String param1, final String param2, final String param3, final String param4) {
+		String playerName = null;
+		if (player != null) {
+			playerName = player.getName();
+		}
+		entries.add(new Entry(timestamp, itemid, playerName, event, param1, param2, param3, param4));
+	}
+
+	/**
+	 * Adds a log entry.
+	 *
+	 * @param timestamp timestamp
+	 * @param item item, which must have a log id
+	 * @param player player object, may be <code>null</code>
+	 * @param event  name of event
+	 * @param param1 param 1
+	 * @param param2 param 2
+	 * @param param3 param 3
+	 * @param param4 param 4
+	 */
+	public void addEntry(final Timestamp timestamp, final RPObject item, final RPEntity player, final String event,
+			final String param1, final String param2, final String param3, final String param4) {
+		addEntry(timestamp, item.getInt(StendhalItemDAO.ATTR_ITEM_LOGID), player, event, param1, param2, param3, param4);
+	}
+
+	List<RPObject> getNewItems() {
+		return newItems;
+	}
+
+	List<Timestamp> getNewItemTimestamps() {
+		return newItemTimestamps;
+	}
+
+	List<Entry> getEntries() {
+		return entries;
+	}
+}
@@ -0,0 +1,126 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine.db;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Kill counts that are added to the kills table together.
+ *
+ * <p>There is one entry for each row of the kills table, that is for each
+ * combination of killed, killer and day. Its count is the number of kills
+ * that are not in the table yet.</p>
+ */
+public class KillLogBatch {
+
+	/**
+	 * A row of the kills table, and the kills to add to it.
+	 */
+	static final class Entry {
+		final String killed;
+		final String killedType;
+		final String killer;
+		final String killerType;
+		/** day in the format yyyy-MM-dd */
+		final String day;
+		int count;
+
+		Entry(final String killed, final String killedType, final String killer, final String killerType,
+				final String day) {
+			this.killed = killed;
+			this.killedType = killedType;
+			this.killer = killer;
+			this.killerType = killerType;
+			this.day = day;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(killed, killedType, killer, killerType, day);
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Entry)) {
+				return false;
+			}
+			final Entry other = (Entry) obj;
+			return Objects.equals(killed, other.killed) && Objects.equals(killedType, other.killedType)
+					&& Objects.equals(killer, other.killer) && Objects.equals(killerType, other.killerType)
+					&& Objects.equals(day, other.day);
+		}
+	}
+
+	/** the entries, keyed by themselves so that kills of the same row are summed up */
+	private final Map<Entry, Entry> entries = new LinkedHashMap<Entry, Entry>();
+
+	private int kills;
+
+	/**
+	 * Adds a kill.
+	 *
+	 * @param killed name of the killed entity
+	 * @param killedType type of the killed entity, as returned by
+	 * 	{@link StendhalKillLogDAO#entityToType}
+	 * @param killer name of the killer
+	 * @param killerType type of the killer
+	 * @param day day of the kill in the format yyyy-MM-dd
+	 */
+	public void add(final String killed, final String killedType, final String killer, final String killerType,
+			final String day) {
+		final Entry key = new Entry(killed, killedType, killer, killerType, day);
+		Entry entry = entries.get(key);
+		if (entry == null) {
+			entry = key;
+			entries.put(entry, entry);
+		}
+		entry.count++;
+		kills++;
+	}
+
+	/**
+	 * Gets the number of rows of the kills table that this batch changes.
+	 *
+	 * @return number of rows
+	 */
+	public int getRows() {
+		return entries.size();
+	}
+
+	/**
+	 * Gets the number of kills in this batch.
+	 *
+	 * @return number of kills
+	 */
+	public int getKills() {
+		return kills;
+	}
+
+	/**
+	 * Checks if there are kills in this batch.
+	 *
+	 * @return <code>true</code> if there are no kills
+	 */
+	public boolean isEmpty() {
+		return entries.isEmpty();
+	}
+
+	Collection<Entry> getEntries() {
+		return entries.values();
+	}
+}
@@ -0,0 +1,133 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine.db;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import marauroa.common.crypto.Hash;
+import marauroa.server.db.DBTransaction;
+
+/**
+ * database access for the content hashes of the website dumps.
+ *
+ * <p>For each dumped table, the hash of every row, or group of rows, is
+ * stored by name, so that the next dump only writes what changed. The hash
+ * of the whole table is stored under {@link #TABLE_HASH}.</p>
+ */
+public class StendhalDumpHashDAO {
+
+	/** name under which the hash of the whole table is stored */
+	public static final String TABLE_HASH = "";
+
+	/**
+	 * calculates the hash of the values of a row
+	 *
+	 * @param values values, which may be <code>null</code>
+	 * @return hex encoded hash
+	 */
+	public static String hash(final Object... values) {
+		final StringBuilder sb = new StringBuilder();
+		for (final Object value : values) {
+			if (value == null) {
+				sb.append('N');
+			} else {
+				// prefix with the length, so that the boundaries of values are part of the hash
+				final String string = value.toString();
+				sb.append(string.length()).append(':').append(string);
+			}
+			sb.append(';');
+		}
+		return Hash.toHexString(Hash.hash(sb.toString().getBytes(StandardCharsets.UTF_8)));
+	}
+
+	/**
+	 * calculates the hash of a table from the hashes of its rows
+	 *
+	 * @param hashes hashes of the rows by name
+	 * @return hex encoded hash
+	 */
+	public static String tableHash(final Map<String, String> hashes) {
+		final StringBuilder sb = new StringBuilder();
+		for (final Map.Entry<String, String> entry : new TreeMap<String, String>(hashes).entrySet()) {
+			sb.append(entry.getKey().length()).append(':').append(entry.getKey()).append(entry.getValue());
+		}
+		return Hash.toHexString(Hash.hash(sb.toString().getBytes(StandardCharsets.UTF_8)));
+	}
+
+	/**
+	 * reads the hashes stored for a table
+	 *
+	 * @param transaction DBTransaction
+	 * @param table name of the dumped table
+	 * @return hashes by name, including the hash of the whole table
+	 * @throws SQLException in case of a database error
+	 */
+	public Map<String, String> readHashes(final DBTransaction transaction, final String table) throws SQLException {
+		final Map<String, Object> params = new HashMap<String, Object>();
+		params.put("table", table);
+		final Map<String, String> res = new HashMap<String, String>();
+		final ResultSet resultSet = transaction.query("SELECT name, hash FROM dumphash WHERE tablename='[table]'", params);
+		try {
+			while (resultSet.next()) {
+				res.put(resultSet.getString(1), resultSet.getString(2));
+			}
+		} finally {
+			resultSet.close();
+		}
+		return res;
+	}
+
+	/**
+	 * stores the hashes of the rows that changed
+	 *
+	 * @param transaction DBTransaction
+	 * @param table name of the dumped table
+	 * @param changed new hashes by name
+	 * @param removed names of rows that no longer exist
+	 * @throws SQLException in case of a database error
+	 */
+	public void writeHashes(final DBTransaction transaction, final String table, final Map<String, String> changed,
+			final Collection<String> removed) throws SQLException {
+		final PreparedStatement delete = transaction.prepareStatement(
+				"DELETE FROM dumphash WHERE tablename=? AND name=?", null);
+		for (final String name : changed.keySet()) {
+			delete.setString(1, table);
+			delete.setString(2, name);
+			delete.addBatch();
+		}
+		for (final String name : removed) {
+			delete.setString(1, table);
+			delete.setString(2, name);
+			delete.addBatch();
+		}
+		delete.executeBatch();
+		delete.close();
+
+		final PreparedStatement insert = transaction.prepareStatement(
+				"INSERT INTO dumphash (tablename, name, hash) VALUES (?, ?, ?)", null);
+		for (final Map.Entry<String, String> entry : changed.entrySet()) {
+			insert.setString(1, table);
+			insert.setString(2, entry.getKey());
+			insert.setString(3, entry.getValue());
+			insert.addBatch();
+		}
+		insert.executeBatch();
+		insert.close();
+	}
+}
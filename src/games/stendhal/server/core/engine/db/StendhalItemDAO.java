@@ -15,12 +15,11 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
-import java.util.Collection;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
-import org.apache.log4j.Logger;
-
 import games.stendhal.common.MathHelper;
 import games.stendhal.server.core.engine.SingletonRepository;
 import games.stendhal.server.core.rule.EntityManager;
@@ -38,7 +37,6 @@ import marauroa.server.db.DBTransaction;
 public class StendhalItemDAO {
 	/** attribute name of itemid */
 	public static final String ATTR_ITEM_LOGID = "logid";
-	private static final Logger logger = Logger.getLogger(StendhalItemDAO.class);
 
 	/**
 	 * Assigns the next logid to the specified item in case it does not already have one.
@@ -132,6 +130,94 @@ public class StendhalItemDAO {
 		transaction.execute(query, params);
 	}
 
+	/**
+	 * Assigns log ids to all items of a batch that requested one, and adds
+	 * their register entries to the batch.
+	 *
+	 * @param transaction DBTransaction
+	 * @param batch batch
+	 * @throws SQLException in case of an database error
+	 */
+	public void itemLogAssignIDs(final DBTransaction transaction, final ItemLogBatch batch) throws SQLException {
+		final List<RPObject> items = batch.getNewItems();
+		if (items.isEmpty()) {
+			return;
+		}
+		final List<Timestamp> timestamps = batch.getNewItemTimestamps();
+
+		// The item table is only written by the database thread of the server,
+		// so the new rows get the ids after the current maximum in insert order.
+		final int lastId = transaction.querySingleCellInt("SELECT COALESCE(MAX(id), 0) FROM item", null);
+		final PreparedStatement stmt = transaction.prepareStatement("INSERT INTO item (name, timedate) VALUES (?, ?)", null);
+		for (int i = 0; i < items.size(); i++) {
+			stmt.setString(1, emptyIfNull(items.get(i).get("name")));
+			stmt.setTimestamp(2, timestamps.get(i));
+			stmt.addBatch();
+		}
+		stmt.executeBatch();
+
+		final Map<String, Object> params = new HashMap<String, Object>();
+		params.put("lastid", lastId);
+		final List<Integer> ids = new ArrayList<Integer>(items.size());
+		final ResultSet resultSet = transaction.query("SELECT id FROM item WHERE id > [lastid] ORDER BY id", params);
+		while (resultSet.next()) {
+			ids.add(resultSet.getInt(1));
+		}
+		resultSet.close();
+		if (ids.size() != items.size()) {
+			throw new SQLException("Expected " + items.size() + " new item ids, but found " + ids.size());
+		}
+
+		for (int i = 0; i < items.size(); i++) {
+			final RPObject item = items.get(i);
+			item.put(ATTR_ITEM_LOGID, ids.get(i).intValue());
+			batch.addEntry(timestamps.get(i), ids.get(i).intValue(), null, "register", getAttribute(item, "name"),
+					getAttribute(item, "quantity"), getAttribute(item, "itemdata"), getAttribute(item, "bound"));
+		}
+	}
+
+	/**
+	 * Writes all log entries of a batch with one batched statement.
+	 *
+	 * @param transaction DBTransaction
+	 * @param batch batch
+	 * @throws SQLException in case of an database error
+	 */
+	public void itemLogWriteEntries(final DBTransaction transaction, final ItemLogBatch batch) throws SQLException {
+		final List<ItemLogBatch.Entry> entries = batch.getEntries();
+		if (entries.isEmpty()) {
+			return;
+		}
+		final PreparedStatement stmt = transaction.prepareStatement("INSERT INTO itemlog (itemid, source, event, "
+				+ "param1, param2, param3, param4, timedate) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", null);
+		for (final ItemLogBatch.Entry entry : entries) {
+			stmt.setInt(1, entry.itemid);
+			stmt.setString(2, emptyIfNull(StringUtils.trimTo(entry.source, 64)));
+			stmt.setString(3, emptyIfNull(StringUtils.trimTo(entry.event, 64)));
+			stmt.setString(4, emptyIfNull(StringUtils.trimTo(entry.param1, 64)));
+			stmt.setString(5, emptyIfNull(StringUtils.trimTo(entry.param2, 64)));
+			stmt.setString(6, emptyIfNull(StringUtils.trimTo(entry.param3, 64)));
+			stmt.setString(7, emptyIfNull(StringUtils.trimTo(entry.param4, 64)));
+			stmt.setTimestamp(8, entry.timestamp);
+			stmt.addBatch();
+		}
+		stmt.executeBatch();
+	}
+
+	/**
+	 * The single row statements write missing values as empty strings, so
+	 * the batched ones do the same.
+	 *
+	 * @param value value
+	 * @return value or an empty string
+	 */
+	private static String emptyIfNull(final String value) {
+		if (value == null) {
+			return "";
+		}
+		return value;
+	}
+
 	/**
 	 * gets an optional attribute .
 	 *
@@ -147,65 +233,63 @@ public class StendhalItemDAO {
 		}
 	}
 	/**
-	 * Dumps the properties of the specified object into the prepared statement as an operation in
-	 * a batch.
+	 * Gets the values of the specified object in the order of the columns of
+	 * the iteminfo table.
 	 *
-	 * @param stmt
-	 *   PreparedStatement in batch mode.
 	 * @param item
 	 *   DefaultItem
-	 * @throws
-	 *   SQLException in case a database error is thrown.
+	 * @return
+	 *   values of the row
 	 */
-	private void dump(PreparedStatement stmt, DefaultItem item) throws SQLException {
-		stmt.setInt(1, 1);
-		stmt.setString(2, item.getItemName());
-		stmt.setString(3, item.getItemClass());
-		stmt.setString(4, item.getItemSubclass());
-		stmt.setString(5, item.getDescription());
-		stmt.setDouble(6, item.getWeight());
-		stmt.setInt(7, item.getValue());
-		stmt.setString(8, item.getAttributes().get("min_level"));
+	private Object[] toRow(DefaultItem item) {
+		return new Object[] {
+			item.getItemName(),
+			item.getItemClass(),
+			item.getItemSubclass(),
+			item.getDescription(),
+			item.getWeight(),
+			item.getValue(),
+			item.getAttributes().get("min_level"),
 
-		stmt.setString(9, item.getAttributes().get("atk"));
-		stmt.setString(10, item.getAttributes().get("ratk"));
-		stmt.setString(11, item.getAttributes().get("rate"));
-		stmt.setString(12, item.getAttributes().get("def"));
-		stmt.setString(13, item.getAttributes().get("range"));
-		stmt.setString(14, toStringOrNull(item.getDamageType()));
-		stmt.setString(15, item.getAttributes().get("lifesteal"));
+			item.getAttributes().get("atk"),
+			item.getAttributes().get("ratk"),
+			item.getAttributes().get("rate"),
+			item.getAttributes().get("def"),
+			item.getAttributes().get("range"),
+			toStringOrNull(item.getDamageType()),
+			item.getAttributes().get("lifesteal"),
 
-		stmt.setString(16, item.getAttributes().get("amount"));
-		stmt.setString(17, item.getAttributes().get("regen"));
-		stmt.setString(18, item.getAttributes().get("frequency"));
-		stmt.setString(19, item.getAttributes().get("immunization"));
-		stmt.setString(20, item.getAttributes().get("antipoison"));
-		stmt.setString(21, item.getAttributes().get("life_support"));
+			item.getAttributes().get("amount"),
+			item.getAttributes().get("regen"),
+			item.getAttributes().get("frequency"),
+			item.getAttributes().get("immunization"),
+			item.getAttributes().get("antipoison"),
+			item.getAttributes().get("life_support"),
 
-		stmt.setString(22, toStringOrNull(toClassNameOrNull(item.getImplementation())));
-		stmt.setString(23, toClassStringOrNull(item.getUseBehavior()));
-		stmt.setString(24, item.getAttributes().get("itemdata"));
-		stmt.setString(25, item.getAttributes().get("menu"));
-		stmt.setString(26, item.getAttributes().get("use_sound"));
-		stmt.setString(27, item.getAttributes().get("persistent"));
-		stmt.setString(28, item.getAttributes().get("slot_name"));
-		stmt.setString(29, item.getAttributes().get("slot_size"));
+			toStringOrNull(toClassNameOrNull(item.getImplementation())),
+			toClassStringOrNull(item.getUseBehavior()),
+			item.getAttributes().get("itemdata"),
+			item.getAttributes().get("menu"),
+			item.getAttributes().get("use_sound"),
+			item.getAttributes().get("persistent"),
+			item.getAttributes().get("slot_name"),
+			item.getAttributes().get("slot_size"),
 
-		stmt.setString(30, item.getAttributes().get("undroppableondeath"));
-		stmt.setInt(31, MathHelper.parseIntDefault(item.getAttributes().get("autobind"), 0));
-		stmt.setString(32, item.getAttributes().get("max_quantity"));
-		stmt.setString(33, item.getAttributes().get("deterioration"));
-		stmt.setInt(34, item.isUnattainable() ? 1: 0);
+			item.getAttributes().get("undroppableondeath"),
+			MathHelper.parseIntDefault(item.getAttributes().get("autobind"), 0),
+			item.getAttributes().get("max_quantity"),
+			item.getAttributes().get("deterioration"),
+			item.isUnattainable() ? 1: 0
 
-		/*
-		private List<String> slots = null;
-		private Map<String, String> attributes = null;
-		private Map<Nature, Double> susceptibilities;
-		private Map<StatusType, Double> resistances;
-		private String[] statusAttacks;
-		private List<String> activeSlotsList;
-		 */
-		stmt.addBatch();
+			/*
+			private List<String> slots = null;
+			private Map<String, String> attributes = null;
+			private Map<Nature, Double> susceptibilities;
+			private Map<StatusType, Double> resistances;
+			private String[] statusAttacks;
+			private List<String> activeSlotsList;
+			 */
+		};
 	}
 
 	public String toStringOrNull(Object o) {
@@ -231,53 +315,24 @@ public class StendhalItemDAO {
 
 
 	/**
-	 * dumps all NPCs
+	 * dumps the items that changed since the last dump
 	 *
 	 * @param transaction DBTransaction
 	 * @throws SQLException in case of an database error
 	 */
 	public void dump(DBTransaction transaction) throws SQLException {
-		long start = System.currentTimeMillis();
-		transaction.execute("UPDATE iteminfo SET active=0", null);
-		PreparedStatement stmt = transaction.prepareStatement("UPDATE iteminfo SET "
-				+ "active=?, name=?, class=?, subclass=?, description=?, weight=?, value=?, min_level=?, "
-				+ "atk=?, ratk=?, rate=?, def=?, projectile_range=?, damage_type=?, lifesteal=?, "
-				+ "amount=?, regen=?, frequency=?, immunization=?, antipoison=?, life_support=?, "
-				+ "implementation=?, use_behavior=?, itemdata=?, menu=?, use_sound=?, persistent=?, "
-				+ "slot_name=?, slot_size=?, undroppableondeath=?, autobind=?, max_quantity=?, "
-				+ "deterioration=?, unattainable=? "
-				+ "WHERE name=?", null);
-		Map<String, DefaultItem> unknown = new HashMap<>();
+		IncrementalDump dump = new IncrementalDump("iteminfo",
+				"name", "class", "subclass", "description", "weight", "value", "min_level",
+				"atk", "ratk", "rate", "def", "projectile_range", "damage_type", "lifesteal",
+				"amount", "regen", "frequency", "immunization", "antipoison", "life_support",
+				"implementation", "use_behavior", "itemdata", "menu", "use_sound", "persistent",
+				"slot_name", "slot_size", "undroppableondeath", "autobind", "max_quantity",
+				"deterioration", "unattainable");
 		EntityManager entityManager = SingletonRepository.getEntityManager();
-		Collection<DefaultItem> defaultItems = entityManager.getDefaultItems();
-		for (DefaultItem item : defaultItems) {
-			unknown.put(item.getItemName().trim(), item);
-			stmt.setString(35, item.getItemName());
-			dump(stmt, item);
+		for (DefaultItem item : entityManager.getDefaultItems()) {
+			dump.add(toRow(item));
 		}
-		stmt.executeBatch();
-
-
-		// add new
-		ResultSet resultSet = transaction.query("SELECT name FROM iteminfo", null);
-		while (resultSet.next()) {
-			unknown.remove(resultSet.getString(1));
-		}
-
-		stmt = transaction.prepareStatement("INSERT INTO iteminfo "
-				+ "(active, name, class, subclass, description, weight, value, min_level, "
-				+ "atk, ratk, rate, def, projectile_range, damage_type, lifesteal, "
-				+ "amount, regen, frequency, immunization, antipoison, life_support, "
-				+ "implementation, use_behavior, itemdata, menu, use_sound, persistent, "
-				+ "slot_name, slot_size, undroppableondeath, autobind, max_quantity, "
-				+ "deterioration, unattainable) " +
-			"VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?);", null);
-
-		for (DefaultItem item : unknown.values()) {
-			dump(stmt, item);
-		}
-		stmt.executeBatch();
-		logger.debug("Completed dumping of items in " + (System.currentTimeMillis() - start) + " milliseconds.");
+		dump.write(transaction);
 	}
 
 
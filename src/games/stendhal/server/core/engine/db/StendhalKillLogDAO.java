@@ -11,13 +11,12 @@
  ***************************************************************************/
 package games.stendhal.server.core.engine.db;
 
+import java.sql.Date;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
-import java.sql.Timestamp;
-import java.text.SimpleDateFormat;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 
-import games.stendhal.server.entity.Entity;
 import games.stendhal.server.entity.Killer;
 import games.stendhal.server.entity.creature.Creature;
 import games.stendhal.server.entity.player.Player;
@@ -31,36 +30,60 @@ import marauroa.server.db.DBTransaction;
 public class StendhalKillLogDAO {
 
 	/**
-	 * Logs a kill.
+	 * Adds the kills of a batch to the kill counts. The existing rows are
+	 * updated with one batched statement, and the missing rows are inserted
+	 * with another one.
 	 *
 	 * @param transaction transaction
-	 * @param killed killed entity
-	 * @param killer killer
+	 * @param batch kills to add
 	 * @throws SQLException in case of an database error
 	 */
-	public void logKill(final DBTransaction transaction, final Entity killed, final Killer killer, Timestamp timestamp) throws SQLException {
-		// try update in case we already have this combination
-		String query = "UPDATE kills SET cnt = cnt+1"
-			+ " WHERE killed = '[killed]' AND killed_type = '[killed_type]'"
-			+ " AND killer = '[killer]' AND killer_type = '[killer_type]'"
-			+ " AND day = '[day]';";
-
-		Map<String, Object> params = new HashMap<String, Object>();
-		params.put("killed", killed.getName());
-		params.put("killed_type", entityToType(killed));
-		params.put("killer", killer.getName());
-		params.put("killer_type", entityToType(killer));
-		params.put("day", new SimpleDateFormat("yyyy-MM-dd").format(timestamp));
-
-		final int rowCount = transaction.execute(query, params);
+	public void logKills(final DBTransaction transaction, final KillLogBatch batch) throws SQLException {
+		if (batch.isEmpty()) {
+			return;
+		}
+		final List<KillLogBatch.Entry> entries = new ArrayList<KillLogBatch.Entry>(batch.getEntries());
+		final PreparedStatement update = transaction.prepareStatement("UPDATE kills SET cnt = cnt + ?"
+				+ " WHERE killed = ? AND killed_type = ? AND killer = ? AND killer_type = ? AND day = ?", null);
+		for (final KillLogBatch.Entry entry : entries) {
+			update.setInt(1, entry.count);
+			setKey(update, 2, entry);
+			update.addBatch();
+		}
+		final int[] rowCounts = update.executeBatch();
 
-		// in case we did not have this combination yet, make an insert
-		if (rowCount == 0) {
-			query = "INSERT INTO kills (killed, killed_type, killer, killer_type, day, cnt)"
-				+ " VALUES ('[killed]', '[killed_type]', '[killer]', '[killer_type]', '[day]', 1)";
-			transaction.execute(query, params);
+		// rows that did not exist yet
+		PreparedStatement insert = null;
+		for (int i = 0; i < entries.size(); i++) {
+			if (rowCounts[i] == 0) {
+				if (insert == null) {
+					insert = transaction.prepareStatement("INSERT INTO kills (killed, killed_type, killer, killer_type, day, cnt)"
+							+ " VALUES (?, ?, ?, ?, ?, ?)", null);
+				}
+				setKey(insert, 1, entries.get(i));
+				insert.setInt(6, entries.get(i).count);
+				insert.addBatch();
+			}
+		}
+		if (insert != null) {
+			insert.executeBatch();
 		}
+	}
 
+	/**
+	 * Sets the columns that identify a row of the kills table.
+	 *
+	 * @param stmt statement
+	 * @param first index of the killed column, the others follow it
+	 * @param entry row
+	 * @throws SQLException in case of an database error
+	 */
+	private static void setKey(final PreparedStatement stmt, final int first, final KillLogBatch.Entry entry) throws SQLException {
+		stmt.setString(first, entry.killed);
+		stmt.setString(first + 1, entry.killedType);
+		stmt.setString(first + 2, entry.killer);
+		stmt.setString(first + 3, entry.killerType);
+		stmt.setDate(first + 4, Date.valueOf(entry.day));
 	}
 
 	/**
@@ -11,14 +11,9 @@
  ***************************************************************************/
 package games.stendhal.server.core.engine.db;
 
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.HashMap;
 import java.util.Map;
 
-import org.apache.log4j.Logger;
-
 import games.stendhal.server.core.engine.SingletonRepository;
 import games.stendhal.server.entity.npc.SpeakerNPC;
 import marauroa.server.db.DBTransaction;
@@ -29,41 +24,35 @@ import marauroa.server.db.DBTransaction;
  * @author hendrik
  */
 public class StendhalNPCDAO {
-	private static Logger logger = Logger.getLogger(StendhalNPCDAO.class);
-
 
 	/**
-	 * Dumps the properties of the specified SpeakerNPC into the prepared statement as an operation in
-	 * a batch.
+	 * Gets the values of the specified SpeakerNPC in the order of the columns
+	 * of the npcs table.
 	 *
-	 * @param stmt
-	 *   PreparedStatement in batch mode.
 	 * @param npc
 	 *   SpeakerNPC.
-	 * @param shopsInfo
-	 *   What the NPC buys & sells.
-	 * @throws
-	 *   SQLException in case a database error is thrown.
+	 * @return
+	 *   values of the row
 	 */
-	private void dumpNPC(PreparedStatement stmt, SpeakerNPC npc) throws SQLException {
-		stmt.setInt(1, 1);
-		stmt.setString(2, npc.getName());
-		stmt.setString(3, npc.getTitle());
-		stmt.setString(4, npc.get("class"));
-		stmt.setString(5, getOutfit(npc));
-		stmt.setString(6, getOutfitLayer(npc));
-		stmt.setInt(7, npc.getHP());
-		stmt.setInt(8, npc.getBaseHP());
-		stmt.setString(9, npc.getZone().getName());
-		stmt.setInt(10, npc.getX());
-		stmt.setInt(11, npc.getY());
-		stmt.setInt(12, npc.getLevel());
-		stmt.setString(13, npc.getDescription());
-		stmt.setString(14, npc.getJob());
-		stmt.setString(15, npc.getAlternativeImage());
-		stmt.setString(16, npc.get("cloned"));
-		stmt.setInt(17, npc.isLocationHidden() ? 1 : 0);
-		stmt.addBatch();
+	private Object[] toRow(SpeakerNPC npc) {
+		return new Object[] {
+			npc.getName(),
+			npc.getTitle(),
+			npc.get("class"),
+			getOutfit(npc),
+			getOutfitLayer(npc),
+			npc.getHP(),
+			npc.getBaseHP(),
+			npc.getZone().getName(),
+			npc.getX(),
+			npc.getY(),
+			npc.getLevel(),
+			npc.getDescription(),
+			npc.getJob(),
+			npc.getAlternativeImage(),
+			npc.get("cloned"),
+			npc.isLocationHidden() ? 1 : 0
+		};
 	}
 
 	/**
@@ -95,43 +84,19 @@ public class StendhalNPCDAO {
 	}
 
 	/**
-	 * dumps all NPCs
+	 * dumps the NPCs that changed since the last dump
 	 *
 	 * @param transaction DBTransaction
 	 * @throws SQLException in case of an database error
 	 */
 	public void dumpNPCs(DBTransaction transaction) throws SQLException {
-		long start = System.currentTimeMillis();
-		transaction.execute("UPDATE npcs SET active=0", null);
-		PreparedStatement stmt = transaction.prepareStatement("UPDATE npcs SET "
-				+ "active=?, name=?, title=?, class=?, outfit=?, outfit_layers=?, hp=?, base_hp=?, zone=?, x=?, y=?, "
-				+ "level=?, description=?, job=?, image=?, cloned=?, hide_location=? "
-				+ "WHERE name=?", null);
-		Map<String, SpeakerNPC> unknown = new HashMap<>();
+		IncrementalDump dump = new IncrementalDump("npcs",
+				"name", "title", "class", "outfit", "outfit_layers", "hp", "base_hp", "zone", "x", "y",
+				"level", "description", "job", "image", "cloned", "hide_location");
 		for (SpeakerNPC npc : SingletonRepository.getNPCList()) {
-			unknown.put(npc.getName().trim(), npc);
-			stmt.setString(18, npc.getName());
-			dumpNPC(stmt, npc);
-		}
-		stmt.executeBatch();
-
-
-		// add new
-		ResultSet resultSet = transaction.query("SELECT name FROM npcs", null);
-		while (resultSet.next()) {
-			unknown.remove(resultSet.getString(1));
-		}
-
-		stmt = transaction.prepareStatement("INSERT INTO npcs " +
-			"(active, name, title, class, outfit, outfit_layers, hp, base_hp, zone, x, y, " +
-			"level, description, job, image, cloned, hide_location) " +
-			"VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?);", null);
-
-		for (SpeakerNPC npc : unknown.values()) {
-			dumpNPC(stmt, npc);
+			dump.add(toRow(npc));
 		}
-		stmt.executeBatch();
-		logger.debug("Completed dumping of NPCs in " + (System.currentTimeMillis() - start) + " milliseconds.");
+		dump.write(transaction);
 	}
 
 	public Map<String, Integer> getIdMap(DBTransaction transaction) throws SQLException {
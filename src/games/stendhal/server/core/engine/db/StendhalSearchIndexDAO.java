@@ -14,12 +14,19 @@ package games.stendhal.server.core.engine.db;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import com.google.common.collect.Sets;
 
 import games.stendhal.server.core.rp.searchindex.SearchIndexEntry;
 import marauroa.server.db.DBTransaction;
+import marauroa.server.game.db.DAORegister;
 
 /**
  * database base access for the searchindex used on the website
@@ -106,20 +113,103 @@ public class StendhalSearchIndexDAO {
 	}
 
 	/**
-	 * dumps the search index
+	 * deletes the entries of entities
+	 *
+	 * @param transaction DBTransactions
+	 * @param keys keys of the entities as returned by {@link #getKey(SearchIndexEntry)}
+	 * @return number of deleted entries
+	 * @throws SQLException in case a database error is thrown.
+	 */
+	private int deleteEntities(DBTransaction transaction, Collection<String> keys) throws SQLException {
+		PreparedStatement stmt = transaction.prepareStatement("DELETE FROM searchindex"
+				+ " WHERE entitytype=? AND entityname=?", null);
+		for (String key : keys) {
+			stmt.setString(1, key.substring(0, 1));
+			stmt.setString(2, key.substring(2));
+			stmt.addBatch();
+		}
+		int res = 0;
+		for (int count : stmt.executeBatch()) {
+			res += Math.max(count, 0);
+		}
+		stmt.close();
+		return res;
+	}
+
+	/**
+	 * gets the key under which the hash of the entity of an entry is stored
+	 *
+	 * @param entry SearchIndexEntry
+	 * @return entity type and name
+	 */
+	private static String getKey(SearchIndexEntry entry) {
+		return entry.getEntityType() + ":" + entry.getEntityName();
+	}
+
+	/**
+	 * dumps the search index, writing only the entries of entities which changed since the last dump
 	 *
 	 * @param transaction DBTransaction
 	 * @param entries required entries
+	 * @return number of entries that were deleted or inserted
 	 * @throws SQLException in case of an database error
 	 */
-	public void updateSearchIndex(DBTransaction transaction, Set<SearchIndexEntry> entries) throws SQLException {
-		Set<SearchIndexEntry> oldEntries = readExistingEntries(transaction);
+	public int updateSearchIndex(DBTransaction transaction, Set<SearchIndexEntry> entries) throws SQLException {
+		Map<String, List<SearchIndexEntry>> entities = new HashMap<>();
+		for (SearchIndexEntry entry : entries) {
+			entities.computeIfAbsent(getKey(entry), key -> new ArrayList<>()).add(entry);
+		}
+		Map<String, String> hashes = new HashMap<>();
+		for (Map.Entry<String, List<SearchIndexEntry>> entity : entities.entrySet()) {
+			List<SearchIndexEntry> list = entity.getValue();
+			list.sort(Comparator.comparing(SearchIndexEntry::getSearchTerm).thenComparingInt(SearchIndexEntry::getSearchScore));
+			List<Object> values = new ArrayList<>();
+			for (SearchIndexEntry entry : list) {
+				values.add(entry.getSearchTerm());
+				values.add(entry.getSearchScore());
+			}
+			hashes.put(entity.getKey(), StendhalDumpHashDAO.hash(values.toArray()));
+		}
 
-		Set<SearchIndexEntry> toDelete = Sets.difference(oldEntries, entries);
-		Set<SearchIndexEntry> toAdd = Sets.difference(entries, oldEntries);
+		StendhalDumpHashDAO hashDAO = DAORegister.get().get(StendhalDumpHashDAO.class);
+		String tableHash = StendhalDumpHashDAO.tableHash(hashes);
+		Map<String, String> stored = hashDAO.readHashes(transaction, "searchindex");
+		String storedTableHash = stored.remove(StendhalDumpHashDAO.TABLE_HASH);
+		if (tableHash.equals(storedTableHash)) {
+			return 0;
+		}
+
+		int rows;
+		Map<String, String> changed = new HashMap<>();
+		for (Map.Entry<String, String> entry : hashes.entrySet()) {
+			if (!entry.getValue().equals(stored.get(entry.getKey()))) {
+				changed.put(entry.getKey(), entry.getValue());
+			}
+		}
+		Set<String> removed = Sets.difference(stored.keySet(), hashes.keySet());
+
+		if (storedTableHash == null) {
+			// first dump with hashes, compare with the existing entries
+			Set<SearchIndexEntry> oldEntries = readExistingEntries(transaction);
+			Set<SearchIndexEntry> toDelete = Sets.difference(oldEntries, entries);
+			Set<SearchIndexEntry> toAdd = Sets.difference(entries, oldEntries);
+			deleteObsoleteEntries(transaction, toDelete);
+			addNewEntries(transaction, toAdd);
+			rows = toDelete.size() + toAdd.size();
+		} else {
+			Set<String> keys = Sets.union(changed.keySet(), removed);
+			rows = deleteEntities(transaction, keys);
+			Set<SearchIndexEntry> toAdd = Sets.newHashSet();
+			for (String key : changed.keySet()) {
+				toAdd.addAll(entities.get(key));
+			}
+			addNewEntries(transaction, toAdd);
+			rows += toAdd.size();
+		}
 
-		deleteObsoleteEntries(transaction, toDelete);
-		addNewEntries(transaction, toAdd);
+		changed.put(StendhalDumpHashDAO.TABLE_HASH, tableHash);
+		hashDAO.writeHashes(transaction, "searchindex", changed, removed);
+		return rows;
 	}
 
 }
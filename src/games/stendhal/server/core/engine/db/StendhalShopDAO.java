@@ -13,7 +13,11 @@ package games.stendhal.server.core.engine.db;
 
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -56,64 +60,14 @@ public class StendhalShopDAO extends CharacterDAO {
 	 */
 
 	/**
-	 * Dumps the properties of the specified object into the prepared statement as
-	 * an operation in a batch.
+	 * Gets the rows of the shopinventoryinfo table for the specified shop.
 	 *
-	 * @param stmt PreparedStatement in batch mode.
 	 * @param shop Shop
-	 * @throws SQLException in case a database error is thrown.
+	 * @param itemInfoIdMap ids of the items
+	 * @return name, price, iteminfo_id and outfit of each row
 	 */
-	private void dumpShop(PreparedStatement stmt, ShopInventory<?, ?> shop) throws SQLException {
-		stmt.setInt(1, 1);
-		stmt.setString(2, shop.getName());
-		stmt.setString(3, shop.getShopType().toString());
-		stmt.addBatch();
-	}
-
-	/**
-	 * dumps all creatures
-	 *
-	 * @param transaction DBTransaction
-	 * @throws SQLException in case of an database error
-	 */
-	public void dumpShops(DBTransaction transaction) throws SQLException {
-
-		// update existing
-		transaction.execute("UPDATE shopinfo SET active=0", null);
-		PreparedStatement stmt = transaction.prepareStatement("UPDATE shopinfo SET "
-				+ "active=?, name=?, shop_type=? "
-				+ "WHERE name=?", null);
-
-		Map<String, ShopInventory<?, ?>> unknown = new HashMap<>();
-		List<ShopInventory<?, ?>> shops = getShops();
-		for (ShopInventory<?, ?> shop : shops) {
-			unknown.put(shop.getName(), shop);
-			stmt.setString(4, shop.getName());
-			dumpShop(stmt, shop);
-		}
-		stmt.executeBatch();
-
-		// add new
-		Set<String> known = getShopIdMap(transaction).keySet();
-		for (String knownEntry : known) {
-			unknown.remove(knownEntry);
-		}
-
-		stmt = transaction.prepareStatement("INSERT INTO shopinfo "
-				+ "(active, name, shop_type) "
-				+ "VALUES (?, ?, ?);", null);
-		for (ShopInventory<?, ?> shop : unknown.values()) {
-			dumpShop(stmt, shop);
-		}
-		stmt.executeBatch();
-	}
-
-	private void dumpShopInventory(PreparedStatement stmt, ShopInventory<?, ?> shop,
-			Map<String, Integer> shopIdMap,
-			Map<String, Integer> itemInfoIdMap) throws SQLException {
-		String shopName = shop.getName();
-		Integer shopId = shopIdMap.get(shopName);
-
+	private List<Object[]> getInventoryRows(ShopInventory<?, ?> shop, Map<String, Integer> itemInfoIdMap) {
+		List<Object[]> rows = new ArrayList<>();
 		for (String name : shop.keySet()) {
 			String outfit = null;
 			Integer itemId = null;
@@ -122,67 +76,72 @@ public class StendhalShopDAO extends CharacterDAO {
 			} else if (shop instanceof OutfitShopInventory){
 				outfit = ((OutfitShopInventory) shop).get(name).first();
 			}
-			stmt.setInt(1, 1);
-			stmt.setObject(2, shopId);
-			stmt.setString(3, name);
-			stmt.setObject(4, shop.getPrice(name));
-			stmt.setObject(5, itemId);
-			stmt.setObject(6, outfit);
-			stmt.addBatch();
-		}
-	}
-
-	private void dumpShopIventories(DBTransaction transaction) throws SQLException {
-		transaction.execute("DELETE FROM shopinventoryinfo", null);
-
-		List<ShopInventory<?, ?>> shops = getShops();
-		PreparedStatement stmt = transaction.prepareStatement("INSERT INTO shopinventoryinfo "
-				+ "(active, shopinfo_id, name, price, iteminfo_id, outfit) "
-				+ "VALUES (?, ?, ?, ?, ?, ?);", null);
-		Map<String, Integer> shopIdMap = getShopIdMap(transaction);
-		Map<String, Integer> itemInfoIdMap = DAORegister.get().get(StendhalItemDAO.class).getItemInfoIdMap(transaction);
-		for (ShopInventory<?, ?> shop : shops) {
-			dumpShopInventory(stmt, shop, shopIdMap, itemInfoIdMap);
+			rows.add(new Object[] {name, shop.getPrice(name), itemId, outfit});
 		}
-		stmt.executeBatch();
+		return rows;
 	}
 
-	private void dumpShopOwner(PreparedStatement stmt, ShopInventory<?, ?> shop,
-			Map<String, Integer> shopIdMap,
-			Map<String, Integer> npcIdMap) throws SQLException {
-
-		String shopName = shop.getName();
-		Integer shopId = shopIdMap.get(shopName);
-
+	/**
+	 * Gets the rows of the shopownerinfo table for the specified shop.
+	 *
+	 * @param shop Shop
+	 * @param npcIdMap ids of the NPCs
+	 * @return npcinfo_id and price_factor of each row
+	 */
+	private List<Object[]> getOwnerRows(ShopInventory<?, ?> shop, Map<String, Integer> npcIdMap) {
+		List<Object[]> rows = new ArrayList<>();
 		for (MerchantConfigurator mc : shop.getMerchantConfigurators()) {
 			float priceFactor = 1;
 			if (mc.factor != null) {
 				priceFactor = mc.factor.floatValue();
 			}
+			rows.add(new Object[] {npcIdMap.get(mc.npc), priceFactor});
+		}
+		return rows;
+	}
 
-			stmt.setInt(1, 1);
-			stmt.setObject(2, npcIdMap.get(mc.npc));
-			stmt.setObject(3, shopId);
-			stmt.setFloat(4, priceFactor);
+	/**
+	 * Replaces the rows of a child table for the specified shops.
+	 *
+	 * @param transaction DBTransaction
+	 * @param table child table
+	 * @param columns columns without active and shopinfo_id
+	 * @param shopIds ids of the shops
+	 * @param rows new rows by shop id
+	 * @return number of inserted rows
+	 * @throws SQLException in case of an database error
+	 */
+	private int replaceRows(DBTransaction transaction, String table, String columns,
+			Collection<Integer> shopIds, Map<Integer, List<Object[]>> rows) throws SQLException {
+		PreparedStatement stmt = transaction.prepareStatement("DELETE FROM " + table + " WHERE shopinfo_id=?", null);
+		for (Integer shopId : shopIds) {
+			stmt.setInt(1, shopId.intValue());
 			stmt.addBatch();
 		}
 		stmt.executeBatch();
+		stmt.close();
 
-	}
-
-	private void dumpShopOwners(DBTransaction transaction) throws SQLException {
-		transaction.execute("DELETE FROM shopownerinfo", null);
-
-		List<ShopInventory<?, ?>> shops = getShops();
-		PreparedStatement stmt = transaction.prepareStatement("INSERT INTO shopownerinfo "
-				+ "(active, npcinfo_id, shopinfo_id, price_factor) "
-				+ "VALUES (?, ?, ?, ?);", null);
-		Map<String, Integer> shopIdMap = getShopIdMap(transaction);
-		Map<String, Integer> npcIdMap = DAORegister.get().get(StendhalNPCDAO.class).getIdMap(transaction);
-		for (ShopInventory<?, ?> shop : shops) {
-			dumpShopOwner(stmt, shop, shopIdMap, npcIdMap);
+		int count = columns.split(",").length;
+		StringBuilder placeholders = new StringBuilder();
+		for (int i = 0; i < count; i++) {
+			placeholders.append(", ?");
+		}
+		stmt = transaction.prepareStatement("INSERT INTO " + table
+				+ " (active, shopinfo_id, " + columns + ") VALUES (1, ?" + placeholders + ")", null);
+		int inserted = 0;
+		for (Map.Entry<Integer, List<Object[]>> entry : rows.entrySet()) {
+			for (Object[] row : entry.getValue()) {
+				stmt.setObject(1, entry.getKey());
+				for (int i = 0; i < row.length; i++) {
+					stmt.setObject(i + 2, row[i]);
+				}
+				stmt.addBatch();
+				inserted++;
+			}
 		}
 		stmt.executeBatch();
+		stmt.close();
+		return inserted;
 	}
 
 	private List<ShopInventory<?, ?>> getShops() {
@@ -198,11 +157,60 @@ public class StendhalShopDAO extends CharacterDAO {
 	}
 
 
+	/**
+	 * dumps the shops that changed since the last dump, together with their
+	 * inventories and owners
+	 *
+	 * @param transaction DBTransaction
+	 * @throws SQLException in case of an database error
+	 */
 	public void dump(DBTransaction transaction) throws SQLException {
 		long start = System.currentTimeMillis();
-		dumpShops(transaction);
-		dumpShopIventories(transaction);
-		dumpShopOwners(transaction);
-		logger.debug("Completed dumping of shops in " + (System.currentTimeMillis() - start) + " milliseconds.");
+		Map<String, Integer> itemInfoIdMap = DAORegister.get().get(StendhalItemDAO.class).getItemInfoIdMap(transaction);
+		Map<String, Integer> npcIdMap = DAORegister.get().get(StendhalNPCDAO.class).getIdMap(transaction);
+
+		// the inventories and owners are part of the hash of a shop
+		IncrementalDump dump = new IncrementalDump("shopinfo", "name", "shop_type");
+		Map<String, List<Object[]>> inventories = new HashMap<>();
+		Map<String, List<Object[]>> owners = new HashMap<>();
+		for (ShopInventory<?, ?> shop : getShops()) {
+			List<Object[]> inventory = getInventoryRows(shop, itemInfoIdMap);
+			List<Object[]> owner = getOwnerRows(shop, npcIdMap);
+			inventories.put(shop.getName(), inventory);
+			owners.put(shop.getName(), owner);
+			List<Object> dependencies = new ArrayList<>();
+			for (Object[] row : inventory) {
+				dependencies.addAll(Arrays.asList(row));
+			}
+			dependencies.add("owners");
+			for (Object[] row : owner) {
+				dependencies.addAll(Arrays.asList(row));
+			}
+			dump.add(new Object[] {shop.getName(), shop.getShopType().toString()}, dependencies.toArray());
+		}
+		if (!dump.write(transaction)) {
+			return;
+		}
+
+		// replace the inventories and owners of changed and removed shops
+		Map<String, Integer> shopIdMap = getShopIdMap(transaction);
+		Set<Integer> shopIds = new HashSet<>();
+		Map<Integer, List<Object[]>> inventoryRows = new HashMap<>();
+		Map<Integer, List<Object[]>> ownerRows = new HashMap<>();
+		for (String name : dump.getChangedNames()) {
+			Integer shopId = shopIdMap.get(name);
+			if (shopId == null) {
+				continue;
+			}
+			shopIds.add(shopId);
+			if (inventories.containsKey(name)) {
+				inventoryRows.put(shopId, inventories.get(name));
+				ownerRows.put(shopId, owners.get(name));
+			}
+		}
+		int rows = replaceRows(transaction, "shopinventoryinfo", "name, price, iteminfo_id, outfit", shopIds, inventoryRows);
+		rows += replaceRows(transaction, "shopownerinfo", "npcinfo_id, price_factor", shopIds, ownerRows);
+		logger.info("Dumped " + rows + " inventory and owner rows of " + shopIds.size() + " shops in "
+				+ (System.currentTimeMillis() - start) + " milliseconds.");
 	}
 }
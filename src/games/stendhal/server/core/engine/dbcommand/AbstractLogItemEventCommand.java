@@ -12,7 +12,9 @@
 package games.stendhal.server.core.engine.dbcommand;
 
 import java.sql.SQLException;
+import java.util.Collections;
 
+import games.stendhal.server.core.engine.db.ItemLogBatch;
 import marauroa.common.game.RPObject;
 import marauroa.server.db.DBTransaction;
 import marauroa.server.db.command.AbstractDBCommand;
@@ -27,17 +29,24 @@ public abstract class AbstractLogItemEventCommand extends AbstractDBCommand {
 
 	@Override
 	public void execute(DBTransaction transaction) throws SQLException {
-		log(transaction);
+		LogItemEventBatchCommand.log(transaction, Collections.singletonList(this));
 	}
 
 
 	/**
-	 * logs the event to the database.
+	 * requests log ids for the items of the event. This is done for all
+	 * events of a batch first, so that the ids can be assigned together.
 	 *
-	 * @param transaction DBTransaction
-	 * @throws SQLException in case of an database error
+	 * @param batch ItemLogBatch
 	 */
-	protected abstract void log(DBTransaction transaction) throws SQLException;
+	protected abstract void prepare(ItemLogBatch batch);
+
+	/**
+	 * adds the log entries of the event to the batch.
+	 *
+	 * @param batch ItemLogBatch, the items requested by prepare() have log ids
+	 */
+	protected abstract void log(ItemLogBatch batch);
 
 	/**
 	 * gets the quantity from an item; correctly handles non stackable items
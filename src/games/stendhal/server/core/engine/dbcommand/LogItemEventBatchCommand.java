@@ -0,0 +1,115 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine.dbcommand;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.base.MoreObjects;
+
+import games.stendhal.server.core.engine.db.ItemLogBatch;
+import games.stendhal.server.core.engine.db.StendhalItemDAO;
+import marauroa.server.db.DBTransaction;
+import marauroa.server.db.command.AbstractDBCommand;
+import marauroa.server.game.db.DAORegister;
+
+/**
+ * logs several item events in one transaction
+ */
+public class LogItemEventBatchCommand extends AbstractDBCommand {
+
+	/** events in batches that have not been written yet */
+	private static final AtomicInteger outstanding = new AtomicInteger();
+
+	/** time the last batch took to write, in milliseconds */
+	private static volatile int lastWriteMillis;
+
+	private final List<AbstractLogItemEventCommand> commands;
+
+	/** set once the batch no longer counts as outstanding, it may be retried */
+	private boolean done;
+
+	/**
+	 * creates a batch of item log commands
+	 *
+	 * @param commands commands in the order they were logged. Their enqueue
+	 * 	time has to be set.
+	 */
+	public LogItemEventBatchCommand(final List<AbstractLogItemEventCommand> commands) {
+		this.commands = commands;
+		outstanding.addAndGet(commands.size());
+	}
+
+	@Override
+	public void execute(final DBTransaction transaction) throws SQLException {
+		final long start = System.currentTimeMillis();
+		try {
+			log(transaction, commands);
+		} finally {
+			if (!done) {
+				done = true;
+				outstanding.addAndGet(-commands.size());
+			}
+			lastWriteMillis = (int) (System.currentTimeMillis() - start);
+		}
+	}
+
+	/**
+	 * logs item events: assigns the log ids of all new items and then writes
+	 * all entries.
+	 *
+	 * @param transaction DBTransaction
+	 * @param commands commands in the order they were logged
+	 * @throws SQLException in case of an database error
+	 */
+	static void log(final DBTransaction transaction, final List<? extends AbstractLogItemEventCommand> commands) throws SQLException {
+		final ItemLogBatch batch = new ItemLogBatch();
+		for (final AbstractLogItemEventCommand command : commands) {
+			command.prepare(batch);
+		}
+		final StendhalItemDAO stendhalItemDAO = DAORegister.get().get(StendhalItemDAO.class);
+		stendhalItemDAO.itemLogAssignIDs(transaction, batch);
+		for (final AbstractLogItemEventCommand command : commands) {
+			command.log(batch);
+		}
+		stendhalItemDAO.itemLogWriteEntries(transaction, batch);
+	}
+
+	/**
+	 * gets the number of events that are waiting in batches to be written
+	 *
+	 * @return number of events
+	 */
+	public static int getOutstandingEvents() {
+		return outstanding.get();
+	}
+
+	/**
+	 * gets the time the last batch took to write
+	 *
+	 * @return time in milliseconds
+	 */
+	public static int getLastWriteMillis() {
+		return lastWriteMillis;
+	}
+
+	/**
+	 * returns a string suitable for debug output of this DBCommand.
+	 *
+	 * @return debug string
+	 */
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(this).add("events", commands.size()).toString();
+	}
+}
@@ -0,0 +1,110 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine.dbcommand;
+
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.base.MoreObjects;
+
+import games.stendhal.server.core.engine.db.KillLogBatch;
+import games.stendhal.server.core.engine.db.StendhalKillLogDAO;
+import marauroa.server.db.DBTransaction;
+import marauroa.server.db.command.AbstractDBCommand;
+import marauroa.server.game.Statistics;
+import marauroa.server.game.db.DAORegister;
+
+/**
+ * adds the kill counts of a batch in one transaction
+ */
+public class LogKillBatchCommand extends AbstractDBCommand {
+
+	/** kills in batches that have not been written yet */
+	private static final AtomicInteger outstanding = new AtomicInteger();
+
+	/** time the last batch took to write, in milliseconds */
+	private static volatile int lastWriteMillis;
+
+	/** number of rows the last batch changed */
+	private static volatile int lastRows;
+
+	private final KillLogBatch batch;
+
+	/** set once the batch no longer counts as outstanding, it may be retried */
+	private boolean done;
+
+	/**
+	 * creates a command for a batch of kills
+	 *
+	 * @param batch kills, which must not be changed afterwards
+	 */
+	public LogKillBatchCommand(final KillLogBatch batch) {
+		this.batch = batch;
+		outstanding.addAndGet(batch.getKills());
+	}
+
+	@Override
+	public void execute(final DBTransaction transaction) throws SQLException {
+		final long start = System.currentTimeMillis();
+		try {
+			DAORegister.get().get(StendhalKillLogDAO.class).logKills(transaction, batch);
+		} finally {
+			if (!done) {
+				done = true;
+				outstanding.addAndGet(-batch.getKills());
+			}
+			lastWriteMillis = (int) (System.currentTimeMillis() - start);
+			lastRows = batch.getRows();
+			final Statistics statistics = Statistics.getStatistics();
+			statistics.set("Kill log queue", outstanding.get());
+			statistics.set("Kill log flush rows", lastRows);
+			statistics.set("Kill log write ms", lastWriteMillis);
+		}
+	}
+
+	/**
+	 * gets the number of kills that are waiting in batches to be written
+	 *
+	 * @return number of kills
+	 */
+	public static int getOutstandingKills() {
+		return outstanding.get();
+	}
+
+	/**
+	 * gets the time the last batch took to write
+	 *
+	 * @return time in milliseconds
+	 */
+	public static int getLastWriteMillis() {
+		return lastWriteMillis;
+	}
+
+	/**
+	 * gets the number of rows of the kills table the last batch changed
+	 *
+	 * @return number of rows
+	 */
+	public static int getLastRows() {
+		return lastRows;
+	}
+
+	/**
+	 * returns a string suitable for debug output of this DBCommand.
+	 *
+	 * @return debug string
+	 */
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(this).add("kills", batch.getKills()).add("rows", batch.getRows()).toString();
+	}
+}
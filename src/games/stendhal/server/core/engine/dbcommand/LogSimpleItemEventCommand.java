@@ -11,15 +11,11 @@
  ***************************************************************************/
 package games.stendhal.server.core.engine.dbcommand;
 
-import java.sql.SQLException;
-
 import com.google.common.base.MoreObjects;
 
-import games.stendhal.server.core.engine.db.StendhalItemDAO;
+import games.stendhal.server.core.engine.db.ItemLogBatch;
 import games.stendhal.server.entity.RPEntity;
 import marauroa.common.game.RPObject;
-import marauroa.server.db.DBTransaction;
-import marauroa.server.game.db.DAORegister;
 
 /**
  * logs a simple item event
@@ -35,6 +31,7 @@ public class LogSimpleItemEventCommand extends AbstractLogItemEventCommand {
 	private String param2;
 	private String param3;
 	private String param4;
+	private boolean skipped;
 
 	/**
 	 * creates a simple item log command
@@ -60,14 +57,19 @@ public class LogSimpleItemEventCommand extends AbstractLogItemEventCommand {
 
 
 	@Override
-	protected void log(final DBTransaction transaction) throws SQLException {
+	protected void prepare(final ItemLogBatch batch) {
 		// don't log the destruction of items that have not been logged prior.
-		if (event.equals("destroy") && !item.has("logid")) {
-			return;
+		skipped = event.equals("destroy") && !batch.hasID(item);
+		if (!skipped) {
+			batch.assignIDIfNotPresent(item, getEnqueueTime());
+		}
+	}
+
+	@Override
+	protected void log(final ItemLogBatch batch) {
+		if (!skipped) {
+			batch.addEntry(getEnqueueTime(), item, player, event, param1, param2, param3, param4);
 		}
-		StendhalItemDAO stendhalItemDAO = DAORegister.get().get(StendhalItemDAO.class);
-		stendhalItemDAO.itemLogAssignIDIfNotPresent(transaction, item, getEnqueueTime());
-		stendhalItemDAO.itemLogWriteEntry(transaction, getEnqueueTime(), item, player, event, param1, param2, param3, param4);
 	}
 
 	/**
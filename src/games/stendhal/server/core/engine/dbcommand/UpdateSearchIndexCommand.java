@@ -40,9 +40,10 @@ public class UpdateSearchIndexCommand extends AbstractDBCommand {
 		Set<SearchIndexEntry> index = manager.generateIndex();
 
 		StendhalSearchIndexDAO dao = DAORegister.get().get(StendhalSearchIndexDAO.class);
-		dao.updateSearchIndex(transaction, index);
+		int rows = dao.updateSearchIndex(transaction, index);
 
-		logger.info("Completed dumping of search index in " + (System.currentTimeMillis() - start) + " milliseconds.");
+		logger.info("Completed dumping of search index with " + rows + " changed rows in "
+				+ (System.currentTimeMillis() - start) + " milliseconds.");
 	}
 
 }
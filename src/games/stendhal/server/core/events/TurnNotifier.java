@@ -12,10 +12,9 @@
  ***************************************************************************/
 package games.stendhal.server.core.events;
 
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -24,6 +23,7 @@ import org.apache.log4j.Logger;
 
 import games.stendhal.server.core.engine.SingletonRepository;
 import games.stendhal.server.core.engine.StendhalRPWorld;
+import games.stendhal.server.core.engine.ZoneLogicRunner;
 
 /**
  * Other classes can register here to be notified at some time in the future.
@@ -40,11 +40,13 @@ public final class TurnNotifier {
 	private int currentTurn = -1;
 
 	/**
-	 * This Map maps each turn to the set of all events that will take place at
-	 * this turn. Turns at which no event should take place needn't be
-	 * registered here.
+	 * The timing wheel holding all events that will take place in the future,
+	 * indexed both by turn and by listener.
 	 */
-	private final Map<Integer, Set<TurnListener>> register = new HashMap<Integer, Set<TurnListener>>();
+	private final TurnWheel register = new TurnWheel();
+
+	/** Debugging view of the register, see getEventListForDebugging(). */
+	private final Map<Integer, Set<TurnListener>> registerView = new RegisterView();
 
 	/** Used for multi-threading synchronization. * */
 	private final Object sync = new Object();
@@ -85,33 +87,24 @@ public final class TurnNotifier {
 
 		this.currentTurn = currentTurn;
 
-		// get and remove the set for this turn
-		Set<TurnListener> set = null;
+		// get and remove the listeners for this turn
+		final List<TurnListener> set = new ArrayList<TurnListener>();
 		synchronized (sync) {
-			set = register.remove(Integer.valueOf(currentTurn));
+			register.poll(currentTurn, set);
 		}
 
 		if (logger.isDebugEnabled()) {
 			final StringBuilder os = new StringBuilder();
 			os.append("register: " + register.size() + "\n");
-			int setSize;
-			if (set != null) {
-				setSize = set.size();
-			} else {
-				setSize = 0;
-			}
-			os.append("set: " + setSize + "\n");
+			os.append("set: " + set.size() + "\n");
 			logger.info(os);
 		}
 
-		if (set != null) {
-			for (final TurnListener turnListener : set) {
-
-				try {
-					turnListener.onTurnReached(currentTurn);
-				} catch (final RuntimeException e) {
-					logger.error("Exception in " + turnListener, e);
-				}
+		for (final TurnListener turnListener : set) {
+			try {
+				turnListener.onTurnReached(currentTurn);
+			} catch (final RuntimeException e) {
+				logger.error("Exception in " + turnListener, e);
 			}
 		}
 	}
@@ -156,6 +149,9 @@ public final class TurnNotifier {
 			logger.error("Trying to notify null-object", new Throwable());
 			return;
 		}
+		if (ZoneLogicRunner.defer(() -> notifyAtTurn(turn, turnListener))) {
+			return;
+		}
 
 		if (logger.isDebugEnabled()) {
 			logger.info("Notify at " + turn + " by " + turnListener);
@@ -177,15 +173,7 @@ public final class TurnNotifier {
 		}
 
 		synchronized (sync) {
-			// do we have other events for this turn?
-			final Integer turnInt = Integer.valueOf(turn);
-			Set<TurnListener> set = register.get(turnInt);
-			if (set == null) {
-				set = new HashSet<TurnListener>();
-				register.put(turnInt, set);
-			}
-			// add it to the list
-			set.add(turnListener);
+			register.add(turn, turnListener);
 		}
 	}
 
@@ -197,19 +185,12 @@ public final class TurnNotifier {
 	 */
 
 	public void dontNotify(final TurnListener turnListener) {
+		if (ZoneLogicRunner.defer(() -> dontNotify(turnListener))) {
+			return;
+		}
 		// all events that are equal to this one should be forgotten.
-		// TurnEvent turnEvent = new TurnEvent(turnListener);
-		for (final Map.Entry<Integer, Set<TurnListener>> mapEntry : register.entrySet()) {
-			final Set<TurnListener> set = mapEntry.getValue();
-			// We don't remove directly, but first store in this
-			// set. This is to avoid ConcurrentModificationExceptions.
-			final Set<TurnListener> toBeRemoved = new HashSet<TurnListener>();
-			if (set.contains(turnListener)) {
-					toBeRemoved.add(turnListener);
-			}
-			for (final TurnListener event : toBeRemoved) {
-				set.remove(event);
-			}
+		synchronized (sync) {
+			register.remove(turnListener);
 		}
 	}
 
@@ -224,24 +205,14 @@ public final class TurnNotifier {
 
 	public int getRemainingTurns(final TurnListener turnListener) {
 		// all events match that are equal to this.
-		// TurnEvent turnEvent = new TurnEvent(turnListener);
-		// the HashMap is unsorted, so we need to run through
-		// all of it.
-		final List<Integer> matchingTurns = new ArrayList<Integer>();
-		for (final Map.Entry<Integer, Set<TurnListener>> mapEntry : register.entrySet()) {
-			final Set<TurnListener> set = mapEntry.getValue();
-			for (final TurnListener currentEvent : set) {
-				if (currentEvent.equals(turnListener)) {
-					matchingTurns.add(mapEntry.getKey());
-				}
-			}
+		final int turn;
+		synchronized (sync) {
+			turn = register.getFirstTurn(turnListener);
 		}
-		if (matchingTurns.size() > 0) {
-			Collections.sort(matchingTurns);
-			return matchingTurns.get(0).intValue() - currentTurn;
-		} else {
+		if (turn < 0) {
 			return -1;
 		}
+		return turn - currentTurn;
 	}
 
 	/**
@@ -260,12 +231,24 @@ public final class TurnNotifier {
 
 	/**
 	 * Returns the list of events. Note this is only for debugging the
-	 * TurnNotifier
+	 * TurnNotifier: The returned map is a read only snapshot of each
+	 * access, except for clear() which forgets all registered events.
 	 *
 	 * @return eventList
 	 */
 	public Map<Integer, Set<TurnListener>> getEventListForDebugging() {
-		return register;
+		return registerView;
+	}
+
+	/**
+	 * Returns the current turn, that is the turn the notifier last ran its
+	 * logic for. Unlike the turn of the rule processor, it is also available
+	 * when no RPServerManager is running.
+	 *
+	 * @return current turn, or -1 before the first turn
+	 */
+	public int getCurrentTurn() {
+		return currentTurn;
 	}
 
 	/**
@@ -274,6 +257,26 @@ public final class TurnNotifier {
 	 * @return current turn
 	 */
 	public int getCurrentTurnForDebugging() {
-		return currentTurn;
+		return getCurrentTurn();
+	}
+
+	/**
+	 * Read only map view of the timing wheel, grouped by turn.
+	 */
+	private final class RegisterView extends AbstractMap<Integer, Set<TurnListener>> {
+
+		@Override
+		public Set<Map.Entry<Integer, Set<TurnListener>>> entrySet() {
+			synchronized (sync) {
+				return Collections.unmodifiableMap(register.toMap()).entrySet();
+			}
+		}
+
+		@Override
+		public void clear() {
+			synchronized (sync) {
+				register.clear();
+			}
+		}
 	}
 }
@@ -0,0 +1,300 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.events;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * A hierarchical hashed timing wheel keeping track of turn listeners.
+ *
+ * <p>The inner wheel has one slot per turn and covers the next
+ * {@value #INNER_SIZE} turns. Listeners which are scheduled further in
+ * the future are put into the outer wheel, which has one slot per
+ * revolution of the inner wheel. Whenever a new revolution starts, the
+ * matching outer slot is cascaded into the inner wheel.</p>
+ *
+ * <p>Each slot is a doubly linked list and every listener is indexed to
+ * its entries, so that adding and removing a listener does not depend on
+ * the number of pending entries.</p>
+ *
+ * <p>Entries only fire on their exact turn, so the wheel behaves like a
+ * map from turn to listener set even if turns are skipped or repeated.
+ * This class is not thread safe.</p>
+ */
+public final class TurnWheel {
+
+	/** number of low bits of a turn number used to index the inner wheel */
+	private static final int INNER_BITS = 12;
+
+	/** number of turns covered by the inner wheel */
+	private static final int INNER_SIZE = 1 << INNER_BITS;
+
+	private static final int INNER_MASK = INNER_SIZE - 1;
+
+	/** number of inner wheel revolutions covered by the outer wheel */
+	private static final int OUTER_SIZE = 1 << 10;
+
+	private static final int OUTER_MASK = OUTER_SIZE - 1;
+
+	/** sentinel entries of the inner slots */
+	private final Entry[] inner = createSlots(INNER_SIZE);
+
+	/** sentinel entries of the outer slots */
+	private final Entry[] outer = createSlots(OUTER_SIZE);
+
+	/** newest entry of each listener, chained to its older entries */
+	private final Map<TurnListener, Entry> index = new HashMap<TurnListener, Entry>();
+
+	private int currentTurn = -1;
+
+	/** revolution of the inner wheel which has been cascaded last */
+	private int currentRevolution = revolution(-1);
+
+	private int size;
+
+	/**
+	 * Registers a listener for the given turn.
+	 *
+	 * @param turn turn to notify the listener at
+	 * @param listener listener to notify
+	 * @return <code>true</code> if the listener was added, <code>false</code>
+	 *         if an equal listener was already registered for this turn
+	 */
+	public boolean add(final int turn, final TurnListener listener) {
+		final Entry first = index.get(listener);
+		for (Entry entry = first; entry != null; entry = entry.nextOfListener) {
+			if (entry.turn == turn) {
+				return false;
+			}
+		}
+
+		final Entry entry = new Entry(listener, turn);
+		entry.nextOfListener = first;
+		index.put(listener, entry);
+		if ((long) turn - currentTurn < INNER_SIZE) {
+			link(inner[turn & INNER_MASK], entry);
+		} else {
+			link(outer[revolution(turn) & OUTER_MASK], entry);
+		}
+		size++;
+		return true;
+	}
+
+	/**
+	 * Advances the wheel to the given turn and removes all listeners
+	 * registered for it.
+	 *
+	 * @param turn the turn which has been reached
+	 * @param due collection to add the listeners of this turn to
+	 */
+	public void poll(final int turn, final Collection<TurnListener> due) {
+		currentTurn = turn;
+		final int revolution = revolution(turn);
+		if (revolution != currentRevolution) {
+			currentRevolution = revolution;
+			cascade(revolution);
+		}
+
+		final Entry head = inner[turn & INNER_MASK];
+		Entry entry = head.next;
+		while (entry != head) {
+			final Entry next = entry.next;
+			if (entry.turn == turn) {
+				unlink(entry);
+				unindex(entry);
+				size--;
+				due.add(entry.listener);
+			}
+			entry = next;
+		}
+	}
+
+	/**
+	 * Removes all registrations of the given listener.
+	 *
+	 * @param listener listener to remove
+	 * @return <code>true</code> if the listener was registered
+	 */
+	public boolean remove(final TurnListener listener) {
+		Entry entry = index.remove(listener);
+		if (entry == null) {
+			return false;
+		}
+		while (entry != null) {
+			unlink(entry);
+			size--;
+			entry = entry.nextOfListener;
+		}
+		return true;
+	}
+
+	/**
+	 * Gets the first turn the given listener is registered for.
+	 *
+	 * @param listener listener to look for
+	 * @return turn number, or -1 if the listener is not registered
+	 */
+	public int getFirstTurn(final TurnListener listener) {
+		Entry entry = index.get(listener);
+		if (entry == null) {
+			return -1;
+		}
+		int res = entry.turn;
+		for (entry = entry.nextOfListener; entry != null; entry = entry.nextOfListener) {
+			res = Math.min(res, entry.turn);
+		}
+		return res;
+	}
+
+	/**
+	 * Gets the number of registrations.
+	 *
+	 * @return number of pending listener and turn pairs
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Removes all registrations.
+	 */
+	public void clear() {
+		for (final Entry head : inner) {
+			head.prev = head;
+			head.next = head;
+		}
+		for (final Entry head : outer) {
+			head.prev = head;
+			head.next = head;
+		}
+		index.clear();
+		size = 0;
+	}
+
+	/**
+	 * Creates a copy of all registrations grouped by turn.
+	 *
+	 * @return sorted map of turn to listeners
+	 */
+	public Map<Integer, Set<TurnListener>> toMap() {
+		final Map<Integer, Set<TurnListener>> res = new TreeMap<Integer, Set<TurnListener>>();
+		copyTo(inner, res);
+		copyTo(outer, res);
+		return res;
+	}
+
+	private static void copyTo(final Entry[] slots, final Map<Integer, Set<TurnListener>> res) {
+		for (final Entry head : slots) {
+			for (Entry entry = head.next; entry != head; entry = entry.next) {
+				final Integer turn = Integer.valueOf(entry.turn);
+				Set<TurnListener> set = res.get(turn);
+				if (set == null) {
+					set = new LinkedHashSet<TurnListener>();
+					res.put(turn, set);
+				}
+				set.add(entry.listener);
+			}
+		}
+	}
+
+	/**
+	 * Moves all entries of the given revolution from the outer wheel into
+	 * the inner wheel. Entries of later revolutions sharing the slot stay.
+	 *
+	 * @param revolution revolution which is about to start
+	 */
+	private void cascade(final int revolution) {
+		final Entry head = outer[revolution & OUTER_MASK];
+		Entry entry = head.next;
+		while (entry != head) {
+			final Entry next = entry.next;
+			if (revolution(entry.turn) == revolution) {
+				unlink(entry);
+				link(inner[entry.turn & INNER_MASK], entry);
+			}
+			entry = next;
+		}
+	}
+
+	/**
+	 * Removes an entry from the listener index.
+	 *
+	 * @param entry entry to remove
+	 */
+	private void unindex(final Entry entry) {
+		final Entry first = index.get(entry.listener);
+		if (first == entry) {
+			if (entry.nextOfListener == null) {
+				index.remove(entry.listener);
+			} else {
+				index.put(entry.listener, entry.nextOfListener);
+			}
+			return;
+		}
+		for (Entry previous = first; previous != null; previous = previous.nextOfListener) {
+			if (previous.nextOfListener == entry) {
+				previous.nextOfListener = entry.nextOfListener;
+				return;
+			}
+		}
+	}
+
+	private static int revolution(final int turn) {
+		return turn >> INNER_BITS;
+	}
+
+	private static void link(final Entry head, final Entry entry) {
+		entry.prev = head.prev;
+		entry.next = head;
+		head.prev.next = entry;
+		head.prev = entry;
+	}
+
+	private static void unlink(final Entry entry) {
+		entry.prev.next = entry.next;
+		entry.next.prev = entry.prev;
+		entry.prev = null;
+		entry.next = null;
+	}
+
+	private static Entry[] createSlots(final int count) {
+		final Entry[] slots = new Entry[count];
+		for (int i = 0; i < count; i++) {
+			final Entry head = new Entry(null, 0);
+			head.prev = head;
+			head.next = head;
+			slots[i] = head;
+		}
+		return slots;
+	}
+
+	/**
+	 * A registration of a listener for a turn.
+	 */
+	private static final class Entry {
+		private final TurnListener listener;
+		private final int turn;
+		private Entry prev;
+		private Entry next;
+		private Entry nextOfListener;
+
+		private Entry(final TurnListener listener, final int turn) {
+			this.listener = listener;
+			this.turn = turn;
+		}
+	}
+}
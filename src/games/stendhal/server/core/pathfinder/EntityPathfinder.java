@@ -93,6 +93,65 @@ class EntityPathfinder extends games.stendhal.server.core.pathfinder.Pathfinder
 		return new PathTreeNode(x, y);
 	}
 
+	@Override
+	TileSearch.Terrain getTerrain() {
+		return new TileSearch.Terrain() {
+			@Override
+			public int getWidth() {
+				return zone.getWidth();
+			}
+
+			@Override
+			public int getHeight() {
+				return zone.getHeight();
+			}
+
+			@Override
+			public boolean isValid(int x, int y) {
+				return isValidPosition(x, y);
+			}
+
+			@Override
+			public double getCost(int x, int y) {
+				return getMovementCost(x, y);
+			}
+		};
+	}
+
+	/**
+	 * Get the cost of moving to a position.
+	 *
+	 * @param x x coordinate
+	 * @param y y coordinate
+	 * @return movement cost
+	 */
+	private double getMovementCost(int x, int y) {
+		/*
+		 * Modify movement cost by resistance
+		 */
+		if (resistanceMap != null) {
+			int resistance = resistanceMap.getResistance(x, y , entity.getWidth(), entity.getHeight());
+			return 100.0 / (100 - resistance);
+		}
+		return 1.0;
+	}
+
+	/**
+	 * Checks if the entity could stand on a position.
+	 *
+	 * @param x x coordinate
+	 * @param y y coordinate
+	 * @return <code>true</code> if the entity could stand on the position
+	 */
+	private boolean isValidPosition(int x, int y) {
+		boolean result = !zone.simpleCollides(entity, x, y, entity.getWidth(), entity.getHeight());
+		if (checkEntities && result) {
+			result = !resistanceMap.collides(x, y, entity.getWidth(), entity.getHeight());
+		}
+
+		return result;
+	}
+
 	/**
 	 * Pathfinder node
 	 */
@@ -101,16 +160,7 @@ class EntityPathfinder extends games.stendhal.server.core.pathfinder.Pathfinder
 
 		protected PathTreeNode(int x, int y) {
 			super(x, y);
-
-			/*
-			 * Modify movement cost by resistance
-			 */
-			if (resistanceMap != null) {
-				int resistance = resistanceMap.getResistance(x, y , entity.getWidth(), entity.getHeight());
-				cost = 100.0 / (100 - resistance);
-			} else {
-				cost = 1.0;
-			}
+			cost = getMovementCost(x, y);
 		}
 
 		@Override
@@ -130,12 +180,7 @@ class EntityPathfinder extends games.stendhal.server.core.pathfinder.Pathfinder
 
 		@Override
 		public boolean isValid(int x, int y) {
-			boolean result = !zone.simpleCollides(entity, x, y, entity.getWidth(), entity.getHeight());
-			if (checkEntities && result) {
-				result = !resistanceMap.collides(x, y, entity.getWidth(), entity.getHeight());
-			}
-
-			return result;
+			return isValidPosition(x, y);
 		}
 	}
 
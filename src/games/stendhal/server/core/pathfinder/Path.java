@@ -14,6 +14,7 @@ package games.stendhal.server.core.pathfinder;
 
 import java.awt.Rectangle;
 import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.log4j.Logger;
@@ -115,6 +116,12 @@ public abstract class Path {
 			zone = sourceEntity.getZone();
 		}
 
+		// Skip the search if the destination is in a separate area
+		if (withEntities ? zone.isUnreachable(sourceEntity, x, y, destination)
+				: zone.isUnreachable(x, y, destination)) {
+			return new ArrayList<Node>();
+		}
+
 		//
 		// long startTimeNano = System.nanoTime();
 		final long startTime = System.currentTimeMillis();
@@ -148,7 +155,11 @@ public abstract class Path {
 	 */
 	public static List<Node> searchPath(final StendhalRPZone zone, final int startX, final int startY, final int destX,
 			final int destY, final double maxDistance) {
-		final Pathfinder pathfinder = new SimplePathfinder(zone, startX, startY, new Rectangle(destX, destY, 1, 1), maxDistance);
+		final Rectangle destination = new Rectangle(destX, destY, 1, 1);
+		if (zone.isUnreachable(startX, startY, destination)) {
+			return new ArrayList<Node>();
+		}
+		final Pathfinder pathfinder = new SimplePathfinder(zone, startX, startY, destination, maxDistance);
 		return pathfinder.getPath();
 	}
 
@@ -25,9 +25,10 @@ package games.stendhal.server.core.pathfinder;
 
 
 import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.PriorityQueue;
 import java.util.Stack;
@@ -167,14 +168,32 @@ public abstract class Pathfinder {
 		return pathStatus;
 	}
 
+	/**
+	 * Get the terrain for searching with the array based {@link TileSearch}.
+	 * Pathfinders that do not support it use the node tree instead.
+	 *
+	 * @return terrain, or <code>null</code> if the node tree should be used
+	 */
+	TileSearch.Terrain getTerrain() {
+		return null;
+	}
+
 	public final List<Node> getPath() {
 		init();
-		final List<Node> list = new LinkedList<Node>();
+		List<Node> list = new ArrayList<Node>();
 
 		if (unreachableGoal()) {
 			return list;
 		}
 
+		final TileSearch.Terrain terrain = getTerrain();
+		if ((terrain != null) && (startX >= 0) && (startX < terrain.getWidth())
+				&& (startY >= 0) && (startY < terrain.getHeight())) {
+			list = TileSearch.searchPath(terrain, startX, startY, goalArea, initMaxDist);
+			pathStatus = list.isEmpty() ? PATH_NOT_FOUND : PATH_FOUND;
+			return list;
+		}
+
 		while (pathStatus == Pathfinder.IN_PROGRESS) {
 			doStep();
 		}
@@ -182,11 +201,11 @@ public abstract class Pathfinder {
 		if (pathStatus == Pathfinder.PATH_FOUND) {
 			TreeNode node = bestNode;
 			while (node != null) {
-				list.add(0, new Node(node.getX(), node.getY()));
+				list.add(new Node(node.getX(), node.getY()));
 				node = node.getParent();
 			}
+			Collections.reverse(list);
 		}
-		/* */
 
 		return list;
 	}
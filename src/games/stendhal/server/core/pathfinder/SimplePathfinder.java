@@ -39,6 +39,31 @@ public class SimplePathfinder extends Pathfinder {
 		collision = zone.collisionMap;
 	}
 
+	@Override
+	TileSearch.Terrain getTerrain() {
+		return new TileSearch.Terrain() {
+			@Override
+			public int getWidth() {
+				return collision.getWidth();
+			}
+
+			@Override
+			public int getHeight() {
+				return collision.getHeight();
+			}
+
+			@Override
+			public boolean isValid(int x, int y) {
+				return !collision.collides(x, y);
+			}
+
+			@Override
+			public double getCost(int x, int y) {
+				return 1.0;
+			}
+		};
+	}
+
 	@Override
 	public TreeNode createNode(int x, int y) {
 		return new SimpleTreeNode(x, y);
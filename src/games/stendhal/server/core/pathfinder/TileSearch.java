@@ -0,0 +1,399 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.pathfinder;
+
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A* search working on primitive arrays indexed by tile number.
+ *
+ * <p>This is a replacement for the node tree of {@link Pathfinder} and
+ * returns exactly the same paths: The weights, the order in which neighbours
+ * are expanded, the handling of cheaper routes to already known tiles and
+ * the binary heap operations of the open list are all the same. Like the
+ * PriorityQueue used by the node tree, the heap does not reorder a tile if
+ * its weight drops while it is in the open list.</p>
+ *
+ * <p>The buffers are kept per thread and reused by the following searches.
+ * Instead of clearing them, each search uses a new generation number, and a
+ * tile is only considered known if it has been stamped with the current
+ * generation.</p>
+ */
+final class TileSearch {
+	/**
+	 * Access to the tiles of the searched area.
+	 */
+	interface Terrain {
+		/**
+		 * Get the width of the area.
+		 *
+		 * @return width in tiles
+		 */
+		int getWidth();
+
+		/**
+		 * Get the height of the area.
+		 *
+		 * @return height in tiles
+		 */
+		int getHeight();
+
+		/**
+		 * Checks if the searching entity could stand at a position. Positions
+		 * outside the area are never used, even if they are valid.
+		 *
+		 * @param x x coordinate
+		 * @param y y coordinate
+		 * @return <code>true</code> if the position can be used
+		 */
+		boolean isValid(int x, int y);
+
+		/**
+		 * Get the cost of moving to a position.
+		 *
+		 * @param x x coordinate
+		 * @param y y coordinate
+		 * @return movement cost
+		 */
+		double getCost(int x, int y);
+	}
+
+	/** Buffers of the current thread, if they are not in use */
+	private static final ThreadLocal<TileSearch> POOL = new ThreadLocal<TileSearch>() {
+		@Override
+		protected TileSearch initialValue() {
+			return new TileSearch();
+		}
+	};
+
+	private static final int NO_PARENT = -1;
+
+	/** Generation that last used each tile */
+	private int[] stamp = new int[0];
+	private int generation;
+
+	/** The g-value of each tile */
+	private double[] g = new double[0];
+	/** The f-value of each tile, including the straight path bonus */
+	private double[] weight = new double[0];
+	/** Cost of moving to each tile */
+	private double[] cost = new double[0];
+	private int[] parent = new int[0];
+	/** Up to 4 children per tile */
+	private int[] children = new int[0];
+	private byte[] childCount = new byte[0];
+	private boolean[] open = new boolean[0];
+
+	/** Binary heap of tile numbers, ordered by weight */
+	private int[] heap = new int[16];
+	private int heapSize;
+
+	/** Work stack for updating the subtree of a tile */
+	private int[] stack = new int[16];
+
+	private boolean inUse;
+
+	/** Data of the running search */
+	private Terrain terrain;
+	private int width;
+	private int height;
+	private int goalX;
+	private int goalY;
+	private double maxDistance;
+
+	/**
+	 * Finds a path.
+	 *
+	 * @param terrain the searched area
+	 * @param startX start x. Must be inside the area
+	 * @param startY start y. Must be inside the area
+	 * @param destination the destination area
+	 * @param maxDist the maximum distance for the path
+	 * @return the path, or an empty list if no path was found
+	 */
+	static List<Node> searchPath(final Terrain terrain, final int startX, final int startY,
+			final Rectangle2D destination, final double maxDist) {
+		TileSearch search = POOL.get();
+		if (search.inUse) {
+			// Nested search from a terrain callback. Do not break the outer one
+			search = new TileSearch();
+		}
+		search.inUse = true;
+		try {
+			return search.search(terrain, startX, startY, destination, maxDist);
+		} finally {
+			search.terrain = null;
+			search.inUse = false;
+		}
+	}
+
+	private List<Node> search(final Terrain terrain, final int startX, final int startY,
+			final Rectangle2D destination, final double maxDist) {
+		prepare(terrain);
+		goalX = (int) destination.getCenterX();
+		goalY = (int) destination.getCenterY();
+
+		final int start = startX + startY * width;
+		register(start, 0.0);
+		g[start] = 0.0;
+		weight[start] = 0.0;
+		parent[start] = NO_PARENT;
+		offer(start);
+
+		// calculate shortest distance and allow a variance of X percent
+		maxDistance = Math.max(maxDist, 1.1 * getHeuristic(startX, startY) + 1);
+
+		while (heapSize > 0) {
+			final int best = poll();
+			open[best] = false;
+			final int x = best % width;
+			final int y = best / width;
+			if (destination.contains(x, y)) {
+				return createPath(best);
+			}
+
+			if (g[best] < maxDistance) {
+				linkChild(best, x - 1, y);
+				linkChild(best, x + 1, y);
+				linkChild(best, x, y - 1);
+				linkChild(best, x, y + 1);
+			}
+		}
+
+		return new ArrayList<Node>(0);
+	}
+
+	/**
+	 * Starts a new generation, and makes sure the buffers are large enough
+	 * for the terrain.
+	 *
+	 * @param terrain searched area
+	 */
+	private void prepare(final Terrain terrain) {
+		this.terrain = terrain;
+		width = terrain.getWidth();
+		height = terrain.getHeight();
+		final int size = width * height;
+		if (stamp.length < size) {
+			stamp = new int[size];
+			g = new double[size];
+			weight = new double[size];
+			cost = new double[size];
+			parent = new int[size];
+			children = new int[size * 4];
+			childCount = new byte[size];
+			open = new boolean[size];
+			generation = 0;
+		}
+		generation++;
+		if (generation == Integer.MAX_VALUE) {
+			Arrays.fill(stamp, 0);
+			generation = 1;
+		}
+		heapSize = 0;
+	}
+
+	/**
+	 * Marks a tile as known in the current search.
+	 *
+	 * @param tile tile number
+	 * @param tileCost cost of moving to the tile
+	 */
+	private void register(final int tile, final double tileCost) {
+		stamp[tile] = generation;
+		cost[tile] = tileCost;
+		childCount[tile] = 0;
+		open[tile] = true;
+	}
+
+	/**
+	 * Links a neighbour to a tile, and may also update the route of
+	 * the neighbour if a shorter one was found.
+	 *
+	 * @param node expanded tile
+	 * @param x x coordinate of the neighbour
+	 * @param y y coordinate of the neighbour
+	 */
+	private void linkChild(final int node, final int x, final int y) {
+		if ((x < 0) || (x >= width) || (y < 0) || (y >= height) || !terrain.isValid(x, y)) {
+			return;
+		}
+
+		final int child = x + y * width;
+		if (stamp[child] != generation) {
+			register(child, terrain.getCost(x, y));
+			children[node * 4 + childCount[node]] = child;
+			childCount[node]++;
+			updateChild(node, child);
+			offer(child);
+		} else {
+			if (g[child] > (g[node] + cost[child])) {
+				updateChild(node, child);
+			}
+
+			// update parents for closed tiles only
+			if (!open[child]) {
+				updateSubTree(child);
+			}
+		}
+	}
+
+	/**
+	 * Makes a tile the parent of another.
+	 *
+	 * @param node new parent
+	 * @param child child tile
+	 */
+	private void updateChild(final int node, final int child) {
+		parent[child] = node;
+		g[child] = g[node] + cost[child];
+
+		final int childX = child % width;
+		final int childY = child / width;
+		double childWeight = g[child] + getHeuristic(childX, childY);
+
+		// Prefer tiles that do not result in direction change
+		final int grandParent = parent[node];
+		if (grandParent != NO_PARENT) {
+			final int nodeX = node % width;
+			final int nodeY = node / width;
+			if ((grandParent % width - nodeX == nodeX - childX)
+					&& (grandParent / width - nodeY == nodeY - childY)) {
+				childWeight -= Pathfinder.STRAIGHT_PATH_PREFERENCE_FACTOR;
+			}
+		}
+		weight[child] = childWeight;
+	}
+
+	/**
+	 * Update the parents for the new route.
+	 *
+	 * @param root the root tile
+	 */
+	private void updateSubTree(final int root) {
+		int stackSize = 0;
+		stack[stackSize++] = root;
+		while (stackSize > 0) {
+			final int node = stack[--stackSize];
+			final int count = childCount[node];
+			for (int i = 0; i < count; i++) {
+				final int child = children[node * 4 + i];
+				if (g[node] + cost[child] < g[child]) {
+					updateChild(node, child);
+					if (stackSize == stack.length) {
+						stack = Arrays.copyOf(stack, stackSize * 2);
+					}
+					stack[stackSize++] = child;
+				}
+			}
+		}
+	}
+
+	/**
+	 * The heuristic of {@link Pathfinder}: manhattan distance with 1% square
+	 * distance for tie breaking.
+	 *
+	 * @param x x coordinate
+	 * @param y y coordinate
+	 * @return heuristic value
+	 */
+	private double getHeuristic(final int x, final int y) {
+		final int dx = x - goalX;
+		final int dy = y - goalY;
+		final double heuristic = Math.abs(dx) + Math.abs(dy);
+		final double tieBreaking = 0.01 * (dx * dx + dy * dy);
+
+		return heuristic + tieBreaking;
+	}
+
+	/**
+	 * Builds the path ending at a tile.
+	 *
+	 * @param end last tile of the path
+	 * @return list of nodes from the start to the end tile
+	 */
+	private List<Node> createPath(final int end) {
+		int length = 0;
+		for (int tile = end; tile != NO_PARENT; tile = parent[tile]) {
+			length++;
+		}
+		final Node[] nodes = new Node[length];
+		for (int tile = end; tile != NO_PARENT; tile = parent[tile]) {
+			nodes[--length] = new Node(tile % width, tile / width);
+		}
+		return new ArrayList<Node>(Arrays.asList(nodes));
+	}
+
+	/*
+	 * The heap operations are the same as those of java.util.PriorityQueue,
+	 * so that tiles with equal weights are taken in the same order as by
+	 * the node tree.
+	 */
+
+	/**
+	 * Adds a tile to the open list.
+	 *
+	 * @param tile tile number
+	 */
+	private void offer(final int tile) {
+		if (heapSize == heap.length) {
+			heap = Arrays.copyOf(heap, heapSize * 2);
+		}
+		int k = heapSize++;
+		final double w = weight[tile];
+		while (k > 0) {
+			final int parentIndex = (k - 1) >>> 1;
+			final int e = heap[parentIndex];
+			if (w >= weight[e]) {
+				break;
+			}
+			heap[k] = e;
+			k = parentIndex;
+		}
+		heap[k] = tile;
+	}
+
+	/**
+	 * Removes the tile with the lowest weight from the open list.
+	 *
+	 * @return tile number
+	 */
+	private int poll() {
+		final int result = heap[0];
+		final int n = --heapSize;
+		if (n > 0) {
+			final int x = heap[n];
+			final double w = weight[x];
+			final int half = n >>> 1;
+			int k = 0;
+			while (k < half) {
+				int child = (k << 1) + 1;
+				int c = heap[child];
+				final int right = child + 1;
+				if ((right < n) && (weight[c] > weight[heap[right]])) {
+					child = right;
+					c = heap[child];
+				}
+				if (w <= weight[c]) {
+					break;
+				}
+				heap[k] = c;
+				k = child;
+			}
+			heap[k] = x;
+		}
+		return result;
+	}
+}
@@ -29,6 +29,7 @@ import games.stendhal.server.core.engine.DataProvider;
 import games.stendhal.server.core.engine.GameEvent;
 import games.stendhal.server.core.engine.SingletonRepository;
 import games.stendhal.server.core.engine.StendhalRPZone;
+import games.stendhal.server.core.engine.ZoneLogicRunner;
 import games.stendhal.server.core.engine.db.StendhalKillLogDAO;
 import games.stendhal.server.core.events.TutorialNotifier;
 import games.stendhal.server.core.events.ZoneNotifier;
@@ -624,6 +625,8 @@ public class StendhalRPAction {
 	 *     new position.
 	 * @return
 	 *     <code>true</code> if it was possible to place the entity, false otherwise.
+	 *     When zone logic runs in parallel, moving to another zone is delayed
+	 *     until all zones are done, and counts as possible.
 	 */
 	public static boolean placeat(final StendhalRPZone zone, final Entity entity,
 			int x, int y, final Shape allowedArea) {
@@ -631,6 +634,15 @@ public class StendhalRPAction {
 			return false;
 		}
 
+		if (entity.getZone() != zone) {
+			// the target zone may be running its logic on another thread
+			final int targetX = x;
+			final int targetY = y;
+			if (ZoneLogicRunner.defer(() -> placeat(zone, entity, targetX, targetY, allowedArea))) {
+				return true;
+			}
+		}
+
 		Player player = null;
 		if (entity instanceof Player) {
 			player = (Player) entity;
@@ -12,7 +12,19 @@
  ***************************************************************************/
 package games.stendhal.server.core.rp.achievement;
 
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
 import games.stendhal.server.entity.npc.ChatCondition;
+import games.stendhal.server.entity.npc.condition.AndCondition;
+import games.stendhal.server.entity.npc.condition.PlayerHasKilledNumberOfCreaturesCondition;
+import games.stendhal.server.entity.npc.condition.QuestActiveCondition;
+import games.stendhal.server.entity.npc.condition.QuestCompletedCondition;
+import games.stendhal.server.entity.npc.condition.QuestNotInStateCondition;
+import games.stendhal.server.entity.npc.condition.QuestStartedCondition;
+import games.stendhal.server.entity.npc.condition.QuestStateGreaterThanCondition;
+import games.stendhal.server.entity.npc.condition.QuestStateStartsWithCondition;
 import games.stendhal.server.entity.player.Player;
 /**
  * An Achievement a player can reach while playing the game.
@@ -49,6 +61,17 @@ public class Achievement {
 
 	private final ChatCondition condition;
 
+	/**
+	 * Quest slots read by the condition, or <code>null</code> if the
+	 * condition may read anything.
+	 */
+	private final Set<String> questSlots;
+
+	/**
+	 * Creatures whose kills are counted by the condition, or
+	 * <code>null</code> if the condition may read anything.
+	 */
+	private final Set<String> creatures;
 
 
 	/**
@@ -70,6 +93,62 @@ public class Achievement {
 		this.description = description;
 		this.baseScore = baseScore;
 		this.active = active;
+
+		final Set<String> quests = new HashSet<String>();
+		final Set<String> kills = new HashSet<String>();
+		if (collectInputs(condition, quests, kills)) {
+			questSlots = Collections.unmodifiableSet(quests);
+			creatures = Collections.unmodifiableSet(kills);
+		} else {
+			questSlots = null;
+			creatures = null;
+		}
+	}
+
+	/**
+	 * Collects the quest slots and kill counts a condition reads.
+	 *
+	 * @param condition condition
+	 * @param quests set of quest slot names to add to
+	 * @param kills set of creature names to add to
+	 * @return <code>false</code> if the condition may read other data, too
+	 */
+	private static boolean collectInputs(final ChatCondition condition, final Set<String> quests, final Set<String> kills) {
+		if (condition instanceof AndCondition) {
+			for (final ChatCondition part : ((AndCondition) condition).getConditions()) {
+				if (!collectInputs(part, quests, kills)) {
+					return false;
+				}
+			}
+			return true;
+		}
+		if (condition instanceof PlayerHasKilledNumberOfCreaturesCondition) {
+			kills.addAll(((PlayerHasKilledNumberOfCreaturesCondition) condition).getCreatures());
+			return true;
+		}
+
+		final String slot;
+		if (condition instanceof QuestCompletedCondition) {
+			slot = ((QuestCompletedCondition) condition).getQuestSlot();
+		} else if (condition instanceof QuestStateGreaterThanCondition) {
+			slot = ((QuestStateGreaterThanCondition) condition).getQuestSlot();
+		} else if (condition instanceof QuestStateStartsWithCondition) {
+			slot = ((QuestStateStartsWithCondition) condition).getQuestSlot();
+		} else if (condition instanceof QuestStartedCondition) {
+			slot = ((QuestStartedCondition) condition).getQuestSlot();
+		} else if (condition instanceof QuestNotInStateCondition) {
+			slot = ((QuestNotInStateCondition) condition).getQuestSlot();
+		} else if (condition instanceof QuestActiveCondition) {
+			slot = ((QuestActiveCondition) condition).getQuestSlot();
+		} else {
+			return false;
+		}
+		// slot names with variables change over time
+		if ((slot.indexOf('[') >= 0) || (slot.indexOf(']') >= 0)) {
+			return false;
+		}
+		quests.add(slot);
+		return true;
 	}
 
 	/**
@@ -123,6 +202,27 @@ public class Achievement {
 		return condition.fire(p, null, null);
 	}
 
+	/**
+	 * Check if a change of a quest slot can affect this achievement.
+	 *
+	 * @param questSlot name of the changed quest slot
+	 * @return <code>false</code> if the condition does not read the slot
+	 */
+	boolean dependsOnQuest(final String questSlot) {
+		return (questSlots == null) || questSlots.contains(questSlot);
+	}
+
+	/**
+	 * Check if a kill can affect this achievement.
+	 *
+	 * @param creature name of the killed creature
+	 * @return <code>false</code> if the condition does not count kills of
+	 * 	the creature
+	 */
+	boolean dependsOnKill(final String creature) {
+		return (creatures == null) || creatures.contains(creature);
+	}
+
 	@Override
 	public String toString() {
 		return "Achievement<id: "+identifier+", title: "+title+">";
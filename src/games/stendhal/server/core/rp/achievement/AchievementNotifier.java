@@ -19,6 +19,7 @@ import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Predicate;
 
 import org.apache.log4j.Logger;
 
@@ -57,6 +58,20 @@ public final class AchievementNotifier {
 
 	final private Map<String, Integer> identifiersToIds;
 
+	/** Categories checked when a quest changes. */
+	private static final Category[] QUEST_CATEGORIES = {
+		Category.QUEST, Category.QUEST_ADOS_ITEMS, Category.QUEST_SEMOS_MONSTER,
+		Category.QUEST_KIRDNEH_ITEM, Category.FRIEND, Category.OBTAIN,
+		Category.PRODUCTION, Category.QUEST_MITHRILBOURGH_ENEMY_ARMY,
+		Category.QUEST_KILL_BLORDROUGHS
+	};
+
+	/** Filter for checking all achievements of a category. */
+	private static final Predicate<Achievement> ALL = achievement -> true;
+
+	/** Number of achievement conditions evaluated so far. */
+	private long evaluatedConditions;
+
 
 	/**
 	 * singleton accessor method
@@ -182,21 +197,40 @@ public final class AchievementNotifier {
 		getAndCheckAchievementsInCategory(player, Category.FIGHTING);
 	}
 
+	/**
+	 * checks the achievements for a player that can be affected by killing
+	 * a creature
+	 *
+	 * @param player
+	 * @param creature name of the killed creature
+	 */
+	public void onKill(final Player player, final String creature) {
+		getAndCheckAchievementsInCategory(player, Category.FIGHTING, achievement -> achievement.dependsOnKill(creature));
+	}
+
 	/**
 	 * check all achievements for a player that are relevant on finishing a quest
 	 *
 	 * @param player
 	 */
 	public void onFinishQuest(final Player player) {
-		getAndCheckAchievementsInCategory(player, Category.QUEST);
-		getAndCheckAchievementsInCategory(player, Category.QUEST_ADOS_ITEMS);
-		getAndCheckAchievementsInCategory(player, Category.QUEST_SEMOS_MONSTER);
-		getAndCheckAchievementsInCategory(player, Category.QUEST_KIRDNEH_ITEM);
-		getAndCheckAchievementsInCategory(player, Category.FRIEND);
-		getAndCheckAchievementsInCategory(player, Category.OBTAIN);
-		getAndCheckAchievementsInCategory(player, Category.PRODUCTION);
-		getAndCheckAchievementsInCategory(player, Category.QUEST_MITHRILBOURGH_ENEMY_ARMY);
-		getAndCheckAchievementsInCategory(player, Category.QUEST_KILL_BLORDROUGHS);
+		for (final Category category : QUEST_CATEGORIES) {
+			getAndCheckAchievementsInCategory(player, category);
+		}
+	}
+
+	/**
+	 * checks the achievements for a player that are relevant on finishing a
+	 * quest, and can be affected by a change of the quest slot
+	 *
+	 * @param player
+	 * @param questSlot name of the changed quest slot
+	 */
+	public void onQuestChanged(final Player player, final String questSlot) {
+		final Predicate<Achievement> filter = achievement -> achievement.dependsOnQuest(questSlot);
+		for (final Category category : QUEST_CATEGORIES) {
+			getAndCheckAchievementsInCategory(player, category, filter);
+		}
 	}
 
 	/**
@@ -309,7 +343,7 @@ public final class AchievementNotifier {
 		for (List<Achievement> list : values) {
 			toCheck.addAll(list);
 		}
-		final List<Achievement> reached = checkAchievements(player, toCheck);
+		final List<Achievement> reached = checkAchievements(player, toCheck, ALL);
 		// only send notice if actually a new added achievement was reached by doing nothing
 		if(!reached.isEmpty()) {
 			StringBuilder sb = new StringBuilder();
@@ -327,9 +361,22 @@ public final class AchievementNotifier {
 	 * @param category
 	 */
 	private void getAndCheckAchievementsInCategory(final Player player, final Category category) {
+		getAndCheckAchievementsInCategory(player, category, ALL);
+	}
+
+	/**
+	 * retrieve the achievements for a category that pass a filter, and check
+	 * if player has reached each of them
+	 *
+	 * @param player
+	 * @param category
+	 * @param filter selects the achievements to check
+	 */
+	private void getAndCheckAchievementsInCategory(final Player player, final Category category,
+			final Predicate<Achievement> filter) {
 		if(achievements.containsKey(category)) {
 			List<Achievement> toCheck = achievements.get(category);
-			List<Achievement> reached = checkAchievements(player, toCheck);
+			List<Achievement> reached = checkAchievements(player, toCheck, filter);
 			notifyPlayerAboutReachedAchievements(player, reached);
 		}
 	}
@@ -340,10 +387,11 @@ public final class AchievementNotifier {
 	 *
 	 * @param player player to be checked
 	 * @param toCheck list of checked achievements
+	 * @param filter selects the achievements to check
 	 * @return list of reached achievements
 	 */
 	private List<Achievement> checkAchievements(final Player player,
-			final List<Achievement> toCheck) {
+			final List<Achievement> toCheck, final Predicate<Achievement> filter) {
 		List<Achievement> reached = new ArrayList<Achievement>();
 
 		// continue checking only if player's achievements are already loaded from the database
@@ -352,7 +400,12 @@ public final class AchievementNotifier {
 		}
 
 		for (Achievement achievement : toCheck) {
-			if(achievement.isFulfilled(player) && !player.hasReachedAchievement(achievement.getIdentifier())) {
+			// the reached check is cheap, the conditions may scan quests or kills
+			if (player.hasReachedAchievement(achievement.getIdentifier()) || !filter.test(achievement)) {
+				continue;
+			}
+			evaluatedConditions++;
+			if(achievement.isFulfilled(player)) {
 				logReachingOfAnAchievement(player, achievement);
 				if (achievement.isActive()) {
 					reached.add(achievement);
@@ -420,6 +473,16 @@ public final class AchievementNotifier {
 		return achievementMap;
 	}
 
+	/**
+	 * Gets the number of achievement conditions evaluated since the start of
+	 * the server.
+	 *
+	 * @return number of evaluated conditions
+	 */
+	public long getEvaluatedConditions() {
+		return evaluatedConditions;
+	}
+
 	/**
 	 * gets a list of all Achievements
 	 *
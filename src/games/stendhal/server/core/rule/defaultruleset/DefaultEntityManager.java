@@ -48,7 +48,10 @@ public class DefaultEntityManager implements EntityManager {
 	/** maps the item names to the actual item enums. */
 	private final Map<String, DefaultItem> classToItem;
 
-	/** lists all creatures that are being used at least once. */
+	/**
+	 * lists all creatures that are being used at least once. They are the
+	 * prototypes that new creatures are copied from.
+	 */
 	private final Map<String, Creature> createdCreature;
 
 	/** lists all items that are being used at least once . */
@@ -184,6 +187,8 @@ public class DefaultEntityManager implements EntityManager {
 		}
 		classToCreature.put(clazz, creature);
 		idToClass.put(id, clazz);
+		// the prototype of a replaced creature is outdated
+		createdCreature.remove(clazz);
 
 		return true;
 	}
@@ -288,10 +293,14 @@ public class DefaultEntityManager implements EntityManager {
 		// Lookup the clazz in the creature table
 		final DefaultCreature creature = classToCreature.get(clazz);
 		if (creature != null) {
-			if (createdCreature.get(clazz) == null) {
-				createdCreature.put(clazz, creature.getCreature());
+			// Copying a prototype is much cheaper than setting up a creature
+			// from its definition, the same way respawn points do it.
+			Creature prototype = createdCreature.get(creature.getCreatureName());
+			if (prototype == null) {
+				prototype = creature.getCreature();
+				createdCreature.put(creature.getCreatureName(), prototype);
 			}
-			return creature.getCreature();
+			return prototype.getNewInstance();
 		}
 
 		return null;
@@ -18,6 +18,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import com.google.common.collect.ImmutableList;
+
 import games.stendhal.common.constants.Nature;
 import games.stendhal.server.core.rule.defaultruleset.creator.AbstractCreator;
 import games.stendhal.server.core.rule.defaultruleset.creator.AttributesItemCreator;
@@ -78,6 +80,13 @@ public class DefaultItem {
 
 	private String[] statusAttacks;
 
+	/**
+	 * Status attackers created from statusAttacks, shared by all items of this
+	 * kind. <code>null</code> until the first item is created, because they may
+	 * refer to other items.
+	 */
+	private ImmutableList<StatusAttacker> statusAttackers;
+
 	/* Slots where SlotActivatedItem can be activated when equipped. */
 	private List<String> activeSlotsList;
 
@@ -150,6 +159,7 @@ public class DefaultItem {
 
 	public void setStatusAttacks(final String statusAttacks) {
 		this.statusAttacks = statusAttacks.split(";");
+		this.statusAttackers = null;
 	}
 
 	/**
@@ -283,17 +293,7 @@ public class DefaultItem {
 
 			// status attackers
 			if (statusAttacks != null) {
-				for (final String statk: statusAttacks) {
-					StatusAttacker statusAttacker;
-					if (statk.contains("poison") || statk.contains("cobra venom") || statk.contains("fierywater")) {
-						statusAttacker = PoisonAttackerFactory.get(statk);
-					} else {
-						statusAttacker = StatusAttackerFactory.get(statk);
-					}
-					if (statusAttacker != null) {
-						item.addStatusAttacker(statusAttacker);
-					}
-				}
+				item.setStatusAttackers(getStatusAttackerList());
 			}
 
 			/* Set a list of status resistances for StatusResistantItem. */
@@ -313,6 +313,32 @@ public class DefaultItem {
 		return item;
 	}
 
+	/**
+	 * Gets the status attackers of the items, creating them on first use.
+	 *
+	 * @return status attackers
+	 */
+	private ImmutableList<StatusAttacker> getStatusAttackerList() {
+		ImmutableList<StatusAttacker> res = statusAttackers;
+		if (res == null) {
+			final ImmutableList.Builder<StatusAttacker> builder = ImmutableList.builder();
+			for (final String statk: statusAttacks) {
+				StatusAttacker statusAttacker;
+				if (statk.contains("poison") || statk.contains("cobra venom") || statk.contains("fierywater")) {
+					statusAttacker = PoisonAttackerFactory.get(statk);
+				} else {
+					statusAttacker = StatusAttackerFactory.get(statk);
+				}
+				if (statusAttacker != null) {
+					builder.add(statusAttacker);
+				}
+			}
+			res = builder.build();
+			statusAttackers = res;
+		}
+		return res;
+	}
+
 	/** @return the tile id .*/
 	public int getTileId() {
 		return tileid;
@@ -11,7 +11,10 @@
  ***************************************************************************/
 package games.stendhal.server.core.rule.defaultruleset.creator;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
 
 import games.stendhal.server.core.rule.defaultruleset.DefaultItem;
 import games.stendhal.server.entity.item.Item;
@@ -26,8 +29,47 @@ abstract class AbstractItemCreator extends AbstractCreator<Item>{
 	 */
 	final DefaultItem defaultItem;
 
+	/**
+	 * The constructor as method handle returning an Item, or <code>null</code>
+	 * if it cannot be called that way. Calling the handle is a lot cheaper
+	 * than Constructor.newInstance().
+	 */
+	final MethodHandle factory;
+
 	public AbstractItemCreator(DefaultItem defaultItem, final Constructor< ? > construct) {
 		super(construct, "Item");
 		this.defaultItem = defaultItem;
+		this.factory = toFactory(construct);
+	}
+
+	/**
+	 * Converts a constructor to a method handle returning an Item.
+	 *
+	 * @param construct constructor
+	 * @return method handle, or <code>null</code> if the constructor is not
+	 * 	public or does not create an Item
+	 */
+	private static MethodHandle toFactory(final Constructor< ? > construct) {
+		if (!Item.class.isAssignableFrom(construct.getDeclaringClass())) {
+			// left to create(), which reports the wrong type
+			return null;
+		}
+		try {
+			final MethodHandle handle = MethodHandles.publicLookup().unreflectConstructor(construct);
+			return handle.asType(handle.type().changeReturnType(Item.class));
+		} catch (final IllegalAccessException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Wraps an exception thrown by the factory like Constructor.newInstance()
+	 * does, so that create() handles it the same way.
+	 *
+	 * @param e exception thrown by the constructor
+	 * @return wrapped exception
+	 */
+	static InvocationTargetException wrap(final Throwable e) {
+		return new InvocationTargetException(e);
 	}
 }
@@ -14,6 +14,7 @@ package games.stendhal.server.core.rule.defaultruleset.creator;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.util.Map;
 
 import games.stendhal.server.core.rule.defaultruleset.DefaultItem;
 import games.stendhal.server.entity.item.Item;
@@ -30,6 +31,14 @@ public class AttributesItemCreator extends AbstractItemCreator {
 	@Override
 	protected Item createObject() throws IllegalAccessException,
 			InstantiationException, InvocationTargetException {
-		return (Item) construct.newInstance(new Object[] { this.defaultItem.getAttributes() });
+		final Map<String, String> attributes = this.defaultItem.getAttributes();
+		if (factory != null) {
+			try {
+				return (Item) factory.invokeExact(attributes);
+			} catch (final Throwable e) {
+				throw wrap(e);
+			}
+		}
+		return (Item) construct.newInstance(new Object[] { attributes });
 	}
 }
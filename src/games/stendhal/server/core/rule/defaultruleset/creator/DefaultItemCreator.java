@@ -30,6 +30,13 @@ public class DefaultItemCreator extends AbstractItemCreator {
 	@Override
 	protected Item createObject() throws IllegalAccessException,
 			InstantiationException, InvocationTargetException {
+		if (factory != null) {
+			try {
+				return (Item) factory.invokeExact();
+			} catch (final Throwable e) {
+				throw wrap(e);
+			}
+		}
 		return (Item) construct.newInstance(new Object[] {});
 	}
 }
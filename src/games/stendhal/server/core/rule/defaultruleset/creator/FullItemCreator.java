@@ -36,6 +36,16 @@ public class FullItemCreator extends AbstractItemCreator {
 	protected Item createObject() throws IllegalAccessException,
 			InstantiationException, InvocationTargetException {
 		try {
+			if (factory != null) {
+				try {
+					return (Item) factory.invokeExact(this.defaultItem.getItemName(),
+							this.defaultItem.getItemClass(),
+							this.defaultItem.getItemSubclass(),
+							this.defaultItem.getAttributes());
+				} catch (final Throwable e) {
+					throw wrap(e);
+				}
+			}
 			return (Item) construct.newInstance(new Object[] {
 					this.defaultItem.getItemName(),
 					this.defaultItem.getItemClass(),
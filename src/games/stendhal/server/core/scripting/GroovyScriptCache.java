@@ -0,0 +1,235 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.scripting;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+import org.codehaus.groovy.runtime.InvokerHelper;
+
+import groovy.lang.GroovyClassLoader;
+import groovy.lang.GroovyCodeSource;
+import groovy.lang.GroovyShell;
+import groovy.lang.Script;
+import marauroa.common.crypto.Hash;
+import marauroa.server.game.Statistics;
+
+/**
+ * Keeps the compiled classes of Groovy scripts, so that a script that is
+ * loaded again is not compiled again unless its file changed. A file is
+ * read again only if its modification time or size changed, and compiled
+ * again only if its contents changed.
+ *
+ * <p>All scripts are compiled by one class loader. Groovy defines the
+ * classes of each compilation in a loader of their own below it, so the
+ * classes of an old version can be unloaded once the cache forgets
+ * them.</p>
+ */
+final class GroovyScriptCache {
+
+	private static final Logger logger = Logger.getLogger(GroovyScriptCache.class);
+
+	/** name of the memory pool that holds class metadata */
+	private static final String METASPACE_POOL = "Metaspace";
+
+	private final GroovyClassLoader classLoader;
+
+	/** A compiled script. */
+	private static final class Entry {
+		long lastModified;
+		long length;
+		final String hash;
+		final Class<? extends Script> scriptClass;
+
+		Entry(final long lastModified, final long length, final String hash, final Class<? extends Script> scriptClass) {
+			this.lastModified = lastModified;
+			this.length = length;
+			this.hash = hash;
+			this.scriptClass = scriptClass;
+		}
+	}
+
+	private final Map<String, Entry> entries = new HashMap<String, Entry>();
+
+	private int hits;
+
+	private int compiles;
+
+	private long compileNanos;
+
+	private long metaspaceGrowth;
+
+	/**
+	 * Creates a new GroovyScriptCache.
+	 *
+	 * @param parent
+	 *   Class loader the scripts find the classes of the game in.
+	 */
+	GroovyScriptCache(final ClassLoader parent) {
+		classLoader = new GroovyClassLoader(parent);
+	}
+
+	/**
+	 * Retrieves the compiled class of a script, compiling it if it was not
+	 * compiled before or if it changed.
+	 *
+	 * @param filename
+	 *   Name of the script file.
+	 * @return
+	 *   Class of the script.
+	 * @throws IOException
+	 *   If reading the file fails.
+	 */
+	synchronized Class<? extends Script> getScriptClass(final String filename) throws IOException {
+		final File file = new File(filename);
+		final String key = file.getCanonicalPath();
+		final long lastModified = file.lastModified();
+		final long length = file.length();
+
+		final Entry entry = entries.get(key);
+		if (entry != null && entry.lastModified == lastModified && entry.length == length) {
+			hits++;
+			return entry.scriptClass;
+		}
+
+		final byte[] contents = Files.readAllBytes(file.toPath());
+		final String hash = Hash.toHexString(Hash.hash(contents));
+		if (entry != null && entry.hash.equals(hash)) {
+			// touched, but not changed
+			entry.lastModified = lastModified;
+			entry.length = length;
+			hits++;
+			return entry.scriptClass;
+		}
+
+		if (entry != null) {
+			entries.remove(key);
+			unload(entry.scriptClass);
+		}
+		final Class<? extends Script> scriptClass = compile(file, new String(contents, StandardCharsets.UTF_8));
+		entries.put(key, new Entry(lastModified, length, hash, scriptClass));
+		return scriptClass;
+	}
+
+	@SuppressWarnings("unchecked")
+	private Class<? extends Script> compile(final File file, final String text) {
+		final GroovyCodeSource source = new GroovyCodeSource(text, file.getName(), GroovyShell.DEFAULT_CODE_BASE);
+		source.setCachable(false);
+
+		final long metaspaceBefore = getMetaspaceUsed();
+		final long start = System.nanoTime();
+		final Class<?> parsed = classLoader.parseClass(source, false);
+		final long duration = System.nanoTime() - start;
+		final long growth = Math.max(0, getMetaspaceUsed() - metaspaceBefore);
+
+		compiles++;
+		compileNanos += duration;
+		metaspaceGrowth += growth;
+		Statistics.getStatistics().set("Groovy compile ms", (int) (compileNanos / 1000000));
+		Statistics.getStatistics().set("Groovy compile metaspace KB", (int) (metaspaceGrowth / 1024));
+		logger.info("Compiled " + file + " in " + (duration / 1000000) + " ms, metaspace grew by "
+				+ (growth / 1024) + " KB");
+
+		if (!Script.class.isAssignableFrom(parsed)) {
+			unload(parsed);
+			throw new IllegalArgumentException(file + " does not contain a script, but the class " + parsed.getName());
+		}
+		return (Class<? extends Script>) parsed;
+	}
+
+	/**
+	 * Forgets the classes of one compilation, such as the script class and
+	 * the classes of its closures, so that they can be unloaded.
+	 *
+	 * @param scriptClass
+	 *   Main class of the compilation.
+	 */
+	private void unload(final Class<?> scriptClass) {
+		final ClassLoader definingLoader = scriptClass.getClassLoader();
+		for (final Class<?> loaded : classLoader.getLoadedClasses()) {
+			if (loaded.getClassLoader() == definingLoader) {
+				InvokerHelper.removeClass(loaded);
+			}
+		}
+		InvokerHelper.removeClass(scriptClass);
+		// the loader keeps the latest class of each name, and scripts are
+		// compiled rarely, so starting over is cheaper than tracking names
+		classLoader.clearCache();
+	}
+
+	private static long getMetaspaceUsed() {
+		for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (METASPACE_POOL.equals(pool.getName())) {
+				return pool.getUsage().getUsed();
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Checks if a script class is still kept, either by the cache or by the
+	 * class loader.
+	 *
+	 * @param scriptClass
+	 *   Class returned by {@link #getScriptClass(String)}.
+	 * @return
+	 *   <code>false</code> if the class was dropped and can be unloaded
+	 */
+	synchronized boolean isCached(final Class<?> scriptClass) {
+		for (final Entry entry : entries.values()) {
+			if (entry.scriptClass == scriptClass) {
+				return true;
+			}
+		}
+		for (final Class<?> loaded : classLoader.getLoadedClasses()) {
+			if (loaded == scriptClass) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Retrieves the number of loads that did not need compiling.
+	 */
+	synchronized int getHits() {
+		return hits;
+	}
+
+	/**
+	 * Retrieves the number of times a script was compiled.
+	 */
+	synchronized int getCompiles() {
+		return compiles;
+	}
+
+	/**
+	 * Retrieves the total time spent compiling scripts.
+	 */
+	synchronized long getCompileNanos() {
+		return compileNanos;
+	}
+
+	/**
+	 * Retrieves how much the class metadata grew in total while compiling.
+	 */
+	synchronized long getMetaspaceGrowth() {
+		return metaspaceGrowth;
+	}
+}
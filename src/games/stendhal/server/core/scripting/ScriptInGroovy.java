@@ -1,5 +1,5 @@
 /***************************************************************************
- *                   (C) Copyright 2003-2012 - Stendhal                    *
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
  ***************************************************************************
  ***************************************************************************
  *                                                                         *
@@ -11,16 +11,15 @@
  ***************************************************************************/
 package games.stendhal.server.core.scripting;
 
-import java.io.File;
 import java.util.HashMap;
 import java.util.List;
 
 import org.apache.log4j.Logger;
+import org.codehaus.groovy.runtime.InvokerHelper;
 
 import games.stendhal.server.core.engine.SingletonRepository;
 import games.stendhal.server.entity.player.Player;
 import groovy.lang.Binding;
-import groovy.lang.GroovyShell;
 
 /**
  * manages a script written in groovy
@@ -33,6 +32,10 @@ public class ScriptInGroovy extends ScriptingSandbox {
 
 	private static final Logger logger = Logger.getLogger(ScriptInGroovy.class);
 
+	/** compiled scripts, shared by all groovy scripts */
+	private static final GroovyScriptCache scriptCache = new GroovyScriptCache(
+			ScriptInGroovy.class.getClassLoader());
+
 	/**
 	 * manages a script written in groovy
 	 *
@@ -68,13 +71,11 @@ public class ScriptInGroovy extends ScriptingSandbox {
 		} else {
 			groovyBinding.setVariable("args", new String[0]);
 		}
-		final GroovyShell interp = new GroovyShell(groovyBinding);
 		boolean ret = true;
 
 		preExecute(player, args);
 		try {
-			final File f = new File(groovyScript);
-			interp.evaluate(f);
+			InvokerHelper.createScript(scriptCache.getScriptClass(groovyScript), groovyBinding).run();
 		} catch (final Exception e) {
 			logger.error("Exception while sourcing file " + groovyScript, e);
 			setMessage(e.getMessage());
@@ -102,4 +103,11 @@ public class ScriptInGroovy extends ScriptingSandbox {
 	public boolean execute(final Player player, final List<String> args) {
 		return load(player, args);
 	}
+
+	/**
+	 * Retrieves the compiled scripts.
+	 */
+	static GroovyScriptCache getScriptCache() {
+		return scriptCache;
+	}
 }
@@ -70,11 +70,12 @@ public class LuaActionHelper {
 	 *   New ChatAction instance.
 	 */
 	public ChatAction create(final LuaFunction lf) {
+		final ProfiledFunction profiled = new ProfiledFunction(lf);
 		return new ChatAction() {
 			@Override
 			public void fire(final Player player, final Sentence sentence, final EventRaiser npc) {
-				lf.invoke(new LuaValue[] {CoerceJavaToLua.coerce(player),
-					CoerceJavaToLua.coerce(sentence), CoerceJavaToLua.coerce(npc)});
+				profiled.call(CoerceJavaToLua.coerce(player), CoerceJavaToLua.coerce(sentence),
+						CoerceJavaToLua.coerce(npc));
 			}
 		};
 	}
@@ -0,0 +1,181 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.scripting.lua;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+import org.luaj.vm2.Globals;
+import org.luaj.vm2.LuaError;
+import org.luaj.vm2.LuaFunction;
+import org.luaj.vm2.Prototype;
+import org.luaj.vm2.luajc.LuaJC;
+
+import games.stendhal.common.IO;
+import marauroa.common.crypto.Hash;
+
+/**
+ * Keeps compiled Lua chunks with the hash of their source, so that a script
+ * that is loaded again, by a reload or another `dofile`, is not compiled
+ * again unless it changed. There is one entry per chunk name, because the
+ * compiled chunk refers to its name in error messages.
+ *
+ * <p>Scripts marked hot are turned into Java bytecode by LuaJC instead of
+ * being interpreted. The generated function is kept as well, because LuaJC
+ * defines new classes each time it loads a chunk. LuaJC needs BCEL on the
+ * class path; without it the hot scripts are interpreted like the
+ * others.</p>
+ */
+final class LuaChunkCache {
+
+	private static final Logger logger = Logger.getLogger(LuaChunkCache.class);
+
+	/** class of BCEL that LuaJC uses to generate the bytecode */
+	private static final String BCEL_CLASS = "org.apache.bcel.generic.ClassGen";
+
+	private final Globals globals;
+
+	/** chunk names of the scripts to compile to bytecode */
+	private final Set<String> hotScripts;
+
+	/** A compiled chunk. */
+	private static final class Chunk {
+		final String hash;
+		final Prototype prototype;
+		/** bytecode version, or <code>null</code> */
+		LuaFunction compiled;
+
+		Chunk(final String hash, final Prototype prototype) {
+			this.hash = hash;
+			this.prototype = prototype;
+		}
+	}
+
+	private final Map<String, Chunk> chunks = new HashMap<String, Chunk>();
+
+	/** <code>null</code> until a hot script is loaded */
+	private Boolean luajcAvailable;
+
+	private int hits;
+
+	private int misses;
+
+	/**
+	 * Creates a new LuaChunkCache.
+	 *
+	 * @param globals
+	 *   Globals the chunks are loaded into.
+	 * @param hotScripts
+	 *   Chunk names or file names of the scripts to compile to bytecode.
+	 */
+	LuaChunkCache(final Globals globals, final Set<String> hotScripts) {
+		this.globals = globals;
+		this.hotScripts = new HashSet<String>(hotScripts);
+	}
+
+	/**
+	 * Loads a chunk, compiling it if its source was not seen before.
+	 *
+	 * @param istream
+	 *   Lua source or binary chunk, which is read completely.
+	 * @param chunkname
+	 *   Identifier for the chunk.
+	 * @return
+	 *   Function that executes the chunk.
+	 * @throws IOException
+	 *   If reading fails.
+	 */
+	synchronized LuaFunction load(final InputStream istream, final String chunkname) throws IOException {
+		final byte[] contents = IO.readFully(istream);
+		final String hash = Hash.toHexString(Hash.hash(contents));
+
+		Chunk chunk = chunks.get(chunkname);
+		if (chunk != null && chunk.hash.equals(hash)) {
+			hits++;
+		} else {
+			misses++;
+			final Prototype prototype;
+			try {
+				prototype = globals.loadPrototype(new ByteArrayInputStream(contents), chunkname, "bt");
+			} catch (final LuaError e) {
+				throw e;
+			} catch (final Exception e) {
+				throw new LuaError("load " + chunkname + ": " + e);
+			}
+			chunk = new Chunk(hash, prototype);
+			chunks.put(chunkname, chunk);
+		}
+
+		if (isHot(chunkname) && isLuaJCAvailable()) {
+			if (chunk.compiled == null) {
+				chunk.compiled = LuaJC.instance.load(chunk.prototype, chunkname, globals);
+			}
+			return chunk.compiled;
+		}
+		return globals.loader.load(chunk.prototype, chunkname, globals);
+	}
+
+	/**
+	 * Checks if a script should be compiled to bytecode.
+	 *
+	 * @param chunkname
+	 *   Identifier of the chunk, files have an "@" prefix.
+	 */
+	private boolean isHot(final String chunkname) {
+		if (hotScripts.isEmpty()) {
+			return false;
+		}
+		return hotScripts.contains(chunkname)
+				|| (chunkname.startsWith("@") && hotScripts.contains(chunkname.substring(1)));
+	}
+
+	private boolean isLuaJCAvailable() {
+		if (luajcAvailable == null) {
+			try {
+				Class.forName(BCEL_CLASS);
+				luajcAvailable = Boolean.TRUE;
+			} catch (final ClassNotFoundException e) {
+				logger.warn("LuaJC needs BCEL on the class path, hot Lua scripts are interpreted");
+				luajcAvailable = Boolean.FALSE;
+			}
+		}
+		return luajcAvailable.booleanValue();
+	}
+
+	/**
+	 * Retrieves the chunk names or file names of the hot scripts.
+	 */
+	Set<String> getHotScripts() {
+		return Collections.unmodifiableSet(hotScripts);
+	}
+
+	/**
+	 * Retrieves the number of loads that did not need compiling.
+	 */
+	synchronized int getHits() {
+		return hits;
+	}
+
+	/**
+	 * Retrieves the number of loads that compiled the chunk.
+	 */
+	synchronized int getMisses() {
+		return misses;
+	}
+}
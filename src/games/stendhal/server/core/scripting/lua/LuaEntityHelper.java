@@ -983,6 +983,10 @@ public class LuaEntityHelper {
 		public LuaFunction attackRejectedAction;
 		private boolean ignorePlayers = false;
 
+		/** the actions with their profiling names, updated when scripts replace the actions */
+		private ProfiledFunction profiledIdleAction;
+		private ProfiledFunction profiledAttackRejectedAction;
+
 
 		public LuaSpeakerNPC(final String name) {
 			super(name);
@@ -1090,11 +1094,13 @@ public class LuaEntityHelper {
 
 				if (getEngine().getCurrentState().equals(ConversationStates.IDLE) && idleAction != null) {
 					final LuaSpeakerNPC thisNPC = this;
+					profiledIdleAction = ProfiledFunction.of(profiledIdleAction, idleAction);
+					final ProfiledFunction action = profiledIdleAction;
 
 					SingletonRepository.getTurnNotifier().notifyInTurns(1, new TurnListener() {
 						@Override
 						public void onTurnReached(final int currentTurn) {
-							idleAction.call(CoerceJavaToLua.coerce(thisNPC));
+							action.call(CoerceJavaToLua.coerce(thisNPC));
 						}
 					});
 				}
@@ -1109,7 +1115,8 @@ public class LuaEntityHelper {
 		@Override
 		public void onRejectedAttackStart(final RPEntity attacker) {
 			if (attackRejectedAction != null) {
-				attackRejectedAction.call(CoerceJavaToLua.coerce(this), CoerceJavaToLua.coerce(attacker));
+				profiledAttackRejectedAction = ProfiledFunction.of(profiledAttackRejectedAction, attackRejectedAction);
+				profiledAttackRejectedAction.call(CoerceJavaToLua.coerce(this), CoerceJavaToLua.coerce(attacker));
 			} else if (!ignorePlayers) {
 				super.onRejectedAttackStart(attacker);
 			}
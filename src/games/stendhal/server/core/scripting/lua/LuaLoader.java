@@ -19,7 +19,9 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -39,6 +41,7 @@ import org.luaj.vm2.lib.jse.LuajavaLib;
 import games.stendhal.common.Rand;
 import games.stendhal.common.grammar.Grammar;
 import games.stendhal.server.core.engine.SingletonRepository;
+import marauroa.common.Configuration;
 
 
 /**
@@ -50,6 +53,8 @@ public class LuaLoader {
 
 	/** Global objects accessible within Lua scripts. */
 	private static Globals globals;
+	/** Compiled scripts. */
+	private static LuaChunkCache chunkCache;
 	/** Original `dofile` Lua function. */
 	@SuppressWarnings("unused")
 	private static LuaFunction dofileOrig;
@@ -92,6 +97,7 @@ public class LuaLoader {
 		globals.load(new JseBaseLib());
 		globals.load(new PackageLib());
 		globals.load(new LuajavaLib());
+		chunkCache = new LuaChunkCache(globals, getHotScripts());
 
 		// store original 'dofile' function
 		dofileOrig = globals.get("dofile").checkfunction();
@@ -178,6 +184,27 @@ public class LuaLoader {
 		}
 	}
 
+	/**
+	 * Retrieves the scripts to be compiled to Java bytecode, as listed in
+	 * `lua_hot_scripts` in server.ini.
+	 *
+	 * @return
+	 *     Paths of the scripts, such as "data/script/quest/LostEngagementRing.lua".
+	 */
+	private static Set<String> getHotScripts() {
+		final Set<String> res = new HashSet<String>();
+		try {
+			for (final String path : Configuration.getConfiguration().get("lua_hot_scripts", "").split(",")) {
+				if (!path.trim().isEmpty()) {
+					res.add(path.trim());
+				}
+			}
+		} catch (final IOException e) {
+			logger.error(e, e);
+		}
+		return res;
+	}
+
 	/**
 	 * Create new script instance.
 	 *
@@ -197,6 +224,13 @@ public class LuaLoader {
 		return globals;
 	}
 
+	/**
+	 * Retrieves the cache of compiled scripts.
+	 */
+	LuaChunkCache getChunkCache() {
+		return chunkCache;
+	}
+
 	/**
 	 * Action when a new script is being loaded.
 	 */
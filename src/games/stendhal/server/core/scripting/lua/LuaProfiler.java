@@ -0,0 +1,219 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.scripting.lua;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.luaj.vm2.LuaClosure;
+import org.luaj.vm2.LuaFunction;
+import org.luaj.vm2.LuaValue;
+import org.luaj.vm2.Varargs;
+
+import marauroa.server.game.Statistics;
+
+
+/**
+ * Measures how long Lua scripts take to load, and how often and how long
+ * the Lua functions that the game calls back run, such as conditions and
+ * actions of NPC chats.
+ *
+ * <p>Functions are identified by the script and line they are defined at.
+ * Admins can show the numbers with the LuaProfile script.</p>
+ */
+public class LuaProfiler {
+
+	/** Singleton instance. */
+	private static LuaProfiler instance;
+
+	/** Measurements by script or function. */
+	private final Map<String, Timing> loads = new ConcurrentHashMap<String, Timing>();
+	private final Map<String, Timing> calls = new ConcurrentHashMap<String, Timing>();
+
+
+	/**
+	 * Number and duration of events.
+	 */
+	private static final class Timing {
+		final LongAdder count = new LongAdder();
+		final LongAdder nanos = new LongAdder();
+		final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+		void add(final long duration) {
+			count.increment();
+			nanos.add(duration);
+			maxNanos.accumulate(duration);
+		}
+	}
+
+
+	/**
+	 * Retrieves the singleton instance.
+	 */
+	public static synchronized LuaProfiler get() {
+		if (instance == null) {
+			instance = new LuaProfiler();
+		}
+		return instance;
+	}
+
+	/**
+	 * Hidden singleton constructor.
+	 */
+	private LuaProfiler() {
+		// singleton
+	}
+
+	/**
+	 * Retrieves the name under which calls of a function are counted.
+	 *
+	 * @param lf
+	 *   Function defined in Lua or Java.
+	 * @return
+	 *   Script and line for Lua functions, class name otherwise.
+	 */
+	public String nameOf(final LuaFunction lf) {
+		if (lf instanceof LuaClosure) {
+			final LuaClosure closure = (LuaClosure) lf;
+			return closure.p.shortsource() + ":" + closure.p.linedefined;
+		}
+		return lf.classnamestub();
+	}
+
+	/**
+	 * Calls a function and counts the call.
+	 *
+	 * @param name
+	 *   Name returned by {@link #nameOf(LuaFunction)}.
+	 * @param lf
+	 *   Function to call.
+	 * @param args
+	 *   Arguments passed to the function.
+	 * @return
+	 *   Values returned by the function.
+	 */
+	public Varargs invoke(final String name, final LuaFunction lf, final Varargs args) {
+		final long start = System.nanoTime();
+		try {
+			return lf.invoke(args);
+		} finally {
+			calls.computeIfAbsent(name, key -> new Timing()).add(System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Calls a function and counts the call.
+	 *
+	 * @param name
+	 *   Name returned by {@link #nameOf(LuaFunction)}.
+	 * @param lf
+	 *   Function to call.
+	 * @param args
+	 *   Arguments passed to the function.
+	 * @return
+	 *   First value returned by the function.
+	 */
+	public LuaValue call(final String name, final LuaFunction lf, final LuaValue... args) {
+		return invoke(name, lf, LuaValue.varargsOf(args)).arg1();
+	}
+
+	/**
+	 * Records the loading of a script.
+	 *
+	 * @param chunkname
+	 *   Identifier of the script.
+	 * @param nanos
+	 *   Time for compiling & executing the script.
+	 */
+	void addLoad(final String chunkname, final long nanos) {
+		loads.computeIfAbsent(chunkname, key -> new Timing()).add(nanos);
+		Statistics.getStatistics().set("Lua load ms", (int) (getTotalNanos(loads) / 1000000));
+	}
+
+	/**
+	 * Retrieves the number of calls of a function.
+	 *
+	 * @param name
+	 *   Name returned by {@link #nameOf(LuaFunction)}.
+	 */
+	public long getCallCount(final String name) {
+		final Timing timing = calls.get(name);
+		if (timing == null) {
+			return 0;
+		}
+		return timing.count.sum();
+	}
+
+	/**
+	 * Retrieves the number of times a script was loaded.
+	 *
+	 * @param chunkname
+	 *   Identifier of the script.
+	 */
+	public long getLoadCount(final String chunkname) {
+		final Timing timing = loads.get(chunkname);
+		if (timing == null) {
+			return 0;
+		}
+		return timing.count.sum();
+	}
+
+	/**
+	 * Creates a report of the slowest scripts & functions.
+	 *
+	 * @param limit
+	 *   Maximum number of scripts & of functions listed.
+	 * @return
+	 *   Text with one line per script or function.
+	 */
+	public String getReport(final int limit) {
+		final StringBuilder sb = new StringBuilder();
+		sb.append("Lua script loads (count, total ms, max ms):");
+		appendTimings(sb, loads, limit);
+		sb.append("\nLua function calls (count, total ms, max ms):");
+		appendTimings(sb, calls, limit);
+		return sb.toString();
+	}
+
+	/**
+	 * Discards all measurements.
+	 */
+	public void reset() {
+		loads.clear();
+		calls.clear();
+	}
+
+	private static void appendTimings(final StringBuilder sb, final Map<String, Timing> timings, final int limit) {
+		final List<Map.Entry<String, Timing>> entries = new ArrayList<Map.Entry<String, Timing>>(timings.entrySet());
+		entries.sort(Comparator.comparingLong((Map.Entry<String, Timing> entry) -> entry.getValue().nanos.sum())
+				.reversed());
+		for (final Map.Entry<String, Timing> entry : entries.subList(0, Math.min(limit, entries.size()))) {
+			final Timing timing = entry.getValue();
+			sb.append(String.format(Locale.ENGLISH, "\n  %s: %d, %.1f, %.1f", entry.getKey(), timing.count.sum(),
+					timing.nanos.sum() / 1000000.0, timing.maxNanos.get() / 1000000.0));
+		}
+	}
+
+	private static long getTotalNanos(final Map<String, Timing> timings) {
+		long res = 0;
+		for (final Timing timing : timings.values()) {
+			res += timing.nanos.sum();
+		}
+		return res;
+	}
+}
@@ -382,6 +382,13 @@ public class LuaQuestHelper {
 		public LuaFunction repeatableCheck = null;
 		public LuaFunction completedCheck = null;
 
+		/** the functions above with their profiling names, updated when scripts replace the functions */
+		private ProfiledFunction profiledRemove;
+		private ProfiledFunction profiledHistory;
+		private ProfiledFunction profiledStartedCheck;
+		private ProfiledFunction profiledRepeatableCheck;
+		private ProfiledFunction profiledCompletedCheck;
+
 
 		/**
 		 * Creates a new quest.
@@ -473,7 +480,7 @@ public class LuaQuestHelper {
 		 * @return
 		 *   Returned value of the called Lua function.
 		 */
-		private boolean checkBoolFunction(final LuaFunction lf) {
+		private boolean checkBoolFunction(final ProfiledFunction lf) {
 			final LuaValue result = lf.call();
 			if (result.isboolean()) {
 				return result.toboolean();
@@ -525,7 +532,8 @@ public class LuaQuestHelper {
 				return ret;
 			}
 
-			final LuaValue result = history.call(CoerceJavaToLua.coerce(player));
+			profiledHistory = ProfiledFunction.of(profiledHistory, history);
+			final LuaValue result = profiledHistory.call(CoerceJavaToLua.coerce(player));
 			if (result.istable()) {
 				for (final LuaValue key: result.checktable().keys()) {
 					if (key.isstring()) {
@@ -544,7 +552,8 @@ public class LuaQuestHelper {
 			}
 
 			final List<String> ret = new LinkedList<>();
-			final LuaValue result = history.call(CoerceJavaToLua.coerce(player));
+			profiledHistory = ProfiledFunction.of(profiledHistory, history);
+			final LuaValue result = profiledHistory.call(CoerceJavaToLua.coerce(player));
 			if (result.istable()) {
 				for (final LuaValue key: result.checktable().keys()) {
 					if (key.isstring()) {
@@ -582,7 +591,8 @@ public class LuaQuestHelper {
 				return super.isStarted(player);
 			}
 
-			return checkBoolFunction(startedCheck);
+			profiledStartedCheck = ProfiledFunction.of(profiledStartedCheck, startedCheck);
+			return checkBoolFunction(profiledStartedCheck);
 		}
 
 		@Override
@@ -597,7 +607,8 @@ public class LuaQuestHelper {
 		@Override
 		public boolean removeFromWorld() {
 			if (remove != null) {
-				return checkBoolFunction(remove);
+				profiledRemove = ProfiledFunction.of(profiledRemove, remove);
+				return checkBoolFunction(profiledRemove);
 			}
 
 			return false;
@@ -606,7 +617,8 @@ public class LuaQuestHelper {
 		@Override
 		public boolean isRepeatable(final Player player) {
 			if (repeatableCheck != null) {
-				return checkBoolFunction(repeatableCheck);
+				profiledRepeatableCheck = ProfiledFunction.of(profiledRepeatableCheck, repeatableCheck);
+				return checkBoolFunction(profiledRepeatableCheck);
 			}
 
 			return questInfo.getRepeatable();
@@ -618,7 +630,8 @@ public class LuaQuestHelper {
 				return super.isCompleted(player);
 			}
 
-			return checkBoolFunction(completedCheck);
+			profiledCompletedCheck = ProfiledFunction.of(profiledCompletedCheck, completedCheck);
+			return checkBoolFunction(profiledCompletedCheck);
 		}
 
 		/**
@@ -10,15 +10,14 @@
  ***************************************************************************/
 package games.stendhal.server.core.scripting.lua;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
 
 import org.apache.log4j.Logger;
+import org.luaj.vm2.LuaError;
 import org.luaj.vm2.LuaValue;
 
 import games.stendhal.server.core.scripting.ScriptingSandbox;
@@ -164,10 +163,16 @@ public class LuaScript extends ScriptingSandbox {
 		onLoad();
 
 		LuaValue result = LuaValue.NIL;
-		if (istream != null) {
-			result = loadStream();
-		} else {
-			result = loadFile();
+		final long start = System.nanoTime();
+		try {
+			if (istream != null) {
+				result = loadStream();
+			} else {
+				result = loadFile();
+			}
+		} finally {
+			// includes the scripts run by this one
+			LuaProfiler.get().addLoad(filename, System.nanoTime() - start);
 		}
 
 		boolean success = true;
@@ -191,8 +196,16 @@ public class LuaScript extends ScriptingSandbox {
 	 *   LuaValue result returned by the executed script.
 	 */
 	LuaValue loadFile() {
-		// run script
-		return LuaLoader.get().getGlobals().loadfile(filename).call();
+		final InputStream is = LuaLoader.get().getGlobals().finder.findResource(filename);
+		if (is == null) {
+			throw new LuaError("load " + filename + ": cannot open file");
+		}
+		try {
+			// run script
+			return LuaLoader.get().getChunkCache().load(is, "@" + filename).call();
+		} catch (final IOException e) {
+			throw new LuaError("load " + filename + ": " + e);
+		}
 	}
 
 	/**
@@ -204,10 +217,8 @@ public class LuaScript extends ScriptingSandbox {
 	LuaValue loadStream() {
 		LuaValue result = LuaValue.NIL;
 		try {
-			final BufferedReader reader = new BufferedReader(new InputStreamReader(istream));
 			// run data chunk
-			result = LuaLoader.get().getGlobals().load(reader, filename).call();
-			reader.close();
+			result = LuaLoader.get().getChunkCache().load(istream, filename).call();
 		} catch (final IOException e) {
 			Logger.getLogger(LuaScript.class).error(e, e);
 			result = LuaValue.ONE;
@@ -115,10 +115,11 @@ public class LuaWorldHelper extends ScriptingSandbox {
 	 *   FIXME: how to invoke with parameters?
 	 */
 	public void runAfter(final int turns, final LuaFunction func) {
+		final ProfiledFunction profiled = new ProfiledFunction(func);
 		SingletonRepository.getTurnNotifier().notifyInTurns(turns, new TurnListener() {
 			@Override
 			public void onTurnReached(final int currentTurn) {
-				func.call();
+				profiled.call();
 			}
 		});
 	}
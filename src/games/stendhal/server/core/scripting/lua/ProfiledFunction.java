@@ -0,0 +1,70 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.scripting.lua;
+
+import org.luaj.vm2.LuaFunction;
+import org.luaj.vm2.LuaValue;
+
+/**
+ * A Lua function with the name its calls are counted under by the
+ * {@link LuaProfiler}, so that the name is worked out once when the
+ * function is registered rather than on every call.
+ */
+final class ProfiledFunction {
+
+	private final LuaFunction function;
+
+	private final String name;
+
+	/**
+	 * Creates a new ProfiledFunction.
+	 *
+	 * @param function
+	 *   Function to call.
+	 */
+	ProfiledFunction(final LuaFunction function) {
+		this.function = function;
+		this.name = LuaProfiler.get().nameOf(function);
+	}
+
+	/**
+	 * Retrieves the ProfiledFunction for a function that may have been
+	 * replaced since the last call, such as one held in a field that
+	 * scripts can set.
+	 *
+	 * @param previous
+	 *   ProfiledFunction used before, or <code>null</code>.
+	 * @param function
+	 *   Current function.
+	 * @return
+	 *   <code>previous</code> if it wraps the same function, a new
+	 *   ProfiledFunction otherwise.
+	 */
+	static ProfiledFunction of(final ProfiledFunction previous, final LuaFunction function) {
+		if ((previous != null) && (previous.function == function)) {
+			return previous;
+		}
+		return new ProfiledFunction(function);
+	}
+
+	/**
+	 * Calls the function and counts the call.
+	 *
+	 * @param args
+	 *   Arguments passed to the function.
+	 * @return
+	 *   First value returned by the function.
+	 */
+	LuaValue call(final LuaValue... args) {
+		return LuaProfiler.get().call(name, function, args);
+	}
+}
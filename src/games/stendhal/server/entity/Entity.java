@@ -200,6 +200,9 @@ public abstract class Entity extends RPObject implements Killer {
 			resistance = getInt("resistance");
 		}
 
+		if (zone != null) {
+			zone.updateEntityArea(this);
+		}
 	}
 
 	public boolean hasDescription() {
@@ -657,6 +660,7 @@ public abstract class Entity extends RPObject implements Killer {
 		}
 
 		if (moved && (zone != null)) {
+			zone.updateEntityArea(this);
 			onMoved(oldX, oldY, x, y);
 		}
 	}
@@ -678,6 +682,9 @@ public abstract class Entity extends RPObject implements Killer {
 	public final void setResistance(final int resistance) {
 		this.resistance = resistance;
 		put("resistance", resistance);
+		if (zone != null) {
+			zone.updateEntityArea(this);
+		}
 	}
 
 	/**
@@ -694,6 +701,10 @@ public abstract class Entity extends RPObject implements Killer {
 
 		this.area.height = height;
 		put("height", height);
+
+		if (zone != null) {
+			zone.updateEntityArea(this);
+		}
 	}
 
 	/**
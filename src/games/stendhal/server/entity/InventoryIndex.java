@@ -0,0 +1,323 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.entity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import games.stendhal.server.entity.item.Item;
+import games.stendhal.server.entity.slot.EntitySlot;
+import games.stendhal.server.entity.slot.Slots;
+import marauroa.common.game.RPObject;
+import marauroa.common.game.RPSlot;
+import marauroa.common.game.SlotOwner;
+
+/**
+ * Number of items by name that an RPEntity has in its slots, including the
+ * contents of containers. The counts are built on the first query, and then
+ * updated when items are added to or removed from an EntitySlot, or when the
+ * quantity of a stack changes. Other kinds of slots are few, and are checked
+ * on every query instead.
+ */
+public final class InventoryIndex {
+	/** Names of the slots that count as carried. */
+	private static final Set<String> CARRYING = new HashSet<String>(Slots.CARRYING.getNames());
+	/** Check every query against a full scan. Meant for tests. */
+	private static boolean verification;
+
+	/** Owner of the index. */
+	private final RPEntity entity;
+	/** Number of carried items by lower case name. */
+	private final Map<String, Integer> carried = new HashMap<String, Integer>();
+	/** Number of items in all slots by lower case name. */
+	private final Map<String, Integer> total = new HashMap<String, Integer>();
+	/** Slots of the entity that are not EntitySlots, and are not tracked. */
+	private final List<RPSlot> untracked = new ArrayList<RPSlot>();
+
+	/**
+	 * Create the index of an entity.
+	 *
+	 * @param entity indexed entity
+	 */
+	InventoryIndex(final RPEntity entity) {
+		this.entity = entity;
+		for (final RPSlot slot : entity.slots()) {
+			if (slot instanceof EntitySlot) {
+				final boolean isCarried = CARRYING.contains(slot.getName());
+				for (final RPObject object : slot) {
+					count(object, isCarried, 1);
+				}
+			} else {
+				untracked.add(slot);
+			}
+		}
+	}
+
+	/**
+	 * Enable or disable checking every query against a full scan of the
+	 * slots. A mismatch throws an IllegalStateException.
+	 *
+	 * @param enabled <code>true</code> to enable the checks
+	 */
+	public static void setVerification(final boolean enabled) {
+		verification = enabled;
+	}
+
+	/**
+	 * Check if the index belongs to an entity. Cloned entities share the
+	 * index of the original at first.
+	 *
+	 * @param owner entity
+	 * @return <code>true</code> if this is the index of the entity
+	 */
+	boolean isFor(final RPEntity owner) {
+		return entity == owner;
+	}
+
+	/**
+	 * Get the number of carried items.
+	 *
+	 * @param name item name, in any case
+	 * @return number of items
+	 */
+	int getCarried(final String name) {
+		if (name == null) {
+			return 0;
+		}
+		final String key = name.toLowerCase(Locale.ENGLISH);
+		final int count = get(carried, key) + countUntracked(name, true);
+		if (verification) {
+			verify(name, count, true);
+		}
+		return count;
+	}
+
+	/**
+	 * Get the number of items in all slots.
+	 *
+	 * @param name item name, in any case
+	 * @return number of items
+	 */
+	int getTotal(final String name) {
+		if (name == null) {
+			return 0;
+		}
+		final String key = name.toLowerCase(Locale.ENGLISH);
+		final int count = get(total, key) + countUntracked(name, false);
+		if (verification) {
+			verify(name, count, false);
+		}
+		return count;
+	}
+
+	/**
+	 * Called after an object was added to an EntitySlot.
+	 *
+	 * @param owner owner of the slot
+	 * @param slot slot
+	 * @param object added object
+	 */
+	public static void onAdded(final SlotOwner owner, final RPSlot slot, final RPObject object) {
+		update(owner, slot, object, 1);
+	}
+
+	/**
+	 * Called after an object was removed from an EntitySlot.
+	 *
+	 * @param owner owner of the slot
+	 * @param slot slot
+	 * @param object removed object
+	 */
+	public static void onRemoved(final SlotOwner owner, final RPSlot slot, final RPObject object) {
+		update(owner, slot, object, -1);
+	}
+
+	/**
+	 * Called after the quantity of an item changed.
+	 *
+	 * @param item changed item
+	 * @param change change of the quantity
+	 */
+	public static void onQuantityChanged(final Item item, final int change) {
+		if ((change == 0) || !item.isContained() || (item.getName() == null)) {
+			return;
+		}
+		final SlotOwner owner = item.getContainerOwner();
+		final RPSlot slot = item.getContainerSlot();
+		final InventoryIndex index = find(owner, slot);
+		if (index != null) {
+			index.add(item.getName(), isCarried(owner, slot), change);
+		}
+	}
+
+	private static void update(final SlotOwner owner, final RPSlot slot, final RPObject object, final int sign) {
+		final InventoryIndex index = find(owner, slot);
+		if (index != null) {
+			index.count(object, isCarried(owner, slot), sign);
+		}
+	}
+
+	/**
+	 * Find the index that counts the contents of a slot.
+	 *
+	 * @param owner owner of the slot
+	 * @param slot slot
+	 * @return index, or <code>null</code> if the slot is not tracked by an
+	 * 	index
+	 */
+	private static InventoryIndex find(final SlotOwner owner, final RPSlot slot) {
+		SlotOwner base = owner;
+		RPSlot top = slot;
+		// Items count only within other items, like the old full scans did
+		while (!(base instanceof RPEntity)) {
+			if (!(base instanceof Item) || !((Item) base).isContained()) {
+				return null;
+			}
+			final Item container = (Item) base;
+			top = container.getContainerSlot();
+			base = container.getContainerOwner();
+		}
+		final InventoryIndex index = ((RPEntity) base).inventoryIndex;
+		if ((index == null) || !index.isFor((RPEntity) base) || !(top instanceof EntitySlot)) {
+			return null;
+		}
+		return index;
+	}
+
+	/**
+	 * Check if a slot is in a carrying slot of its entity.
+	 *
+	 * @param owner owner of the slot
+	 * @param slot slot
+	 * @return <code>true</code> if the contents count as carried
+	 */
+	private static boolean isCarried(final SlotOwner owner, final RPSlot slot) {
+		SlotOwner base = owner;
+		RPSlot top = slot;
+		while (base instanceof Item) {
+			final Item container = (Item) base;
+			top = container.getContainerSlot();
+			base = container.getContainerOwner();
+		}
+		return CARRYING.contains(top.getName());
+	}
+
+	/**
+	 * Count an item and its contents.
+	 *
+	 * @param object object in a slot
+	 * @param isCarried <code>true</code> if the object is in a carrying slot
+	 * @param sign 1 for added objects, -1 for removed
+	 */
+	private void count(final RPObject object, final boolean isCarried, final int sign) {
+		if (!(object instanceof Item)) {
+			return;
+		}
+		final Item item = (Item) object;
+		if (item.getName() != null) {
+			add(item.getName(), isCarried, sign * item.getQuantity());
+		}
+		for (final RPSlot slot : item.slots()) {
+			for (final RPObject content : slot) {
+				count(content, isCarried, sign);
+			}
+		}
+	}
+
+	private void add(final String name, final boolean isCarried, final int amount) {
+		final String key = name.toLowerCase(Locale.ENGLISH);
+		change(total, key, amount);
+		if (isCarried) {
+			change(carried, key, amount);
+		}
+	}
+
+	private static void change(final Map<String, Integer> counts, final String key, final int amount) {
+		final int count = get(counts, key) + amount;
+		if (count == 0) {
+			counts.remove(key);
+		} else {
+			counts.put(key, count);
+		}
+	}
+
+	private static int get(final Map<String, Integer> counts, final String key) {
+		final Integer count = counts.get(key);
+		if (count == null) {
+			return 0;
+		}
+		return count;
+	}
+
+	/**
+	 * Count the items in the slots that are not tracked.
+	 *
+	 * @param name item name
+	 * @param carriedOnly <code>true</code> to count only carrying slots
+	 * @return number of items
+	 */
+	private int countUntracked(final String name, final boolean carriedOnly) {
+		int count = 0;
+		for (final RPSlot slot : untracked) {
+			if (!carriedOnly || CARRYING.contains(slot.getName())) {
+				for (final RPObject object : slot) {
+					count += scan(object, name);
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Count matching items with a full scan.
+	 *
+	 * @param object object in a slot
+	 * @param name item name
+	 * @return number of items
+	 */
+	private static int scan(final RPObject object, final String name) {
+		if (!(object instanceof Item)) {
+			return 0;
+		}
+		final Item item = (Item) object;
+		int count = 0;
+		if (name.equalsIgnoreCase(item.getName())) {
+			count = item.getQuantity();
+		}
+		for (final RPSlot slot : item.slots()) {
+			for (final RPObject content : slot) {
+				count += scan(content, name);
+			}
+		}
+		return count;
+	}
+
+	private void verify(final String name, final int count, final boolean carriedOnly) {
+		int expected = 0;
+		for (final RPSlot slot : entity.slots()) {
+			if (!carriedOnly || CARRYING.contains(slot.getName())) {
+				for (final RPObject object : slot) {
+					expected += scan(object, name);
+				}
+			}
+		}
+		if (expected != count) {
+			throw new IllegalStateException("Inventory index of " + entity.getName() + " has " + count + " "
+					+ name + (carriedOnly ? " carried" : " in total") + ", but the slots have " + expected);
+		}
+	}
+}
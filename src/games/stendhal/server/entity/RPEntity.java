@@ -40,10 +40,10 @@ import games.stendhal.common.parser.WordList;
 import games.stendhal.server.actions.equip.DropAction;
 import games.stendhal.server.core.engine.GameEvent;
 import games.stendhal.server.core.engine.ItemLogger;
+import games.stendhal.server.core.engine.KillLogAggregator;
 import games.stendhal.server.core.engine.SingletonRepository;
 import games.stendhal.server.core.engine.StendhalRPZone;
 import games.stendhal.server.core.engine.db.StendhalKillLogDAO;
-import games.stendhal.server.core.engine.dbcommand.LogKillEventCommand;
 import games.stendhal.server.core.events.TurnListener;
 import games.stendhal.server.core.events.TutorialNotifier;
 import games.stendhal.server.entity.creature.Creature;
@@ -68,8 +68,6 @@ import marauroa.common.game.RPAction;
 import marauroa.common.game.RPObject;
 import marauroa.common.game.RPSlot;
 import marauroa.common.game.SyntaxException;
-import marauroa.server.db.command.DBCommandPriority;
-import marauroa.server.db.command.DBCommandQueue;
 import marauroa.server.game.Statistics;
 import marauroa.server.game.db.DAORegister;
 
@@ -129,6 +127,9 @@ public abstract class RPEntity extends CombatEntity {
 	protected CounterMap<Entity> damageReceived;
 	protected int totalDamageReceived;
 
+	/** Item counts by name. Created on the first query. */
+	InventoryIndex inventoryIndex;
+
 	/**
 	 * To avoid using karma for damage calculations when the natural ability of
 	 * the fighters would mean they need no luck, we only use karma when the
@@ -1625,10 +1626,9 @@ System.out.printf("  drop: %2d %2d\n", attackerRoll, defenderRoll);
 				} else {
 					killer.setSharedKill(killedName);
 				}
+				SingletonRepository.getAchievementNotifier().onKill(killer, killedName);
 			}
 
-			SingletonRepository.getAchievementNotifier().onKill(killer);
-
 			killer.notifyWorldAboutChanges();
 		}
 	}
@@ -1739,7 +1739,7 @@ System.out.printf("  drop: %2d %2d\n", attackerRoll, defenderRoll);
 			new GameEvent(killerName, "killed", this.getName(), killLog.entityToType(killer), killLog.entityToType(this)).raise();
 		}
 
-		DBCommandQueue.get().enqueue(new LogKillEventCommand(this, killer), DBCommandPriority.LOW);
+		KillLogAggregator.get().add(this, killer);
 
 		die(killer, remove);
 	}
@@ -2140,7 +2140,10 @@ System.out.printf("  drop: %2d %2d\n", attackerRoll, defenderRoll);
 	 * @return true iff dropping the desired amount was successful.
 	 */
 	public boolean drop(final String name, final int amount) {
-		return drop(nameMatches(name), amount);
+		if (!isEquipped(name, amount)) {
+			return false;
+		}
+		return dropMatching(nameMatches(name), amount);
 	}
 
 	private boolean isEquipped(Predicate<Item> condition, int amount) {
@@ -2159,7 +2162,17 @@ System.out.printf("  drop: %2d %2d\n", attackerRoll, defenderRoll);
 		if (!isEquipped(condition, amount)) {
 			return false;
 		}
+		return dropMatching(condition, amount);
+	}
 
+	/**
+	 * Drop items that are known to be equipped.
+	 *
+	 * @param condition condition for the dropped items
+	 * @param amount amount to drop
+	 * @return <code>true</code> if the amount was dropped
+	 */
+	private boolean dropMatching(Predicate<Item> condition, int amount) {
 		int toDrop = amount;
 		Iterable<Item> matchingItems = equippedStream().filter(condition)::iterator;
 		for (Item item : matchingItems) {
@@ -2279,7 +2292,7 @@ System.out.printf("  drop: %2d %2d\n", attackerRoll, defenderRoll);
 	 *         number.
 	 */
 	public boolean isEquipped(final String name, final int amount) {
-		return isEquipped(nameMatches(name), amount);
+		return getInventoryIndex().getCarried(name) >= amount;
 	}
 
 	/**
@@ -2333,8 +2346,7 @@ System.out.printf("  drop: %2d %2d\n", attackerRoll, defenderRoll);
 	 * @return The number of carried items
 	 */
 	public int getNumberOfEquipped(final String name) {
-		return equippedStream().filter(nameMatches(name))
-				.mapToInt(Item::getQuantity).sum();
+		return getInventoryIndex().getCarried(name);
 	}
 
 	/**
@@ -2346,8 +2358,7 @@ System.out.printf("  drop: %2d %2d\n", attackerRoll, defenderRoll);
 	 * @return The number of carried items
 	 */
 	public int getTotalNumberOf(final String name) {
-		Stream<Item> allItems = slots().stream().flatMap(this::slotStream);
-		return allItems.filter(nameMatches(name)).mapToInt(Item::getQuantity).sum();
+		return getInventoryIndex().getTotal(name);
 	}
 
 	/**
@@ -2360,6 +2371,9 @@ System.out.printf("  drop: %2d %2d\n", attackerRoll, defenderRoll);
 	 *         found
 	 */
 	public Item getFirstEquipped(final String name) {
+		if (getInventoryIndex().getCarried(name) == 0) {
+			return null;
+		}
 		return equippedStream().filter(nameMatches(name)).findFirst().orElse(null);
 	}
 
@@ -2373,6 +2387,9 @@ System.out.printf("  drop: %2d %2d\n", attackerRoll, defenderRoll);
 	 *         found
 	 */
 	public List<Item> getAllEquipped(final String name) {
+		if (getInventoryIndex().getCarried(name) == 0) {
+			return new ArrayList<>();
+		}
 		return getAllEquipped(nameMatches(name));
 	}
 
@@ -3425,6 +3442,36 @@ System.out.printf("  drop: %2d %2d\n", attackerRoll, defenderRoll);
 		return items.flatMap(this::itemStream);
 	}
 
+	/**
+	 * Get the item counts, creating them if needed.
+	 *
+	 * @return inventory index
+	 */
+	private InventoryIndex getInventoryIndex() {
+		if ((inventoryIndex == null) || !inventoryIndex.isFor(this)) {
+			inventoryIndex = new InventoryIndex(this);
+		}
+		return inventoryIndex;
+	}
+
+	@Override
+	public void addSlot(final String name) {
+		super.addSlot(name);
+		inventoryIndex = null;
+	}
+
+	@Override
+	public void addSlot(final RPSlot slot) {
+		super.addSlot(slot);
+		inventoryIndex = null;
+	}
+
+	@Override
+	public RPSlot removeSlot(final String name) {
+		inventoryIndex = null;
+		return super.removeSlot(name);
+	}
+
 	/**
 	 * Get a stream of all equipped items.
 	 *
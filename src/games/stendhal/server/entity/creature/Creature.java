@@ -954,6 +954,11 @@ public class Creature extends NPC {
 		}
 	}
 
+	@Override
+	public void catchUp(final int fromTurn, final int toTurn) {
+		healer.catchUp(this, fromTurn, toTurn);
+	}
+
 	/**
 	 * Random sound noises.
 	 * @param state - state for noises
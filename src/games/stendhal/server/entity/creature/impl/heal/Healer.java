@@ -40,4 +40,13 @@ class Healer implements HealerBehavior {
 
 	}
 
+	@Override
+	public void catchUp(final Creature creature, final int fromTurn, final int toTurn) {
+		// the turns heal() would have healed in
+		final long times = Math.floorDiv(toTurn, frequency) - Math.floorDiv(fromTurn - 1, frequency);
+		if ((times > 0) && (creature.getHP() > 0)) {
+			creature.heal((int) Math.min(Integer.MAX_VALUE, times * amount));
+		}
+	}
+
 }
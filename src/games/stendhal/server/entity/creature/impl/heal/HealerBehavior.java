@@ -18,4 +18,13 @@ public interface HealerBehavior {
 	void init(String healingProfile);
 	void heal(Creature creature);
 
+	/**
+	 * Heals as much as heal() would have in a range of turns.
+	 *
+	 * @param creature creature to heal
+	 * @param fromTurn first turn
+	 * @param toTurn last turn
+	 */
+	void catchUp(Creature creature, int fromTurn, int toTurn);
+
 }
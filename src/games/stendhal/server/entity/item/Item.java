@@ -702,6 +702,18 @@ public class Item extends PassiveEntity implements TurnListener, EquipListener,
 		statusAttackers = builder.addAll(statusAttackers).add(statusAttacker).build();
 	}
 
+	/**
+	 * Set all status attack types of the item at once, replacing the
+	 * earlier ones.
+	 *
+	 * @param statusAttackers
+	 *     Inflictable status effects. The list is shared with other items of
+	 *     the same kind.
+	 */
+	public void setStatusAttackers(final ImmutableList<StatusAttacker> statusAttackers) {
+		this.statusAttackers = statusAttackers;
+	}
+
 	public List<StatusAttacker> getStatusAttackers() {
 		return statusAttackers;
 	}
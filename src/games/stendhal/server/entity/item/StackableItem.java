@@ -20,6 +20,7 @@ import java.util.Map;
 import org.apache.log4j.Logger;
 
 import games.stendhal.server.core.engine.SingletonRepository;
+import games.stendhal.server.entity.InventoryIndex;
 import marauroa.common.game.RPObject;
 import marauroa.server.game.rp.DebugInterface;
 
@@ -81,6 +82,7 @@ public class StackableItem extends Item implements Stackable<StackableItem> {
 
 	@Override
 	public void setQuantity(final int amount) {
+		final int oldQuantity = quantity;
 		if (amount <= 0) {
 			logger.error("Trying to set invalid quantity: " + amount,
 					new Throwable());
@@ -89,6 +91,7 @@ public class StackableItem extends Item implements Stackable<StackableItem> {
 			quantity = amount;
 		}
 		put("quantity", getQuantity());
+		InventoryIndex.onQuantityChanged(this, quantity - oldQuantity);
 	}
 
 	/**
@@ -103,6 +106,7 @@ public class StackableItem extends Item implements Stackable<StackableItem> {
 		}
 		quantity = getQuantity() - amount;
 		put("quantity", getQuantity());
+		InventoryIndex.onQuantityChanged(this, -amount);
 		return getQuantity();
 	}
 
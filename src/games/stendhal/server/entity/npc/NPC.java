@@ -328,6 +328,18 @@ public abstract class NPC extends DressedEntity {
         notifyWorldAboutChanges();
 	}
 
+	/**
+	 * Called instead of {@link #logic()} while the zone is dormant, to
+	 * advance anything that changes over time. The turns are handed out in
+	 * coarse steps, and when the zone wakes up.
+	 *
+	 * @param fromTurn first skipped turn
+	 * @param toTurn last skipped turn
+	 */
+	public void catchUp(final int fromTurn, final int toTurn) {
+		// nothing changes while no one is around
+	}
+
     /**
      * Give NPC a random path
      */
@@ -73,6 +73,15 @@ public class AndCondition implements ChatCondition {
 		return true;
 	}
 
+	/**
+	 * Gets the and-ed conditions.
+	 *
+	 * @return conditions
+	 */
+	public List<ChatCondition> getConditions() {
+		return conditions;
+	}
+
 	@Override
 	public String toString() {
 		return conditions.toString();
@@ -46,6 +46,15 @@ public class QuestActiveCondition implements ChatCondition {
 		return (player.hasQuest(questname) && !player.isQuestInState(questname, 0, "rejected") && !player.isQuestCompleted(questname));
 	}
 
+	/**
+	 * Gets the name of the quest slot this condition checks.
+	 *
+	 * @return quest slot name
+	 */
+	public String getQuestSlot() {
+		return questname;
+	}
+
 	@Override
 	public String toString() {
 		return "QuestActive <" + questname + ">";
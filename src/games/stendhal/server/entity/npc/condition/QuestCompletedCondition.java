@@ -53,6 +53,15 @@ public class QuestCompletedCondition implements ChatCondition {
 		return (player.isQuestCompleted(questname));
 	}
 
+	/**
+	 * Gets the name of the quest slot this condition checks.
+	 *
+	 * @return quest slot name
+	 */
+	public String getQuestSlot() {
+		return questname;
+	}
+
 	@Override
 	public String toString() {
 		return "QuestCompleted <" + questname + ">";
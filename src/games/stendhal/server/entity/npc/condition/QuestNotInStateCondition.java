@@ -73,6 +73,15 @@ public class QuestNotInStateCondition implements ChatCondition {
 		}
 	}
 
+	/**
+	 * Gets the name of the quest slot this condition checks.
+	 *
+	 * @return quest slot name
+	 */
+	public String getQuestSlot() {
+		return questname;
+	}
+
 	@Override
 	public String toString() {
 		return "QuestNotInState <" + questname + "[" + index + "] = " + state + ">";
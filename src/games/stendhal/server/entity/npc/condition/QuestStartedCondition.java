@@ -44,6 +44,15 @@ public class QuestStartedCondition implements ChatCondition {
 		return (player.hasQuest(questname) && !"rejected".equals(player.getQuest(questname, 0)));
 	}
 
+	/**
+	 * Gets the name of the quest slot this condition checks.
+	 *
+	 * @return quest slot name
+	 */
+	public String getQuestSlot() {
+		return questname;
+	}
+
 	@Override
 	public String toString() {
 		return "QuestStarted <" + questname + ">";
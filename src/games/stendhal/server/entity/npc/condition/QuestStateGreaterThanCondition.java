@@ -70,6 +70,15 @@ public class QuestStateGreaterThanCondition implements ChatCondition {
 		return false;
 	}
 
+	/**
+	 * Gets the name of the quest slot this condition checks.
+	 *
+	 * @return quest slot name
+	 */
+	public String getQuestSlot() {
+		return questname;
+	}
+
 	@Override
 	public int hashCode() {
 		return 45943 * questname.hashCode() + 45949 * index + 45953 * expectedSmallerValue;
@@ -49,6 +49,15 @@ public class QuestStateStartsWithCondition implements ChatCondition {
 		return (player.hasQuest(questname) && player.getQuest(questname).startsWith(state));
 	}
 
+	/**
+	 * Gets the name of the quest slot this condition checks.
+	 *
+	 * @return quest slot name
+	 */
+	public String getQuestSlot() {
+		return questname;
+	}
+
 	@Override
 	public String toString() {
 		return "QuestStateStartsWith <" + questname + "," + state + ">";
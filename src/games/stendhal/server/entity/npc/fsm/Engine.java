@@ -48,6 +48,9 @@ public class Engine {
 	// FSM state transition table
 	private final List<Transition> stateTransitionTable = new LinkedList<Transition>();
 
+	// index of the table by state and trigger
+	private TransitionIndex index = new TransitionIndex();
+
 	// current FSM state
 	private ConversationStates currentState = ConversationStates.IDLE;
 
@@ -74,7 +77,7 @@ public class Engine {
 	 * @return previous transition entry
 	 */
 	private Transition get(final ConversationStates state, final Expression trigger, final ChatCondition condition) {
-		for (final Transition transition : stateTransitionTable) {
+		for (final Transition transition : index.getExactCandidates(state, trigger)) {
 			if (transition.matchesWithCondition(state, trigger, condition)) {
 				return transition;
 			}
@@ -288,7 +291,7 @@ public class Engine {
 	public void add(Collection<Expression> triggerExpressions, final ConversationStates state, final ChatCondition condition,
 			boolean secondary, final ConversationStates nextState, final String reply, final ChatAction action, final String label) {
 		if (triggerExpressions!=null && !triggerExpressions.isEmpty()) {
-			stateTransitionTable.add(new Transition(state, triggerExpressions, condition, secondary, nextState, reply, action, label));
+			addTransition(new Transition(state, triggerExpressions, condition, secondary, nextState, reply, action, label));
 		}
 	}
 
@@ -313,10 +316,15 @@ public class Engine {
 	public void add(Collection<Expression> triggerExpressions, final ConversationStates state, final ChatCondition condition,
 			boolean secondary, final ConversationStates nextState, final String reply, final ChatAction action) {
 		if (triggerExpressions!=null && !triggerExpressions.isEmpty()) {
-			stateTransitionTable.add(new Transition(state, triggerExpressions, condition, secondary, nextState, reply, action));
+			addTransition(new Transition(state, triggerExpressions, condition, secondary, nextState, reply, action));
 		}
 	}
 
+	private void addTransition(final Transition transition) {
+		stateTransitionTable.add(transition);
+		index.add(transition);
+	}
+
 	/**
 	 * remove matches transition
 	 *
@@ -338,6 +346,12 @@ public class Engine {
 				res = true;
 			}
 		}
+		if (res) {
+			index = new TransitionIndex();
+			for (final Transition transition : stateTransitionTable) {
+				index.add(transition);
+			}
+		}
 		return res;
 	}
 
@@ -448,24 +462,38 @@ public class Engine {
 			return false;
 		}
 
-		if (matchTransition(MatchType.EXACT_MATCH, player, sentence)) {
-			return true;
-		} else if (matchTransition(MatchType.NORMALIZED_MATCH, player, sentence)) {
-			return true;
-		} else if (matchTransition(MatchType.SIMILAR_MATCH, player, sentence)) {
-			return true;
-		} else if (matchTransition(MatchType.ABSOLUTE_JUMP, player, sentence)) {
-			return true;
-		} else if (matchTransition(MatchType.NORMALIZED_JUMP, player, sentence)) {
-			return true;
-		} else if (matchTransition(MatchType.SIMILAR_JUMP, player, sentence)) {
-			return true;
-		} else {
+		final Transition transition = findTransition(player, sentence);
+		if (transition == null) {
 			// Couldn't match the command with the current FSM state
 			logger.debug("Couldn't match any state: " + getCurrentState() + ":"
 					+ sentence);
 			return false;
 		}
+
+		executeTransition(player, sentence, transition);
+		return true;
+	}
+
+	/**
+	 * Finds the transition a step would take in the current state, without
+	 * taking it. If several transitions match equally well, one of them is
+	 * chosen randomly.
+	 *
+	 * @param player
+	 *            Player
+	 * @param sentence
+	 *            input
+	 * @return transition, or <code>null</code> if none matches
+	 */
+	public Transition findTransition(final Player player, final Sentence sentence) {
+		// the match types are declared from the strongest to the weakest
+		for (final MatchType type : MatchType.values()) {
+			final Transition transition = matchTransition(type, player, sentence);
+			if (transition != null) {
+				return transition;
+			}
+		}
+		return null;
 	}
 
 	/**
@@ -524,14 +552,14 @@ public class Engine {
 		}
 	}
 
-	private boolean matchTransition(final MatchType type, final Player player,
+	private Transition matchTransition(final MatchType type, final Player player,
 			final Sentence sentence) {
 		// We are using sets instead of plain lists to merge identical transitions.
 		final TransitionSet preferredTransitions = new TransitionSet();
 		final TransitionSet secondaryTransitions = new TransitionSet();
 
-		// match with all the registered transitions
-		for (final Transition transition : stateTransitionTable) {
+		// match with the registered transitions that may match
+		for (final Transition transition : getCandidates(type, sentence)) {
 			if (matchesTransition(type, sentence, transition)) {
 				if (transition.isConditionFulfilled(player, sentence, speakerNPC)) {
 					if (transition.isPreferred()) {
@@ -572,13 +600,36 @@ public class Engine {
 		}
 
 		if (it != null) {
-			final Transition transition = it.next();
-
-			executeTransition(player, sentence, transition);
-
-			return true;
+			return it.next();
 		} else {
-			return false;
+			return null;
+		}
+	}
+
+	/**
+	 * Gets the transitions that may match a sentence, so that not every
+	 * transition has to be checked.
+	 *
+	 * @param type match type
+	 * @param sentence input
+	 * @return transitions in table order
+	 */
+	private List<Transition> getCandidates(final MatchType type, final Sentence sentence) {
+		switch (type) {
+		case EXACT_MATCH:
+			return index.getExactCandidates(currentState, sentence.getTriggerExpression());
+		case NORMALIZED_MATCH:
+			return index.getNormalizedCandidates(currentState, sentence.getTriggerExpression());
+		case SIMILAR_MATCH:
+			return index.getSimilarCandidates(currentState);
+		case ABSOLUTE_JUMP:
+			return index.getExactCandidates(ConversationStates.ANY, sentence.getTriggerExpression());
+		case NORMALIZED_JUMP:
+			return index.getNormalizedCandidates(ConversationStates.ANY, sentence.getTriggerExpression());
+		case SIMILAR_JUMP:
+			return index.getSimilarCandidates(ConversationStates.ANY);
+		default:
+			return stateTransitionTable;
 		}
 	}
 
@@ -628,5 +679,15 @@ public class Engine {
 		return new LinkedList<Transition>(stateTransitionTable);
 	}
 
+	/**
+	 * Returns the transitions that start at a state.
+	 *
+	 * @param state state
+	 * @return unmodifiable list of transitions, in the order they were added
+	 */
+	public List<Transition> getTransitions(final ConversationStates state) {
+		return index.getTransitions(state);
+	}
+
 
 }
@@ -0,0 +1,213 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.entity.npc.fsm;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import games.stendhal.common.parser.Expression;
+import games.stendhal.server.entity.npc.ConversationStates;
+
+/**
+ * Index of the transitions of an Engine by state and trigger, so that a step
+ * only needs to look at the transitions that can match.
+ *
+ * <p>Triggers without an ExpressionMatcher are indexed by their original and
+ * their normalized text. Transitions with a matcher can match any input, so
+ * they are kept in a separate list and are candidates for every input. The
+ * candidates are returned in the order of the transition table, because the
+ * engine relies on that order when merging and choosing transitions.</p>
+ */
+final class TransitionIndex {
+
+	/**
+	 * Transitions that start at one state.
+	 */
+	private static final class StateTransitions {
+		/** all transitions */
+		final List<Transition> all = new ArrayList<Transition>();
+
+		/** transitions by the original text of their triggers without matcher */
+		final Map<String, List<Transition>> byOriginal = new HashMap<String, List<Transition>>();
+
+		/** transitions by the normalized text of their triggers without matcher */
+		final Map<String, List<Transition>> byNormalized = new HashMap<String, List<Transition>>();
+
+		/** transitions with at least one trigger that has a matcher */
+		final List<Transition> withMatcher = new ArrayList<Transition>();
+
+		/**
+		 * transitions that can be similar to an input: those with a trigger
+		 * without matcher, or with an empty trigger
+		 */
+		final List<Transition> similar = new ArrayList<Transition>();
+	}
+
+	private final Map<ConversationStates, StateTransitions> states =
+			new EnumMap<ConversationStates, StateTransitions>(ConversationStates.class);
+
+	/** position of each transition in the table */
+	private final Map<Transition, Integer> positions = new IdentityHashMap<Transition, Integer>();
+
+	/**
+	 * Adds a transition after all the transitions added so far.
+	 *
+	 * @param transition transition to add
+	 */
+	void add(final Transition transition) {
+		positions.put(transition, Integer.valueOf(positions.size()));
+
+		StateTransitions state = states.get(transition.getState());
+		if (state == null) {
+			state = new StateTransitions();
+			states.put(transition.getState(), state);
+		}
+		state.all.add(transition);
+
+		boolean hasMatcher = false;
+		boolean similar = false;
+		for (final Expression trigger : transition.getTriggers()) {
+			if (trigger.getMatcher() == null) {
+				similar = true;
+				addTo(state.byOriginal, trigger.getOriginal(), transition);
+				addTo(state.byNormalized, trigger.getNormalized(), transition);
+			} else {
+				hasMatcher = true;
+				// an empty trigger matches any text when looking for similar ones
+				if ((trigger.getNormalized() != null) && trigger.getNormalized().isEmpty()) {
+					similar = true;
+				}
+			}
+		}
+		if (hasMatcher) {
+			state.withMatcher.add(transition);
+		}
+		if (similar) {
+			state.similar.add(transition);
+		}
+	}
+
+	private static void addTo(final Map<String, List<Transition>> map, final String key, final Transition transition) {
+		List<Transition> list = map.get(key);
+		if (list == null) {
+			list = new ArrayList<Transition>(1);
+			map.put(key, list);
+		}
+		// two triggers of the same transition may share the text
+		if (list.isEmpty() || (list.get(list.size() - 1) != transition)) {
+			list.add(transition);
+		}
+	}
+
+	/**
+	 * Gets the transitions starting at a state.
+	 *
+	 * @param state state
+	 * @return transitions in table order
+	 */
+	List<Transition> getTransitions(final ConversationStates state) {
+		final StateTransitions transitions = states.get(state);
+		if (transitions == null) {
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableList(transitions.all);
+	}
+
+	/**
+	 * Gets the transitions of a state that may match an expression exactly.
+	 *
+	 * @param state state
+	 * @param trigger expression
+	 * @return candidates in table order
+	 */
+	List<Transition> getExactCandidates(final ConversationStates state, final Expression trigger) {
+		final StateTransitions transitions = states.get(state);
+		if (transitions == null) {
+			return Collections.emptyList();
+		}
+		return merge(transitions.byOriginal.get(trigger.getOriginal()), transitions.withMatcher);
+	}
+
+	/**
+	 * Gets the transitions of a state that may match the normalized form of
+	 * an expression.
+	 *
+	 * @param state state
+	 * @param trigger expression
+	 * @return candidates in table order
+	 */
+	List<Transition> getNormalizedCandidates(final ConversationStates state, final Expression trigger) {
+		final StateTransitions transitions = states.get(state);
+		if (transitions == null) {
+			return Collections.emptyList();
+		}
+		return merge(transitions.byNormalized.get(trigger.getNormalized()), transitions.withMatcher);
+	}
+
+	/**
+	 * Gets the transitions of a state that may be similar to an input.
+	 *
+	 * @param state state
+	 * @return candidates in table order
+	 */
+	List<Transition> getSimilarCandidates(final ConversationStates state) {
+		final StateTransitions transitions = states.get(state);
+		if (transitions == null) {
+			return Collections.emptyList();
+		}
+		return transitions.similar;
+	}
+
+	/**
+	 * Merges two lists of transitions in table order.
+	 *
+	 * @param first list, may be <code>null</code>
+	 * @param second list
+	 * @return merged list without duplicates
+	 */
+	private List<Transition> merge(final List<Transition> first, final List<Transition> second) {
+		if ((first == null) || first.isEmpty()) {
+			return second;
+		}
+		if (second.isEmpty()) {
+			return first;
+		}
+		final List<Transition> res = new ArrayList<Transition>(first.size() + second.size());
+		int i = 0;
+		int j = 0;
+		while ((i < first.size()) && (j < second.size())) {
+			final Transition a = first.get(i);
+			final Transition b = second.get(j);
+			final int positionA = positions.get(a).intValue();
+			final int positionB = positions.get(b).intValue();
+			if (positionA < positionB) {
+				res.add(a);
+				i++;
+			} else if (positionB < positionA) {
+				res.add(b);
+				j++;
+			} else {
+				res.add(a);
+				i++;
+				j++;
+			}
+		}
+		res.addAll(first.subList(i, first.size()));
+		res.addAll(second.subList(j, second.size()));
+		return res;
+	}
+}
@@ -2481,6 +2481,9 @@ public class Player extends DressedEntity implements UseListener {
 				|| !getMap("buddies").containsKey(name);
 
 		put("buddies", name, online);
+		if (isNew) {
+			SingletonRepository.getRuleProcessor().getOnlinePlayers().onBuddyAdded(this, name);
+		}
 
 		return isNew;
 	}
@@ -2493,7 +2496,11 @@ public class Player extends DressedEntity implements UseListener {
 	 * @return true if a buddy was removed
 	 */
 	public boolean removeBuddy(String name) {
-		return remove("buddies", name) != null;
+		if (remove("buddies", name) == null) {
+			return false;
+		}
+		SingletonRepository.getRuleProcessor().getOnlinePlayers().onBuddyRemoved(this, name);
+		return true;
 	}
 
 	@Override
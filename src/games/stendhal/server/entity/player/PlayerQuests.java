@@ -11,12 +11,13 @@
  ***************************************************************************/
 package games.stendhal.server.entity.player;
 
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.log4j.Logger;
 
-import games.stendhal.common.MathHelper;
 import games.stendhal.server.core.engine.GameEvent;
 import games.stendhal.server.core.engine.SingletonRepository;
 import games.stendhal.server.util.QuestUtils;
@@ -30,6 +31,12 @@ import marauroa.common.game.RPSlot;
  */
 class PlayerQuests {
 	private final Player player;
+	/**
+	 * Quest states split into sub states by slot name. The quest slot stays
+	 * the master copy, as it is read directly when the player is saved or
+	 * inspected. A cached state is used only as long as it matches the slot.
+	 */
+	private final Map<String, QuestState> states = new HashMap<String, QuestState>();
 
 	private static Logger logger = Logger.getLogger(PlayerQuests.class);
 
@@ -93,13 +100,14 @@ class PlayerQuests {
 	 *            reset the player's status for the quest.
 	 */
 	public void setQuest(final String name, final String status) {
-		final String oldStatus = player.getKeyedSlot("!quests", QuestUtils.evaluateQuestSlotName(name));
-		player.setKeyedSlot("!quests", QuestUtils.evaluateQuestSlotName(name), status);
+		final String slotName = QuestUtils.evaluateQuestSlotName(name);
+		final String oldStatus = player.getKeyedSlot("!quests", slotName);
+		player.setKeyedSlot("!quests", slotName, status);
 		if ((status == null) || !status.equals(oldStatus)) {
-			new GameEvent(player.getName(), "quest", QuestUtils.evaluateQuestSlotName(name), status).raise();
+			new GameEvent(player.getName(), "quest", slotName, status).raise();
 		}
 		// check for reached achievements
-		SingletonRepository.getAchievementNotifier().onFinishQuest(player);
+		SingletonRepository.getAchievementNotifier().onQuestChanged(player, slotName);
 	}
 
 
@@ -113,20 +121,36 @@ class PlayerQuests {
 	 * @return the player's status in the quest
 	 */
 	public String getQuest(final String name, final int index) {
-		String state = getQuest(name);
+		final QuestState state = getState(name);
 		if (state == null) {
 			return null;
 		}
 
-		if(index == -1) {
-			return state;
-		}
+		return state.get(index);
+	}
 
-		String[] elements = state.split(";");
-		if (index < elements.length) {
-			return elements[index];
+	/**
+	 * Gets the player's current status in the given quest split into sub
+	 * states.
+	 *
+	 * @param name
+	 *            The quest's name
+	 * @return the status, or <code>null</code> if the player does not have
+	 *         the quest
+	 */
+	private QuestState getState(final String name) {
+		final String slotName = QuestUtils.evaluateQuestSlotName(name);
+		final String raw = player.getKeyedSlot("!quests", slotName);
+		if (raw == null) {
+			states.remove(slotName);
+			return null;
+		}
+		QuestState state = states.get(slotName);
+		if ((state == null) || !state.getRaw().equals(raw)) {
+			state = new QuestState(raw);
+			states.put(slotName, state);
 		}
-		return "";
+		return state;
 	}
 
 	/**
@@ -145,28 +169,13 @@ class PlayerQuests {
 	 *            reset the player's status for the quest.
 	 */
 	public void setQuest(final String name, final int index, final String subStatus) {
-		String state = getQuest(name);
+		QuestState state = getState(name);
 		if (state == null) {
-			state = "";
-		}
-		String[] elements = state.split(";");
-		if (elements.length <= index) {
-			String[] temp = new String[index + 1];
-			System.arraycopy(elements, 0, temp, 0, elements.length);
-			elements = temp;
+			state = new QuestState("");
 		}
-
-		elements[index] = subStatus;
-		StringBuilder res = new StringBuilder();
-		for (int i = 0; i < elements.length; i++) {
-			if (i > 0) {
-				res.append(";");
-			}
-			if (elements[i] != null) {
-				res.append(elements[i]);
-			}
-		}
-		setQuest(name, res.toString());
+		final QuestState changed = state.with(index, subStatus);
+		states.put(QuestUtils.evaluateQuestSlotName(name), changed);
+		setQuest(name, changed.getRaw());
 	}
 
 	public List<String> getQuests() {
@@ -183,7 +192,9 @@ class PlayerQuests {
 	}
 
 	public void removeQuest(final String name) {
-		player.setKeyedSlot("!quests", QuestUtils.evaluateQuestSlotName(name), null);
+		final String slotName = QuestUtils.evaluateQuestSlotName(name);
+		states.remove(slotName);
+		player.setKeyedSlot("!quests", slotName, null);
 	}
 
 	/**
@@ -248,10 +259,7 @@ class PlayerQuests {
 			logger.error(player.getName() + " does not have quest " + name);
 			return "";
 		}
-		String questSubString = getQuest(name, index);
-		final String[] elements = questSubString.split("=");
-		String questItem = elements[0];
-		return questItem;
+		return getState(name).getItemName(index);
 	}
 
 	/**
@@ -264,18 +272,11 @@ class PlayerQuests {
 	 * @return required item quantity
 	 */
 	public int getRequiredItemQuantity(final String name, final int index) {
-		int amount = 1;
 		if (!player.hasQuest(name)) {
 			logger.error(player.getName() + " does not have quest " + name);
-			return amount;
+			return 1;
 		}
-		String questSubString = getQuest(name, index);
-		final String[] elements = questSubString.split("=");
-		if(elements.length > 1) {
-			amount=MathHelper.parseIntDefault(elements[1], 1);
-		}
-		return amount;
-
+		return getState(name).getItemQuantity(index);
 	}
 
 	/**
@@ -292,8 +293,7 @@ class PlayerQuests {
 			logger.error(player.getName() + " does not have quest " + name);
 			return 0;
 		}
-		String questState = player.getQuest(name, index);
-		return MathHelper.parseIntDefault(questState, 0);
+		return getState(name).getInt(index, 0);
 	}
 
 }
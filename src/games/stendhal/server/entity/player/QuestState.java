@@ -0,0 +1,161 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.entity.player;
+
+import games.stendhal.common.MathHelper;
+
+/**
+ * A quest state split into its sub states, which are separated by ";". The
+ * sub states are split only once, and their integer values are parsed only
+ * once.
+ */
+final class QuestState {
+	/** Marks integer values that have not been parsed yet. */
+	private static final Object UNPARSED = new Object();
+
+	/** The complete state as stored in the quest slot. */
+	private final String raw;
+	/** Sub states. */
+	private final String[] fields;
+	/**
+	 * Parsed integer values of the sub states. <code>null</code> for sub
+	 * states that are not integers.
+	 */
+	private final Object[] numbers;
+
+	/**
+	 * Create a new QuestState.
+	 *
+	 * @param raw the complete state
+	 */
+	QuestState(final String raw) {
+		this.raw = raw;
+		fields = raw.split(";");
+		numbers = new Object[fields.length];
+		for (int i = 0; i < numbers.length; i++) {
+			numbers[i] = UNPARSED;
+		}
+	}
+
+	/**
+	 * Get the complete state.
+	 *
+	 * @return state as stored in the quest slot
+	 */
+	String getRaw() {
+		return raw;
+	}
+
+	/**
+	 * Get a sub state.
+	 *
+	 * @param index index of the sub state, or -1 for the complete state
+	 * @return sub state, or an empty string if there are not that many
+	 */
+	String get(final int index) {
+		if (index == -1) {
+			return raw;
+		}
+		if (index < fields.length) {
+			return fields[index];
+		}
+		return "";
+	}
+
+	/**
+	 * Get the integer value of a sub state.
+	 *
+	 * @param index index of the sub state, or -1 for the complete state
+	 * @param def value to use if the sub state is not an integer
+	 * @return integer value
+	 */
+	int getInt(final int index, final int def) {
+		if (index == -1) {
+			return MathHelper.parseIntDefault(raw, def);
+		}
+		if (index >= fields.length) {
+			return def;
+		}
+		Object number = numbers[index];
+		if (number == UNPARSED) {
+			try {
+				number = Integer.valueOf(fields[index]);
+			} catch (final NumberFormatException e) {
+				number = null;
+			}
+			numbers[index] = number;
+		}
+		if (number == null) {
+			return def;
+		}
+		return (Integer) number;
+	}
+
+	/**
+	 * Create the state that results from changing one sub state.
+	 *
+	 * @param index index of the changed sub state
+	 * @param subState new sub state. <code>null</code> is stored as an
+	 * 	empty string
+	 * @return changed state
+	 */
+	QuestState with(final int index, final String subState) {
+		String[] elements = new String[Math.max(fields.length, index + 1)];
+		System.arraycopy(fields, 0, elements, 0, fields.length);
+		elements[index] = subState;
+
+		final StringBuilder res = new StringBuilder();
+		for (int i = 0; i < elements.length; i++) {
+			if (i > 0) {
+				res.append(';');
+			}
+			if (elements[i] != null) {
+				res.append(elements[i]);
+			}
+		}
+		return new QuestState(res.toString());
+	}
+
+	/**
+	 * Get the item name of a sub state of the form "item=quantity".
+	 *
+	 * @param index index of the sub state, or -1 for the complete state
+	 * @return item name
+	 */
+	String getItemName(final int index) {
+		final String field = get(index);
+		final int pos = field.indexOf('=');
+		if (pos < 0) {
+			return field;
+		}
+		return field.substring(0, pos);
+	}
+
+	/**
+	 * Get the quantity of a sub state of the form "item=quantity".
+	 *
+	 * @param index index of the sub state, or -1 for the complete state
+	 * @return quantity, or 1 if there is none
+	 */
+	int getItemQuantity(final int index) {
+		final String field = get(index);
+		final int pos = field.indexOf('=');
+		if (pos < 0) {
+			return 1;
+		}
+		int end = field.indexOf('=', pos + 1);
+		if (end < 0) {
+			end = field.length();
+		}
+		return MathHelper.parseIntDefault(field.substring(pos + 1, end), 1);
+	}
+}
@@ -13,6 +13,8 @@
 package games.stendhal.server.entity.slot;
 
 import games.stendhal.server.entity.Entity;
+import games.stendhal.server.entity.InventoryIndex;
+import marauroa.common.game.RPObject;
 import marauroa.common.game.RPSlot;
 
 /**
@@ -54,6 +56,30 @@ public class EntitySlot extends RPSlot implements Slot {
 		return isReachableForTakingThingsOutOfBy(entity);
 	}
 
+	@Override
+	protected int add(final RPObject object, final boolean assignId) {
+		final int id = super.add(object, assignId);
+		InventoryIndex.onAdded(getOwner(), this, object);
+		return id;
+	}
+
+	@Override
+	public RPObject remove(final RPObject.ID id) {
+		final RPObject object = super.remove(id);
+		if (object != null) {
+			InventoryIndex.onRemoved(getOwner(), this, object);
+		}
+		return object;
+	}
+
+	@Override
+	public void clear() {
+		for (final RPObject object : this) {
+			InventoryIndex.onRemoved(getOwner(), this, object);
+		}
+		super.clear();
+	}
+
 	@Override
 	public boolean isItemSlot() {
 		return true;
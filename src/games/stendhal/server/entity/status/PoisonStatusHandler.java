@@ -11,8 +11,6 @@
  ***************************************************************************/
 package games.stendhal.server.entity.status;
 
-import games.stendhal.server.core.events.TurnListener;
-import games.stendhal.server.core.events.TurnNotifier;
 import games.stendhal.server.core.events.TutorialNotifier;
 import games.stendhal.server.entity.Entity;
 import games.stendhal.server.entity.RPEntity;
@@ -47,13 +45,11 @@ public class PoisonStatusHandler implements StatusHandler<PoisonStatus> {
 			TutorialNotifier.poisoned((Player) entity);
 		}
 
-		// activate the turnListener, if this is the first instance of this status
-		// note: the turnListener is called one last time after the last instance was comsumed to cleanup attributes.
-		// So even with count==0, there might still be a listener which needs to be removed
+		// activate the status engine, if this is the first instance of this status
+		// note: the engine handles the list one last time after the last instance was consumed to cleanup attributes.
+		// So even with count==0, the list might still be handled
 		if (count == 0) {
-			TurnListener turnListener = new PoisonStatusTurnListener(statusList);
-			TurnNotifier.get().dontNotify(turnListener);
-			TurnNotifier.get().notifyInTurns(0, turnListener);
+			StatusEngine.get().start(StatusType.POISONED, statusList);
 		}
 	}
 
@@ -57,7 +57,7 @@ public class ShockStatusHandler implements StatusHandler<ShockStatus> {
 				}
 
 				TurnNotifier.get().notifyInSeconds(persistence, remover);
-				TurnNotifier.get().notifyInTurns(0, new ShockStatusTurnListener(statusList));
+				StatusEngine.get().start(StatusType.SHOCKED, statusList);
 			}
 		}
 	}
@@ -0,0 +1,262 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.entity.status;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import games.stendhal.server.core.engine.ZoneLogicRunner;
+import games.stendhal.server.core.events.TurnListener;
+import games.stendhal.server.core.events.TurnNotifier;
+import games.stendhal.server.entity.RPEntity;
+import games.stendhal.server.entity.player.Player;
+
+/**
+ * Applies the periodic effects of eating, poison and shock. The status lists
+ * with such statuses are kept in an array per status type, and all of them
+ * are handled in one pass per turn. The engine is registered at the
+ * TurnNotifier only while there are status lists to handle.
+ *
+ * A status list is handled one last time after its last status of the type
+ * is gone, to remove the attributes for the client.
+ */
+final class StatusEngine implements TurnListener {
+	private static final String ATTRIBUTE_EATING = "eating";
+	private static final String ATTRIBUTE_CHOKING = "choking";
+	private static final String ATTRIBUTE_POISONED = "poisoned";
+	/** Number of food items at which an entity starts choking. */
+	private static final int COUNT_CHOKING = 6;
+
+	/** The singleton instance. */
+	private static final StatusEngine instance = new StatusEngine();
+
+	/** Status lists to handle by status type. */
+	private final Map<StatusType, List<StatusList>> active = new EnumMap<StatusType, List<StatusList>>(StatusType.class);
+	/** Reused list of the poisons of the entity being handled. */
+	private final List<PoisonStatus> poisons = new ArrayList<PoisonStatus>();
+
+	private StatusEngine() {
+		active.put(StatusType.EATING, new ArrayList<StatusList>());
+		active.put(StatusType.POISONED, new ArrayList<StatusList>());
+		active.put(StatusType.SHOCKED, new ArrayList<StatusList>());
+	}
+
+	/**
+	 * Gets the status engine.
+	 *
+	 * @return StatusEngine
+	 */
+	static StatusEngine get() {
+		return instance;
+	}
+
+	/**
+	 * Starts handling a status type of a status list, unless it is handled
+	 * already.
+	 *
+	 * @param type status type, one of EATING, POISONED and SHOCKED
+	 * @param statusList status list
+	 */
+	void start(final StatusType type, final StatusList statusList) {
+		if (ZoneLogicRunner.defer(() -> start(type, statusList))) {
+			return;
+		}
+		if (statusList.startTicking(type)) {
+			active.get(type).add(statusList);
+			schedule();
+		}
+	}
+
+	private void schedule() {
+		final TurnNotifier notifier = TurnNotifier.get();
+		if (notifier.getRemainingTurns(this) < 0) {
+			notifier.notifyInTurns(0, this);
+		}
+	}
+
+	@Override
+	public void onTurnReached(final int turn) {
+		boolean pending = false;
+		for (final Map.Entry<StatusType, List<StatusList>> entry : active.entrySet()) {
+			final List<StatusList> lists = entry.getValue();
+			tickAll(entry.getKey(), lists, turn);
+			pending |= !lists.isEmpty();
+		}
+		if (pending) {
+			schedule();
+		}
+	}
+
+	/**
+	 * Handles all status lists of a type, and drops the ones that are done.
+	 *
+	 * @param type status type
+	 * @param lists status lists to handle
+	 * @param turn current turn
+	 */
+	private void tickAll(final StatusType type, final List<StatusList> lists, final int turn) {
+		final int count = lists.size();
+		int kept = 0;
+		for (int i = 0; i < count; i++) {
+			final StatusList statusList = lists.get(i);
+			if (tick(type, statusList, turn)) {
+				lists.set(kept, statusList);
+				kept++;
+			} else {
+				statusList.stopTicking(type);
+			}
+		}
+		// lists started during this pass are handled from the next turn on
+		for (int i = count; i < lists.size(); i++) {
+			lists.set(kept, lists.get(i));
+			kept++;
+		}
+		lists.subList(kept, lists.size()).clear();
+	}
+
+	/**
+	 * Handles a status type of a status list for one turn.
+	 *
+	 * @param type status type
+	 * @param statusList status list
+	 * @param turn current turn
+	 * @return <code>true</code> if the status list should be handled again
+	 * 	in the next turn
+	 */
+	private boolean tick(final StatusType type, final StatusList statusList, final int turn) {
+		final RPEntity entity = statusList.getEntity();
+		if (entity == null) {
+			return false;
+		}
+		switch (type) {
+		case EATING:
+			return tickEating(entity, statusList, turn);
+		case POISONED:
+			return tickPoison(entity, statusList, turn);
+		case SHOCKED:
+			return tickShock(entity, statusList);
+		default:
+			return false;
+		}
+	}
+
+	private boolean tickEating(final RPEntity entity, final StatusList statusList, final int turn) {
+		// the food with the largest effect, and the first of those
+		EatStatus food = null;
+		int count = 0;
+		for (final Status status : statusList.getStatuses()) {
+			if (status.getClass() == EatStatus.class) {
+				final EatStatus eat = (EatStatus) status;
+				if ((food == null) || (eat.compareTo(food) < 0)) {
+					food = eat;
+				}
+				count++;
+			}
+		}
+
+		// cleanup status
+		if (food == null) {
+			if (entity.has(ATTRIBUTE_EATING)) {
+				entity.remove(ATTRIBUTE_EATING);
+			}
+			if (entity.has(ATTRIBUTE_CHOKING)) {
+				entity.remove(ATTRIBUTE_CHOKING);
+			}
+			entity.notifyWorldAboutChanges();
+			return false;
+		}
+
+		if (turn % food.getFrecuency() == 0) {
+			final int amount = food.consume();
+			if (count >= COUNT_CHOKING) {
+				entity.put(ATTRIBUTE_CHOKING, amount);
+			} else {
+				if (entity.has(ATTRIBUTE_CHOKING)) {
+					entity.remove(ATTRIBUTE_CHOKING);
+				}
+				entity.put(ATTRIBUTE_EATING, amount);
+				entity.notifyWorldAboutChanges();
+			}
+
+			// is full hp?
+			if (entity.heal(amount, true) == 0) {
+				if (entity instanceof Player) {
+					statusList.removeAll(EatStatus.class);
+				}
+			}
+
+			// is item used up?
+			if (food.consumed()) {
+				statusList.remove(food);
+			}
+		}
+		return true;
+	}
+
+	private boolean tickPoison(final RPEntity entity, final StatusList statusList, final int turn) {
+		// copied, because the damage can kill the entity and clear its statuses
+		poisons.clear();
+		for (final Status status : statusList.getStatuses()) {
+			if (status.getClass() == PoisonStatus.class) {
+				poisons.add((PoisonStatus) status);
+			}
+		}
+
+		// cleanup poison status
+		if (poisons.isEmpty()) {
+			if (entity.has(ATTRIBUTE_POISONED)) {
+				entity.remove(ATTRIBUTE_POISONED);
+				entity.notifyWorldAboutChanges();
+			}
+			return false;
+		}
+
+		int sum = 0;
+		for (int i = 0; i < poisons.size(); i++) {
+			final PoisonStatus poison = poisons.get(i);
+			if (turn % poison.getFrecuency() == 0) {
+				if (poison.consumed()) {
+					statusList.remove(poison);
+				} else {
+					final int amount = poison.consume();
+					entity.damage(-amount, poison);
+					sum += amount;
+					entity.put(ATTRIBUTE_POISONED, sum);
+				}
+				entity.notifyWorldAboutChanges();
+			}
+		}
+		poisons.clear();
+		return true;
+	}
+
+	private boolean tickShock(final RPEntity entity, final StatusList statusList) {
+		final ShockStatus status = statusList.getFirstStatusByClass(ShockStatus.class);
+		if (status == null) {
+			return false;
+		}
+
+		// Stop the entity's movement after n steps
+		final int stepsTaken = entity.getStepsTaken();
+		if (stepsTaken >= status.getStepsDelay()) {
+			if (entity instanceof Player) {
+				((Player) entity).forceStop();
+			} else {
+				entity.stop();
+			}
+			entity.clearPath();
+		}
+		return true;
+	}
+}
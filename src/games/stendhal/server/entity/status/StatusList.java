@@ -35,6 +35,9 @@ public class StatusList {
 	/** Immunites to statuses */
 	private EnumSet<StatusType> immunities;
 
+	/** Status types handled by the StatusEngine each turn */
+	private final EnumSet<StatusType> ticking = EnumSet.noneOf(StatusType.class);
+
 	/**
 	 * StatusList for an entity
 	 *
@@ -257,6 +260,25 @@ public class StatusList {
 		statuses.remove(status);
 	}
 
+	/**
+	 * marks a status type as handled by the StatusEngine
+	 *
+	 * @param statusType status type
+	 * @return <code>false</code> if the status type is handled already
+	 */
+	boolean startTicking(StatusType statusType) {
+		return ticking.add(statusType);
+	}
+
+	/**
+	 * marks a status type as no longer handled by the StatusEngine
+	 *
+	 * @param statusType status type
+	 */
+	void stopTicking(StatusType statusType) {
+		ticking.remove(statusType);
+	}
+
 	/**
 	 * gets the entity for this StatusList
 	 *
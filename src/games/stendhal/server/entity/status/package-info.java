@@ -13,13 +13,13 @@
  * <tt>*StatusHandler</tt> take care of that.</p>
  *
  * <p>Some statuses need to do something periodically, such as modifying hp. This is done in
- * <tt>*StatusTurnListener</tt>.</p>
+ * <tt>StatusEngine</tt>, which handles all entities with such statuses in one pass per turn.</p>
  *
  * <h2>Things to keep in mind</h2>
  *
  * <ul>
  * <li>The name of the attribute for the client does not start with status_ for poison, eating and choking for compatiblity reasons</li>
- * <li>The attributes for poison and eating are removed by the *StatusTurnListener in the following turn
+ * <li>The attributes for poison and eating are removed by the StatusEngine in the following turn
  *     because this attribute carries the information about the hp-impact of the last event.</li>
  * </ul>
  */
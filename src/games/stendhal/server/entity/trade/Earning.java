@@ -38,6 +38,9 @@ public class Earning extends Entity implements Dateable {
 	private final Integer value;
 	private final String sellerName;
 
+	/** index of the market slot that contains this earning */
+	private MarketIndex<Earning> index;
+
 	public static void generateRPClass() {
 		final RPClass earningClass = new RPClass(EARNING_RPCLASS_NAME);
 		earningClass.isA("entity");
@@ -98,6 +101,24 @@ public class Earning extends Entity implements Dateable {
 		return (getInt(REWARD_ATTRIBUTE) != 0);
 	}
 
+	@Override
+	public void put(final String attribute, final String value) {
+		super.put(attribute, value);
+		// keep the order by time of the market up to date
+		if ((index != null) && TIMESTAMP_ATTRIBUTE.equals(attribute)) {
+			index.updateTimestamp(this);
+		}
+	}
+
+	/**
+	 * Sets the index of the market slot that contains this earning.
+	 *
+	 * @param index index, or <code>null</code> when the earning is removed
+	 */
+	void setIndex(final MarketIndex<Earning> index) {
+		this.index = index;
+	}
+
 	@Override
 	public long getTimestamp() {
 		long timeStamp = 0;
@@ -16,6 +16,7 @@ import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Predicate;
 
 import org.apache.log4j.Logger;
 
@@ -62,6 +63,14 @@ public class Market extends PassiveEntity {
 	 */
 	public static final String EXPIRED_OFFERS_SLOT_NAME = "expired_offers";
 
+	/** index of the offers slot */
+	private final MarketIndex<Offer> offerIndex = createOfferIndex();
+	/** index of the expired offers slot */
+	private final MarketIndex<Offer> expiredOfferIndex = createOfferIndex();
+	/** index of the earnings slot */
+	private final MarketIndex<Earning> earningIndex = new MarketIndex<Earning>(Earning::getSeller,
+			earning -> null, Earning::setIndex);
+
 	/**
 	 * Generate the RPClass for the Market
 	 */
@@ -114,12 +123,14 @@ public class Market extends PassiveEntity {
 				}
 
 				this.getSlot(OFFERS_SLOT_NAME).add(offer);
+				offerIndex.add(offer);
 			}
 		}
 		if (object.hasSlot(EARNINGS_SLOT_NAME)) {
 			for (final RPObject rpo : object.getSlot(EARNINGS_SLOT_NAME)) {
 				final Earning earning = new Earning(rpo);
 				this.getSlot(EARNINGS_SLOT_NAME).add(earning);
+				earningIndex.add(earning);
 			}
 		}
 		if (object.hasSlot(EXPIRED_OFFERS_SLOT_NAME)) {
@@ -135,11 +146,21 @@ public class Market extends PassiveEntity {
 				}
 
 				this.getSlot(EXPIRED_OFFERS_SLOT_NAME).add(offer);
+				expiredOfferIndex.add(offer);
 			}
 		}
 		store();
 	}
 
+	private static MarketIndex<Offer> createOfferIndex() {
+		return new MarketIndex<Offer>(Offer::getOfferer, offer -> {
+			if (offer.hasItem()) {
+				return offer.getItem().getName();
+			}
+			return null;
+		}, Offer::setIndex);
+	}
+
 	/**
 	 * Factory method for the market
 	 *
@@ -200,6 +221,7 @@ public class Market extends PassiveEntity {
 		Offer offer = new Offer(item, money, offerer);
 		RPSlot slot = this.getSlot(OFFERS_SLOT_NAME);
 		slot.add(offer);
+		offerIndex.add(offer);
 		getZone().storeToDatabase();
 
 		new ItemLogger().addLogItemEventCommand(new LogSimpleItemEventCommand(
@@ -233,7 +255,9 @@ public class Market extends PassiveEntity {
 				final Earning earning = new Earning(offer.getPrice(),
 						offer.getOfferer(), reward);
 				this.getSlot(EARNINGS_SLOT_NAME).add(earning);
+				earningIndex.add(earning);
 				this.getSlot(OFFERS_SLOT_NAME).remove(offer.getID());
+				offerIndex.remove(offer);
 				if (reward) {
 					applyTradingBonus(acceptingPlayer);
 				}
@@ -278,13 +302,7 @@ public class Market extends PassiveEntity {
 	 * @return the fetched earnings
 	 */
 	public Set<Earning> fetchEarnings(final Player earner) {
-		Set<Earning> earningsToRemove = new HashSet<Earning>();
-		for (RPObject earningRPObject : this.getSlot(EARNINGS_SLOT_NAME)) {
-			Earning earning = (Earning) earningRPObject;
-			if (earning.getSeller().equals(earner.getName())) {
-				earningsToRemove.add(earning);
-			}
-		}
+		Set<Earning> earningsToRemove = new HashSet<Earning>(earningIndex.getByOwner(earner.getName()));
 
 		if(!earningsToRemove.isEmpty()) {
 			int summedUpEarnings = 0;
@@ -319,10 +337,15 @@ public class Market extends PassiveEntity {
 	 *            The earnings to be removed
 	 */
 	public void removeEarnings(Iterable<Earning> earningsToRemove) {
+		boolean removed = false;
 		for (Earning earning : earningsToRemove) {
 			this.getSlot(EARNINGS_SLOT_NAME).remove(earning.getID());
+			earningIndex.remove(earning);
+			removed = true;
+		}
+		if (removed) {
+			this.getZone().storeToDatabase();
 		}
-		this.getZone().storeToDatabase();
 	}
 
 	/**
@@ -332,14 +355,44 @@ public class Market extends PassiveEntity {
 	 * @return the number of offers
 	 */
 	public int countOffersOfPlayer(Player offerer) {
-		int count = 0;
-		for (RPObject object : this.getSlot(OFFERS_SLOT_NAME)) {
-			Offer offer = (Offer) object;
-			if (offer.getOfferer().equals(offerer.getName())) {
-				count = count + 1;
-			}
-		}
-		return count;
+		return offerIndex.countByOwner(offerer.getName());
+	}
+
+	/**
+	 * gets the offers a player has placed
+	 *
+	 * @param offerer
+	 * @return the offers in the order they were placed
+	 */
+	public List<Offer> getOffersOfPlayer(Player offerer) {
+		return offerIndex.getByOwner(offerer.getName());
+	}
+
+	/**
+	 * gets the expired offers of a player
+	 *
+	 * @param offerer
+	 * @return the expired offers in the order they expired
+	 */
+	public List<Offer> getExpiredOffersOfPlayer(Player offerer) {
+		return expiredOfferIndex.getByOwner(offerer.getName());
+	}
+
+	/**
+	 * gets the offers for matching items
+	 *
+	 * @param filter tested with one offer for each item name
+	 * @return the offers in the order they were placed
+	 */
+	public List<Offer> getOffersForItems(Predicate<Offer> filter) {
+		return offerIndex.getByItem(filter);
+	}
+
+	/**
+	 * @return the names of the items for which there are offers
+	 */
+	public Set<String> getOfferedItemNames() {
+		return offerIndex.getItemNames();
 	}
 
 	/**
@@ -358,9 +411,10 @@ public class Market extends PassiveEntity {
 		p.equipOrPutOnGround(item);
 
 		getSlot(OFFERS_SLOT_NAME).remove(o.getID());
+		offerIndex.remove(o);
 
-		getExpiredOffers().remove(o);
 		getSlot(EXPIRED_OFFERS_SLOT_NAME).remove(o.getID());
+		expiredOfferIndex.remove(o);
 
 		getZone().storeToDatabase();
 
@@ -385,7 +439,9 @@ public class Market extends PassiveEntity {
 	 */
 	public void expireOffer(Offer o) {
 		this.getSlot(OFFERS_SLOT_NAME).remove(o.getID());
+		offerIndex.remove(o);
 		this.getSlot(EXPIRED_OFFERS_SLOT_NAME).add(o);
+		expiredOfferIndex.add(o);
 		this.getZone().storeToDatabase();
 		String itemname = "null";
 		if (o.hasItem()) {
@@ -412,6 +468,7 @@ public class Market extends PassiveEntity {
 	 */
 	public void removeExpiredOffer(Offer offerToRemove) {
 		this.getSlot(EXPIRED_OFFERS_SLOT_NAME).remove(offerToRemove.getID());
+		expiredOfferIndex.remove(offerToRemove);
 
 		Item item = offerToRemove.getItem();
 		if (item != null) {
@@ -434,8 +491,10 @@ public class Market extends PassiveEntity {
 		if (getSlot(EXPIRED_OFFERS_SLOT_NAME).has(offer.getID())) {
 			// It had expired. Move to active offers slot.
 			this.getSlot(EXPIRED_OFFERS_SLOT_NAME).remove(offer.getID());
+			expiredOfferIndex.remove(offer);
 			RPSlot slot = this.getSlot(OFFERS_SLOT_NAME);
 			slot.add(offer);
+			offerIndex.add(offer);
 		} else if (!getSlot(OFFERS_SLOT_NAME).has(offer.getID())) {
 			// Such an offer does not exist anymore
 			return null;
@@ -453,11 +512,7 @@ public class Market extends PassiveEntity {
 	 * @return list of offers that are older than the specified time
 	 */
 	public List<Offer> getOffersOlderThan(int seconds) {
-		List<Offer> offers = new LinkedList<Offer>();
-		for (RPObject o : getSlot(OFFERS_SLOT_NAME)) {
-			offers.add((Offer) o);
-		}
-		return getOlderThan(offers, seconds);
+		return offerIndex.getOlderThan(getTimeBefore(seconds));
 	}
 
 	/**
@@ -468,7 +523,7 @@ public class Market extends PassiveEntity {
 	 * @return list of expired offers that are older than the specified time
 	 */
 	public List<Offer> getExpiredOffersOlderThan(int seconds) {
-		return getOlderThan(getExpiredOffers(), seconds);
+		return expiredOfferIndex.getOlderThan(getTimeBefore(seconds));
 	}
 
 	/**
@@ -479,35 +534,48 @@ public class Market extends PassiveEntity {
 	 * @return list of earnings that are older than the specified time
 	 */
 	public List<Earning> getEarningsOlderThan(int seconds) {
-		RPSlot slot = this.getSlot(EARNINGS_SLOT_NAME);
-		List<Earning> earnings = new LinkedList<Earning>();
-		for (RPObject o : slot) {
-			earnings.add((Earning) o);
-		}
-		return getOlderThan(earnings, seconds);
+		return earningIndex.getOlderThan(getTimeBefore(seconds));
 	}
 
 	/**
-	 * retrieves Dateable objects older than seconds from a given Iterable
+	 * gets the point of time a number of seconds ago
 	 *
-	 * @param <T>
-	 * @param set
-	 *            the set to search in
 	 * @param seconds
-	 *            the maximum age
-	 * @return the filtered list
-	 */
-	private <T extends Dateable> List<T> getOlderThan(Iterable<T> set,
-			int seconds) {
-		List<T> old = new LinkedList<T>();
-		for (T obj : set) {
-			if (System.currentTimeMillis() > obj.getTimestamp() + 1000L
-					* seconds) {
-				old.add(obj);
-			}
-		}
+	 *            the age
+	 * @return time in milliseconds
+	 */
+	private long getTimeBefore(int seconds) {
+		return System.currentTimeMillis() - 1000L * seconds;
+	}
 
-		return old;
+	/**
+	 * Get the earliest timestamp of the offers, that is not before the
+	 * specified time.
+	 *
+	 * @param time
+	 *            point of time in milliseconds
+	 * @return timestamp, or <code>Long.MAX_VALUE</code> if there is no such offer
+	 */
+	public long getOfferTimestampSince(long time) {
+		return offerIndex.getTimestampSince(time);
+	}
+
+	/**
+	 * Get the earliest timestamp of the expired offers.
+	 *
+	 * @return timestamp, or <code>Long.MAX_VALUE</code> if there are no expired offers
+	 */
+	public long getOldestExpiredOfferTimestamp() {
+		return expiredOfferIndex.getTimestampSince(Long.MIN_VALUE);
+	}
+
+	/**
+	 * Get the earliest timestamp of the earnings.
+	 *
+	 * @return timestamp, or <code>Long.MAX_VALUE</code> if there are no earnings
+	 */
+	public long getOldestEarningTimestamp() {
+		return earningIndex.getTimestampSince(Long.MIN_VALUE);
 	}
 
 	/**
@@ -538,12 +606,6 @@ public class Market extends PassiveEntity {
 	 * @return true iff there are earnings for this player in the market
 	 */
 	public boolean hasEarningsFor(Player player) {
-		for(RPObject o : this.getSlot(EARNINGS_SLOT_NAME)) {
-			Earning e = (Earning) o;
-			if(e.getSeller().equals(player.getName())) {
-				return true;
-			}
-		}
-		return false;
+		return earningIndex.countByOwner(player.getName()) > 0;
 	}
 }
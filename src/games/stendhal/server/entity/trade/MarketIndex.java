@@ -0,0 +1,264 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.entity.trade;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import marauroa.common.game.RPObject;
+
+/**
+ * In-memory indexes of the offers or earnings in one slot of the
+ * {@link Market}: by owner, by item name and by timestamp.
+ *
+ * <p>The slot remains the storage that is saved to the database. The market
+ * updates the index whenever it adds an object to the slot or removes one,
+ * and the objects report changes of their timestamp. Lists by owner and by
+ * item are in the order the objects were added, which is the order of the
+ * slot. Lists by time start with the oldest object.</p>
+ *
+ * @param <T> Offer or Earning
+ */
+final class MarketIndex<T extends RPObject & Dateable> {
+
+	/** An indexed object. Entries are compared by identity. */
+	private static final class Entry<T extends Dateable> {
+		final T object;
+		final String owner;
+		final String itemName;
+		/** position in the order of adding */
+		final long sequence;
+		long timestamp;
+
+		Entry(final T object, final String owner, final String itemName, final long sequence) {
+			this.object = object;
+			this.owner = owner;
+			this.itemName = itemName;
+			this.sequence = sequence;
+			this.timestamp = object.getTimestamp();
+		}
+
+		/** creates an entry to search the order by time */
+		Entry(final long timestamp) {
+			this.object = null;
+			this.owner = null;
+			this.itemName = null;
+			this.sequence = Long.MIN_VALUE;
+			this.timestamp = timestamp;
+		}
+	}
+
+	private static final Comparator<Entry<?>> BY_SEQUENCE = Comparator.comparingLong(entry -> entry.sequence);
+
+	private final Function<T, String> ownerOf;
+	private final Function<T, String> itemNameOf;
+	/** tells an object which index it is in, <code>null</code> when it is removed */
+	private final BiConsumer<T, MarketIndex<T>> attach;
+
+	/** RPObject.equals() compares the contents, so the objects are looked up by identity */
+	private final Map<T, Entry<T>> entries = new IdentityHashMap<T, Entry<T>>();
+	private final Map<String, Set<Entry<T>>> byOwner = new HashMap<String, Set<Entry<T>>>();
+	private final Map<String, Set<Entry<T>>> byItemName = new HashMap<String, Set<Entry<T>>>();
+	private final NavigableSet<Entry<T>> byTime = new TreeSet<Entry<T>>(
+			Comparator.<Entry<T>>comparingLong(entry -> entry.timestamp).thenComparing(BY_SEQUENCE));
+
+	private long nextSequence;
+
+	/**
+	 * Creates a new MarketIndex.
+	 *
+	 * @param ownerOf gets the name of the player an object belongs to
+	 * @param itemNameOf gets the item name of an object, or <code>null</code>
+	 * @param attach tells an object the index it was added to
+	 */
+	MarketIndex(final Function<T, String> ownerOf, final Function<T, String> itemNameOf,
+			final BiConsumer<T, MarketIndex<T>> attach) {
+		this.ownerOf = ownerOf;
+		this.itemNameOf = itemNameOf;
+		this.attach = attach;
+	}
+
+	/**
+	 * Adds an object after it was added to the slot.
+	 *
+	 * @param object offer or earning
+	 */
+	void add(final T object) {
+		if (entries.containsKey(object)) {
+			return;
+		}
+		final Entry<T> entry = new Entry<T>(object, ownerOf.apply(object), itemNameOf.apply(object), nextSequence++);
+		entries.put(object, entry);
+		byOwner.computeIfAbsent(entry.owner, key -> new LinkedHashSet<Entry<T>>()).add(entry);
+		byItemName.computeIfAbsent(entry.itemName, key -> new LinkedHashSet<Entry<T>>()).add(entry);
+		byTime.add(entry);
+		attach.accept(object, this);
+	}
+
+	/**
+	 * Removes an object after it was removed from the slot.
+	 *
+	 * @param object offer or earning
+	 * @return <code>true</code> if the object was in the index
+	 */
+	boolean remove(final T object) {
+		final Entry<T> entry = entries.remove(object);
+		if (entry == null) {
+			return false;
+		}
+		removeFrom(byOwner, entry.owner, entry);
+		removeFrom(byItemName, entry.itemName, entry);
+		byTime.remove(entry);
+		attach.accept(object, null);
+		return true;
+	}
+
+	private void removeFrom(final Map<String, Set<Entry<T>>> map, final String key, final Entry<T> entry) {
+		final Set<Entry<T>> set = map.get(key);
+		set.remove(entry);
+		if (set.isEmpty()) {
+			map.remove(key);
+		}
+	}
+
+	/**
+	 * Moves an object to its new place in the order by time.
+	 *
+	 * @param object offer or earning whose timestamp changed
+	 */
+	void updateTimestamp(final T object) {
+		final Entry<T> entry = entries.get(object);
+		if (entry != null) {
+			byTime.remove(entry);
+			entry.timestamp = object.getTimestamp();
+			byTime.add(entry);
+		}
+	}
+
+	/**
+	 * Gets the number of objects of a player.
+	 *
+	 * @param owner name of the player
+	 * @return number of objects
+	 */
+	int countByOwner(final String owner) {
+		final Set<Entry<T>> set = byOwner.get(owner);
+		if (set == null) {
+			return 0;
+		}
+		return set.size();
+	}
+
+	/**
+	 * Gets the objects of a player.
+	 *
+	 * @param owner name of the player
+	 * @return objects in the order of the slot
+	 */
+	List<T> getByOwner(final String owner) {
+		final Set<Entry<T>> set = byOwner.get(owner);
+		if (set == null) {
+			return Collections.emptyList();
+		}
+		return toList(set);
+	}
+
+	/**
+	 * Gets the item names of the objects.
+	 *
+	 * @return item names, without <code>null</code>
+	 */
+	Set<String> getItemNames() {
+		final Set<String> res = new HashSet<String>(byItemName.keySet());
+		res.remove(null);
+		return res;
+	}
+
+	/**
+	 * Gets the objects for matching items.
+	 *
+	 * @param matcher tested with one object for each item name, including
+	 * 	the objects without an item
+	 * @return matching objects in the order of the slot
+	 */
+	List<T> getByItem(final Predicate<T> matcher) {
+		final List<Entry<T>> matches = new ArrayList<Entry<T>>();
+		for (final Set<Entry<T>> set : byItemName.values()) {
+			if (matcher.test(set.iterator().next().object)) {
+				matches.addAll(set);
+			}
+		}
+		matches.sort(BY_SEQUENCE);
+		return toList(matches);
+	}
+
+	/**
+	 * Gets the objects whose timestamp is before a point of time.
+	 *
+	 * @param time point of time in milliseconds
+	 * @return objects, the oldest first
+	 */
+	List<T> getOlderThan(final long time) {
+		final List<T> res = new ArrayList<T>();
+		for (final Entry<T> entry : byTime) {
+			if (entry.timestamp >= time) {
+				break;
+			}
+			res.add(entry.object);
+		}
+		return res;
+	}
+
+	/**
+	 * Gets the earliest timestamp that is not before a point of time.
+	 *
+	 * @param time point of time in milliseconds
+	 * @return timestamp, or <code>Long.MAX_VALUE</code> if there is none
+	 */
+	long getTimestampSince(final long time) {
+		final Entry<T> entry = byTime.ceiling(new Entry<T>(time));
+		if (entry == null) {
+			return Long.MAX_VALUE;
+		}
+		return entry.timestamp;
+	}
+
+	/**
+	 * Gets the number of objects.
+	 *
+	 * @return number of objects
+	 */
+	int size() {
+		return entries.size();
+	}
+
+	private List<T> toList(final Iterable<Entry<T>> set) {
+		final List<T> res = new ArrayList<T>();
+		for (final Entry<T> entry : set) {
+			res.add(entry.object);
+		}
+		return res;
+	}
+}
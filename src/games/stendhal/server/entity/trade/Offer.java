@@ -48,6 +48,9 @@ public class Offer extends Entity implements Dateable {
 	public static final String OFFER_RPCLASS_NAME = "offer";
 	private static final String TIMESTAMP = "timestamp";
 
+	/** index of the market slot that contains this offer */
+	private MarketIndex<Offer> index;
+
 	public static void generateRPClass() {
 		final RPClass offerRPClass = new RPClass(OFFER_RPCLASS_NAME);
 		offerRPClass.isA("entity");
@@ -179,6 +182,24 @@ public class Offer extends Entity implements Dateable {
 		put(TIMESTAMP, Long.toString(System.currentTimeMillis()));
 	}
 
+	@Override
+	public void put(final String attribute, final String value) {
+		super.put(attribute, value);
+		// keep the order by time of the market up to date
+		if ((index != null) && TIMESTAMP.equals(attribute)) {
+			index.updateTimestamp(this);
+		}
+	}
+
+	/**
+	 * Sets the index of the market slot that contains this offer.
+	 *
+	 * @param index index, or <code>null</code> when the offer is removed
+	 */
+	void setIndex(final MarketIndex<Offer> index) {
+		this.index = index;
+	}
+
 	/**
 	 * Check whether accepting this offer should be rewarder in trade score.
 	 *
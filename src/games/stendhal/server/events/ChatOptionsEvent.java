@@ -11,11 +11,13 @@
  ***************************************************************************/
 package games.stendhal.server.events;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.google.common.base.Function;
 import com.google.common.base.Joiner;
@@ -29,6 +31,7 @@ import games.stendhal.common.parser.Sentence;
 import games.stendhal.server.entity.npc.ConversationPhrases;
 import games.stendhal.server.entity.npc.ConversationStates;
 import games.stendhal.server.entity.npc.SpeakerNPC;
+import games.stendhal.server.entity.npc.fsm.Engine;
 import games.stendhal.server.entity.npc.fsm.Transition;
 import games.stendhal.server.entity.player.Player;
 import marauroa.common.game.Definition.Type;
@@ -40,6 +43,9 @@ public class ChatOptionsEvent extends RPEvent {
 	private static final String NPC = "npc";
 	private static final String OPTIONS = "options";
 
+	/** plural forms of the triggers, there is only a limited number of them */
+	private static final Map<String, String> PLURALS = new ConcurrentHashMap<>();
+
 	private static class ChatOption implements Comparable<ChatOption> {
 		private static final Map<String, Integer> SORT_INDEX = new HashMap<>();
 		static {
@@ -125,19 +131,13 @@ public class ChatOptionsEvent extends RPEvent {
 		TreeSet<ChatOption> res = new TreeSet<>();
 		Sentence sentence = ConversationParser.parse("");
 
-		final List<Transition> transitions = npc.getTransitions();
-		for (final Transition transition : transitions) {
-			if (transition.getState() != currentState) {
-				continue;
-			}
+		final Engine engine = npc.getEngine();
+		for (final Transition transition : engine.getTransitions(currentState)) {
 			processTransition(npc, player, res, sentence, transition);
 		}
 
 		if (currentState != ConversationStates.IDLE) {
-			for (final Transition transition : transitions) {
-				if (transition.getState() != ConversationStates.ANY) {
-					continue;
-				}
+			for (final Transition transition : engine.getTransitions(ConversationStates.ANY)) {
 				processTransition(npc, player, res, sentence, transition);
 			}
 		}
@@ -146,19 +146,23 @@ public class ChatOptionsEvent extends RPEvent {
 
 	private void processTransition(SpeakerNPC npc, Player player, TreeSet<ChatOption> res, Sentence sentence,
 			final Transition transition) {
+		List<ChatOption> options = null;
 		for(Expression expr : transition.getTriggers()) {
-			if (transition.getCondition() != null) {
-				if (!transition.getCondition().fire(player, sentence, npc)) {
-					continue;
-				}
-			}
-
 			String trigger = expr.getNormalized().toLowerCase(Locale.ENGLISH);
-			ChatOption option = new ChatOption(trigger);
 			if (ConversationPhrases.KNOWN.contains(trigger)
 					|| npc.hasLearnedWordInCurrentConversation(trigger)
-					|| npc.hasLearnedWordInCurrentConversation(Grammar.plural(trigger))) {
-				res.add(option);
+					|| npc.hasLearnedWordInCurrentConversation(PLURALS.computeIfAbsent(trigger, Grammar::plural))) {
+				if (options == null) {
+					options = new ArrayList<>();
+				}
+				options.add(new ChatOption(trigger));
+			}
+		}
+
+		// only check the condition if the transition offers something
+		if (options != null) {
+			if ((transition.getCondition() == null) || transition.getCondition().fire(player, sentence, npc)) {
+				res.addAll(options);
 			}
 		}
 	}
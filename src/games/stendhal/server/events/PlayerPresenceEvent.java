@@ -0,0 +1,58 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.events;
+
+import org.apache.log4j.Logger;
+
+import games.stendhal.common.constants.Events;
+import marauroa.common.game.Definition.DefinitionClass;
+import marauroa.common.game.Definition.Type;
+import marauroa.common.game.RPClass;
+import marauroa.common.game.RPEvent;
+
+/**
+ * The players that logged in and out since the last update of the list of
+ * online players. Replaces a PlayerLoggedOnEvent or PlayerLoggedOutEvent per
+ * player for clients that understand it.
+ */
+public class PlayerPresenceEvent extends RPEvent {
+
+	private static final String JOINED_ATTRIBUTE = "joined";
+	private static final String LEFT_ATTRIBUTE = "left";
+	private static final Logger logger = Logger.getLogger(PlayerPresenceEvent.class);
+
+	public static void generateRPClass() {
+		try {
+			RPClass clazz = new RPClass(Events.PLAYER_PRESENCE);
+			clazz.add(DefinitionClass.ATTRIBUTE, JOINED_ATTRIBUTE, Type.VERY_LONG_STRING);
+			clazz.add(DefinitionClass.ATTRIBUTE, LEFT_ATTRIBUTE, Type.VERY_LONG_STRING);
+		} catch (Exception e) {
+			logger.error("cannot generate RPClass", e);
+		}
+	}
+
+	/**
+	 * Creates a new PlayerPresenceEvent.
+	 *
+	 * @param joined comma separated names of the players that logged in
+	 * @param left comma separated names of the players that logged out
+	 */
+	public PlayerPresenceEvent(String joined, String left) {
+		super(Events.PLAYER_PRESENCE);
+		if (!joined.isEmpty()) {
+			put(JOINED_ATTRIBUTE, joined);
+		}
+		if (!left.isEmpty()) {
+			put(LEFT_ATTRIBUTE, left);
+		}
+	}
+}
@@ -64,17 +64,23 @@ public class OfferExpirer implements TurnListener{
 	private static final int TIME_TO_REMOVING_EARNINGS = DAYS_BEFORE_REMOVING_EARNINGS * MathHelper.SECONDS_IN_ONE_DAY;
 
 	/**
-	 * Time between checks in seconds.
+	 * Longest time between checks in seconds.
 	 */
 	private static final int CHECKING_INTERVAL = MathHelper.SECONDS_IN_ONE_HOUR;
 	// MathHelper.SECONDS_IN_ONE_MINUTE;
 
+	/**
+	 * Shortest time between checks in seconds, so that offers reaching their
+	 * deadlines at about the same time are handled together.
+	 */
+	private static final int MINIMUM_INTERVAL = MathHelper.SECONDS_IN_ONE_MINUTE;
+
 	private Market market;
 
 	public OfferExpirer(Market market) {
 		this.market = market;
 
-		TurnNotifier.get().notifyInSeconds(CHECKING_INTERVAL, this);
+		TurnNotifier.get().notifyInSeconds(getSecondsToNextDeadline(), this);
 	}
 
 	@Override
@@ -93,7 +99,42 @@ public class OfferExpirer implements TurnListener{
 		checkRemoved();
 		checkRemovedEarnings();
 
-		TurnNotifier.get().notifyInSeconds(CHECKING_INTERVAL, this);
+		TurnNotifier.get().notifyInSeconds(getSecondsToNextDeadline(), this);
+	}
+
+	/**
+	 * Gets the time until the next offer or earning reaches an age at which
+	 * it is warned about, expired or removed. The market keeps its offers
+	 * ordered by time, so this does not look at the other offers.
+	 *
+	 * @return time in seconds, between the minimum and the maximum time
+	 * 	between checks
+	 */
+	int getSecondsToNextDeadline() {
+		long now = System.currentTimeMillis();
+		// the offers older than that have already been warned
+		long next = deadline(market.getOfferTimestampSince(now - TIME_TO_WARNING * 1000L), TIME_TO_WARNING);
+		next = Math.min(next, deadline(market.getOfferTimestampSince(Long.MIN_VALUE), TIME_TO_EXPIRING));
+		next = Math.min(next, deadline(market.getOldestExpiredOfferTimestamp(), TIME_TO_REMOVING));
+		next = Math.min(next, deadline(market.getOldestEarningTimestamp(), TIME_TO_REMOVING_EARNINGS));
+
+		// the checks take objects that are strictly older
+		long seconds = (next - now) / 1000 + 1;
+		return (int) Math.max(MINIMUM_INTERVAL, Math.min(CHECKING_INTERVAL, seconds));
+	}
+
+	/**
+	 * Gets the point of time at which an object reaches an age.
+	 *
+	 * @param timestamp timestamp of the object, <code>Long.MAX_VALUE</code> if there is none
+	 * @param seconds age
+	 * @return time in milliseconds, <code>Long.MAX_VALUE</code> if there is no object
+	 */
+	private static long deadline(long timestamp, int seconds) {
+		if (timestamp == Long.MAX_VALUE) {
+			return Long.MAX_VALUE;
+		}
+		return timestamp + seconds * 1000L;
 	}
 
 	/**
@@ -185,6 +226,9 @@ public class OfferExpirer implements TurnListener{
 	 */
 	private void checkRemovedEarnings() {
 		List<Earning> list = market.getEarningsOlderThan(TIME_TO_REMOVING_EARNINGS);
+		if (list.isEmpty()) {
+			return;
+		}
 		for (Earning earning : list) {
 			StringBuilder builder = new StringBuilder();
 			builder.append("Your earning of ");
@@ -12,8 +12,6 @@
  ***************************************************************************/
 package games.stendhal.server.maps.semos.tavern.market;
 
-import java.util.LinkedList;
-import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -22,9 +20,6 @@ import games.stendhal.server.entity.npc.ChatAction;
 import games.stendhal.server.entity.npc.EventRaiser;
 import games.stendhal.server.entity.player.Player;
 import games.stendhal.server.entity.trade.Market;
-import games.stendhal.server.entity.trade.Offer;
-import marauroa.common.game.RPObject;
-import marauroa.common.game.RPSlot;
 
 /**
  * show a list of all items for which offers exist.
@@ -37,44 +32,15 @@ public class ShowOfferItemsChatAction implements ChatAction {
 	@Override
 	public void fire(Player player, Sentence sentence, EventRaiser npc) {
 		Market market = TradeCenterZoneConfigurator.getShopFromZone(player.getZone());
-		RPSlot offersSlot = market.getSlot(Market.OFFERS_SLOT_NAME);
-		List<Offer> offers = getOffers(offersSlot);
-		if (offers.isEmpty()) {
+		Set<String> items = new TreeSet<String>(market.getOfferedItemNames());
+		if (items.isEmpty()) {
 			npc.say("Sorry, there are currently no offers.");
 		} else {
-			String text = buildItemListText(buildItemList(offers));
+			String text = buildItemListText(items);
 			npc.say(text);
 		}
 	}
 
-	/**
-	 * gets a list of all offers
-	 *
-	 * @param slot slot to get the offers from
-	 * @return list of offers
-	 */
-	private List<Offer> getOffers(RPSlot slot) {
-		LinkedList<Offer> offers = new LinkedList<Offer>();
-		for (RPObject rpObject : slot) {
-			offers.add((Offer) rpObject);
-		}
-		return offers;
-	}
-
-	/**
-	 * creates an alphabetically sorted set of items for which offers exist
-	 *
-	 * @param offers list of offers
-	 * @return set of items
-	 */
-	private Set<String> buildItemList(List<Offer> offers) {
-		Set<String> items = new TreeSet<String>();
-		for (Offer offer : offers) {
-			items.add(offer.getItemName());
-		}
-		return items;
-	}
-
 	/**
 	 * creates the response text based on the item set
 	 *
@@ -12,10 +12,9 @@
  ***************************************************************************/
 package games.stendhal.server.maps.semos.tavern.market;
 
-import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Predicate;
 
 import games.stendhal.common.grammar.Grammar;
 import games.stendhal.common.parser.Expression;
@@ -28,8 +27,6 @@ import games.stendhal.server.entity.npc.EventRaiser;
 import games.stendhal.server.entity.player.Player;
 import games.stendhal.server.entity.trade.Market;
 import games.stendhal.server.entity.trade.Offer;
-import marauroa.common.game.RPObject;
-import marauroa.common.game.RPSlot;
 
 /**
  * shows all current offers to the asking player
@@ -60,12 +57,7 @@ public class ShowOffersChatAction implements ChatAction {
 		Market market = TradeCenterZoneConfigurator.getShopFromZone(player.getZone());
 
 		// Figure out what to look for
-		RPSlot offersSlot = market.getSlot(Market.OFFERS_SLOT_NAME);
-		if (onlyMyExpiredOffers) {
-			offersSlot = market.getSlot(Market.EXPIRED_OFFERS_SLOT_NAME);
-			filterForMine = true;
-		}
-		if (onlyMyOffers) {
+		if (onlyMyOffers || onlyMyExpiredOffers) {
 			filterForMine = true;
 		}
 		String wordFilter = null;
@@ -80,13 +72,16 @@ public class ShowOffersChatAction implements ChatAction {
 			return;
 		}
 
-		// Get the list of offers, and filter out all that we don't need
-		List<Offer> offers = getOffers(offersSlot);
-		if (filterForMine) {
-			filterForMine(offers, player);
-		}
-		if (wordFilter != null) {
-			filterForWord(offers, wordFilter);
+		// Get the list of offers that we need from the indexes of the market
+		List<Offer> offers;
+		if (onlyMyExpiredOffers) {
+			offers = market.getExpiredOffersOfPlayer(player);
+		} else if (filterForMine) {
+			offers = market.getOffersOfPlayer(player);
+		} else if (wordFilter != null) {
+			offers = market.getOffersForItems(matchesWord(wordFilter));
+		} else {
+			offers = market.getOffersForItems(offer -> true);
 		}
 
 		StringBuilder offersMessage = new StringBuilder();
@@ -136,46 +131,21 @@ public class ShowOffersChatAction implements ChatAction {
 		return null;
 	}
 
-	private List<Offer> getOffers(RPSlot slot) {
-		LinkedList<Offer> offers = new LinkedList<Offer>();
-		for (RPObject rpObject : slot) {
-			offers.add((Offer) rpObject);
-		}
-		return offers;
-	}
-
 	/**
-	 * Filter out offers that do not belong to a given player.
+	 * Create a filter for offers that match a given word. Offers without
+	 * an item are kept.
 	 *
-	 * @param offers list of offers to be filtered
-	 * @param player player whose offers should be retained on the list
-	 */
-	private void filterForMine(List<Offer> offers, Player player) {
-		Iterator<Offer> it = offers.iterator();
-		while (it.hasNext()) {
-			if (!it.next().getOfferer().equals(player.getName())) {
-				it.remove();
-			}
-		}
-	}
-
-	/**
-	 * Filter out offers that do not match a given word.
-	 *
-	 * @param offers list of offers to be filtered
 	 * @param word a word to check in item name or type
+	 * @return filter
 	 */
-	private void filterForWord(List<Offer> offers, String word) {
-		Iterator<Offer> it = offers.iterator();
-		while (it.hasNext()) {
-			Offer o = it.next();
+	private Predicate<Offer> matchesWord(String word) {
+		return o -> {
 			if (o.hasItem()) {
 				Item item = o.getItem();
-				if (!(item.getName().indexOf(word) != -1 || word.equals(item.getItemClass()))) {
-					it.remove();
-				}
+				return item.getName().indexOf(word) != -1 || word.equals(item.getItemClass());
 			}
-		}
+			return true;
+		};
 	}
 
 	/**
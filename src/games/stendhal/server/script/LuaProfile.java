@@ -0,0 +1,50 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.script;
+
+import java.util.List;
+
+import games.stendhal.server.core.scripting.ScriptImpl;
+import games.stendhal.server.core.scripting.lua.LuaProfiler;
+import games.stendhal.server.entity.player.Player;
+
+
+/**
+ * Admin script to show how long Lua scripts took to load and which Lua
+ * functions took the most time.
+ *
+ * Usage: /script LuaProfile.class [number of lines|reset]
+ */
+public class LuaProfile extends ScriptImpl {
+
+	private static final int DEFAULT_LIMIT = 20;
+
+	@Override
+	public void execute(final Player admin, final List<String> args) {
+		if (!args.isEmpty() && "reset".equals(args.get(0))) {
+			LuaProfiler.get().reset();
+			admin.sendPrivateText("Lua profile reset.");
+			return;
+		}
+
+		int limit = DEFAULT_LIMIT;
+		if (!args.isEmpty()) {
+			try {
+				limit = Integer.parseInt(args.get(0));
+			} catch (final NumberFormatException e) {
+				admin.sendPrivateText("Usage: /script LuaProfile.class [number of lines|reset]");
+				return;
+			}
+		}
+		admin.sendPrivateText(LuaProfiler.get().getReport(limit));
+	}
+}
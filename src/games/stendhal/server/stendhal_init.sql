@@ -414,6 +414,15 @@ CREATE INDEX IF NOT EXISTS i_searchindex_searchterm ON searchindex(searchterm);
 CREATE INDEX IF NOT EXISTS i_searchindex_entitytype_entityname ON searchindex(entitytype, entityname);
 
 
+CREATE TABLE IF NOT EXISTS dumphash
+  (
+  tablename   VARCHAR(32) NOT NULL,
+  name        VARCHAR(128) NOT NULL,
+  hash        CHAR(32),
+  PRIMARY KEY(tablename, name)
+  );
+
+
 CREATE TABLE IF NOT EXISTS group_quest
   (
   id          INTEGER auto_increment NOT NULL,
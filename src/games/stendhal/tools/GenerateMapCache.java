@@ -0,0 +1,72 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.tools;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import games.stendhal.server.core.config.zone.MapCache;
+import games.stendhal.server.core.engine.StendhalRPWorld;
+
+/**
+ * Fills the map cache of the server with all maps, so that the server does
+ * not need to parse the TMX files on its next start. Maps that are cached
+ * already are only checked.
+ *
+ * Usage:
+ *     games.stendhal.tools.GenerateMapCache [cache folder]
+ */
+public class GenerateMapCache {
+
+	/**
+	 * Generates the map cache.
+	 *
+	 * @param args optional cache folder, as map_cache_folder in server.ini
+	 * @throws Exception if a map cannot be read
+	 */
+	public static void main(final String[] args) throws Exception {
+		final String folder = (args.length > 0) ? args[0] : MapCache.DEFAULT_FOLDER;
+		final MapCache cache = new MapCache(new File(folder));
+
+		final List<String> maps = new ArrayList<String>();
+		collectMaps(new File(StendhalRPWorld.MAPS_FOLDER), StendhalRPWorld.MAPS_FOLDER, maps);
+
+		final long start = System.currentTimeMillis();
+		for (final String map : maps) {
+			cache.load(map);
+		}
+		System.out.println("Cached " + maps.size() + " maps in " + folder + " ("
+				+ cache.getMisses() + " updated) in " + (System.currentTimeMillis() - start) + " ms");
+	}
+
+	/**
+	 * Collects the map files in a folder and its subfolders.
+	 *
+	 * @param directory folder
+	 * @param path path of the folder, as used by the server
+	 * @param maps list for the map file names
+	 */
+	private static void collectMaps(final File directory, final String path, final List<String> maps) {
+		final File[] entries = directory.listFiles();
+		if (entries == null) {
+			return;
+		}
+		for (final File entry : entries) {
+			if (entry.isDirectory()) {
+				collectMaps(entry, path + entry.getName() + "/", maps);
+			} else if (entry.getName().endsWith(".tmx") || entry.getName().endsWith(".tmx.gz")) {
+				maps.add(path + entry.getName());
+			}
+		}
+	}
+}
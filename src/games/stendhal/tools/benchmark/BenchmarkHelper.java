@@ -0,0 +1,183 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.tools.benchmark;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import games.stendhal.common.tiled.LayerDefinition;
+import games.stendhal.common.tiled.StendhalMapStructure;
+import games.stendhal.server.core.config.zone.TMXLoader;
+import games.stendhal.server.core.engine.StendhalRPZone;
+
+/**
+ * Helper methods shared by the benchmarks in this package.
+ *
+ * <p>The benchmarks are plain command line programs, run them with
+ * <code>ant benchmark -Dbenchmark=&lt;ClassName&gt;</code>. Each measurement
+ * is repeated a few times after warming up the JIT, and the fastest round
+ * is reported.</p>
+ */
+public final class BenchmarkHelper {
+
+	/** number of unmeasured rounds to warm up the JIT */
+	public static final int WARMUP_ROUNDS = 3;
+
+	/** number of measured rounds */
+	public static final int ROUNDS = 5;
+
+	/** sink for results, so that the JIT cannot remove the measured code */
+	private static volatile long sink;
+
+	private BenchmarkHelper() {
+		// utility class
+	}
+
+	/**
+	 * Runs the given code repeatedly and returns the fastest round.
+	 *
+	 * @param body code to measure
+	 * @return duration of the fastest round in nanoseconds
+	 */
+	public static long bestOf(final Runnable body) {
+		for (int i = 0; i < WARMUP_ROUNDS; i++) {
+			body.run();
+		}
+		long best = Long.MAX_VALUE;
+		for (int i = 0; i < ROUNDS; i++) {
+			final long start = System.nanoTime();
+			body.run();
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		return best;
+	}
+
+	/**
+	 * Runs the given code repeatedly on freshly prepared data and returns
+	 * the fastest round. The preparation is not measured.
+	 *
+	 * @param setup creates the data for a round
+	 * @param body code to measure
+	 * @return duration of the fastest round in nanoseconds
+	 */
+	public static <T> long bestOf(final Supplier<T> setup, final Consumer<T> body) {
+		for (int i = 0; i < WARMUP_ROUNDS; i++) {
+			body.accept(setup.get());
+		}
+		long best = Long.MAX_VALUE;
+		for (int i = 0; i < ROUNDS; i++) {
+			final T data = setup.get();
+			final long start = System.nanoTime();
+			body.accept(data);
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		return best;
+	}
+
+	/**
+	 * Prints a result line.
+	 *
+	 * @param name name of the measurement
+	 * @param nanos duration in nanoseconds
+	 * @param operations number of operations done in that time
+	 */
+	public static void report(final String name, final long nanos, final long operations) {
+		System.out.println(String.format(Locale.ENGLISH, "%-50s %12.1f ns/op %10.2f ms",
+				name, (double) nanos / Math.max(1, operations), nanos / 1000000.0));
+	}
+
+	/**
+	 * Measures the heap memory allocated by the current thread while
+	 * running the given code.
+	 *
+	 * @param body code to measure
+	 * @return allocated bytes, or -1 if the JVM does not support measuring
+	 */
+	public static long allocationsOf(final Runnable body) {
+		final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+			body.run();
+			return -1;
+		}
+		final com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+		final long thread = Thread.currentThread().getId();
+		final long before = sunBean.getThreadAllocatedBytes(thread);
+		body.run();
+		return sunBean.getThreadAllocatedBytes(thread) - before;
+	}
+
+	/**
+	 * Prints an allocation result line.
+	 *
+	 * @param name name of the measurement
+	 * @param bytes allocated bytes
+	 * @param operations number of operations which allocated these bytes
+	 */
+	public static void reportAllocations(final String name, final long bytes, final long operations) {
+		System.out.println(String.format(Locale.ENGLISH, "%-50s %12.1f B/op",
+				name, (double) bytes / Math.max(1, operations)));
+	}
+
+	/**
+	 * Creates zones with the collision maps of all maps in a directory and
+	 * its subdirectories. The zones contain no entities.
+	 *
+	 * @param directory directory with .tmx files, such as tiled/Level 0
+	 * @return zones
+	 * @throws Exception if loading a map fails
+	 */
+	public static List<StendhalRPZone> loadZones(final File directory) throws Exception {
+		final List<File> files = new ArrayList<File>();
+		collectMaps(directory, files);
+		final List<StendhalRPZone> zones = new ArrayList<StendhalRPZone>();
+		for (final File file : files) {
+			final StendhalMapStructure map = TMXLoader.load(file.getPath());
+			map.build();
+			final LayerDefinition collisionLayer = map.getLayer("collision");
+			if (collisionLayer != null) {
+				final StendhalRPZone zone = new StendhalRPZone(file.getName());
+				zone.collisionMap.setCollisionData(collisionLayer);
+				zones.add(zone);
+			}
+		}
+		return zones;
+	}
+
+	private static void collectMaps(final File directory, final List<File> files) {
+		final File[] entries = directory.listFiles();
+		if (entries == null) {
+			return;
+		}
+		for (final File entry : entries) {
+			if (entry.isDirectory()) {
+				collectMaps(entry, files);
+			} else if (entry.getName().endsWith(".tmx")) {
+				files.add(entry);
+			}
+		}
+	}
+
+	/**
+	 * Keeps a result alive.
+	 *
+	 * @param value result of the measured code
+	 */
+	public static void consume(final long value) {
+		sink += value;
+	}
+}
@@ -0,0 +1,161 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.tools.benchmark;
+
+import static games.stendhal.tools.benchmark.BenchmarkHelper.allocationsOf;
+import static games.stendhal.tools.benchmark.BenchmarkHelper.bestOf;
+import static games.stendhal.tools.benchmark.BenchmarkHelper.consume;
+import static games.stendhal.tools.benchmark.BenchmarkHelper.report;
+import static games.stendhal.tools.benchmark.BenchmarkHelper.reportAllocations;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import games.stendhal.common.CollisionMap;
+
+/**
+ * Compares the bitboard based CollisionMap with the column BitSets it
+ * used before, using random entity sized rectangle tests.
+ *
+ * Usage:
+ *     games.stendhal.tools.benchmark.CollisionMapBenchmark [size]
+ */
+public class CollisionMapBenchmark {
+
+	private static final int QUERIES = 1000000;
+
+	/**
+	 * Common interface of the compared implementations.
+	 */
+	private interface Map {
+		void set(int x, int y);
+
+		boolean collides(int x, int y, int width, int height);
+	}
+
+	/**
+	 * The implementation used by CollisionMap before the bitboard.
+	 */
+	private static class LegacyMap implements Map {
+		private final int width;
+		private final int height;
+		private final BitSet[] colls;
+
+		LegacyMap(final int width, final int height) {
+			this.width = width;
+			this.height = height;
+			colls = new BitSet[width];
+			for (int i = 0; i < width; i++) {
+				colls[i] = new BitSet();
+			}
+		}
+
+		@Override
+		public void set(final int x, final int y) {
+			colls[x].set(y);
+		}
+
+		@Override
+		public boolean collides(final int x, final int y, final int width, final int height) {
+			if (x < 0 || x - 1 + width >= this.width) {
+				return true;
+			}
+			if (y < 0 || y - 1 + height >= this.height) {
+				return true;
+			}
+			final BitSet result = new BitSet();
+			for (int i = x; i < x + width; i++) {
+				result.or(colls[i]);
+			}
+			return !result.get(y, y + height).isEmpty();
+		}
+	}
+
+	/**
+	 * The current CollisionMap.
+	 */
+	private static class BitboardMap implements Map {
+		private final CollisionMap map;
+
+		BitboardMap(final int width, final int height) {
+			map = new CollisionMap(width, height);
+		}
+
+		@Override
+		public void set(final int x, final int y) {
+			map.set(x, y);
+		}
+
+		@Override
+		public boolean collides(final int x, final int y, final int width, final int height) {
+			return map.collides(x, y, width, height);
+		}
+	}
+
+	/** x, y, width and height of each query */
+	private final int[] queries = new int[QUERIES * 4];
+
+	private final int size;
+
+	private CollisionMapBenchmark(final int size) {
+		this.size = size;
+		final Random random = new Random(size);
+		for (int i = 0; i < queries.length; i += 4) {
+			queries[i + 2] = 1 + random.nextInt(2);
+			queries[i + 3] = 1 + random.nextInt(2);
+			queries[i] = random.nextInt(size - 1);
+			queries[i + 1] = random.nextInt(size - 1);
+		}
+	}
+
+	private void fill(final Map map) {
+		final Random random = new Random(-size);
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				if (random.nextInt(5) == 0) {
+					map.set(x, y);
+				}
+			}
+		}
+	}
+
+	private void query(final Map map) {
+		long hits = 0;
+		for (int i = 0; i < queries.length; i += 4) {
+			if (map.collides(queries[i], queries[i + 1], queries[i + 2], queries[i + 3])) {
+				hits++;
+			}
+		}
+		consume(hits);
+	}
+
+	private void run(final String name, final Map map) {
+		fill(map);
+		report(name + " collides " + size + "x" + size, bestOf(() -> query(map)), QUERIES);
+		reportAllocations(name + " collides " + size + "x" + size, allocationsOf(() -> query(map)), QUERIES);
+	}
+
+	/**
+	 * Runs the benchmark.
+	 *
+	 * @param args optional map size in tiles
+	 */
+	public static void main(final String[] args) {
+		int size = 256;
+		if (args.length > 0) {
+			size = Integer.parseInt(args[0]);
+		}
+		final CollisionMapBenchmark benchmark = new CollisionMapBenchmark(size);
+		benchmark.run("legacy", new LegacyMap(size, size));
+		benchmark.run("bitboard", new BitboardMap(size, size));
+	}
+}
@@ -0,0 +1,227 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.tools.benchmark;
+
+import static games.stendhal.tools.benchmark.BenchmarkHelper.bestOf;
+import static games.stendhal.tools.benchmark.BenchmarkHelper.consume;
+import static games.stendhal.tools.benchmark.BenchmarkHelper.report;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+
+import games.stendhal.common.parser.ConversationParser;
+import games.stendhal.common.parser.Expression;
+import games.stendhal.common.parser.Sentence;
+import games.stendhal.server.core.config.ZoneGroupsXMLLoader;
+import games.stendhal.server.core.engine.SingletonRepository;
+import games.stendhal.server.core.engine.StendhalRPWorld;
+import games.stendhal.server.entity.npc.ConversationStates;
+import games.stendhal.server.entity.npc.SpeakerNPC;
+import games.stendhal.server.entity.npc.fsm.Engine;
+import games.stendhal.server.entity.npc.fsm.MatchType;
+import games.stendhal.server.entity.npc.fsm.Transition;
+import games.stendhal.server.entity.player.Player;
+import games.stendhal.server.events.ChatOptionsEvent;
+
+/**
+ * Compares the indexed transition lookup of the NPC state machine with a
+ * scan over the whole transition table, using the triggers of all NPCs of
+ * the world and their quests.
+ *
+ * Usage:
+ *     games.stendhal.tools.benchmark.ConversationBenchmark
+ */
+public class ConversationBenchmark {
+
+	/** words no NPC is expected to know */
+	private static final String[] UNKNOWN = { "xyzzy", "tell me about the weather", "frobnicate" };
+
+	/**
+	 * An input for an NPC in a given state.
+	 */
+	private static class Input {
+		private final SpeakerNPC npc;
+		private final ConversationStates state;
+		private final Sentence sentence;
+		/** copy of the transition table, for the table scan */
+		private final List<Transition> table;
+
+		Input(final SpeakerNPC npc, final ConversationStates state, final String text, final List<Transition> table) {
+			this.npc = npc;
+			this.state = state;
+			this.sentence = ConversationParser.parse(text);
+			this.table = table;
+		}
+
+		/**
+		 * Finds the transition with the index.
+		 *
+		 * @param player player talking
+		 * @return transition or <code>null</code>
+		 */
+		Transition indexed(final Player player) {
+			final Engine engine = npc.getEngine();
+			engine.setCurrentState(state);
+			return engine.findTransition(player, sentence);
+		}
+
+		/**
+		 * Finds all transitions the engine may choose from by scanning the
+		 * table, the way the engine did before it had an index.
+		 *
+		 * @param player player talking
+		 * @return transitions to choose from, empty if none matches
+		 */
+		List<Transition> scan(final Player player) {
+			for (final MatchType type : MatchType.values()) {
+				final List<Transition> preferred = new ArrayList<Transition>();
+				final List<Transition> secondary = new ArrayList<Transition>();
+				for (final Transition transition : table) {
+					if (type.match(transition, state, sentence)
+							&& transition.isConditionFulfilled(player, sentence, npc)) {
+						addUnique(transition.isPreferred() ? preferred : secondary, transition);
+					}
+				}
+				if (!preferred.isEmpty()) {
+					return preferred;
+				}
+				if (!secondary.isEmpty()) {
+					return secondary;
+				}
+			}
+			return Collections.emptyList();
+		}
+
+		private static void addUnique(final List<Transition> list, final Transition other) {
+			for (final Transition transition : list) {
+				for (final Expression trigger : other.getTriggers()) {
+					if (transition.matchesNormalizedWithCondition(other.getState(), trigger, other.getCondition())) {
+						return;
+					}
+				}
+			}
+			list.add(other);
+		}
+	}
+
+	private final List<Input> inputs = new ArrayList<Input>();
+
+	private int transitions;
+
+	private int npcs;
+
+	private ConversationBenchmark(final Player player) {
+		for (final String name : SingletonRepository.getNPCList().getNPCs()) {
+			final SpeakerNPC npc = SingletonRepository.getNPCList().get(name);
+			final List<Transition> table = npc.getTransitions();
+			transitions += table.size();
+			npcs++;
+
+			final Set<ConversationStates> states = EnumSet.noneOf(ConversationStates.class);
+			final Set<String> texts = new LinkedHashSet<String>();
+			for (final Transition transition : table) {
+				if (transition.getState() != ConversationStates.ANY) {
+					states.add(transition.getState());
+				}
+				for (final Expression trigger : transition.getTriggers()) {
+					if (trigger.getOriginal() != null && !trigger.getOriginal().isEmpty()) {
+						texts.add(trigger.getOriginal());
+					}
+				}
+			}
+			Collections.addAll(texts, UNKNOWN);
+
+			for (final ConversationStates state : states) {
+				for (final String text : texts) {
+					final Input input = new Input(npc, state, text, table);
+					try {
+						// skip inputs whose conditions need more than a bare player
+						input.scan(player);
+						new ChatOptionsEvent(npc, player, state);
+						inputs.add(input);
+					} catch (final RuntimeException e) {
+						continue;
+					}
+				}
+			}
+		}
+	}
+
+	private void verify(final Player player) {
+		int matched = 0;
+		for (final Input input : inputs) {
+			final List<Transition> expected = input.scan(player);
+			final Transition transition = input.indexed(player);
+			if (expected.isEmpty() ? (transition != null) : !expected.contains(transition)) {
+				throw new IllegalStateException("Different transition for " + input.npc.getName()
+						+ " in " + input.state + " on '" + input.sentence + "': "
+						+ transition + " instead of " + expected);
+			}
+			if (transition != null) {
+				matched++;
+			}
+		}
+		System.out.println(npcs + " NPCs, " + transitions + " transitions, " + inputs.size()
+				+ " inputs, " + matched + " matched, all lookups agree");
+	}
+
+	private void run(final Player player, final boolean indexed) {
+		long found = 0;
+		for (final Input input : inputs) {
+			if (indexed) {
+				found += (input.indexed(player) != null) ? 1 : 0;
+			} else {
+				found += input.scan(player).size();
+			}
+		}
+		consume(found);
+	}
+
+	private void chatOptions(final Player player) {
+		long size = 0;
+		for (final Input input : inputs) {
+			size += new ChatOptionsEvent(input.npc, player, input.state).get("options").length();
+		}
+		consume(size);
+	}
+
+	/**
+	 * Runs the benchmark.
+	 *
+	 * @param args ignored
+	 * @throws Exception if loading the world fails
+	 */
+	public static void main(final String[] args) throws Exception {
+		StendhalRPWorld.get();
+		new ZoneGroupsXMLLoader(new URI("/data/conf/zones.xml")).load();
+		SingletonRepository.getStendhalQuestSystem().init();
+		// the engine logs every random choice, and the conditions complain
+		// about the quests the player does not have
+		Logger.getRootLogger().setLevel(Level.OFF);
+
+		final Player player = Player.createZeroLevelPlayer("benchmark", null);
+		final ConversationBenchmark benchmark = new ConversationBenchmark(player);
+		benchmark.verify(player);
+		final int count = benchmark.inputs.size();
+		report("table scan", bestOf(() -> benchmark.run(player, false)), count);
+		report("indexed lookup", bestOf(() -> benchmark.run(player, true)), count);
+		report("chat options", bestOf(() -> benchmark.chatOptions(player)), count);
+	}
+}
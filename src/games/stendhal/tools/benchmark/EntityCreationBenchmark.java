@@ -0,0 +1,103 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.tools.benchmark;
+
+import static games.stendhal.tools.benchmark.BenchmarkHelper.allocationsOf;
+import static games.stendhal.tools.benchmark.BenchmarkHelper.bestOf;
+import static games.stendhal.tools.benchmark.BenchmarkHelper.consume;
+import static games.stendhal.tools.benchmark.BenchmarkHelper.report;
+import static games.stendhal.tools.benchmark.BenchmarkHelper.reportAllocations;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import games.stendhal.server.core.engine.SingletonRepository;
+import games.stendhal.server.core.engine.StendhalRPWorld;
+import games.stendhal.server.core.rule.EntityManager;
+import games.stendhal.server.core.rule.defaultruleset.DefaultCreature;
+import games.stendhal.server.core.rule.defaultruleset.DefaultItem;
+
+/**
+ * Measures creating items and creatures through the EntityManager, as done
+ * for loot, equipment and respawns. All configured kinds are created in
+ * turn. For creatures, creating them from their definition is measured, too.
+ *
+ * Usage:
+ *     games.stendhal.tools.benchmark.EntityCreationBenchmark [items] [creatures]
+ */
+public class EntityCreationBenchmark {
+
+	private final EntityManager manager = SingletonRepository.getEntityManager();
+
+	private final List<String> items = new ArrayList<String>();
+
+	private final List<DefaultCreature> creatures = new ArrayList<DefaultCreature>();
+
+	private EntityCreationBenchmark() {
+		for (final DefaultItem item : manager.getDefaultItems()) {
+			items.add(item.getItemName());
+		}
+		creatures.addAll(manager.getDefaultCreatures());
+	}
+
+	private void createItems(final int count) {
+		long hash = 0;
+		for (int i = 0; i < count; i++) {
+			hash += manager.getItem(items.get(i % items.size())).getName().length();
+		}
+		consume(hash);
+	}
+
+	private void createCreatures(final int count) {
+		long hash = 0;
+		for (int i = 0; i < count; i++) {
+			hash += manager.getCreature(creatures.get(i % creatures.size()).getCreatureName()).getHP();
+		}
+		consume(hash);
+	}
+
+	private void buildCreatures(final int count) {
+		long hash = 0;
+		for (int i = 0; i < count; i++) {
+			hash += creatures.get(i % creatures.size()).getCreature().getHP();
+		}
+		consume(hash);
+	}
+
+	/**
+	 * Runs the benchmark.
+	 *
+	 * @param args optional number of items and creatures per round
+	 */
+	public static void main(final String[] args) {
+		StendhalRPWorld.get();
+		int itemCount = 100000;
+		int creatureCount = 10000;
+		if (args.length > 0) {
+			itemCount = Integer.parseInt(args[0]);
+		}
+		if (args.length > 1) {
+			creatureCount = Integer.parseInt(args[1]);
+		}
+		final int itemsPerRound = itemCount;
+		final int creaturesPerRound = creatureCount;
+		final EntityCreationBenchmark benchmark = new EntityCreationBenchmark();
+
+		report("items " + itemCount, bestOf(() -> benchmark.createItems(itemsPerRound)), itemCount);
+		reportAllocations("items " + itemCount, allocationsOf(() -> benchmark.createItems(itemsPerRound)), itemCount);
+		report("creatures " + creatureCount, bestOf(() -> benchmark.createCreatures(creaturesPerRound)), creatureCount);
+		reportAllocations("creatures " + creatureCount,
+				allocationsOf(() -> benchmark.createCreatures(creaturesPerRound)), creatureCount);
+		report("creatures from definition " + creatureCount,
+				bestOf(() -> benchmark.buildCreatures(creaturesPerRound)), creatureCount);
+	}
+}
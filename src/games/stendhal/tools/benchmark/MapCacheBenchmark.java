@@ -0,0 +1,128 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.tools.benchmark;
+
+import static games.stendhal.tools.benchmark.BenchmarkHelper.bestOf;
+import static games.stendhal.tools.benchmark.BenchmarkHelper.consume;
+import static games.stendhal.tools.benchmark.BenchmarkHelper.report;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import games.stendhal.common.tiled.LayerDefinition;
+import games.stendhal.common.tiled.StendhalMapStructure;
+import games.stendhal.server.core.config.zone.MapCache;
+import games.stendhal.server.core.config.zone.TMXLoader;
+
+/**
+ * Compares loading maps from the TMX files with loading them from the map
+ * cache, both with an empty cache (cold start) and with an up to date cache
+ * (warm start). Each load includes compressing the layers that are sent to
+ * the clients, as done when the zones are created.
+ *
+ * Usage:
+ *     games.stendhal.tools.benchmark.MapCacheBenchmark [map folder]
+ */
+public class MapCacheBenchmark {
+
+	/** layers sent to the clients */
+	private static final String[] CLIENT_LAYERS = { "0_floor", "1_terrain", "2_object",
+			"3_roof", "4_roof_add", "blend_ground", "blend_roof", "collision", "protection" };
+
+	private interface Loader {
+		StendhalMapStructure load(String filename) throws Exception;
+	}
+
+	private final List<String> maps = new ArrayList<String>();
+
+	private final File temp;
+
+	private MapCacheBenchmark(final File directory) throws IOException {
+		collectMaps(directory, directory.getPath() + "/", maps);
+		temp = Files.createTempDirectory("mapcache").toFile();
+	}
+
+	private void loadAll(final Loader loader) {
+		long tiles = 0;
+		try {
+			for (final String map : maps) {
+				final StendhalMapStructure structure = loader.load(map);
+				for (final String name : CLIENT_LAYERS) {
+					final LayerDefinition layer = structure.getLayer(name);
+					if (layer != null) {
+						tiles += layer.encode().length;
+					}
+				}
+			}
+		} catch (final Exception e) {
+			throw new IllegalStateException(e);
+		}
+		consume(tiles);
+	}
+
+	private MapCache createCache() {
+		final File folder = new File(temp, Long.toString(System.nanoTime()));
+		return new MapCache(folder);
+	}
+
+	private void run() {
+		report("tmx " + maps.size() + " maps", bestOf(() -> loadAll(TMXLoader::load)), maps.size());
+		report("cache cold " + maps.size() + " maps", bestOf(this::createCache,
+				cache -> loadAll(cache::load)), maps.size());
+
+		final MapCache warm = createCache();
+		loadAll(warm::load);
+		report("cache warm " + maps.size() + " maps", bestOf(() -> loadAll(warm::load)), maps.size());
+		delete(temp);
+	}
+
+	private static void collectMaps(final File directory, final String path, final List<String> maps) {
+		final File[] entries = directory.listFiles();
+		if (entries == null) {
+			return;
+		}
+		for (final File entry : entries) {
+			if (entry.isDirectory()) {
+				collectMaps(entry, path + entry.getName() + "/", maps);
+			} else if (entry.getName().endsWith(".tmx")) {
+				maps.add(path + entry.getName());
+			}
+		}
+	}
+
+	private static void delete(final File file) {
+		final File[] children = file.listFiles();
+		if (children != null) {
+			for (final File child : children) {
+				delete(child);
+			}
+		}
+		file.delete();
+	}
+
+	/**
+	 * Runs the benchmark.
+	 *
+	 * @param args optional folder with .tmx files
+	 * @throws IOException if the temporary cache folder cannot be created
+	 */
+	public static void main(final String[] args) throws IOException {
+		String directory = "tiled/Level 0/semos";
+		if (args.length > 0) {
+			directory = args[0];
+		}
+		new MapCacheBenchmark(new File(directory)).run();
+	}
+}
@@ -0,0 +1,165 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.tools.benchmark;
+
+import static games.stendhal.tools.benchmark.BenchmarkHelper.bestOf;
+import static games.stendhal.tools.benchmark.BenchmarkHelper.consume;
+import static games.stendhal.tools.benchmark.BenchmarkHelper.report;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import games.stendhal.common.MathHelper;
+import games.stendhal.server.core.engine.SingletonRepository;
+import games.stendhal.server.core.engine.StendhalRPWorld;
+import games.stendhal.server.core.engine.transformer.PlayerTransformer;
+import games.stendhal.server.core.rule.EntityManager;
+import games.stendhal.server.entity.item.Item;
+import games.stendhal.server.entity.player.Player;
+import games.stendhal.server.entity.trade.Market;
+import games.stendhal.server.entity.trade.Offer;
+import games.stendhal.server.maps.semos.tavern.market.OfferExpirer;
+import marauroa.common.game.RPObject;
+
+/**
+ * Measures the queries of the Semos market on a large order book: loading
+ * the market, looking up the offers and earnings of players, listing the
+ * offers for an item and the checks of the {@link OfferExpirer}. Most
+ * offers are recent, so that the checks find few of them.
+ *
+ * <p>Loading is timed once, because adding to an RPSlot looks through the
+ * whole slot for objects with the same id, which makes it slow for large
+ * markets.</p>
+ *
+ * Usage:
+ *     games.stendhal.tools.benchmark.MarketBenchmark [offers] [players]
+ */
+public class MarketBenchmark {
+
+	/** ages at which the expirer expires offers, removes them and removes earnings */
+	private static final int DAYS_TO_EXPIRING = 7;
+	private static final int DAYS_TO_REMOVING = 35;
+	private static final int DAYS_TO_REMOVING_EARNINGS = 28;
+
+	private static final String[] ITEMS = { "axe", "club", "dagger", "leather armor", "money", "carrot" };
+
+	private final Market market;
+
+	private final long loadNanos;
+
+	private final List<Player> players = new ArrayList<Player>();
+
+	private MarketBenchmark(final int offerCount, final int playerCount) {
+		final EntityManager manager = SingletonRepository.getEntityManager();
+		final long now = System.currentTimeMillis();
+		final RPObject stored = Market.createShop();
+		for (int i = 0; i < offerCount; i++) {
+			final String offerer = "player" + (i % playerCount);
+			// one in a hundred offers is old enough to be checked
+			final long timestamp = (i % 100 == 0) ? now - 40L * 24 * 60 * 60 * 1000 : now - i;
+			final Item item = manager.getItem(ITEMS[i % ITEMS.length]);
+			stored.getSlot(Market.OFFERS_SLOT_NAME).add(createOffer(offerer, timestamp, item));
+			if (i % 10 == 0) {
+				stored.getSlot(Market.EXPIRED_OFFERS_SLOT_NAME).add(
+						createOffer(offerer, timestamp, manager.getItem(ITEMS[i % ITEMS.length])));
+				final RPObject earning = new RPObject();
+				earning.put("sellerName", offerer);
+				earning.put("value", 10);
+				earning.put("reward", 0);
+				earning.put("timestamp", Long.toString(timestamp));
+				stored.getSlot(Market.EARNINGS_SLOT_NAME).add(earning);
+			}
+		}
+		final long start = System.nanoTime();
+		market = new Market(stored);
+		loadNanos = System.nanoTime() - start;
+
+		for (int i = 0; i < playerCount; i++) {
+			final RPObject object = new RPObject();
+			object.put("name", "player" + i);
+			players.add((Player) new PlayerTransformer().transform(object));
+		}
+	}
+
+	private static RPObject createOffer(final String offerer, final long timestamp, final Item item) {
+		final RPObject offer = new RPObject();
+		offer.put("offerer", offerer);
+		offer.put("price", 10);
+		offer.put("timestamp", Long.toString(timestamp));
+		offer.addSlot(Offer.OFFER_ITEM_SLOT_NAME);
+		offer.getSlot(Offer.OFFER_ITEM_SLOT_NAME).add(item);
+		return offer;
+	}
+
+	private void countOffers(final int count) {
+		long hash = 0;
+		for (int i = 0; i < count; i++) {
+			final Player player = players.get(i % players.size());
+			hash += market.countOffersOfPlayer(player);
+			if (market.hasEarningsFor(player)) {
+				hash++;
+			}
+		}
+		consume(hash);
+	}
+
+	private void listOffers(final int count) {
+		long hash = 0;
+		for (int i = 0; i < count; i++) {
+			hash += market.getOffersOfPlayer(players.get(i % players.size())).size();
+		}
+		consume(hash);
+	}
+
+	private void showItem(final int count) {
+		long hash = 0;
+		for (int i = 0; i < count; i++) {
+			final String word = ITEMS[i % ITEMS.length];
+			hash += market.getOffersForItems(offer -> offer.getItemName().equals(word)).size();
+		}
+		consume(hash);
+	}
+
+	private void checkExpiry(final int count) {
+		long hash = 0;
+		for (int i = 0; i < count; i++) {
+			hash += market.getOffersOlderThan(DAYS_TO_EXPIRING * MathHelper.SECONDS_IN_ONE_DAY).size();
+			hash += market.getExpiredOffersOlderThan(DAYS_TO_REMOVING * MathHelper.SECONDS_IN_ONE_DAY).size();
+			hash += market.getEarningsOlderThan(DAYS_TO_REMOVING_EARNINGS * MathHelper.SECONDS_IN_ONE_DAY).size();
+		}
+		consume(hash);
+	}
+
+	/**
+	 * Runs the benchmark.
+	 *
+	 * @param args optional number of offers and players
+	 */
+	public static void main(final String[] args) {
+		StendhalRPWorld.get();
+		int offerCount = 10000;
+		int playerCount = 1000;
+		if (args.length > 0) {
+			offerCount = Integer.parseInt(args[0]);
+		}
+		if (args.length > 1) {
+			playerCount = Integer.parseInt(args[1]);
+		}
+		final MarketBenchmark benchmark = new MarketBenchmark(offerCount, playerCount);
+
+		report("load " + offerCount + " offers", benchmark.loadNanos, 1);
+		report("count offers and earnings", bestOf(() -> benchmark.countOffers(10000)), 10000);
+		report("offers of a player", bestOf(() -> benchmark.listOffers(10000)), 10000);
+		report("offers for an item", bestOf(() -> benchmark.showItem(100)), 100);
+		report("expiry checks", bestOf(() -> benchmark.checkExpiry(100)), 100);
+	}
+}
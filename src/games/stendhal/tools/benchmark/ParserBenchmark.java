@@ -0,0 +1,138 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.tools.benchmark;
+
+import static games.stendhal.tools.benchmark.BenchmarkHelper.allocationsOf;
+import static games.stendhal.tools.benchmark.BenchmarkHelper.bestOf;
+import static games.stendhal.tools.benchmark.BenchmarkHelper.consume;
+import static games.stendhal.tools.benchmark.BenchmarkHelper.report;
+import static games.stendhal.tools.benchmark.BenchmarkHelper.reportAllocations;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import games.stendhal.common.parser.ConversationContext;
+import games.stendhal.common.parser.ConversationParser;
+import games.stendhal.server.core.engine.SingletonRepository;
+
+/**
+ * Parses a replay of chat lines, once with the sentence cache of the
+ * ConversationParser and once without it.
+ *
+ * Without a chat log, a replay is made up of the lines players say to NPCs
+ * most: greetings, "job", "offer", trading with item names and amounts, and
+ * some longer free text.
+ *
+ * Usage:
+ *     games.stendhal.tools.benchmark.ParserBenchmark [chat log, one line per message]
+ */
+public class ParserBenchmark {
+
+	/** number of lines of the made up replay */
+	private static final int LINES = 20000;
+
+	/** the lines players say most to NPCs */
+	private static final String[] COMMON = { "hi", "hello", "hey", "job", "help", "offer", "quest",
+			"task", "yes", "no", "bye", "goodbye", "done", "favor", "Hi!", "ok" };
+
+	/** items players trade most */
+	private static final String[] ITEMS = { "potion", "greater potion", "antidote", "flask", "meat",
+			"ham", "bread", "cheese", "apple", "carrot", "arrow", "club", "dagger", "leather armor",
+			"wooden shield", "torch", "grain", "flour", "fish", "beer" };
+
+	/** words for the free text */
+	private static final String[] WORDS = { "where", "is", "the", "best", "place", "to", "find",
+			"some", "gold", "I", "need", "more", "money", "for", "a", "new", "armor", "can", "you",
+			"tell", "me", "about", "this", "town", "please", "thanks", "what", "do", "have" };
+
+	private final List<String> lines;
+
+	private ParserBenchmark(final List<String> lines) {
+		this.lines = lines;
+	}
+
+	/**
+	 * Makes up a replay of chat lines.
+	 *
+	 * @return chat lines
+	 */
+	private static List<String> replay() {
+		final Random random = new Random(42);
+		final List<String> lines = new ArrayList<String>(LINES);
+		for (int i = 0; i < LINES; i++) {
+			final int kind = random.nextInt(10);
+			if (kind < 6) {
+				lines.add(COMMON[random.nextInt(COMMON.length)]);
+			} else if (kind < 9) {
+				// players mostly trade in small amounts
+				final String verb = random.nextBoolean() ? "buy " : "sell ";
+				final String item = ITEMS[random.nextInt(ITEMS.length)];
+				final int amount = 1 + random.nextInt(5);
+				lines.add(verb + (amount == 1 ? "" : amount + " ") + item);
+			} else {
+				final StringBuilder text = new StringBuilder();
+				final int length = 3 + random.nextInt(10);
+				for (int j = 0; j < length; j++) {
+					if (j > 0) {
+						text.append(' ');
+					}
+					text.append(WORDS[random.nextInt(WORDS.length)]);
+				}
+				text.append(random.nextBoolean() ? "?" : ".");
+				lines.add(text.toString());
+			}
+		}
+		return lines;
+	}
+
+	private void parse(final boolean cached) {
+		long size = 0;
+		for (final String line : lines) {
+			if (cached) {
+				size += ConversationParser.parse(line).getExpressions().size();
+			} else {
+				size += ConversationParser.parse(line, new ConversationContext()).getExpressions().size();
+			}
+		}
+		consume(size);
+	}
+
+	/**
+	 * Runs the benchmark.
+	 *
+	 * @param args optional chat log
+	 * @throws IOException if the chat log cannot be read
+	 */
+	public static void main(final String[] args) throws IOException {
+		// registers the item names at the word list
+		SingletonRepository.getEntityManager();
+
+		final List<String> lines;
+		if (args.length > 0) {
+			lines = Files.readAllLines(Paths.get(args[0]), StandardCharsets.UTF_8);
+		} else {
+			lines = replay();
+		}
+		final ParserBenchmark benchmark = new ParserBenchmark(lines);
+		final int count = lines.size();
+		report("parse", bestOf(() -> benchmark.parse(false)), count);
+		report("parse with sentence cache", bestOf(() -> benchmark.parse(true)), count);
+		reportAllocations("parse", allocationsOf(() -> benchmark.parse(false)), count);
+		reportAllocations("parse with sentence cache", allocationsOf(() -> benchmark.parse(true)), count);
+		System.out.println(ConversationParser.getCacheStatistics());
+	}
+}
@@ -0,0 +1,190 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.tools.benchmark;
+
+import static games.stendhal.tools.benchmark.BenchmarkHelper.allocationsOf;
+import static games.stendhal.tools.benchmark.BenchmarkHelper.bestOf;
+import static games.stendhal.tools.benchmark.BenchmarkHelper.consume;
+import static games.stendhal.tools.benchmark.BenchmarkHelper.report;
+import static games.stendhal.tools.benchmark.BenchmarkHelper.reportAllocations;
+
+import java.awt.Rectangle;
+import java.awt.geom.Rectangle2D;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import games.stendhal.common.CollisionDetection;
+import games.stendhal.server.core.engine.StendhalRPWorld;
+import games.stendhal.server.core.engine.StendhalRPZone;
+import games.stendhal.server.core.pathfinder.Node;
+import games.stendhal.server.core.pathfinder.Pathfinder;
+import games.stendhal.server.core.pathfinder.SimplePathfinder;
+
+/**
+ * Compares the array based path search with the node tree of Pathfinder,
+ * using random searches on the collision maps in tiled/.
+ *
+ * Usage:
+ *     games.stendhal.tools.benchmark.PathfinderBenchmark [map directory]
+ */
+public class PathfinderBenchmark {
+
+	private static final int SEARCHES_PER_MAP = 100;
+
+	/** maximum manhattan distance between start and destination */
+	private static final int RANGE = 40;
+
+	/**
+	 * A path finder without array based terrain, so that it uses the node
+	 * tree. Otherwise it is the same as SimplePathfinder.
+	 */
+	private static class LegacyPathfinder extends Pathfinder {
+		private final CollisionDetection collision;
+
+		LegacyPathfinder(final StendhalRPZone zone, final int startX, final int startY,
+				final Rectangle2D destination, final double maxDist) {
+			super(startX, startY, destination, maxDist);
+			collision = zone.collisionMap;
+		}
+
+		@Override
+		public TreeNode createNode(final int x, final int y) {
+			return new LegacyTreeNode(x, y);
+		}
+
+		private class LegacyTreeNode extends TreeNode {
+			LegacyTreeNode(final int x, final int y) {
+				super(x, y);
+			}
+
+			@Override
+			public TreeNode createNode(final int x, final int y) {
+				return new LegacyTreeNode(x, y);
+			}
+
+			@Override
+			protected int createNodeID(final int x, final int y) {
+				return x + y * collision.getWidth();
+			}
+
+			@Override
+			public boolean isValid(final int x, final int y) {
+				return !collision.collides(x, y);
+			}
+		}
+	}
+
+	/**
+	 * A search on one of the maps.
+	 */
+	private static class Search {
+		private final StendhalRPZone zone;
+		private final int x;
+		private final int y;
+		private final Rectangle2D destination;
+		private final double maxDistance;
+
+		Search(final StendhalRPZone zone, final int x, final int y, final int destX, final int destY) {
+			this.zone = zone;
+			this.x = x;
+			this.y = y;
+			destination = new Rectangle(destX, destY, 1, 1);
+			// the default limit of Path
+			maxDistance = Math.max(4 * (Math.abs(x - destX) + Math.abs(y - destY)), 80);
+		}
+
+		List<Node> legacy() {
+			return new LegacyPathfinder(zone, x, y, destination, maxDistance).getPath();
+		}
+
+		List<Node> array() {
+			return new SimplePathfinder(zone, x, y, destination, maxDistance).getPath();
+		}
+	}
+
+	private final List<Search> searches = new ArrayList<Search>();
+
+	private int maps;
+
+	private PathfinderBenchmark(final File directory) throws Exception {
+		final Random random = new Random(1);
+		for (final StendhalRPZone zone : BenchmarkHelper.loadZones(directory)) {
+			addSearches(zone, random);
+			maps++;
+		}
+	}
+
+	private void addSearches(final StendhalRPZone zone, final Random random) {
+		final CollisionDetection collision = zone.collisionMap;
+		final int width = collision.getWidth();
+		final int height = collision.getHeight();
+		int added = 0;
+		// give up on maps that are mostly blocked
+		for (int tries = 0; (added < SEARCHES_PER_MAP) && (tries < 100 * SEARCHES_PER_MAP); tries++) {
+			final int x = random.nextInt(width);
+			final int y = random.nextInt(height);
+			final int destX = x + random.nextInt(2 * RANGE + 1) - RANGE;
+			final int destY = y + random.nextInt(2 * RANGE + 1) - RANGE;
+			if (!collision.collides(x, y) && !collision.collides(destX, destY)) {
+				searches.add(new Search(zone, x, y, destX, destY));
+				added++;
+			}
+		}
+	}
+
+	private void run(final boolean legacy) {
+		long nodes = 0;
+		for (final Search search : searches) {
+			nodes += (legacy ? search.legacy() : search.array()).size();
+		}
+		consume(nodes);
+	}
+
+	private void verify() {
+		int found = 0;
+		for (final Search search : searches) {
+			final List<Node> expected = search.legacy();
+			if (!expected.equals(search.array())) {
+				throw new IllegalStateException("Different paths in " + search.zone.getName()
+						+ " from " + search.x + "," + search.y + " to " + search.destination);
+			}
+			if (!expected.isEmpty()) {
+				found++;
+			}
+		}
+		System.out.println(maps + " maps, " + searches.size() + " searches, "
+				+ found + " paths found, all paths identical");
+	}
+
+	/**
+	 * Runs the benchmark.
+	 *
+	 * @param args optional directory to load the maps from
+	 * @throws Exception if loading the maps fails
+	 */
+	public static void main(final String[] args) throws Exception {
+		StendhalRPWorld.get();
+		String directory = "tiled/Level 0";
+		if (args.length > 0) {
+			directory = args[0];
+		}
+		final PathfinderBenchmark benchmark = new PathfinderBenchmark(new File(directory));
+		benchmark.verify();
+		final int count = benchmark.searches.size();
+		report("node tree search", bestOf(() -> benchmark.run(true)), count);
+		reportAllocations("node tree search", allocationsOf(() -> benchmark.run(true)), count);
+		report("array search", bestOf(() -> benchmark.run(false)), count);
+		reportAllocations("array search", allocationsOf(() -> benchmark.run(false)), count);
+	}
+}
@@ -0,0 +1,98 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.tools.benchmark;
+
+import static games.stendhal.tools.benchmark.BenchmarkHelper.allocationsOf;
+import static games.stendhal.tools.benchmark.BenchmarkHelper.bestOf;
+import static games.stendhal.tools.benchmark.BenchmarkHelper.consume;
+import static games.stendhal.tools.benchmark.BenchmarkHelper.report;
+import static games.stendhal.tools.benchmark.BenchmarkHelper.reportAllocations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import games.stendhal.server.core.engine.StendhalRPWorld;
+import games.stendhal.server.core.events.TurnNotifier;
+import games.stendhal.server.entity.creature.Creature;
+import games.stendhal.server.entity.status.EatStatus;
+import games.stendhal.server.entity.status.PoisonStatus;
+import games.stendhal.server.entity.status.ShockStatus;
+
+/**
+ * Measures the turns of the TurnNotifier with many poisoned, eating and
+ * shocked creatures. Only the periodic status effects are registered at the
+ * TurnNotifier, so the time per turn is the time spent on the statuses.
+ *
+ * Usage:
+ *     games.stendhal.tools.benchmark.StatusBenchmark [affected entities]
+ */
+public class StatusBenchmark {
+
+	/** turns per measured round */
+	private static final int TURNS = 100;
+
+	/** large enough that the statuses last for all rounds */
+	private static final int AMOUNT = 1000000;
+
+	private final List<Creature> creatures = new ArrayList<Creature>();
+
+	private int turn;
+
+	private StatusBenchmark(final int count) {
+		turn = TurnNotifier.get().getCurrentTurnForDebugging();
+		for (int i = 0; i < count; i++) {
+			final Creature creature = new Creature();
+			creature.setBaseHP(30000);
+			creature.setHP(20000);
+			// everyone is poisoned, some twice, some also eat or are shocked
+			creature.getStatusList().inflictStatus(new PoisonStatus(-AMOUNT, 1, -1), null);
+			if (i % 3 == 0) {
+				creature.getStatusList().inflictStatus(new PoisonStatus(-AMOUNT, 2, -1), null);
+			}
+			if (i % 5 == 0) {
+				creature.getStatusList().inflictStatus(new EatStatus(AMOUNT, 1, 1), null);
+			}
+			if (i % 7 == 0) {
+				creature.getStatusList().inflictStatus(new ShockStatus(), null);
+			}
+			creatures.add(creature);
+		}
+	}
+
+	private void turns() {
+		for (int i = 0; i < TURNS; i++) {
+			turn++;
+			TurnNotifier.get().logic(turn);
+		}
+		consume(creatures.get(0).getHP());
+	}
+
+	/**
+	 * Runs the benchmark.
+	 *
+	 * @param args optional number of affected entities
+	 */
+	public static void main(final String[] args) {
+		StendhalRPWorld.get();
+		int count = 5000;
+		if (args.length > 0) {
+			count = Integer.parseInt(args[0]);
+		}
+		final StatusBenchmark benchmark = new StatusBenchmark(count);
+		final String setup = String.format(Locale.ENGLISH, ", %d entities", count);
+		report("status turn" + setup, bestOf(benchmark::turns), TURNS);
+		reportAllocations("status turn" + setup, allocationsOf(benchmark::turns), TURNS);
+		System.out.println("turn listeners: " + TurnNotifier.get().getEventListForDebugging().values().stream()
+				.mapToInt(listeners -> listeners.size()).sum());
+	}
+}
@@ -0,0 +1,215 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.tools.benchmark;
+
+import static games.stendhal.tools.benchmark.BenchmarkHelper.bestOf;
+import static games.stendhal.tools.benchmark.BenchmarkHelper.consume;
+import static games.stendhal.tools.benchmark.BenchmarkHelper.report;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import games.stendhal.server.core.events.TurnListener;
+import games.stendhal.server.core.events.TurnWheel;
+
+/**
+ * Compares the timing wheel of the TurnNotifier with the map of turn
+ * number to listener sets it used before.
+ *
+ * Usage:
+ *     games.stendhal.tools.benchmark.TurnNotifierBenchmark [pending listeners...]
+ */
+public class TurnNotifierBenchmark {
+
+	/** turns the listeners are spread over, about 100 minutes */
+	private static final int SPREAD = 20000;
+
+	private static final int CANCELS = 1000;
+
+	private static final int LOOKUPS = 100;
+
+	private static final int TICKS = 1000;
+
+	/**
+	 * Common interface of the compared implementations.
+	 */
+	private interface Register {
+		void add(int turn, TurnListener listener);
+
+		void remove(TurnListener listener);
+
+		int getFirstTurn(TurnListener listener);
+
+		void poll(int turn, List<TurnListener> due);
+	}
+
+	/**
+	 * The implementation used by TurnNotifier before the timing wheel.
+	 */
+	private static class LegacyRegister implements Register {
+		private final Map<Integer, Set<TurnListener>> register = new HashMap<Integer, Set<TurnListener>>();
+
+		@Override
+		public void add(final int turn, final TurnListener listener) {
+			final Integer turnInt = Integer.valueOf(turn);
+			Set<TurnListener> set = register.get(turnInt);
+			if (set == null) {
+				set = new HashSet<TurnListener>();
+				register.put(turnInt, set);
+			}
+			set.add(listener);
+		}
+
+		@Override
+		public void remove(final TurnListener listener) {
+			for (final Set<TurnListener> set : register.values()) {
+				set.remove(listener);
+			}
+		}
+
+		@Override
+		public int getFirstTurn(final TurnListener listener) {
+			int res = -1;
+			for (final Map.Entry<Integer, Set<TurnListener>> entry : register.entrySet()) {
+				for (final TurnListener candidate : entry.getValue()) {
+					if (candidate.equals(listener) && (res < 0 || entry.getKey().intValue() < res)) {
+						res = entry.getKey().intValue();
+					}
+				}
+			}
+			return res;
+		}
+
+		@Override
+		public void poll(final int turn, final List<TurnListener> due) {
+			final Set<TurnListener> set = register.remove(Integer.valueOf(turn));
+			if (set != null) {
+				due.addAll(set);
+			}
+		}
+	}
+
+	/**
+	 * The timing wheel used by TurnNotifier.
+	 */
+	private static class WheelRegister implements Register {
+		private final TurnWheel wheel = new TurnWheel();
+
+		@Override
+		public void add(final int turn, final TurnListener listener) {
+			wheel.add(turn, listener);
+		}
+
+		@Override
+		public void remove(final TurnListener listener) {
+			wheel.remove(listener);
+		}
+
+		@Override
+		public int getFirstTurn(final TurnListener listener) {
+			return wheel.getFirstTurn(listener);
+		}
+
+		@Override
+		public void poll(final int turn, final List<TurnListener> due) {
+			wheel.poll(turn, due);
+		}
+	}
+
+	private static class Listener implements TurnListener {
+		@Override
+		public void onTurnReached(final int currentTurn) {
+			// ignore
+		}
+	}
+
+	private final TurnListener[] listeners;
+
+	private final int[] turns;
+
+	private TurnNotifierBenchmark(final int count) {
+		final Random random = new Random(count);
+		listeners = new TurnListener[count];
+		turns = new int[count];
+		for (int i = 0; i < count; i++) {
+			listeners[i] = new Listener();
+			turns[i] = 1 + random.nextInt(SPREAD);
+		}
+	}
+
+	private void fill(final Register register) {
+		for (int i = 0; i < listeners.length; i++) {
+			register.add(turns[i], listeners[i]);
+		}
+	}
+
+	private void run(final String name, final Supplier<Register> factory) {
+		final int count = listeners.length;
+		final Supplier<Register> filled = () -> {
+			final Register register = factory.get();
+			fill(register);
+			return register;
+		};
+		final int step = count / CANCELS;
+
+		report(name + " schedule " + count, bestOf(factory, this::fill), count);
+		report(name + " cancel", bestOf(filled, register -> {
+			for (int i = 0; i < count; i += step) {
+				register.remove(listeners[i]);
+			}
+		}), count / step);
+		report(name + " remaining turns", bestOf(filled, register -> {
+			long sum = 0;
+			for (int i = 0; i < LOOKUPS; i++) {
+				sum += register.getFirstTurn(listeners[i * step]);
+			}
+			consume(sum);
+		}), LOOKUPS);
+		report(name + " tick", bestOf(filled, register -> {
+			final List<TurnListener> due = new ArrayList<TurnListener>();
+			for (int turn = 1; turn <= TICKS; turn++) {
+				register.poll(turn, due);
+				due.clear();
+			}
+		}), TICKS);
+	}
+
+	/**
+	 * Runs the benchmark.
+	 *
+	 * @param args numbers of pending listeners to test with
+	 */
+	public static void main(final String[] args) {
+		final List<Integer> counts = new ArrayList<Integer>();
+		for (final String arg : args) {
+			counts.add(Integer.valueOf(arg));
+		}
+		if (counts.isEmpty()) {
+			counts.add(Integer.valueOf(10000));
+			counts.add(Integer.valueOf(100000));
+			counts.add(Integer.valueOf(1000000));
+		}
+
+		for (final Integer count : counts) {
+			final TurnNotifierBenchmark benchmark = new TurnNotifierBenchmark(count.intValue());
+			benchmark.run("legacy", LegacyRegister::new);
+			benchmark.run("wheel", WheelRegister::new);
+			System.out.println();
+		}
+	}
+}
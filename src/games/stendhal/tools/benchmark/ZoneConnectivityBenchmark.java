@@ -0,0 +1,153 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.tools.benchmark;
+
+import static games.stendhal.tools.benchmark.BenchmarkHelper.bestOf;
+import static games.stendhal.tools.benchmark.BenchmarkHelper.consume;
+import static games.stendhal.tools.benchmark.BenchmarkHelper.report;
+
+import java.awt.Rectangle;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import games.stendhal.common.CollisionDetection;
+import games.stendhal.server.core.engine.StendhalRPWorld;
+import games.stendhal.server.core.engine.StendhalRPZone;
+import games.stendhal.server.core.pathfinder.Path;
+import games.stendhal.server.core.pathfinder.SimplePathfinder;
+
+/**
+ * Measures how much the zone connectivity saves on searches for nearby
+ * targets, like creatures looking for enemies, on the maps in tiled/.
+ *
+ * Usage:
+ *     games.stendhal.tools.benchmark.ZoneConnectivityBenchmark [map directory]
+ */
+public class ZoneConnectivityBenchmark {
+
+	private static final int SEARCHES_PER_MAP = 100;
+
+	/** maximum distance between start and destination on each axis */
+	private static final int RANGE = 20;
+
+	/**
+	 * A search on one of the maps.
+	 */
+	private static class Search {
+		private final StendhalRPZone zone;
+		private final int x;
+		private final int y;
+		private final int destX;
+		private final int destY;
+
+		Search(final StendhalRPZone zone, final int x, final int y, final int destX, final int destY) {
+			this.zone = zone;
+			this.x = x;
+			this.y = y;
+			this.destX = destX;
+			this.destY = destY;
+		}
+
+		/**
+		 * Searches a path without checking the connectivity first.
+		 *
+		 * @return path length
+		 */
+		int searchOnly() {
+			return new SimplePathfinder(zone, x, y, new Rectangle(destX, destY, 1, 1), 80).getPath().size();
+		}
+
+		/**
+		 * Searches a path the way the server does.
+		 *
+		 * @return path length
+		 */
+		int checkAndSearch() {
+			return Path.searchPath(zone, x, y, destX, destY, 80).size();
+		}
+
+		boolean isUnreachable() {
+			return zone.isUnreachable(x, y, new Rectangle(destX, destY, 1, 1));
+		}
+	}
+
+	private final List<Search> reachable = new ArrayList<Search>();
+
+	private final List<Search> unreachable = new ArrayList<Search>();
+
+	private ZoneConnectivityBenchmark(final File directory) throws Exception {
+		final Random random = new Random(1);
+		for (final StendhalRPZone zone : BenchmarkHelper.loadZones(directory)) {
+			final CollisionDetection collision = zone.collisionMap;
+			int added = 0;
+			// give up on maps that are mostly blocked
+			for (int tries = 0; (added < SEARCHES_PER_MAP) && (tries < 100 * SEARCHES_PER_MAP); tries++) {
+				final int x = random.nextInt(collision.getWidth());
+				final int y = random.nextInt(collision.getHeight());
+				final int destX = x + random.nextInt(2 * RANGE + 1) - RANGE;
+				final int destY = y + random.nextInt(2 * RANGE + 1) - RANGE;
+				if (!collision.collides(x, y) && !collision.collides(destX, destY)) {
+					final Search search = new Search(zone, x, y, destX, destY);
+					if (search.isUnreachable()) {
+						unreachable.add(search);
+					} else {
+						reachable.add(search);
+					}
+					added++;
+				}
+			}
+		}
+	}
+
+	private static void run(final List<Search> searches, final boolean check) {
+		long nodes = 0;
+		for (final Search search : searches) {
+			nodes += check ? search.checkAndSearch() : search.searchOnly();
+		}
+		consume(nodes);
+	}
+
+	private void verify() {
+		for (final Search search : unreachable) {
+			if (search.searchOnly() != 0) {
+				throw new IllegalStateException("Found a path to an unreachable destination in "
+						+ search.zone.getName());
+			}
+		}
+		System.out.println(reachable.size() + " searches in the same area, "
+				+ unreachable.size() + " unreachable");
+	}
+
+	/**
+	 * Runs the benchmark.
+	 *
+	 * @param args optional directory to load the maps from
+	 * @throws Exception if loading the maps fails
+	 */
+	public static void main(final String[] args) throws Exception {
+		StendhalRPWorld.get();
+		String directory = "tiled";
+		if (args.length > 0) {
+			directory = args[0];
+		}
+		final ZoneConnectivityBenchmark benchmark = new ZoneConnectivityBenchmark(new File(directory));
+		benchmark.verify();
+		final List<Search> unreachable = benchmark.unreachable;
+		final List<Search> reachable = benchmark.reachable;
+		report("unreachable, search only", bestOf(() -> run(unreachable, false)), unreachable.size());
+		report("unreachable, components and search", bestOf(() -> run(unreachable, true)), unreachable.size());
+		report("same area, search only", bestOf(() -> run(reachable, false)), reachable.size());
+		report("same area, components and search", bestOf(() -> run(reachable, true)), reachable.size());
+	}
+}
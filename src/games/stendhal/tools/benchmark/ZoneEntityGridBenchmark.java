@@ -0,0 +1,136 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.tools.benchmark;
+
+import static games.stendhal.tools.benchmark.BenchmarkHelper.bestOf;
+import static games.stendhal.tools.benchmark.BenchmarkHelper.consume;
+import static games.stendhal.tools.benchmark.BenchmarkHelper.report;
+
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import games.stendhal.common.Direction;
+import games.stendhal.server.core.engine.StendhalRPWorld;
+import games.stendhal.server.core.engine.StendhalRPZone;
+import games.stendhal.server.entity.Entity;
+import games.stendhal.server.entity.creature.Creature;
+import marauroa.common.game.RPObject;
+
+/**
+ * Load test for entity lookups in a crowded zone: Every turn each creature
+ * tries to step into a random direction, which needs a collision check
+ * against the other entities, and looks at the tile in front of it.
+ *
+ * Usage:
+ *     games.stendhal.tools.benchmark.ZoneEntityGridBenchmark [creatures]
+ */
+public class ZoneEntityGridBenchmark {
+
+	private static final int ZONE_SIZE = 128;
+
+	private static final int TURNS = 20;
+
+	private final StendhalRPZone zone = new StendhalRPZone("benchmark", ZONE_SIZE, ZONE_SIZE);
+
+	private final List<Creature> creatures = new ArrayList<Creature>();
+
+	private ZoneEntityGridBenchmark(final int count) {
+		final Random random = new Random(count);
+		while (creatures.size() < count) {
+			final Creature creature = new Creature();
+			creature.setPosition(random.nextInt(ZONE_SIZE), random.nextInt(ZONE_SIZE));
+			if (!zone.collides(creature, creature.getX(), creature.getY())) {
+				zone.add(creature);
+				creatures.add(creature);
+			}
+		}
+	}
+
+	/**
+	 * The entity collision check used by StendhalRPZone before the grid.
+	 */
+	private boolean collidesLinear(final Entity entity, final Rectangle2D area) {
+		for (final RPObject other : zone) {
+			if (entity != other) {
+				final Entity otherEntity = (Entity) other;
+				if (area.intersects(otherEntity.getX(), otherEntity.getY(), otherEntity.getWidth(), otherEntity.getHeight())
+						&& otherEntity.isObstacle(entity)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * The entity lookup used by StendhalRPZone before the grid.
+	 */
+	private Entity getEntityAtLinear(final double x, final double y) {
+		for (final RPObject other : zone) {
+			final Entity entity = (Entity) other;
+			if (entity.getArea().contains(x, y)) {
+				return entity;
+			}
+		}
+		return null;
+	}
+
+	private void turns(final boolean linear) {
+		final Random random = new Random(1);
+		long found = 0;
+		for (int turn = 0; turn < TURNS; turn++) {
+			for (final Creature creature : creatures) {
+				final Direction direction = Direction.rand();
+				final int x = creature.getX() + direction.getdx();
+				final int y = creature.getY() + direction.getdy();
+				final boolean collides;
+				final Entity front;
+				if (linear) {
+					collides = zone.simpleCollides(creature, x, y, 1, 1)
+							|| collidesLinear(creature, creature.getArea(x, y));
+					front = getEntityAtLinear(x + direction.getdx(), y + direction.getdy());
+				} else {
+					collides = zone.collides(creature, x, y);
+					front = zone.getEntityAt(x + direction.getdx(), y + direction.getdy());
+				}
+				if (!collides) {
+					creature.setPosition(x, y);
+				}
+				if (front != null) {
+					found++;
+				}
+			}
+			if (zone.containsPlayer()) {
+				found += random.nextInt(2);
+			}
+		}
+		consume(found);
+	}
+
+	/**
+	 * Runs the benchmark.
+	 *
+	 * @param args optional number of creatures
+	 */
+	public static void main(final String[] args) {
+		StendhalRPWorld.get();
+		int count = 2000;
+		if (args.length > 0) {
+			count = Integer.parseInt(args[0]);
+		}
+		final ZoneEntityGridBenchmark benchmark = new ZoneEntityGridBenchmark(count);
+		report("linear scan turn, " + count + " creatures", bestOf(() -> benchmark.turns(true)), TURNS);
+		report("grid turn, " + count + " creatures", bestOf(() -> benchmark.turns(false)), TURNS);
+	}
+}
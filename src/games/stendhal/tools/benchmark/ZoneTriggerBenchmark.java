@@ -0,0 +1,230 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.tools.benchmark;
+
+import static games.stendhal.tools.benchmark.BenchmarkHelper.allocationsOf;
+import static games.stendhal.tools.benchmark.BenchmarkHelper.bestOf;
+import static games.stendhal.tools.benchmark.BenchmarkHelper.consume;
+import static games.stendhal.tools.benchmark.BenchmarkHelper.report;
+import static games.stendhal.tools.benchmark.BenchmarkHelper.reportAllocations;
+
+import java.awt.Rectangle;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import games.stendhal.common.Direction;
+import games.stendhal.server.core.engine.StendhalRPWorld;
+import games.stendhal.server.core.engine.StendhalRPZone;
+import games.stendhal.server.core.events.MovementListener;
+import games.stendhal.server.entity.ActiveEntity;
+import games.stendhal.server.entity.creature.Creature;
+import games.stendhal.server.entity.mapstuff.portal.Portal;
+
+/**
+ * Load test for the triggers checked on every step: the movement listeners
+ * at the old and the new position, and the portal at the new position. The
+ * zone is crowded with portals and sensor areas.
+ *
+ * Usage:
+ *     games.stendhal.tools.benchmark.ZoneTriggerBenchmark [portals] [sensors]
+ */
+public class ZoneTriggerBenchmark {
+
+	private static final int ZONE_SIZE = 128;
+
+	private static final int CREATURES = 200;
+
+	private static final int STEPS = 100000;
+
+	private final StendhalRPZone zone = new StendhalRPZone("benchmark", ZONE_SIZE, ZONE_SIZE);
+
+	private final List<Creature> creatures = new ArrayList<Creature>();
+
+	private final List<Portal> portals = new ArrayList<Portal>();
+
+	private final List<MovementListener> sensors = new ArrayList<MovementListener>();
+
+	/**
+	 * A sensor area that counts the events.
+	 */
+	private static class Sensor implements MovementListener {
+		private final Rectangle2D area;
+		private long events;
+
+		Sensor(final Rectangle2D area) {
+			this.area = area;
+		}
+
+		@Override
+		public Rectangle2D getArea() {
+			return area;
+		}
+
+		@Override
+		public void onEntered(final ActiveEntity entity, final StendhalRPZone zone, final int newX, final int newY) {
+			events++;
+		}
+
+		@Override
+		public void onExited(final ActiveEntity entity, final StendhalRPZone zone, final int oldX, final int oldY) {
+			events++;
+		}
+
+		@Override
+		public void beforeMove(final ActiveEntity entity, final StendhalRPZone zone, final int oldX, final int oldY,
+				final int newX, final int newY) {
+			events++;
+		}
+
+		@Override
+		public void onMoved(final ActiveEntity entity, final StendhalRPZone zone, final int oldX, final int oldY,
+				final int newX, final int newY) {
+			events++;
+		}
+	}
+
+	private ZoneTriggerBenchmark(final int portalCount, final int sensorCount) {
+		final Random random = new Random(portalCount + sensorCount);
+		for (int i = 0; i < portalCount; i++) {
+			final Portal portal = new Portal();
+			portal.setPosition(random.nextInt(ZONE_SIZE), random.nextInt(ZONE_SIZE));
+			zone.add(portal);
+			portals.add(portal);
+		}
+		for (int i = 0; i < sensorCount; i++) {
+			final Sensor sensor = new Sensor(new Rectangle(random.nextInt(ZONE_SIZE), random.nextInt(ZONE_SIZE),
+					1 + random.nextInt(8), 1 + random.nextInt(8)));
+			zone.addMovementListener(sensor);
+			sensors.add(sensor);
+		}
+		for (int i = 0; i < CREATURES; i++) {
+			final Creature creature = new Creature();
+			creature.setPosition(1 + random.nextInt(ZONE_SIZE - 2), 1 + random.nextInt(ZONE_SIZE - 2));
+			zone.add(creature);
+			creatures.add(creature);
+		}
+	}
+
+	/**
+	 * The portal lookup used by StendhalRPZone before the grid.
+	 */
+	private Portal getPortalLinear(final int x, final int y) {
+		for (final Portal portal : portals) {
+			if ((portal.getX() == x) && (portal.getY() == y)) {
+				return portal;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * The movement notifications used by StendhalRPZone before the grid.
+	 */
+	private void notifyBeforeMovementLinear(final ActiveEntity entity, final int oldX, final int oldY,
+			final int newX, final int newY) {
+		final Rectangle2D neArea = entity.getArea(newX, newY);
+		for (final MovementListener l : sensors) {
+			if (l.getArea().intersects(neArea)) {
+				l.beforeMove(entity, zone, oldX, oldY, newX, newY);
+			}
+		}
+	}
+
+	/**
+	 * The movement notifications used by StendhalRPZone before the grid.
+	 */
+	private void notifyMovementLinear(final ActiveEntity entity, final int oldX, final int oldY,
+			final int newX, final int newY) {
+		final Rectangle2D oeArea = entity.getArea(oldX, oldY);
+		final Rectangle2D neArea = entity.getArea(newX, newY);
+		for (final MovementListener l : sensors) {
+			final Rectangle2D area = l.getArea();
+			final boolean oldIn = area.intersects(oeArea);
+			final boolean newIn = area.intersects(neArea);
+			if (!oldIn && newIn) {
+				l.onEntered(entity, zone, newX, newY);
+			}
+			if (oldIn && newIn) {
+				l.onMoved(entity, zone, oldX, oldY, newX, newY);
+			}
+			if (oldIn && !newIn) {
+				l.onExited(entity, zone, oldX, oldY);
+			}
+		}
+	}
+
+	/**
+	 * Lets random creatures check a step to a random direction. The creatures
+	 * do not actually move, so that the rounds are comparable.
+	 *
+	 * @param linear <code>true</code> to use the linear scans
+	 */
+	private void steps(final boolean linear) {
+		final Random random = new Random(1);
+		long found = 0;
+		for (int i = 0; i < STEPS; i++) {
+			final Creature creature = creatures.get(random.nextInt(CREATURES));
+			final Direction direction = Direction.rand();
+			final int x = creature.getX();
+			final int y = creature.getY();
+			final int nx = x + direction.getdx();
+			final int ny = y + direction.getdy();
+			final Portal portal;
+			if (linear) {
+				notifyBeforeMovementLinear(creature, x, y, nx, ny);
+				portal = getPortalLinear(nx, ny);
+				notifyMovementLinear(creature, x, y, nx, ny);
+			} else {
+				zone.notifyBeforeMovement(creature, x, y, nx, ny);
+				portal = zone.getPortal(nx, ny);
+				zone.notifyMovement(creature, x, y, nx, ny);
+			}
+			if (portal != null) {
+				found++;
+			}
+		}
+		for (final MovementListener sensor : sensors) {
+			found += ((Sensor) sensor).events;
+		}
+		consume(found);
+	}
+
+	/**
+	 * Runs the benchmark.
+	 *
+	 * @param args optional number of portals and sensor areas
+	 */
+	public static void main(final String[] args) {
+		StendhalRPWorld.get();
+		int portalCount = 200;
+		int sensorCount = 300;
+		if (args.length > 0) {
+			portalCount = Integer.parseInt(args[0]);
+		}
+		if (args.length > 1) {
+			sensorCount = Integer.parseInt(args[1]);
+		}
+		final ZoneTriggerBenchmark benchmark = new ZoneTriggerBenchmark(portalCount, sensorCount);
+		final String setup = String.format(Locale.ENGLISH, ", %d portals, %d sensors", portalCount, sensorCount);
+		final long linear = bestOf(() -> benchmark.steps(true));
+		final long grid = bestOf(() -> benchmark.steps(false));
+		report("linear scan step" + setup, linear, STEPS);
+		report("grid step" + setup, grid, STEPS);
+		System.out.println(String.format(Locale.ENGLISH, "steps per second: linear %.0f, grid %.0f",
+				STEPS * 1e9 / linear, STEPS * 1e9 / grid));
+		reportAllocations("linear scan step", allocationsOf(() -> benchmark.steps(true)), STEPS);
+		reportAllocations("grid step", allocationsOf(() -> benchmark.steps(false)), STEPS);
+	}
+}
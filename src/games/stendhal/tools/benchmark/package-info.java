@@ -0,0 +1,4 @@
+/**
+ * command line micro benchmarks for performance critical server code.
+ */
+package games.stendhal.tools.benchmark;
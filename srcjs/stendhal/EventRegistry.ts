@@ -215,6 +215,12 @@ export class EventRegistry {
 			}
 		}); // player_logged_out
 
+		this.register("player_presence", {
+			execute: function(rpobject: RPObject) {
+				// TODO: new PlayerPresenceEvent();
+			}
+		}); // player_presence
+
 		this.register("private_text", {
 			soundTextEvents: {
 				"privmsg": true,
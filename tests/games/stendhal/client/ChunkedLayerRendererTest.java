@@ -0,0 +1,147 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.client;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import games.stendhal.client.sprite.EmptySprite;
+import games.stendhal.client.sprite.Sprite;
+
+/**
+ * Tests for ChunkedLayerRenderer.
+ */
+public class ChunkedLayerRendererTest {
+	/**
+	 * A sprite that counts how often it has been drawn.
+	 */
+	private static class CountingSprite implements Sprite {
+		private final boolean constant;
+		int draws;
+
+		CountingSprite(boolean constant) {
+			this.constant = constant;
+		}
+
+		@Override
+		public Sprite createRegion(int x, int y, int width, int height, Object ref) {
+			return this;
+		}
+
+		@Override
+		public void draw(Graphics g, int x, int y) {
+			draws++;
+		}
+
+		@Override
+		public void draw(Graphics g, int destx, int desty, int x, int y, int w, int h) {
+			draws++;
+		}
+
+		@Override
+		public int getHeight() {
+			return IGameScreen.SIZE_UNIT_PIXELS;
+		}
+
+		@Override
+		public Object getReference() {
+			return null;
+		}
+
+		@Override
+		public int getWidth() {
+			return IGameScreen.SIZE_UNIT_PIXELS;
+		}
+
+		@Override
+		public boolean isConstant() {
+			return constant;
+		}
+	}
+
+	private static TileRenderer createLayer(int width, int height, Sprite[] sprites) {
+		TileRenderer layer = new TileRenderer();
+		layer.width = width;
+		layer.height = height;
+		layer.spriteMap = sprites;
+		return layer;
+	}
+
+	/**
+	 * Check that static tiles are rendered only once, and animated tiles on
+	 * every draw.
+	 */
+	@Test
+	public void testDraw() {
+		CountingSprite still = new CountingSprite(true);
+		CountingSprite animated = new CountingSprite(false);
+		Sprite[] sprites = new Sprite[40 * 20];
+		Arrays.fill(sprites, still);
+		sprites[5] = animated;
+		sprites[20 * 40 - 1] = new EmptySprite(IGameScreen.SIZE_UNIT_PIXELS, IGameScreen.SIZE_UNIT_PIXELS, null);
+
+		ChunkedLayerRenderer renderer = new ChunkedLayerRenderer(createLayer(40, 20, sprites));
+		Graphics g = new BufferedImage(10, 10, BufferedImage.TYPE_INT_ARGB).getGraphics();
+		renderer.draw(g, 0, 0, 20, 10);
+		assertEquals("two chunks rendered", 2, renderer.getCachedChunks());
+		assertEquals(2 * 16 * 16 - 1, still.draws);
+		assertEquals(1, animated.draws);
+
+		renderer.draw(g, 0, 0, 20, 10);
+		assertEquals("nothing rendered again", 2 * 16 * 16 - 1, still.draws);
+		assertEquals(2, animated.draws);
+
+		// The chunks at the edges are smaller than the full chunks
+		renderer.draw(g, 0, 0, 100, 100);
+		assertEquals(6, renderer.getCachedChunks());
+		assertEquals(40 * 20 - 2, still.draws);
+		assertEquals(3, animated.draws);
+
+		renderer.clear();
+		assertEquals(0, renderer.getCachedChunks());
+		renderer.draw(g, 0, 0, 1, 1);
+		assertEquals(40 * 20 - 2 + 16 * 16 - 1, still.draws);
+		g.dispose();
+	}
+
+	/**
+	 * Check that the least recently drawn chunks are dropped.
+	 */
+	@Test
+	public void testEviction() {
+		CountingSprite still = new CountingSprite(true);
+		final int size = 40 * ChunkedLayerRenderer.CHUNK_SIZE;
+		Sprite[] sprites = new Sprite[size * size];
+		Arrays.fill(sprites, still);
+
+		ChunkedLayerRenderer renderer = new ChunkedLayerRenderer(createLayer(size, size, sprites));
+		Graphics g = new BufferedImage(10, 10, BufferedImage.TYPE_INT_ARGB).getGraphics();
+		// Scroll along the diagonal, a chunk at a time
+		for (int i = 0; i < 40; i++) {
+			renderer.draw(g, i * ChunkedLayerRenderer.CHUNK_SIZE, i * ChunkedLayerRenderer.CHUNK_SIZE, 1, 1);
+		}
+		assertEquals(16, renderer.getCachedChunks());
+		int draws = still.draws;
+		// The most recent is kept...
+		renderer.draw(g, 39 * ChunkedLayerRenderer.CHUNK_SIZE, 39 * ChunkedLayerRenderer.CHUNK_SIZE, 1, 1);
+		assertEquals(draws, still.draws);
+		// ...but the first was dropped
+		renderer.draw(g, 0, 0, 1, 1);
+		assertEquals(draws + ChunkedLayerRenderer.CHUNK_SIZE * ChunkedLayerRenderer.CHUNK_SIZE, still.draws);
+		g.dispose();
+	}
+}
@@ -353,4 +353,40 @@ public class CollisionMapTest {
 				.getWidth(), (int) bob.getHeight()));
 	}
 
+	/**
+	 * Tests collides on a map spanning several words per row against
+	 * checking every single tile.
+	 */
+	@Test
+	public void testCollidesWideMap() {
+		final int width = 150;
+		final int height = 5;
+		final CollisionMap map = new CollisionMap(width, height);
+		map.set(0, 0);
+		map.set(63, 1);
+		map.set(64, 2);
+		map.set(127, 3);
+		map.set(128, 4);
+		map.set(149, 2);
+		assertTrue(map.get(64, 2));
+		map.unset(64, 2);
+		assertFalse(map.get(64, 2));
+		map.set(64, 2);
+
+		for (int x = 0; x < width; x++) {
+			for (int w = 1; x + w <= width; w += 7) {
+				for (int y = 0; y < height; y++) {
+					for (int h = 1; y + h <= height; h++) {
+						boolean expected = false;
+						for (int i = x; i < x + w; i++) {
+							for (int j = y; j < y + h; j++) {
+								expected |= map.get(i, j);
+							}
+						}
+						assertThat(x + ";" + y + ";" + w + ";" + h, map.collides(x, y, w, h), is(expected));
+					}
+				}
+			}
+		}
+	}
 }
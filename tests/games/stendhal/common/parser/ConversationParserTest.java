@@ -593,4 +593,62 @@ public class ConversationParserTest {
 		assertNull(sentence.getObjectName());
 		assertFalse(sentence.hasError());
 	}
+
+	/**
+	 * Tests that short sentences are parsed once, and that each caller gets
+	 * its own copy.
+	 */
+	@Test
+	public final void testSentenceCache() {
+		final String[] texts = { "hi", "job", "offer", "bye", "buy 5 potion", "Sell 2 flasks!",
+				"what is your job?", "1,5 apples", "-5" };
+		for (final String text : texts) {
+			final Sentence parsed = ConversationParser.parse(text, new ConversationContext());
+			final long hits = ConversationParser.sentenceCache.getHits();
+			final Sentence first = ConversationParser.parse(text);
+			final Sentence second = ConversationParser.parse(text);
+			assertTrue(ConversationParser.sentenceCache.getHits() > hits);
+
+			assertEquals(parsed.toString(), first.toString());
+			assertEquals(parsed.getNormalized(), second.getNormalized());
+			assertEquals(parsed.getType(), second.getType());
+			assertEquals(parsed.getErrorString(), second.getErrorString());
+			assertEquals(parsed.getNormalized(), ConversationParser.normalize(text));
+			assertTrue(first != second);
+		}
+
+		// changing a copy does not change the cache
+		final Sentence sentence = ConversationParser.parse("buy 5 potion");
+		sentence.getObject(0).setAmount(7);
+		sentence.getExpressions().clear();
+		assertEquals(5, ConversationParser.parse("buy 5 potion").getObject(0).getAmount());
+
+		// long texts are not kept
+		final StringBuilder text = new StringBuilder("buy");
+		while (text.length() <= ConversationParser.MAX_CACHED_TEXT_LENGTH) {
+			text.append(" potion");
+		}
+		final int size = ConversationParser.sentenceCache.size();
+		ConversationParser.parse(text.toString());
+		assertEquals(size, ConversationParser.sentenceCache.size());
+	}
+
+	/**
+	 * Tests that the cached sentences are dropped when the word list changes.
+	 */
+	@Test
+	public final void testSentenceCacheWordListChange() {
+		final String before = ConversationParser.parse("buy cachetestname").toString();
+		WordList.getInstance().registerSubjectName("cachetestname");
+		try {
+			assertEquals(0, ConversationParser.sentenceCache.size());
+			assertEquals(ConversationParser.parse("buy cachetestname", new ConversationContext()).toString(),
+					ConversationParser.parse("buy cachetestname").toString());
+			assertFalse(before.equals(ConversationParser.parse("buy cachetestname").toString()));
+		} finally {
+			WordList.getInstance().unregisterSubjectName("cachetestname");
+		}
+		assertEquals(0, ConversationParser.sentenceCache.size());
+		assertEquals(before, ConversationParser.parse("buy cachetestname").toString());
+	}
 }
@@ -0,0 +1,100 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.common.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Tests for ParserCache.
+ */
+public class ParserCacheTest {
+
+	/**
+	 * Tests the statistics and that the least recently used entry is dropped.
+	 */
+	@Test
+	public void testBounded() {
+		final AtomicInteger created = new AtomicInteger();
+		final ParserCache<String> cache = new ParserCache<String>("test", 3);
+		for (final String text : new String[] { "a", "b", "c", "a", "d", "a", "b" }) {
+			assertEquals(text.toUpperCase(), cache.get(text, t -> {
+				created.incrementAndGet();
+				return t.toUpperCase();
+			}));
+		}
+		// "b" was dropped for "d", as "a" was used again before
+		assertEquals(5, created.get());
+		assertEquals(2, cache.getHits());
+		assertEquals(5, cache.getMisses());
+		assertEquals(3, cache.size());
+		assertEquals("test: 3/3 entries, 2 hits, 5 misses (28% hits)", cache.toString());
+
+		cache.clear();
+		assertEquals(0, cache.size());
+		assertEquals(2, cache.getHits());
+	}
+
+	/**
+	 * Tests that a value created while the cache is cleared is not kept.
+	 */
+	@Test
+	public void testClearWhileCreating() {
+		final ParserCache<String> cache = new ParserCache<String>("test", 3);
+		assertEquals("old", cache.get("a", t -> {
+			cache.clear();
+			return "old";
+		}));
+		assertEquals(0, cache.size());
+		assertEquals("new", cache.get("a", t -> "new"));
+		assertEquals("new", cache.get("a", t -> "other"));
+	}
+
+	/**
+	 * Tests the cache used by several threads at once.
+	 *
+	 * @throws InterruptedException if interrupted while waiting for the threads
+	 */
+	@Test
+	public void testConcurrent() throws InterruptedException {
+		final ParserCache<String> cache = new ParserCache<String>("test", 50);
+		final List<Thread> threads = new ArrayList<Thread>();
+		final AtomicInteger errors = new AtomicInteger();
+		for (int i = 0; i < 4; i++) {
+			final Thread thread = new Thread(() -> {
+				for (int j = 0; j < 10000; j++) {
+					final String text = Integer.toString(j % 100);
+					if (!text.equals(cache.get(text, t -> new String(t)))) {
+						errors.incrementAndGet();
+					}
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+		for (final Thread thread : threads) {
+			thread.join();
+		}
+
+		assertEquals(0, errors.get());
+		assertEquals(40000, cache.getHits() + cache.getMisses());
+		assertEquals(50, cache.size());
+		final String value = cache.get("99", t -> t);
+		assertSame(value, cache.get("99", t -> t));
+	}
+}
@@ -15,7 +15,9 @@ package games.stendhal.common.tiled;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -113,4 +115,27 @@ public class LayerDefinitionTest {
 		assertArrayEquals(rawData, serializedData);
 	}
 
+	/**
+	 * Tests that the encoded layer is kept until the layer is changed.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testEncode() throws Exception {
+		final LayerDefinition layer = map.getLayer("layer1");
+		final byte[] encoded = layer.encode();
+		assertSame(encoded, layer.encode());
+
+		layer.set(1, 1, 55);
+		final byte[] changed = layer.encode();
+		assertNotSame(encoded, changed);
+		assertEquals(55, LayerDefinition.decode(new ByteArrayInputStream(changed)).getTileAt(1, 1));
+
+		layer.exposeRaw()[0] = 7;
+		assertEquals(7, LayerDefinition.decode(new ByteArrayInputStream(layer.encode())).getTileAt(0, 0));
+
+		layer.setName("renamed");
+		assertEquals("renamed", LayerDefinition.decode(new ByteArrayInputStream(layer.encode())).getName());
+	}
+
 }
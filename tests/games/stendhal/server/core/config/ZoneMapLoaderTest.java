@@ -0,0 +1,92 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.config;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import games.stendhal.common.tiled.LayerDefinition;
+import games.stendhal.common.tiled.StendhalMapStructure;
+import games.stendhal.server.core.config.zone.TMXLoader;
+import games.stendhal.server.core.engine.StendhalRPWorld;
+import games.stendhal.server.maps.MockStendlRPWorld;
+
+/**
+ * Tests for ZoneMapLoader.
+ */
+public class ZoneMapLoaderTest {
+	private static final String[] LAYERS = { "0_floor", "collision" };
+
+	@BeforeClass
+	public static void setUpBeforeClass() {
+		MockStendlRPWorld.get();
+	}
+
+	/**
+	 * Tests that the maps read on a pool are the same as the ones read
+	 * directly, and that the requested layers are encoded already.
+	 *
+	 * @throws Exception if reading a map fails
+	 */
+	@Test
+	public void testPool() throws Exception {
+		final List<ZonesXMLLoader.ZoneDesc> zones = new ZonesXMLLoader(new URI("testsemos.xml")).readZones();
+		assertTrue(zones.size() > 20);
+
+		for (final int threads : new int[] { 0, 3 }) {
+			final ZoneMapLoader maps = new ZoneMapLoader(threads, null);
+			try {
+				final List<Future<StendhalMapStructure>> pending = new ArrayList<Future<StendhalMapStructure>>();
+				for (final ZonesXMLLoader.ZoneDesc zone : zones) {
+					pending.add(maps.submit(zone.getFile(), LAYERS));
+				}
+				for (int i = 0; i < zones.size(); i++) {
+					final StendhalMapStructure map = maps.get(pending.get(i));
+					final StendhalMapStructure expected = TMXLoader.load(StendhalRPWorld.MAPS_FOLDER
+							+ zones.get(i).getFile());
+					assertEquals(expected.getLayers().size(), map.getLayers().size());
+					for (final LayerDefinition layer : expected.getLayers()) {
+						assertArrayEquals(layer.encode(), map.getLayer(layer.getName()).encode());
+					}
+				}
+			} finally {
+				maps.shutdown();
+			}
+		}
+	}
+
+	/**
+	 * Tests that an error while reading a map is passed to the caller.
+	 */
+	@Test
+	public void testMissingMap() {
+		final ZoneMapLoader maps = new ZoneMapLoader(2, null);
+		try {
+			maps.get(maps.submit("no such map.tmx", LAYERS));
+			fail("map read");
+		} catch (final Exception e) {
+			// expected
+		} finally {
+			maps.shutdown();
+		}
+	}
+}
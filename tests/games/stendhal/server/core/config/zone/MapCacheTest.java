@@ -0,0 +1,167 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.config.zone;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import games.stendhal.common.tiled.LayerDefinition;
+import games.stendhal.common.tiled.StendhalMapStructure;
+import games.stendhal.common.tiled.TileSetDefinition;
+
+/**
+ * Tests for MapCache.
+ */
+public class MapCacheTest {
+	private static final String MAP = "tiled/Level 0/semos/village_w.tmx";
+
+	private File folder;
+
+	private MapCache cache;
+
+	@Before
+	public void setUp() throws IOException {
+		folder = Files.createTempDirectory("mapcache").toFile();
+		cache = new MapCache(new File(folder, "cache"));
+	}
+
+	@After
+	public void tearDown() {
+		delete(folder);
+	}
+
+	/**
+	 * Tests that a cached map is the same as the one read from the map file.
+	 *
+	 * @throws Exception if reading the map fails
+	 */
+	@Test
+	public void testCachedMap() throws Exception {
+		final StendhalMapStructure expected = TMXLoader.load(MAP);
+		assertSameMap(expected, cache.load(MAP));
+		assertEquals(0, cache.getHits());
+		assertEquals(1, cache.getMisses());
+		assertTrue(cache.getCacheFile(MAP).isFile());
+
+		final StendhalMapStructure cached = cache.load(MAP);
+		assertEquals(1, cache.getHits());
+		assertSameMap(expected, cached);
+		// the layers are not encoded again
+		final LayerDefinition floor = cached.getLayer("0_floor");
+		assertTrue(floor.encode() == floor.encode());
+	}
+
+	/**
+	 * Tests that the cache is updated when the map file changes.
+	 *
+	 * @throws Exception if reading the map fails
+	 */
+	@Test
+	public void testChangedMap() throws Exception {
+		final File map = new File(folder, "map.tmx");
+		Files.copy(new File(MAP).toPath(), map.toPath());
+		final String filename = map.getPath();
+		cache.load(filename);
+		cache.load(filename);
+		assertEquals(1, cache.getHits());
+
+		try (FileOutputStream out = new FileOutputStream(map, true)) {
+			out.write("<!-- changed -->\n".getBytes(StandardCharsets.UTF_8));
+		}
+		cache.load(filename);
+		assertEquals(2, cache.getMisses());
+		cache.load(filename);
+		assertEquals(2, cache.getHits());
+	}
+
+	/**
+	 * Tests that a broken cache file is replaced.
+	 *
+	 * @throws Exception if reading the map fails
+	 */
+	@Test
+	public void testBrokenCache() throws Exception {
+		cache.load(MAP);
+		try (RandomAccessFile file = new RandomAccessFile(cache.getCacheFile(MAP), "rw")) {
+			file.setLength(file.length() / 2);
+		}
+
+		assertSameMap(TMXLoader.load(MAP), cache.load(MAP));
+		assertEquals(2, cache.getMisses());
+		assertSameMap(TMXLoader.load(MAP), cache.load(MAP));
+		assertEquals(1, cache.getHits());
+	}
+
+	/**
+	 * Tests a map with layers too large for the network code to decode.
+	 *
+	 * @throws Exception if reading the map fails
+	 */
+	@Test
+	public void testLargeMap() throws Exception {
+		final String map = "tiled/Level 0/sikhw/placeholder.tmx";
+		cache.load(map);
+		assertSameMap(TMXLoader.load(map), cache.load(map));
+		assertEquals(1, cache.getHits());
+	}
+
+	private static void assertSameMap(final StendhalMapStructure expected, final StendhalMapStructure map)
+			throws IOException {
+		assertEquals(expected.getWidth(), map.getWidth());
+		assertEquals(expected.getHeight(), map.getHeight());
+		assertEquals(expected.getTilesets().size(), map.getTilesets().size());
+		for (int i = 0; i < expected.getTilesets().size(); i++) {
+			final TileSetDefinition set = expected.getTilesets().get(i);
+			assertEquals(set, map.getTilesets().get(i));
+		}
+		assertEquals(expected.getLayers().size(), map.getLayers().size());
+		for (int i = 0; i < expected.getLayers().size(); i++) {
+			final LayerDefinition layer = expected.getLayers().get(i);
+			assertEquals(layer.getName(), map.getLayers().get(i).getName());
+			assertArrayEquals(layer.exposeRaw(), map.getLayers().get(i).exposeRaw());
+			assertArrayEquals(layer.encode(), map.getLayers().get(i).encode());
+		}
+		// the tilesets are found through the map
+		final LayerDefinition objects = map.getLayer("objects");
+		objects.build();
+		for (int x = 0; x < objects.getWidth(); x++) {
+			for (int y = 0; y < objects.getHeight(); y++) {
+				final int tile = objects.getTileAt(x, y);
+				if (tile != 0) {
+					assertEquals(expected.getLayer("objects").getTilesetFor(tile), objects.getTilesetFor(tile));
+				}
+			}
+		}
+	}
+
+	private static void delete(final File file) {
+		final File[] children = file.listFiles();
+		if (children != null) {
+			for (final File child : children) {
+				delete(child);
+			}
+		}
+		file.delete();
+	}
+}
@@ -0,0 +1,135 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.geom.Rectangle2D;
+import java.util.Collections;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import games.stendhal.server.entity.Entity;
+import games.stendhal.server.entity.creature.Creature;
+import games.stendhal.server.entity.player.Player;
+import games.stendhal.server.maps.MockStendlRPWorld;
+import utilities.PlayerTestHelper;
+
+/**
+ * Tests for the spatial index used by StendhalRPZone.
+ */
+public class EntityGridTest {
+
+	@BeforeClass
+	public static void setUpBeforeClass() {
+		MockStendlRPWorld.get();
+	}
+
+	/**
+	 * Tests position queries after adding, moving and removing.
+	 */
+	@Test
+	public void testEntityAt() {
+		final StendhalRPZone zone = new StendhalRPZone("grid_test", 40, 40);
+		final Creature creature = new Creature();
+		creature.setPosition(3, 4);
+		zone.add(creature);
+
+		assertSame(creature, zone.getEntityAt(3.5, 4.5));
+		assertEquals(Collections.singletonList(creature), zone.getEntitiesAt(3, 4, Creature.class));
+		assertTrue(zone.getEntitiesAt(3, 4, Player.class).isEmpty());
+
+		// move into another cell
+		creature.setPosition(30, 31);
+		assertNull(zone.getEntityAt(3, 4));
+		assertSame(creature, zone.getEntityAt(30, 31));
+
+		// grow over a cell border
+		creature.setSize(3, 3);
+		assertSame(creature, zone.getEntityAt(32, 33));
+
+		zone.remove(creature);
+		assertNull(zone.getEntityAt(30, 31));
+	}
+
+	/**
+	 * Tests collision with other entities.
+	 */
+	@Test
+	public void testCollidesObjects() {
+		final StendhalRPZone zone = new StendhalRPZone("grid_test", 40, 40);
+		final Creature blocker = new Creature();
+		blocker.setSize(2, 2);
+		blocker.setPosition(7, 7);
+		zone.add(blocker);
+		final Creature walker = new Creature();
+		walker.setPosition(0, 0);
+		zone.add(walker);
+
+		assertTrue(zone.collidesObjects(walker, new Rectangle2D.Double(8, 8, 1, 1)));
+		assertTrue(zone.collidesObjects(walker, new Rectangle2D.Double(6, 6, 2, 2)));
+		assertFalse(zone.collidesObjects(walker, new Rectangle2D.Double(9, 9, 1, 1)));
+		assertFalse("ignores itself", zone.collidesObjects(walker, new Rectangle2D.Double(0, 0, 1, 1)));
+		assertTrue(zone.collides(walker, 8, 7));
+		assertFalse(zone.collides(walker, 9, 7));
+	}
+
+	/**
+	 * Tests entities outside of the zone size.
+	 */
+	@Test
+	public void testOutsideZone() {
+		final StendhalRPZone zone = new StendhalRPZone("grid_test");
+		final Entity creature = new Creature();
+		creature.setPosition(5, 5);
+		zone.add(creature);
+		assertSame(creature, zone.getEntityAt(5, 5));
+		assertTrue(zone.collidesObjects(new Creature(), new Rectangle2D.Double(5, 5, 1, 1)));
+
+		// the zone gets its size after the entity was added
+		zone.collisionMap.init(10, 10);
+		assertSame(creature, zone.getEntityAt(5, 5));
+		creature.setPosition(12, 12);
+		assertSame(creature, zone.getEntityAt(12, 12));
+		assertNull(zone.getEntityAt(5, 5));
+	}
+
+	/**
+	 * Tests the counters used by the containsX methods.
+	 */
+	@Test
+	public void testContains() {
+		final StendhalRPZone zone = new StendhalRPZone("grid_test", 10, 10);
+		assertFalse(zone.containsPlayer());
+		assertFalse(zone.containsCreature());
+
+		final Creature creature = new Creature();
+		zone.add(creature);
+		assertTrue(zone.containsCreature());
+		assertFalse(zone.containsPlayer());
+
+		final Player player = PlayerTestHelper.createPlayer("grid");
+		zone.add(player);
+		assertTrue(zone.containsPlayer());
+
+		zone.remove(creature);
+		zone.remove(player);
+		assertFalse(zone.containsCreature());
+		assertFalse(zone.containsPlayer());
+		assertFalse(zone.containsAnimal());
+	}
+}
@@ -0,0 +1,162 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import games.stendhal.server.core.engine.db.StendhalItemDAO;
+import games.stendhal.server.core.engine.dbcommand.AbstractLogItemEventCommand;
+import games.stendhal.server.core.engine.dbcommand.LogItemEventBatchCommand;
+import games.stendhal.server.core.engine.dbcommand.LogMergeItemEventCommand;
+import games.stendhal.server.core.engine.dbcommand.LogSimpleItemEventCommand;
+import games.stendhal.server.core.events.TurnNotifier;
+import games.stendhal.server.entity.player.Player;
+import marauroa.common.Log4J;
+import marauroa.common.game.RPObject;
+import marauroa.server.db.DBTransaction;
+import marauroa.server.db.TransactionPool;
+import marauroa.server.game.db.DatabaseFactory;
+import utilities.PlayerTestHelper;
+
+/**
+ * Tests for batching the item log.
+ */
+public class ItemLogBatcherTest {
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		Log4J.init();
+		new DatabaseFactory().initializeDatabase();
+		PlayerTestHelper.generatePlayerRPClasses();
+	}
+
+	private static RPObject createItem(final String name, final int quantity) {
+		final RPObject item = new RPObject();
+		item.put("name", name);
+		item.put("quantity", quantity);
+		return item;
+	}
+
+	/**
+	 * Tests that batches are handed on when full or after a few turns.
+	 */
+	@Test
+	public void testBatching() {
+		final List<LogItemEventBatchCommand> batches = new ArrayList<LogItemEventBatchCommand>();
+		final ItemLogBatcher batcher = new ItemLogBatcher(batches::add);
+		final int outstanding = LogItemEventBatchCommand.getOutstandingEvents();
+		try {
+			for (int i = 0; i < ItemLogBatcher.BATCH_SIZE; i++) {
+				assertTrue(batches.isEmpty());
+				batcher.add(new LogSimpleItemEventCommand(createItem("cheese", 1), null, "create", "", "", "", ""));
+			}
+			assertEquals("full batch", 1, batches.size());
+			assertEquals(0, batcher.getPendingEvents());
+			assertEquals(outstanding + ItemLogBatcher.BATCH_SIZE, LogItemEventBatchCommand.getOutstandingEvents());
+
+			batcher.onTurnReached(0);
+			assertEquals("nothing to flush", 1, batches.size());
+
+			batcher.add(new LogSimpleItemEventCommand(createItem("cheese", 1), null, "create", "", "", "", ""));
+			assertEquals(1, batcher.getPendingEvents());
+			assertTrue("scheduled", TurnNotifier.get().getRemainingTurns(batcher) > 0);
+			batcher.onTurnReached(0);
+			assertEquals("partial batch after some turns", 2, batches.size());
+			assertEquals(0, batcher.getPendingEvents());
+		} finally {
+			TurnNotifier.get().dontNotify(batcher);
+		}
+	}
+
+	/**
+	 * Tests writing a batch to the database.
+	 *
+	 * @throws SQLException in case of a database error
+	 */
+	@Test
+	public void testWrite() throws SQLException {
+		final Player player = PlayerTestHelper.createPlayer("itemlogbatcher");
+		final RPObject created = createItem("batched cheese", 5);
+		final RPObject unknown = createItem("batched cheese", 1);
+		final RPObject other = createItem("batched cheese", 2);
+
+		final List<AbstractLogItemEventCommand> commands = new ArrayList<AbstractLogItemEventCommand>();
+		commands.add(new LogSimpleItemEventCommand(created, player, "create", "cheese", "5", "ground", "1 2"));
+		commands.add(new LogSimpleItemEventCommand(unknown, player, "destroy", "cheese", "1", "quest", null));
+		commands.add(new LogMergeItemEventCommand(player, other, created));
+		commands.add(new LogSimpleItemEventCommand(created, player, "destroy", "cheese", "7", "quest", null));
+		final Timestamp timestamp = new Timestamp(System.currentTimeMillis());
+		for (final AbstractLogItemEventCommand command : commands) {
+			command.setEnqueueTime(timestamp);
+		}
+
+		final DBTransaction transaction = TransactionPool.get().beginWork();
+		try {
+			new LogItemEventBatchCommand(commands).execute(transaction);
+
+			assertTrue(created.has(StendhalItemDAO.ATTR_ITEM_LOGID));
+			assertTrue(other.has(StendhalItemDAO.ATTR_ITEM_LOGID));
+			assertFalse("destruction of unknown items is not logged", unknown.has(StendhalItemDAO.ATTR_ITEM_LOGID));
+			final int createdId = created.getInt(StendhalItemDAO.ATTR_ITEM_LOGID);
+			final int otherId = other.getInt(StendhalItemDAO.ATTR_ITEM_LOGID);
+			assertNotEquals(createdId, otherId);
+
+			assertEquals("register batched cheese 5 null null, create cheese 5 ground 1 2, merged in "
+					+ otherId + " 5 2 7, destroy cheese 7 quest ", readLog(transaction, createdId));
+			assertEquals("register batched cheese 2 null null, merge in " + createdId + " 2 5 7",
+					readLog(transaction, otherId));
+			assertEquals("itemlogbatcher", readSource(transaction, createdId));
+		} finally {
+			TransactionPool.get().rollback(transaction);
+		}
+	}
+
+	private static String readLog(final DBTransaction transaction, final int itemid) throws SQLException {
+		final Map<String, Object> params = new HashMap<String, Object>();
+		params.put("itemid", itemid);
+		final ResultSet resultSet = transaction.query("SELECT event, param1, param2, param3, param4 FROM itemlog "
+				+ "WHERE itemid=[itemid] ORDER BY id", params);
+		final List<String> res = new ArrayList<String>();
+		while (resultSet.next()) {
+			res.add(resultSet.getString(1) + " " + resultSet.getString(2) + " " + resultSet.getString(3)
+					+ " " + resultSet.getString(4) + " " + resultSet.getString(5));
+		}
+		resultSet.close();
+		return String.join(", ", res);
+	}
+
+	private static String readSource(final DBTransaction transaction, final int itemid) throws SQLException {
+		final Map<String, Object> params = new HashMap<String, Object>();
+		params.put("itemid", itemid);
+		final ResultSet resultSet = transaction.query("SELECT source FROM itemlog WHERE itemid=[itemid] AND event='create'", params);
+		try {
+			resultSet.next();
+			return resultSet.getString(1);
+		} finally {
+			resultSet.close();
+		}
+	}
+}
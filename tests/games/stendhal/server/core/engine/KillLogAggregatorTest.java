@@ -0,0 +1,138 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import games.stendhal.server.core.engine.db.KillLogBatch;
+import games.stendhal.server.core.engine.dbcommand.LogKillBatchCommand;
+import games.stendhal.server.core.events.TurnNotifier;
+import marauroa.common.Log4J;
+import marauroa.server.db.DBTransaction;
+import marauroa.server.db.TransactionPool;
+import marauroa.server.game.Statistics;
+import marauroa.server.game.db.DatabaseFactory;
+
+/**
+ * Tests for aggregating the kill log.
+ */
+public class KillLogAggregatorTest {
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		Log4J.init();
+		new DatabaseFactory().initializeDatabase();
+	}
+
+	/**
+	 * Tests that kills are summed up and handed on after some turns, or when
+	 * a batch changes many rows.
+	 */
+	@Test
+	public void testAggregation() {
+		final List<LogKillBatchCommand> batches = new ArrayList<LogKillBatchCommand>();
+		final KillLogAggregator aggregator = new KillLogAggregator(batches::add);
+		final int outstanding = LogKillBatchCommand.getOutstandingKills();
+		try {
+			for (int i = 0; i < 50; i++) {
+				aggregator.add("rat", "C", "bob", "P");
+				aggregator.add("bob", "P", "rat", "C");
+			}
+			aggregator.add("rat", "C", "alice", "P");
+			assertTrue(batches.isEmpty());
+			assertEquals(101, aggregator.getPendingKills());
+			assertTrue("scheduled", TurnNotifier.get().getRemainingTurns(aggregator) > 0);
+
+			aggregator.onTurnReached(0);
+			assertEquals(1, batches.size());
+			assertEquals(0, aggregator.getPendingKills());
+			assertEquals(outstanding + 101, LogKillBatchCommand.getOutstandingKills());
+			assertTrue(batches.get(0).toString().contains("kills=101, rows=3"));
+
+			aggregator.onTurnReached(0);
+			assertEquals("nothing to flush", 1, batches.size());
+
+			for (int i = 0; i < KillLogAggregator.MAX_ROWS; i++) {
+				aggregator.add("rat", "C", "player" + i, "P");
+			}
+			assertEquals("many rows", 2, batches.size());
+		} finally {
+			TurnNotifier.get().dontNotify(aggregator);
+		}
+	}
+
+	/**
+	 * Tests adding the counts of a batch to the kills table.
+	 *
+	 * @throws SQLException in case of a database error
+	 */
+	@Test
+	public void testWrite() throws SQLException {
+		final DBTransaction transaction = TransactionPool.get().beginWork();
+		try {
+			final KillLogBatch first = new KillLogBatch();
+			first.add("killlog rat", "C", "killlog bob", "P", "2026-01-01");
+			new LogKillBatchCommand(first).execute(transaction);
+			assertEquals(1, readCount(transaction, "killlog rat", "killlog bob", "2026-01-01"));
+
+			final KillLogBatch second = new KillLogBatch();
+			for (int i = 0; i < 5; i++) {
+				second.add("killlog rat", "C", "killlog bob", "P", "2026-01-01");
+			}
+			second.add("killlog rat", "C", "killlog bob", "P", "2026-01-02");
+			second.add("killlog bob", "P", "killlog rat", "C", "2026-01-01");
+			second.add("killlog bob", "P", "killlog rat", "C", "2026-01-01");
+			assertEquals(8, second.getKills());
+			assertEquals(3, second.getRows());
+			new LogKillBatchCommand(second).execute(transaction);
+			assertEquals(3, LogKillBatchCommand.getLastRows());
+			// the statistics describe the batch just written
+			assertEquals(3, Statistics.getStatistics().get("Kill log flush rows"));
+			assertEquals(LogKillBatchCommand.getOutstandingKills(), Statistics.getStatistics().get("Kill log queue"));
+
+			assertEquals("existing row", 6, readCount(transaction, "killlog rat", "killlog bob", "2026-01-01"));
+			assertEquals("next day", 1, readCount(transaction, "killlog rat", "killlog bob", "2026-01-02"));
+			assertEquals("other killer", 2, readCount(transaction, "killlog bob", "killlog rat", "2026-01-01"));
+		} finally {
+			TransactionPool.get().rollback(transaction);
+		}
+	}
+
+	private static int readCount(final DBTransaction transaction, final String killed, final String killer,
+			final String day) throws SQLException {
+		final Map<String, Object> params = new HashMap<String, Object>();
+		params.put("killed", killed);
+		params.put("killer", killer);
+		params.put("day", day);
+		final ResultSet resultSet = transaction.query("SELECT cnt FROM kills WHERE killed='[killed]'"
+				+ " AND killer='[killer]' AND day='[day]'", params);
+		try {
+			assertTrue("row exists", resultSet.next());
+			final int res = resultSet.getInt(1);
+			assertTrue("single row", !resultSet.next());
+			return res;
+		} finally {
+			resultSet.close();
+		}
+	}
+}
@@ -16,6 +16,7 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
@@ -26,6 +27,7 @@ import org.junit.Test;
 
 import games.stendhal.common.filter.FilterCriteria;
 import games.stendhal.server.entity.player.Player;
+import games.stendhal.server.maps.MockStendhalRPRuleProcessor;
 import games.stendhal.server.maps.MockStendlRPWorld;
 import utilities.PlayerTestHelper;
 
@@ -142,4 +144,40 @@ public class PlayerListTest {
 		assertSame(jack, list.getOnlinePlayer("jAck"));
 	}
 
+	/**
+	 * Tests for the index of online players by their buddies.
+	 */
+	@Test
+	public void testBuddyIndex() {
+		final Player jack = PlayerTestHelper.createPlayer("jack");
+		final Player bob = PlayerTestHelper.createPlayer("bob");
+		jack.addBuddy("bob", false);
+		jack.addBuddy("ghost", false);
+
+		MockStendhalRPRuleProcessor.get().clearPlayers();
+		final PlayerList list = MockStendhalRPRuleProcessor.get().getOnlinePlayers();
+		assertTrue(list.getPlayersWithBuddy("bob").isEmpty());
+		list.add(jack);
+		list.add(bob);
+		assertEquals(1, list.getPlayersWithBuddy("bob").size());
+		assertSame(jack, list.getPlayersWithBuddy("bob").get(0));
+		assertSame(jack, list.getPlayersWithBuddy("ghost").get(0));
+
+		// changes of online players
+		bob.addBuddy("jack", false);
+		assertSame(bob, list.getPlayersWithBuddy("jack").get(0));
+		jack.removeBuddy("ghost");
+		assertTrue(list.getPlayersWithBuddy("ghost").isEmpty());
+
+		MockStendhalRPRuleProcessor.get().notifyOnlineStatus(true, bob);
+		assertEquals("true", jack.getMap("buddies").get("bob"));
+		assertFalse(Boolean.parseBoolean(bob.getMap("buddies").get("jack")));
+
+		list.remove(jack);
+		assertTrue(list.getPlayersWithBuddy("bob").isEmpty());
+		// not online any more
+		jack.addBuddy("ghost", false);
+		assertTrue(list.getPlayersWithBuddy("ghost").isEmpty());
+		MockStendhalRPRuleProcessor.get().clearPlayers();
+	}
 }
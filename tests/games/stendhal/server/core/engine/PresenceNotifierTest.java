@@ -0,0 +1,193 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import games.stendhal.common.constants.Events;
+import games.stendhal.server.entity.player.Player;
+import games.stendhal.server.maps.MockStendlRPWorld;
+import marauroa.common.game.RPEvent;
+import utilities.PlayerTestHelper;
+
+/**
+ * Tests for PresenceNotifier.
+ */
+public class PresenceNotifierTest {
+	private static final int PLAYERS = 1000;
+	private static final int LOGINS_PER_TURN = 100;
+
+	/** Lists of online players as the clients see them. */
+	private final Map<Player, Set<String>> clientLists = new HashMap<Player, Set<String>>();
+	/** Number of events each client received in the last turn. */
+	private final Map<Player, Integer> received = new HashMap<Player, Integer>();
+
+	@BeforeClass
+	public static void setUpBeforeClass() {
+		MockStendlRPWorld.get();
+	}
+
+	@AfterClass
+	public static void tearDownAfterClass() {
+		MockStendlRPWorld.reset();
+	}
+
+	/**
+	 * Lets 1000 players log in within 10 turns, and some of them log out
+	 * again. Current clients get one event per turn at most, older ones an
+	 * event per name, and all of them end up with the same list as with
+	 * separate events.
+	 */
+	@Test
+	public void testSimulatedLogins() {
+		final PlayerList online = new PlayerList();
+		final PresenceNotifier notifier = new PresenceNotifier();
+		final List<Player> players = new ArrayList<Player>();
+		for (int i = 0; i < PLAYERS; i++) {
+			final Player player = PlayerTestHelper.createPlayer("player" + i);
+			if (i % 50 == 7) {
+				player.setGhost(true);
+			}
+			players.add(player);
+		}
+
+		int turn = 0;
+		for (int i = 0; i < PLAYERS; i++) {
+			final Player player = players.get(i);
+			online.add(player);
+			notifier.onLoggedIn(player, turn);
+			clientLists.put(player, new TreeSet<String>());
+			if (i % LOGINS_PER_TURN == LOGINS_PER_TURN - 1) {
+				// the client versions arrive on the next turn, except for
+				// the clients that never tell it
+				flush(notifier, online, turn);
+				turn++;
+				setClientVersions(players.subList(i + 1 - LOGINS_PER_TURN, i + 1));
+			}
+		}
+		for (int i = 0; i < PresenceNotifier.VERSION_WAIT_TURNS; i++) {
+			flush(notifier, online, turn);
+			turn++;
+		}
+		checkLists(online);
+
+		// a crowd leaving, and a player coming back in the same turn
+		for (int i = 0; i < PLAYERS; i += 3) {
+			notifier.onLoggedOut(players.get(i));
+			online.remove(players.get(i));
+			clientLists.remove(players.get(i));
+		}
+		final Player back = PlayerTestHelper.createPlayer("player3");
+		back.setClientVersion("1.45");
+		online.add(back);
+		notifier.onLoggedIn(back, turn);
+		clientLists.put(back, new TreeSet<String>());
+		flush(notifier, online, turn);
+		turn++;
+		flush(notifier, online, turn);
+		checkLists(online);
+	}
+
+	/**
+	 * Tests that nothing is sent without changes.
+	 */
+	@Test
+	public void testNoChanges() {
+		final PlayerList online = new PlayerList();
+		final PresenceNotifier notifier = new PresenceNotifier();
+		final Player player = PlayerTestHelper.createPlayer("lonely");
+		player.setClientVersion("1.45");
+		online.add(player);
+		notifier.onLoggedIn(player, 0);
+		clientLists.put(player, new TreeSet<String>());
+		flush(notifier, online, 0);
+		assertEquals(Arrays.asList("lonely"), new ArrayList<String>(clientLists.get(player)));
+		flush(notifier, online, 1);
+		assertEquals(Integer.valueOf(0), received.get(player));
+	}
+
+	private static void setClientVersions(final List<Player> players) {
+		for (int i = 0; i < players.size(); i++) {
+			final Player player = players.get(i);
+			if (i % 3 == 0) {
+				player.setClientVersion("1.45");
+			} else if (i % 3 == 1) {
+				player.setClientVersion("1.40");
+			}
+		}
+	}
+
+	/**
+	 * Flushes the notifier, and applies the events to the client lists.
+	 */
+	private void flush(final PresenceNotifier notifier, final PlayerList online, final int turn) {
+		notifier.flush(online.getAllPlayers(), turn);
+		for (final Player player : online.getAllPlayers()) {
+			int count = 0;
+			final Set<String> list = clientLists.get(player);
+			final Iterator<RPEvent> it = player.eventsIterator();
+			while (it.hasNext()) {
+				final RPEvent event = it.next();
+				it.remove();
+				count++;
+				if (event.getName().equals(Events.PLAYER_LOGGED_ON)) {
+					list.add(event.get("name"));
+				} else if (event.getName().equals(Events.PLAYER_LOGGED_OUT)) {
+					list.remove(event.get("name"));
+				} else if (event.getName().equals(Events.PLAYER_PRESENCE)) {
+					if (event.has("left")) {
+						list.removeAll(Arrays.asList(event.get("left").split(",")));
+					}
+					if (event.has("joined")) {
+						list.addAll(Arrays.asList(event.get("joined").split(",")));
+					}
+				}
+			}
+			received.put(player, count);
+			if (player.isClientNewerThan(PresenceNotifier.COMPACT_EVENT_VERSION)) {
+				assertTrue("one event per turn at most", count <= 1);
+			}
+		}
+	}
+
+	/**
+	 * Checks that every player sees all players except for ghosts, and ghosts
+	 * see everyone.
+	 */
+	private void checkLists(final PlayerList online) {
+		final Set<String> visible = new TreeSet<String>();
+		final Set<String> all = new TreeSet<String>();
+		for (final Player player : online.getAllPlayers()) {
+			all.add(player.getName());
+			if (!player.isGhost()) {
+				visible.add(player.getName());
+			}
+		}
+		for (final Player player : online.getAllPlayers()) {
+			assertEquals(player.getName(), player.isGhost() ? all : visible, clientLists.get(player));
+		}
+	}
+}
@@ -0,0 +1,194 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.awt.Rectangle;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import games.stendhal.server.core.events.MovementListener;
+import games.stendhal.server.entity.ActiveEntity;
+import games.stendhal.server.entity.creature.Creature;
+import games.stendhal.server.entity.mapstuff.portal.Portal;
+import games.stendhal.server.maps.MockStendlRPWorld;
+
+/**
+ * Tests for the portal and movement listener index used by StendhalRPZone.
+ */
+public class TriggerGridTest {
+
+	@BeforeClass
+	public static void setUpBeforeClass() {
+		MockStendlRPWorld.get();
+	}
+
+	/**
+	 * A movement listener that records the events.
+	 */
+	private static class RecordingListener implements MovementListener {
+		private final Rectangle2D area;
+		private final List<String> events = new ArrayList<String>();
+
+		RecordingListener(final Rectangle2D area) {
+			this.area = area;
+		}
+
+		@Override
+		public Rectangle2D getArea() {
+			return area;
+		}
+
+		@Override
+		public void onEntered(final ActiveEntity entity, final StendhalRPZone zone, final int newX, final int newY) {
+			events.add("entered " + newX + "," + newY);
+		}
+
+		@Override
+		public void onExited(final ActiveEntity entity, final StendhalRPZone zone, final int oldX, final int oldY) {
+			events.add("exited " + oldX + "," + oldY);
+		}
+
+		@Override
+		public void beforeMove(final ActiveEntity entity, final StendhalRPZone zone, final int oldX, final int oldY,
+				final int newX, final int newY) {
+			events.add("before " + newX + "," + newY);
+		}
+
+		@Override
+		public void onMoved(final ActiveEntity entity, final StendhalRPZone zone, final int oldX, final int oldY,
+				final int newX, final int newY) {
+			events.add("moved " + newX + "," + newY);
+		}
+	}
+
+	/**
+	 * Tests portal lookups after adding, moving and removing.
+	 */
+	@Test
+	public void testPortal() {
+		final StendhalRPZone zone = new StendhalRPZone("trigger_test", 40, 40);
+		final Portal portal = new Portal();
+		portal.setPosition(3, 4);
+		zone.add(portal);
+		final Portal other = new Portal();
+		other.setPosition(3, 4);
+		zone.add(other);
+
+		assertSame("first added portal", portal, zone.getPortal(3, 4));
+		assertNull(zone.getPortal(4, 4));
+
+		portal.setPosition(30, 31);
+		assertSame(other, zone.getPortal(3, 4));
+		assertSame(portal, zone.getPortal(30, 31));
+
+		zone.remove(portal);
+		assertNull(zone.getPortal(30, 31));
+		assertNull("outside the zone", zone.getPortal(-1, 50));
+	}
+
+	/**
+	 * Tests the movement events of a listener covering several cells.
+	 */
+	@Test
+	public void testMovement() {
+		final StendhalRPZone zone = new StendhalRPZone("trigger_test", 40, 40);
+		final RecordingListener listener = new RecordingListener(new Rectangle(6, 6, 12, 3));
+		zone.addMovementListener(listener);
+		final Creature creature = new Creature();
+		creature.setPosition(5, 6);
+		zone.add(creature);
+
+		zone.notifyBeforeMovement(creature, 5, 6, 6, 6);
+		zone.notifyMovement(creature, 5, 6, 6, 6);
+		zone.notifyMovement(creature, 6, 6, 7, 7);
+		// across the cell border, within the area
+		zone.notifyMovement(creature, 7, 7, 8, 8);
+		zone.notifyMovement(creature, 8, 8, 8, 9);
+		zone.notifyMovement(creature, 20, 20, 21, 21);
+		zone.notifyEntered(creature, 17, 8);
+		zone.notifyExited(creature, 18, 8);
+		assertEquals("[before 6,6, entered 6,6, moved 7,7, moved 8,8, exited 8,8, entered 17,8]",
+				listener.events.toString());
+
+		// re-registering does not notify twice
+		zone.addMovementListener(listener);
+		listener.events.clear();
+		zone.notifyEntered(creature, 9, 7);
+		assertEquals("[entered 9,7]", listener.events.toString());
+
+		zone.removeMovementListener(listener);
+		listener.events.clear();
+		zone.notifyEntered(creature, 9, 7);
+		assertEquals(0, listener.events.size());
+	}
+
+	/**
+	 * Tests that the area of a listener entity follows the entity.
+	 */
+	@Test
+	public void testMovingListener() {
+		final StendhalRPZone zone = new StendhalRPZone("trigger_test", 40, 40);
+		final List<String> events = new ArrayList<String>();
+		final Creature sensor = new ListenerCreature(events);
+		sensor.setPosition(2, 2);
+		zone.add(sensor);
+		zone.addMovementListener((MovementListener) sensor);
+		final Creature walker = new Creature();
+		zone.add(walker);
+
+		zone.notifyEntered(walker, 2, 2);
+		assertEquals("[entered 2,2]", events.toString());
+		sensor.setPosition(30, 30);
+		events.clear();
+		zone.notifyEntered(walker, 2, 2);
+		zone.notifyEntered(walker, 30, 30);
+		assertEquals("[entered 30,30]", events.toString());
+	}
+
+	/**
+	 * A creature that is a movement listener for its own area.
+	 */
+	private static class ListenerCreature extends Creature implements MovementListener {
+		private final List<String> events;
+
+		ListenerCreature(final List<String> events) {
+			this.events = events;
+		}
+
+		@Override
+		public void onEntered(final ActiveEntity entity, final StendhalRPZone zone, final int newX, final int newY) {
+			events.add("entered " + newX + "," + newY);
+		}
+
+		@Override
+		public void onExited(final ActiveEntity entity, final StendhalRPZone zone, final int oldX, final int oldY) {
+		}
+
+		@Override
+		public void beforeMove(final ActiveEntity entity, final StendhalRPZone zone, final int oldX, final int oldY,
+				final int newX, final int newY) {
+		}
+
+		@Override
+		public void onMoved(final ActiveEntity entity, final StendhalRPZone zone, final int oldX, final int oldY,
+				final int newX, final int newY) {
+		}
+	}
+}
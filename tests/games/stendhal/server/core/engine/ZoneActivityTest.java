@@ -0,0 +1,150 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import games.stendhal.server.core.events.TurnNotifier;
+import games.stendhal.server.entity.creature.Creature;
+import games.stendhal.server.entity.npc.NPC;
+import games.stendhal.server.entity.player.Player;
+import games.stendhal.server.maps.MockStendlRPWorld;
+import utilities.PlayerTestHelper;
+
+/**
+ * Tests for zones falling asleep when no one is around.
+ */
+public class ZoneActivityTest {
+
+	@BeforeClass
+	public static void setUpBeforeClass() {
+		MockStendlRPWorld.get();
+	}
+
+	@After
+	public void tearDown() {
+		TurnNotifier.get().logic(0);
+	}
+
+	/**
+	 * An NPC that records its logic calls and catch-up ranges.
+	 */
+	private static class CountingNPC extends NPC {
+		int logicCalls;
+		final List<String> catchUps = new ArrayList<String>();
+
+		@Override
+		public void logic() {
+			logicCalls++;
+		}
+
+		@Override
+		public void catchUp(final int fromTurn, final int toTurn) {
+			catchUps.add(fromTurn + "-" + toTurn);
+		}
+	}
+
+	private static void runTurns(final StendhalRPZone zone, final int from, final int to) {
+		for (int turn = from; turn <= to; turn++) {
+			TurnNotifier.get().logic(turn);
+			zone.logic();
+		}
+	}
+
+	/**
+	 * Tests cooling down, catching up and waking up.
+	 */
+	@Test
+	public void testStates() {
+		final StendhalRPZone zone = new StendhalRPZone("zone_activity_test", 10, 10);
+		final CountingNPC npc = new CountingNPC();
+		zone.add(npc);
+
+		runTurns(zone, 1, ZoneActivity.COOLING_TURNS);
+		assertFalse("still cooling", zone.isDormant());
+		assertEquals(ZoneActivity.COOLING_TURNS, npc.logicCalls);
+
+		runTurns(zone, 101, 150);
+		assertTrue(zone.isDormant());
+		assertEquals(1, zone.getSkippedEntityCount());
+		assertEquals(ZoneActivity.COOLING_TURNS, npc.logicCalls);
+		assertEquals("[101-150]", npc.catchUps.toString());
+
+		TurnNotifier.get().logic(170);
+		final Player player = PlayerTestHelper.createPlayer("zone_activity_player");
+		zone.add(player);
+		assertFalse("woken by the player", zone.isDormant());
+		assertEquals("[101-150, 151-169]", npc.catchUps.toString());
+
+		zone.logic();
+		assertEquals(ZoneActivity.COOLING_TURNS + 1, npc.logicCalls);
+		assertEquals(0, zone.getSkippedEntityCount());
+
+		zone.remove(player);
+		runTurns(zone, 171, 320);
+		assertTrue(zone.isDormant());
+		assertEquals(ZoneActivity.COOLING_TURNS + 101, npc.logicCalls);
+		assertEquals("[101-150, 151-169, 271-320]", npc.catchUps.toString());
+	}
+
+	/**
+	 * Tests that a player entering before the turn notifier moves on to the
+	 * next turn wakes the zone with the last skipped turn caught up.
+	 */
+	@Test
+	public void testWakeBeforeTurn() {
+		final StendhalRPZone zone = new StendhalRPZone("zone_activity_wake_test", 10, 10);
+		final CountingNPC npc = new CountingNPC();
+		zone.add(npc);
+
+		runTurns(zone, 1, ZoneActivity.COOLING_TURNS + 60);
+		assertTrue(zone.isDormant());
+
+		// the player arrives in the next turn, before its turn notifier logic
+		final Player player = PlayerTestHelper.createPlayer("zone_activity_early_player");
+		zone.add(player);
+		assertFalse(zone.isDormant());
+		final String last = npc.catchUps.get(npc.catchUps.size() - 1);
+		assertTrue(last, last.endsWith("-" + (ZoneActivity.COOLING_TURNS + 60)));
+		zone.remove(player);
+	}
+
+	/**
+	 * Tests that creatures heal as much in a dormant zone as they would in an
+	 * active one.
+	 */
+	@Test
+	public void testCreatureHealing() {
+		final Creature creature = new Creature();
+		creature.setBaseHP(1000);
+		creature.setHP(100);
+		creature.setHealer("5,10");
+
+		creature.catchUp(1, 9);
+		assertEquals(100, creature.getHP());
+		creature.catchUp(10, 10);
+		assertEquals(105, creature.getHP());
+		creature.catchUp(11, 50);
+		assertEquals(125, creature.getHP());
+		creature.catchUp(51, 10000);
+		assertEquals(1000, creature.getHP());
+	}
+}
@@ -0,0 +1,188 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import games.stendhal.server.core.pathfinder.Path;
+import games.stendhal.server.entity.Entity;
+import games.stendhal.server.entity.creature.Creature;
+import games.stendhal.server.entity.mapstuff.area.Wall;
+import games.stendhal.server.maps.MockStendlRPWorld;
+
+/**
+ * Tests for the connected components used to reject hopeless path searches.
+ */
+public class ZoneConnectivityTest {
+
+	@BeforeClass
+	public static void setUpBeforeClass() {
+		MockStendlRPWorld.get();
+	}
+
+	/**
+	 * Creates a zone split by a vertical wall with a gap at y = 5.
+	 *
+	 * @return zone
+	 */
+	private static StendhalRPZone createSplitZone() {
+		final StendhalRPZone zone = new StendhalRPZone("connectivity_test", 20, 10);
+		for (int y = 0; y < 10; y++) {
+			if (y != 5) {
+				zone.collisionMap.setCollide(10, y);
+			}
+		}
+		return zone;
+	}
+
+	/**
+	 * Tests components of the collision map.
+	 */
+	@Test
+	public void testCollisionMap() {
+		final StendhalRPZone zone = createSplitZone();
+		assertFalse(zone.isUnreachable(2, 2, new Rectangle(17, 2, 1, 1)));
+
+		zone.collisionMap.setCollide(10, 5);
+		assertTrue(zone.isUnreachable(2, 2, new Rectangle(17, 2, 1, 1)));
+		assertFalse(zone.isUnreachable(2, 2, new Rectangle(5, 8, 1, 1)));
+		assertTrue("blocked destination", zone.isUnreachable(2, 2, new Rectangle(10, 2, 1, 1)));
+		assertFalse("any tile of the destination", zone.isUnreachable(2, 2, new Rectangle(9, 2, 3, 1)));
+		assertFalse("start is not checked", zone.isUnreachable(10, 2, new Rectangle(17, 2, 1, 1)));
+		assertTrue(Path.searchPath(zone, 2, 2, 17, 2, 100).isEmpty());
+	}
+
+	/**
+	 * Tests closing and opening a gap with an obstacle entity.
+	 */
+	@Test
+	public void testObstacles() {
+		final StendhalRPZone zone = createSplitZone();
+		final Creature creature = new Creature();
+		final Rectangle destination = new Rectangle(17, 2, 1, 1);
+
+		final Wall wall = new Wall(1, 2);
+		wall.setPosition(10, 4);
+		zone.add(wall);
+		assertTrue(zone.isUnreachable(creature, 2, 2, destination));
+		assertFalse("collision map only", zone.isUnreachable(2, 2, destination));
+		assertTrue(Path.searchPath(creature, zone, 2, 2, destination, 100, true).isEmpty());
+		assertFalse(Path.searchPath(creature, zone, 2, 2, destination, 100, false).isEmpty());
+
+		creature.setResistance(0);
+		assertFalse("passes through obstacles", zone.isUnreachable(creature, 2, 2, destination));
+		creature.setResistance(100);
+
+		wall.setPosition(10, 6);
+		assertFalse(zone.isUnreachable(creature, 2, 2, destination));
+		wall.setPosition(10, 5);
+		assertTrue(zone.isUnreachable(creature, 2, 2, destination));
+		wall.setResistance(0);
+		assertFalse(zone.isUnreachable(creature, 2, 2, destination));
+		wall.setResistance(100);
+		assertTrue(zone.isUnreachable(creature, 2, 2, destination));
+
+		zone.remove(wall);
+		assertFalse(zone.isUnreachable(creature, 2, 2, destination));
+		assertFalse(Path.searchPath(creature, zone, 2, 2, destination, 100, true).isEmpty());
+	}
+
+	/**
+	 * Compares the components with a flood fill after random obstacle
+	 * changes.
+	 */
+	@Test
+	public void testRandomChanges() {
+		final Random random = new Random(5);
+		final int size = 24;
+		final StendhalRPZone zone = new StendhalRPZone("connectivity_test", size, size);
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				if (random.nextInt(3) == 0) {
+					zone.collisionMap.setCollide(x, y);
+				}
+			}
+		}
+		final Creature creature = new Creature();
+		final List<Entity> obstacles = new ArrayList<Entity>();
+		for (int i = 0; i < 500; i++) {
+			final int change = random.nextInt(3);
+			if (change == 0 || obstacles.isEmpty()) {
+				final Entity obstacle = new Wall(1 + random.nextInt(2), 1);
+				obstacle.setPosition(random.nextInt(size), random.nextInt(size));
+				zone.add(obstacle);
+				obstacles.add(obstacle);
+			} else if (change == 1) {
+				zone.remove(obstacles.remove(random.nextInt(obstacles.size())));
+			} else {
+				obstacles.get(random.nextInt(obstacles.size())).setPosition(random.nextInt(size), random.nextInt(size));
+			}
+
+			final boolean[] blocked = new boolean[size * size];
+			for (int x = 0; x < size; x++) {
+				for (int y = 0; y < size; y++) {
+					blocked[x + y * size] = zone.collisionMap.collides(x, y);
+				}
+			}
+			for (final Entity obstacle : obstacles) {
+				for (int x = obstacle.getX(); x < Math.min(size, obstacle.getX() + obstacle.getWidth()); x++) {
+					blocked[x + obstacle.getY() * size] = true;
+				}
+			}
+
+			final int startX = random.nextInt(size);
+			final int startY = random.nextInt(size);
+			if (blocked[startX + startY * size]) {
+				continue;
+			}
+			final boolean[] reached = fill(blocked, size, startX + startY * size);
+			for (int j = 0; j < 20; j++) {
+				final int x = random.nextInt(size);
+				final int y = random.nextInt(size);
+				assertEquals(!reached[x + y * size], zone.isUnreachable(creature, startX, startY, new Rectangle(x, y, 1, 1)));
+			}
+		}
+	}
+
+	private static boolean[] fill(final boolean[] blocked, final int size, final int start) {
+		final boolean[] reached = new boolean[size * size];
+		final int[] queue = new int[size * size];
+		int head = 0;
+		int tail = 0;
+		reached[start] = true;
+		queue[tail++] = start;
+		while (head < tail) {
+			final int tile = queue[head++];
+			final int x = tile % size;
+			final int y = tile / size;
+			final int[] neighbours = { x > 0 ? tile - 1 : -1, x < size - 1 ? tile + 1 : -1,
+					y > 0 ? tile - size : -1, y < size - 1 ? tile + size : -1 };
+			for (final int neighbour : neighbours) {
+				if (neighbour >= 0 && !blocked[neighbour] && !reached[neighbour]) {
+					reached[neighbour] = true;
+					queue[tail++] = neighbour;
+				}
+			}
+		}
+		return reached;
+	}
+}
@@ -0,0 +1,165 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import games.stendhal.server.core.events.TurnListener;
+import games.stendhal.server.core.events.TurnNotifier;
+import games.stendhal.server.core.rp.StendhalRPAction;
+import games.stendhal.server.entity.npc.NPC;
+import games.stendhal.server.maps.MockStendlRPWorld;
+import marauroa.common.game.IRPZone;
+
+/**
+ * Tests for running zone logic serially and in parallel.
+ */
+public class ZoneLogicRunnerTest {
+
+	@BeforeClass
+	public static void setUpBeforeClass() {
+		MockStendlRPWorld.get();
+	}
+
+	@AfterClass
+	public static void tearDownAfterClass() {
+		MockStendlRPWorld.reset();
+	}
+
+	/**
+	 * An NPC that runs some code as its logic.
+	 */
+	private static class ScriptedNPC extends NPC {
+		private final Runnable script;
+
+		ScriptedNPC(final Runnable script) {
+			this.script = script;
+		}
+
+		@Override
+		public void logic() {
+			script.run();
+		}
+	}
+
+	/**
+	 * Creates zones whose NPCs defer an effect that records their zone.
+	 *
+	 * @param count number of zones
+	 * @param applied list the effects add the zone numbers to
+	 * @param deferred list of the results of defer()
+	 * @return zones
+	 */
+	private static List<IRPZone> createZones(final int count, final List<Integer> applied, final List<Boolean> deferred) {
+		final List<IRPZone> zones = new ArrayList<IRPZone>();
+		for (int i = 0; i < count; i++) {
+			final StendhalRPZone zone = new StendhalRPZone("zone_logic_test_" + i, 10, 10);
+			final int number = i;
+			zone.add(new ScriptedNPC(() -> deferred.add(ZoneLogicRunner.defer(() -> applied.add(number)))));
+			zones.add(zone);
+		}
+		return zones;
+	}
+
+	/**
+	 * Tests that effects are applied right away when running serially.
+	 */
+	@Test
+	public void testSerial() {
+		final List<Integer> applied = new ArrayList<Integer>();
+		final List<Boolean> deferred = new ArrayList<Boolean>();
+		final ZoneLogicRunner runner = new ZoneLogicRunner(0);
+		assertFalse(runner.isParallel());
+		runner.logic(createZones(5, applied, deferred));
+
+		assertEquals(Collections.nCopies(5, Boolean.FALSE), deferred);
+		assertTrue(applied.isEmpty());
+		assertEquals(5, runner.getTimings().size());
+	}
+
+	/**
+	 * Tests that deferred effects are applied in the order of the zones.
+	 */
+	@Test
+	public void testEffectsInZoneOrder() {
+		final List<Integer> applied = new ArrayList<Integer>();
+		final List<Boolean> deferred = Collections.synchronizedList(new ArrayList<Boolean>());
+		final ZoneLogicRunner runner = new ZoneLogicRunner(4);
+		assertTrue(runner.isParallel());
+		final List<IRPZone> zones = createZones(40, applied, deferred);
+		for (int turn = 0; turn < 3; turn++) {
+			applied.clear();
+			runner.logic(zones);
+			final List<Integer> expected = new ArrayList<Integer>();
+			for (int i = 0; i < zones.size(); i++) {
+				expected.add(i);
+			}
+			assertEquals(expected, applied);
+		}
+		assertEquals(Collections.nCopies(120, Boolean.TRUE), deferred);
+		assertFalse("not deferred outside of zone logic", ZoneLogicRunner.defer(() -> applied.add(-1)));
+	}
+
+	/**
+	 * Tests moving an entity to another zone and turn notifications from a
+	 * zone running on the pool.
+	 */
+	@Test
+	public void testCrossZoneEffects() {
+		final StendhalRPZone from = new StendhalRPZone("zone_logic_from", 10, 10);
+		final StendhalRPZone to = new StendhalRPZone("zone_logic_to", 10, 10);
+		final TurnListener listener = currentTurn -> {
+			// only checked for registration
+		};
+		final List<Thread> threads = new ArrayList<Thread>();
+		// failed assertions would get lost on the pool, so just record
+		final List<Object> results = new ArrayList<Object>();
+		final NPC[] traveller = new NPC[1];
+		traveller[0] = new ScriptedNPC(() -> {
+			threads.add(Thread.currentThread());
+			if (traveller[0].getZone() == from) {
+				results.add(StendhalRPAction.placeat(to, traveller[0], 5, 5));
+				TurnNotifier.get().notifyInTurns(5, listener);
+				results.add(traveller[0].getZone());
+				results.add(TurnNotifier.get().getRemainingTurns(listener));
+			}
+		});
+		traveller[0].setPosition(1, 1);
+		from.add(traveller[0]);
+
+		final List<IRPZone> zones = new ArrayList<IRPZone>();
+		zones.add(from);
+		zones.add(to);
+		new ZoneLogicRunner(2).logic(zones);
+
+		assertNotEquals(Thread.currentThread(), threads.get(0));
+		assertEquals(Boolean.TRUE, results.get(0));
+		assertSame("not moved while zones are running", from, results.get(1));
+		assertEquals("not registered while zones are running", -1, results.get(2));
+		assertSame(to, traveller[0].getZone());
+		assertEquals(5, traveller[0].getX());
+		assertTrue(TurnNotifier.get().getRemainingTurns(listener) >= 0);
+		TurnNotifier.get().dontNotify(listener);
+	}
+}
@@ -0,0 +1,143 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine.db;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import marauroa.common.Log4J;
+import marauroa.server.db.DBTransaction;
+import marauroa.server.db.TransactionPool;
+import marauroa.server.game.db.DatabaseFactory;
+
+/**
+ * Tests for writing website tables incrementally.
+ */
+public class IncrementalDumpTest {
+
+	private DBTransaction transaction;
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		Log4J.init();
+		new DatabaseFactory().initializeDatabase();
+	}
+
+	@Before
+	public void setUp() throws SQLException {
+		transaction = TransactionPool.get().beginWork();
+		transaction.execute("DELETE FROM shopinfo", null);
+		transaction.execute("DELETE FROM dumphash", null);
+	}
+
+	@After
+	public void tearDown() {
+		TransactionPool.get().rollback(transaction);
+	}
+
+	private IncrementalDump dump(final String typeOfB, final boolean withB, final Object... dependencies)
+			throws SQLException {
+		final IncrementalDump dump = new IncrementalDump("shopinfo", "name", "shop_type");
+		dump.add(new Object[] {"a", "buy"}, dependencies);
+		if (withB) {
+			dump.add(new Object[] {"b", typeOfB});
+		}
+		dump.write(transaction);
+		return dump;
+	}
+
+	/**
+	 * Tests that only changed rows are written, and unchanged tables are skipped.
+	 *
+	 * @throws SQLException in case of a database error
+	 */
+	@Test
+	public void testWrite() throws SQLException {
+		IncrementalDump dump = dump("sell", true);
+		assertEquals("first dump", 2, dump.getWrittenRows());
+		assertEquals("sell", readType("b"));
+
+		final IncrementalDump unchanged = new IncrementalDump("shopinfo", "name", "shop_type");
+		unchanged.add(new Object[] {"a", "buy"});
+		unchanged.add(new Object[] {"b", "sell"});
+		assertFalse("skipped", unchanged.write(transaction));
+		assertEquals(0, unchanged.getWrittenRows());
+
+		dump = dump("outfit", true);
+		assertEquals(new HashSet<String>(Arrays.asList("b")), dump.getChangedNames());
+		assertEquals("outfit", readType("b"));
+
+		dump = dump("outfit", true, Integer.valueOf(5));
+		assertEquals("dependency", new HashSet<String>(Arrays.asList("a")), dump.getChangedNames());
+	}
+
+	/**
+	 * Tests that rows which are no longer dumped are marked inactive, and active again when they return.
+	 *
+	 * @throws SQLException in case of a database error
+	 */
+	@Test
+	public void testRemove() throws SQLException {
+		dump("sell", true);
+		IncrementalDump dump = dump("sell", false);
+		assertEquals(1, dump.getWrittenRows());
+		assertEquals(0, readActive("b"));
+		assertEquals(1, readActive("a"));
+
+		dump = dump("sell", true);
+		assertEquals(new HashSet<String>(Arrays.asList("b")), dump.getChangedNames());
+		assertEquals(1, readActive("b"));
+		assertEquals(2, transaction.querySingleCellInt("SELECT count(*) FROM shopinfo", null));
+	}
+
+	/**
+	 * Tests that rows without a stored hash are written, even if the table already contains them.
+	 *
+	 * @throws SQLException in case of a database error
+	 */
+	@Test
+	public void testExistingRows() throws SQLException {
+		transaction.execute("INSERT INTO shopinfo (active, name, shop_type) VALUES (0, 'a', 'old')", null);
+		transaction.execute("INSERT INTO shopinfo (active, name, shop_type) VALUES (1, 'c', 'old')", null);
+		final IncrementalDump dump = dump("sell", true);
+		assertEquals("a and b written, c deactivated", 3, dump.getWrittenRows());
+		assertEquals("buy", readType("a"));
+		assertEquals(1, readActive("a"));
+		assertEquals(0, readActive("c"));
+		assertEquals(3, transaction.querySingleCellInt("SELECT count(*) FROM shopinfo", null));
+	}
+
+	private String readType(final String name) throws SQLException {
+		final ResultSet resultSet = transaction.query("SELECT shop_type FROM shopinfo WHERE name='" + name + "'", null);
+		try {
+			assertTrue("row exists", resultSet.next());
+			return resultSet.getString(1);
+		} finally {
+			resultSet.close();
+		}
+	}
+
+	private int readActive(final String name) throws SQLException {
+		return transaction.querySingleCellInt("SELECT active FROM shopinfo WHERE name='" + name + "'", null);
+	}
+}
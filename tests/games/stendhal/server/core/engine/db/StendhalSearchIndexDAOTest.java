@@ -0,0 +1,79 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine.db;
+
+import static org.junit.Assert.assertEquals;
+
+import java.sql.SQLException;
+import java.util.Set;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.google.common.collect.Sets;
+
+import games.stendhal.server.core.rp.searchindex.SearchIndexEntry;
+import marauroa.common.Log4J;
+import marauroa.server.db.DBTransaction;
+import marauroa.server.db.TransactionPool;
+import marauroa.server.game.db.DatabaseFactory;
+
+/**
+ * Tests for the search index dump.
+ */
+public class StendhalSearchIndexDAOTest {
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		Log4J.init();
+		new DatabaseFactory().initializeDatabase();
+	}
+
+	/**
+	 * Tests that only the entries of changed entities are written.
+	 *
+	 * @throws SQLException in case of a database error
+	 */
+	@Test
+	public void testUpdateSearchIndex() throws SQLException {
+		final StendhalSearchIndexDAO dao = new StendhalSearchIndexDAO();
+		final DBTransaction transaction = TransactionPool.get().beginWork();
+		try {
+			transaction.execute("DELETE FROM searchindex", null);
+			transaction.execute("DELETE FROM dumphash", null);
+			transaction.execute("INSERT INTO searchindex (searchterm, entitytype, entityname, searchscore)"
+					+ " VALUES ('obsolete', 'C', 'rat', 1)", null);
+
+			final Set<SearchIndexEntry> entries = Sets.newHashSet(
+					new SearchIndexEntry("rat", 'C', "rat", 1),
+					new SearchIndexEntry("small", 'C', "rat", 1000),
+					new SearchIndexEntry("carmen", 'N', "Carmen", 1));
+			assertEquals("first dump", 4, dao.updateSearchIndex(transaction, entries));
+			assertEquals(3, count(transaction));
+			assertEquals("unchanged", 0, dao.updateSearchIndex(transaction, entries));
+
+			entries.add(new SearchIndexEntry("healer", 'N', "Carmen", 1000));
+			assertEquals("one entity", 3, dao.updateSearchIndex(transaction, entries));
+			assertEquals(4, count(transaction));
+
+			entries.removeIf(entry -> entry.getEntityName().equals("rat"));
+			assertEquals("removed entity", 2, dao.updateSearchIndex(transaction, entries));
+			assertEquals(2, count(transaction));
+		} finally {
+			TransactionPool.get().rollback(transaction);
+		}
+	}
+
+	private static int count(final DBTransaction transaction) throws SQLException {
+		return transaction.querySingleCellInt("SELECT count(*) FROM searchindex", null);
+	}
+}
@@ -0,0 +1,144 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.events;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Tests for TurnWheel.
+ */
+public class TurnWheelTest {
+
+	private static class Listener implements TurnListener {
+		@Override
+		public void onTurnReached(final int currentTurn) {
+			// ignore
+		}
+	}
+
+	private static List<TurnListener> poll(final TurnWheel wheel, final int turn) {
+		final List<TurnListener> due = new ArrayList<TurnListener>();
+		wheel.poll(turn, due);
+		return due;
+	}
+
+	/**
+	 * Tests that listeners fire exactly on their turn.
+	 */
+	@Test
+	public void testPollFiresOnExactTurn() {
+		final TurnWheel wheel = new TurnWheel();
+		final TurnListener a = new Listener();
+		final TurnListener b = new Listener();
+		assertTrue(wheel.add(3, a));
+		assertTrue(wheel.add(3, b));
+		assertFalse(wheel.add(3, a));
+		assertTrue(wheel.add(3 + 4096, a));
+		assertEquals(3, wheel.size());
+
+		assertEquals(Collections.emptyList(), poll(wheel, 2));
+		assertEquals(Arrays.asList(a, b), poll(wheel, 3));
+		assertEquals(1, wheel.size());
+		assertEquals(3 + 4096, wheel.getFirstTurn(a));
+		assertEquals(-1, wheel.getFirstTurn(b));
+	}
+
+	/**
+	 * Tests that far future listeners are cascaded into the inner wheel.
+	 */
+	@Test
+	public void testCascade() {
+		final TurnWheel wheel = new TurnWheel();
+		final TurnListener near = new Listener();
+		final TurnListener far = new Listener();
+		final TurnListener veryFar = new Listener();
+		final int farTurn = 10000;
+		final int veryFarTurn = farTurn + 4096 * 1024;
+		wheel.add(5, near);
+		wheel.add(farTurn, far);
+		wheel.add(veryFarTurn, veryFar);
+
+		for (int turn = 0; turn < farTurn; turn++) {
+			final List<TurnListener> due = poll(wheel, turn);
+			if (turn == 5) {
+				assertEquals(Collections.singletonList(near), due);
+			} else {
+				assertTrue(due.isEmpty());
+			}
+		}
+		assertEquals(Collections.singletonList(far), poll(wheel, farTurn));
+
+		// skipping ahead into the revolution of the last listener
+		assertEquals(Collections.singletonList(veryFar), poll(wheel, veryFarTurn));
+		assertEquals(0, wheel.size());
+	}
+
+	/**
+	 * Tests that going back in time still finds the listeners of a turn.
+	 */
+	@Test
+	public void testTurnsGoingBackwards() {
+		final TurnWheel wheel = new TurnWheel();
+		final TurnListener listener = new Listener();
+		poll(wheel, 20000);
+		wheel.add(20, listener);
+		assertEquals(Collections.singletonList(listener), poll(wheel, 20));
+	}
+
+	/**
+	 * Tests removal of all registrations of a listener.
+	 */
+	@Test
+	public void testRemove() {
+		final TurnWheel wheel = new TurnWheel();
+		final TurnListener listener = new Listener();
+		final TurnListener other = new Listener();
+		wheel.add(7, listener);
+		wheel.add(9, listener);
+		wheel.add(9000, listener);
+		wheel.add(9, other);
+		assertEquals(7, wheel.getFirstTurn(listener));
+
+		assertTrue(wheel.remove(listener));
+		assertFalse(wheel.remove(listener));
+		assertEquals(-1, wheel.getFirstTurn(listener));
+		assertEquals(1, wheel.size());
+		assertEquals(Collections.singletonList(other), poll(wheel, 9));
+	}
+
+	/**
+	 * Tests the map view and clearing.
+	 */
+	@Test
+	public void testToMapAndClear() {
+		final TurnWheel wheel = new TurnWheel();
+		final TurnListener listener = new Listener();
+		wheel.add(9000, listener);
+		wheel.add(1, listener);
+		assertEquals(Arrays.asList(Integer.valueOf(1), Integer.valueOf(9000)),
+				new ArrayList<Integer>(wheel.toMap().keySet()));
+
+		wheel.clear();
+		assertEquals(0, wheel.size());
+		assertTrue(wheel.toMap().isEmpty());
+		assertTrue(poll(wheel, 1).isEmpty());
+	}
+}
@@ -0,0 +1,150 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.pathfinder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Rectangle;
+import java.awt.geom.Rectangle2D;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import games.stendhal.server.core.engine.StendhalRPZone;
+import games.stendhal.server.entity.Entity;
+import games.stendhal.server.maps.MockStendlRPWorld;
+
+/**
+ * Compares the array based search with the node tree of Pathfinder.
+ */
+public class TileSearchTest {
+	private static final int SIZE = 48;
+
+	@BeforeClass
+	public static void setUpBeforeClass() {
+		MockStendlRPWorld.get();
+	}
+
+	@AfterClass
+	public static void tearDownAfterClass() {
+		MockStendlRPWorld.reset();
+	}
+
+	/**
+	 * Creates a zone with random collisions and resistant entities.
+	 *
+	 * @param random random source
+	 * @return zone
+	 */
+	private StendhalRPZone createZone(final Random random) {
+		final StendhalRPZone zone = new StendhalRPZone("tile_search_test", SIZE, SIZE);
+		for (int x = 0; x < SIZE; x++) {
+			for (int y = 0; y < SIZE; y++) {
+				if (random.nextInt(4) == 0) {
+					zone.collisionMap.setCollide(x, y);
+				}
+			}
+		}
+		for (int i = 0; i < 150; i++) {
+			final Entity obstacle = new Entity() {
+				// just to create an instance
+			};
+			obstacle.setResistance(random.nextInt(101));
+			obstacle.setPosition(random.nextInt(SIZE), random.nextInt(SIZE));
+			zone.add(obstacle);
+		}
+		return zone;
+	}
+
+	private static Entity createWalker(final StendhalRPZone zone, final int size) {
+		final Entity walker = new Entity() {
+			// just to create an instance
+		};
+		walker.setSize(size, size);
+		zone.add(walker);
+		return walker;
+	}
+
+	/**
+	 * Tests that the entity path finder gives the same paths with both
+	 * search engines.
+	 */
+	@Test
+	public void testSameEntityPaths() {
+		final Random random = new Random(4);
+		int found = 0;
+		for (int i = 0; i < 20; i++) {
+			final StendhalRPZone zone = createZone(random);
+			final Entity walker = createWalker(zone, 1 + i % 2);
+			for (int j = 0; j < 20; j++) {
+				final int x = random.nextInt(SIZE);
+				final int y = random.nextInt(SIZE);
+				final Rectangle2D destination = new Rectangle(random.nextInt(SIZE), random.nextInt(SIZE),
+						1 + random.nextInt(3), 1 + random.nextInt(3));
+				final double maxDistance = 20 + random.nextInt(100);
+				final boolean withEntities = random.nextBoolean();
+
+				final List<Node> expected = new EntityPathfinder(walker, zone, x, y, destination, maxDistance, withEntities) {
+					@Override
+					TileSearch.Terrain getTerrain() {
+						return null;
+					}
+				}.getPath();
+				final List<Node> path = new EntityPathfinder(walker, zone, x, y, destination, maxDistance, withEntities).getPath();
+				assertEquals(expected, path);
+				if (!path.isEmpty()) {
+					found++;
+				}
+			}
+		}
+		assertTrue("most paths should exist", found > 100);
+	}
+
+	/**
+	 * Tests that the simple path finder gives the same paths with both
+	 * search engines.
+	 */
+	@Test
+	public void testSameSimplePaths() {
+		final Random random = new Random(7);
+		final StendhalRPZone zone = createZone(random);
+		for (int i = 0; i < 200; i++) {
+			final int x = random.nextInt(SIZE);
+			final int y = random.nextInt(SIZE);
+			final Rectangle2D destination = new Rectangle(random.nextInt(SIZE), random.nextInt(SIZE), 1, 1);
+
+			final List<Node> expected = new SimplePathfinder(zone, x, y, destination, 80) {
+				@Override
+				TileSearch.Terrain getTerrain() {
+					return null;
+				}
+			}.getPath();
+			assertEquals(expected, new SimplePathfinder(zone, x, y, destination, 80).getPath());
+		}
+	}
+
+	/**
+	 * Tests searching from outside the zone, which is left to the node tree.
+	 */
+	@Test
+	public void testStartOutsideZone() {
+		final StendhalRPZone zone = new StendhalRPZone("tile_search_test", 10, 10);
+		final List<Node> path = Path.searchPath(zone, -1, 0, 3, 0, 20);
+		assertFalse(path.isEmpty());
+		assertEquals(new Node(3, 0), path.get(path.size() - 1));
+	}
+}
@@ -0,0 +1,124 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.rp.achievement;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import games.stendhal.server.core.engine.SingletonRepository;
+import games.stendhal.server.entity.player.Player;
+import utilities.AchievementTestHelper;
+
+/**
+ * Tests for AchievementNotifier.
+ */
+public class AchievementNotifierTest extends AchievementTestHelper {
+	private static final String[] CREATURES = { "rat", "deer", "boar", "fox", "werewolf", "wolf",
+		"gnome", "tiger", "lion", "elephant", "goblin", "orc" };
+	private static final int TURNS = 500;
+	private static final int KILLS_PER_TURN = 4;
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		AchievementTestHelper.setUpBeforeClass();
+		SingletonRepository.getEntityManager().populateCreatureList();
+	}
+
+	/**
+	 * Simulates a session with many kills and some quest changes. One player
+	 * gets the checks of whole categories, the other one only the checks of
+	 * the achievements that depend on the changes. Both must reach the same
+	 * achievements, with far fewer conditions evaluated for the second one.
+	 */
+	@Test
+	public void testKillHeavySession() {
+		final Player full = createPlayer("full");
+		final Player incremental = createPlayer("incremental");
+		init(full);
+		init(incremental);
+
+		final Random random = new Random(7);
+		long fullEvaluations = 0;
+		long incrementalEvaluations = 0;
+		for (int turn = 0; turn < TURNS; turn++) {
+			for (int i = 0; i < KILLS_PER_TURN; i++) {
+				final String creature = CREATURES[random.nextInt(CREATURES.length)];
+				full.incSoloKillCount(creature);
+				incremental.incSoloKillCount(creature);
+
+				long before = an.getEvaluatedConditions();
+				an.onKill(full);
+				fullEvaluations += an.getEvaluatedConditions() - before;
+				before = an.getEvaluatedConditions();
+				an.onKill(incremental, creature);
+				incrementalEvaluations += an.getEvaluatedConditions() - before;
+			}
+			if (turn % 10 == 0) {
+				final String state = "done;0;" + (turn / 10);
+				full.setKeyedSlot("!quests", "daily", state);
+				incremental.setKeyedSlot("!quests", "daily", state);
+
+				long before = an.getEvaluatedConditions();
+				an.onFinishQuest(full);
+				fullEvaluations += an.getEvaluatedConditions() - before;
+				before = an.getEvaluatedConditions();
+				an.onQuestChanged(incremental, "daily");
+				incrementalEvaluations += an.getEvaluatedConditions() - before;
+			}
+		}
+
+		assertEquals(reached(full), reached(incremental));
+		assertTrue(achievementReached(incremental, "fight.general.rats"));
+		assertTrue(achievementReached(incremental, "quest.special.daily.0010"));
+		assertTrue(incrementalEvaluations > 0);
+		assertTrue("evaluated " + incrementalEvaluations + " instead of " + fullEvaluations + " conditions",
+				incrementalEvaluations * 2 < fullEvaluations);
+	}
+
+	/**
+	 * Tests that quest changes check only the achievements depending on the
+	 * changed quest.
+	 */
+	@Test
+	public void testQuestChange() {
+		final Player player = createPlayer("player");
+		init(player);
+		assertFalse(achievementReached(player, "quest.special.daily.0010"));
+		player.setQuest("daily", "done;0;10");
+		assertTrue(achievementReached(player, "quest.special.daily.0010"));
+
+		// a change of another quest does not check the daily achievements
+		player.setKeyedSlot("!quests", "daily", "done;0;50");
+		player.setQuest("some_other_quest", "done");
+		assertFalse(achievementReached(player, "quest.special.daily.0050"));
+		player.setQuest("daily", "done;0;50");
+		assertTrue(achievementReached(player, "quest.special.daily.0050"));
+	}
+
+	private static Set<String> reached(final Player player) {
+		final Set<String> reached = new TreeSet<String>();
+		for (final Achievement achievement : an.getAchievements()) {
+			if (player.hasReachedAchievement(achievement.getIdentifier())) {
+				reached.add(achievement.getIdentifier());
+			}
+		}
+		return reached;
+	}
+}
@@ -0,0 +1,103 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.rule.defaultruleset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import games.stendhal.server.core.engine.SingletonRepository;
+import games.stendhal.server.core.rule.EntityManager;
+import games.stendhal.server.entity.creature.Creature;
+import games.stendhal.server.entity.item.Item;
+import games.stendhal.server.entity.item.StackableItem;
+import games.stendhal.server.maps.MockStendlRPWorld;
+import utilities.RPClass.CreatureTestHelper;
+
+/**
+ * Tests for DefaultEntityManager.
+ */
+public class DefaultEntityManagerTest {
+
+	@BeforeClass
+	public static void setUpBeforeClass() {
+		MockStendlRPWorld.get();
+		CreatureTestHelper.generateRPClasses();
+	}
+
+	@After
+	public void tearDown() {
+		MockStendlRPWorld.reset();
+	}
+
+	/**
+	 * Tests that creatures copied from the prototype match their definition.
+	 */
+	@Test
+	public void testGetCreature() {
+		final EntityManager manager = SingletonRepository.getEntityManager();
+		final DefaultCreature definition = manager.getDefaultCreature("dark archangel");
+		final Creature first = manager.getCreature("dark archangel");
+		final Creature second = manager.getCreature("Dark Archangel");
+		assertNotSame(first, second);
+
+		final Creature expected = definition.getCreature();
+		for (final Creature creature : new Creature[] { first, second }) {
+			assertEquals(expected.getName(), creature.getName());
+			assertEquals(expected.getHP(), creature.getHP());
+			assertEquals(expected.getBaseHP(), creature.getBaseHP());
+			assertEquals(expected.getAtk(), creature.getAtk());
+			assertEquals(expected.getDef(), creature.getDef());
+			assertEquals(expected.getXP(), creature.getXP());
+			assertEquals(expected.getLevel(), creature.getLevel());
+			assertEquals(expected.getDescription(), creature.getDescription());
+			assertEquals(expected.getAllStatusAttackers().size(), creature.getAllStatusAttackers().size());
+		}
+
+		// equipment is not shared
+		final Item arrows = first.getFirstEquipped("power arrow");
+		assertTrue(arrows instanceof StackableItem);
+		assertEquals(10000, ((StackableItem) arrows).getQuantity());
+		((StackableItem) arrows).setQuantity(1);
+		assertEquals(10000, ((StackableItem) second.getFirstEquipped("power arrow")).getQuantity());
+		assertEquals(10000, ((StackableItem) manager.getCreature("dark archangel").getFirstEquipped("power arrow")).getQuantity());
+
+		// one prototype per creature, whatever the spelling of the name
+		int prototypes = 0;
+		for (final Creature creature : manager.getCreatures()) {
+			if ("dark archangel".equals(creature.getName())) {
+				prototypes++;
+			}
+		}
+		assertEquals(1, prototypes);
+	}
+
+	/**
+	 * Tests that items of the same kind share their status attackers.
+	 */
+	@Test
+	public void testStatusAttackers() {
+		final EntityManager manager = SingletonRepository.getEntityManager();
+		final Item first = manager.getItem("venom whip");
+		final Item second = manager.getItem("venom whip");
+		assertNotNull(first);
+		assertNotSame(first, second);
+		assertEquals(1, first.getStatusAttackers().size());
+		assertSame(first.getStatusAttackers(), second.getStatusAttackers());
+	}
+}
@@ -0,0 +1,135 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.scripting;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import games.stendhal.server.maps.MockStendlRPWorld;
+import groovy.lang.Script;
+import marauroa.common.Log4J;
+
+/**
+ * Tests for loading Groovy scripts through the cache of compiled scripts.
+ */
+public class ScriptInGroovyTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@BeforeClass
+	public static void beforeClass() {
+		Log4J.init();
+		MockStendlRPWorld.get();
+	}
+
+	@AfterClass
+	public static void afterClass() {
+		MockStendlRPWorld.reset();
+	}
+
+	private static void write(final File file, final String text, final long lastModified) throws IOException {
+		Files.write(file.toPath(), text.getBytes(StandardCharsets.UTF_8));
+		file.setLastModified(lastModified);
+	}
+
+	private static long getMetaspaceUsed() {
+		for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if ("Metaspace".equals(pool.getName())) {
+				return pool.getUsage().getUsed();
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Tests that reloading an unchanged script a thousand times compiles it
+	 * once and does not take up more class metadata.
+	 */
+	@Test
+	public void testReloadUnchanged() throws IOException {
+		final File file = folder.newFile("counter.groovy");
+		write(file, "storage.count = (storage.count ?: 0) + 1\nreturn args.length", 1000000L);
+		final GroovyScriptCache cache = ScriptInGroovy.getScriptCache();
+		final int compiles = cache.getCompiles();
+
+		final ScriptInGroovy first = new ScriptInGroovy(file.getPath());
+		assertTrue(first.load(null, Collections.<String>emptyList()));
+		final Class<? extends Script> scriptClass = cache.getScriptClass(file.getPath());
+		final long metaspaceBefore = getMetaspaceUsed();
+		for (int i = 0; i < 1000; i++) {
+			final ScriptInGroovy script = new ScriptInGroovy(file.getPath());
+			assertTrue(script.load(null, null));
+		}
+		final long metaspaceGrowth = getMetaspaceUsed() - metaspaceBefore;
+
+		assertEquals(compiles + 1, cache.getCompiles());
+		assertSame(scriptClass, cache.getScriptClass(file.getPath()));
+		assertTrue("metaspace grew by " + metaspaceGrowth, metaspaceGrowth < 1024 * 1024);
+
+		// touching the file without changing it does not compile it either
+		file.setLastModified(2000000L);
+		assertSame(scriptClass, cache.getScriptClass(file.getPath()));
+		assertEquals(compiles + 1, cache.getCompiles());
+	}
+
+	/**
+	 * Tests that a changed script is compiled again and that the cache drops
+	 * the class of the old version.
+	 */
+	@Test
+	public void testReloadChanged() throws IOException {
+		final File file = folder.newFile("changing.groovy");
+		write(file, "def twice = { it * 2 }\nreturn twice(1)", 1000000L);
+		final GroovyScriptCache cache = ScriptInGroovy.getScriptCache();
+		final int compiles = cache.getCompiles();
+
+		final Class<? extends Script> oldClass = cache.getScriptClass(file.getPath());
+		assertTrue(cache.isCached(oldClass));
+
+		write(file, "def twice = { it * 2 }\nreturn twice(2)", 2000000L);
+		final Class<? extends Script> changed = cache.getScriptClass(file.getPath());
+		assertNotSame(oldClass, changed);
+		assertEquals(compiles + 2, cache.getCompiles());
+		assertFalse(cache.isCached(oldClass));
+		assertTrue(cache.isCached(changed));
+	}
+
+	/**
+	 * Tests that errors of a script are reported by the load.
+	 */
+	@Test
+	public void testLoadFailing() throws IOException {
+		final File file = folder.newFile("failing.groovy");
+		write(file, "throw new IllegalStateException('broken')", 1000000L);
+		final ScriptInGroovy script = new ScriptInGroovy(file.getPath());
+		assertFalse(script.load(null, null));
+		assertEquals("broken", script.getMessage());
+	}
+}
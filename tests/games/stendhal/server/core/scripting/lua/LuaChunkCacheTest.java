@@ -0,0 +1,109 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.scripting.lua;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import org.junit.Test;
+import org.luaj.vm2.Globals;
+import org.luaj.vm2.LoadState;
+import org.luaj.vm2.LuaError;
+import org.luaj.vm2.compiler.LuaC;
+
+/**
+ * Tests for caching compiled Lua chunks.
+ */
+public class LuaChunkCacheTest {
+
+	/**
+	 * Creates globals without the standard libraries. Loading those would
+	 * replace the metatable of strings, which is shared by all globals.
+	 */
+	private static Globals createGlobals() {
+		final Globals globals = new Globals();
+		LoadState.install(globals);
+		LuaC.install(globals);
+		return globals;
+	}
+
+	private static InputStream source(final String source) {
+		return new ByteArrayInputStream(source.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Tests that a chunk is only compiled again when its source changes.
+	 *
+	 * @throws IOException in case of an input error
+	 */
+	@Test
+	public void testLoad() throws IOException {
+		final Globals globals = createGlobals();
+		final LuaChunkCache cache = new LuaChunkCache(globals, Collections.<String>emptySet());
+
+		assertEquals(3, cache.load(source("return 1 + 2"), "@test.lua").call().toint());
+		assertEquals(3, cache.load(source("return 1 + 2"), "@test.lua").call().toint());
+		assertEquals(1, cache.getMisses());
+		assertEquals(1, cache.getHits());
+
+		assertEquals(4, cache.load(source("return 2 + 2"), "@test.lua").call().toint());
+		assertEquals("changed source", 2, cache.getMisses());
+		assertEquals(3, cache.load(source("return 1 + 2"), "@other.lua").call().toint());
+		assertEquals("other chunk", 3, cache.getMisses());
+
+		// each load runs the chunk again
+		globals.set("counter", 0);
+		cache.load(source("counter = counter + 1"), "counter").call();
+		cache.load(source("counter = counter + 1"), "counter").call();
+		assertEquals(2, globals.get("counter").toint());
+	}
+
+	/**
+	 * Tests that hot scripts run, even when they cannot be compiled to
+	 * bytecode.
+	 *
+	 * @throws IOException in case of an input error
+	 */
+	@Test
+	public void testHot() throws IOException {
+		final Globals globals = createGlobals();
+		final LuaChunkCache cache = new LuaChunkCache(globals, Collections.singleton("data/script/hot.lua"));
+
+		assertEquals(6, cache.load(source("local function f(n) return n * 2 end return f(3)"),
+				"@data/script/hot.lua").call().toint());
+		assertEquals(6, cache.load(source("local function f(n) return n * 2 end return f(3)"),
+				"@data/script/hot.lua").call().toint());
+		assertEquals(1, cache.getMisses());
+	}
+
+	/**
+	 * Tests that syntax errors are reported.
+	 *
+	 * @throws IOException in case of an input error
+	 */
+	@Test
+	public void testSyntaxError() throws IOException {
+		final LuaChunkCache cache = new LuaChunkCache(createGlobals(), Collections.<String>emptySet());
+		try {
+			cache.load(source("return +"), "@broken.lua");
+			fail("syntax error expected");
+		} catch (final LuaError e) {
+			assertEquals(1, cache.getMisses());
+		}
+	}
+}
@@ -0,0 +1,92 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.scripting.lua;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.luaj.vm2.Globals;
+import org.luaj.vm2.LoadState;
+import org.luaj.vm2.LuaFunction;
+import org.luaj.vm2.LuaValue;
+import org.luaj.vm2.compiler.LuaC;
+
+/**
+ * Tests for measuring Lua scripts and functions.
+ */
+public class LuaProfilerTest {
+
+	/**
+	 * Creates globals without the standard libraries. Loading those would
+	 * replace the metatable of strings, which is shared by all globals.
+	 */
+	private static Globals createGlobals() {
+		final Globals globals = new Globals();
+		LoadState.install(globals);
+		LuaC.install(globals);
+		return globals;
+	}
+
+	/**
+	 * Tests that calls are counted per function.
+	 */
+	@Test
+	public void testCalls() {
+		final LuaProfiler profiler = LuaProfiler.get();
+		profiler.reset();
+		final Globals globals = createGlobals();
+		globals.load("\nfunction double(n)\n  return n * 2\nend", "@profiled.lua").call();
+		final LuaFunction function = globals.get("double").checkfunction();
+
+		final String name = profiler.nameOf(function);
+		assertEquals("profiled.lua:2", name);
+		assertEquals(8, profiler.call(name, function, LuaValue.valueOf(4)).toint());
+		profiler.call(name, function, LuaValue.valueOf(5));
+		assertEquals(2, profiler.getCallCount(name));
+
+		profiler.addLoad("profiled.lua", 1000000);
+		assertEquals(1, profiler.getLoadCount("profiled.lua"));
+		final String report = profiler.getReport(10);
+		assertTrue(report, report.contains("profiled.lua:2: 2, "));
+		assertTrue(report, report.contains("profiled.lua: 1, 1.0, 1.0"));
+
+		profiler.reset();
+		assertEquals(0, profiler.getCallCount(name));
+	}
+
+	/**
+	 * Tests that a profiled function is counted under its name and is only
+	 * replaced when the function changes.
+	 */
+	@Test
+	public void testProfiledFunction() {
+		final LuaProfiler profiler = LuaProfiler.get();
+		profiler.reset();
+		final Globals globals = createGlobals();
+		globals.load("function one()\n  return 1\nend\nfunction two()\n  return 2\nend", "@functions.lua").call();
+		final LuaFunction one = globals.get("one").checkfunction();
+
+		final ProfiledFunction profiled = ProfiledFunction.of(null, one);
+		assertEquals(1, profiled.call().toint());
+		assertEquals(1, profiler.getCallCount("functions.lua:1"));
+		assertSame(profiled, ProfiledFunction.of(profiled, one));
+
+		final ProfiledFunction replaced = ProfiledFunction.of(profiled, globals.get("two").checkfunction());
+		assertNotSame(profiled, replaced);
+		assertEquals(2, replaced.call().toint());
+		assertEquals(1, profiler.getCallCount("functions.lua:4"));
+		profiler.reset();
+	}
+}
@@ -0,0 +1,144 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.entity;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import games.stendhal.server.core.engine.SingletonRepository;
+import games.stendhal.server.entity.item.Item;
+import games.stendhal.server.entity.item.StackableItem;
+import games.stendhal.server.entity.player.Player;
+import games.stendhal.server.maps.MockStendlRPWorld;
+import marauroa.common.game.RPSlot;
+import utilities.PlayerTestHelper;
+
+/**
+ * Tests for InventoryIndex. Every query is checked against a full scan of
+ * the slots.
+ */
+public class InventoryIndexTest {
+
+	@BeforeClass
+	public static void setUpBeforeClass() {
+		MockStendlRPWorld.get();
+		InventoryIndex.setVerification(true);
+	}
+
+	@AfterClass
+	public static void tearDownAfterClass() {
+		InventoryIndex.setVerification(false);
+		MockStendlRPWorld.reset();
+	}
+
+	private static StackableItem money(final int quantity) {
+		final StackableItem money = (StackableItem) SingletonRepository.getEntityManager().getItem("money");
+		money.setQuantity(quantity);
+		return money;
+	}
+
+	/**
+	 * Tests adding, removing and changing stacks.
+	 */
+	@Test
+	public void testStacks() {
+		final Player player = PlayerTestHelper.createPlayer("bob");
+		assertEquals(0, player.getNumberOfEquipped("money"));
+
+		final StackableItem money = money(10);
+		player.getSlot("bag").add(money);
+		assertEquals(10, player.getNumberOfEquipped("money"));
+		assertTrue(player.isEquipped("Money", 10));
+		assertFalse(player.isEquipped("money", 11));
+
+		money.setQuantity(15);
+		assertEquals(15, player.getNumberOfEquipped("money"));
+		final StackableItem split = money.splitOff(5);
+		assertEquals(10, player.getNumberOfEquipped("money"));
+		player.getSlot("lhand").add(split);
+		assertEquals(15, player.getNumberOfEquipped("money"));
+		money.add(split);
+		player.getSlot("lhand").remove(split.getID());
+		assertEquals(15, player.getNumberOfEquipped("money"));
+
+		// stacks in several slots
+		player.getSlot("rhand").add(money(3));
+		assertTrue(player.drop("money", 16));
+		assertEquals(2, player.getNumberOfEquipped("money"));
+		assertFalse(player.drop("money", 3));
+		assertEquals(2, player.getNumberOfEquipped("money"));
+
+		player.getSlot("rhand").clear();
+		player.getSlot("bag").clear();
+		assertEquals(0, player.getNumberOfEquipped("money"));
+		assertNull(player.getFirstEquipped("money"));
+		assertTrue(player.getAllEquipped("money").isEmpty());
+	}
+
+	/**
+	 * Tests slots that do not count as carried, and slots that are not
+	 * tracked.
+	 */
+	@Test
+	public void testOtherSlots() {
+		final Player player = PlayerTestHelper.createPlayer("bob");
+		player.getSlot("bank").add(money(7));
+		player.getSlot("bag").add(money(1));
+		assertEquals(1, player.getNumberOfEquipped("money"));
+		assertEquals(8, player.getTotalNumberOf("money"));
+
+		// a plain slot instead of a bank slot
+		player.removeSlot("bank_ados");
+		player.addSlot(new RPSlot("bank_ados"));
+		final StackableItem stashed = money(100);
+		player.getSlot("bank_ados").add(stashed);
+		assertEquals(108, player.getTotalNumberOf("money"));
+		stashed.setQuantity(50);
+		assertEquals(58, player.getTotalNumberOf("money"));
+		player.removeSlot("bank_ados");
+		assertEquals(8, player.getTotalNumberOf("money"));
+		assertEquals(1, player.getNumberOfEquipped("money"));
+	}
+
+	/**
+	 * Tests items within containers.
+	 */
+	@Test
+	public void testContainers() {
+		final Player player = PlayerTestHelper.createPlayer("bob");
+		final Item keyring = SingletonRepository.getEntityManager().getItem("keyring");
+		final Item key = SingletonRepository.getEntityManager().getItem("dungeon silver key");
+		keyring.getSlot("content").add(key);
+		assertEquals(0, player.getNumberOfEquipped("dungeon silver key"));
+
+		player.getSlot("bag").add(keyring);
+		assertEquals(1, player.getNumberOfEquipped("dungeon silver key"));
+		assertSame(key, player.getFirstEquipped("dungeon silver key"));
+
+		final Item other = SingletonRepository.getEntityManager().getItem("dungeon silver key");
+		keyring.getSlot("content").add(other);
+		assertEquals(2, player.getNumberOfEquipped("dungeon silver key"));
+		assertTrue(player.drop(key));
+		assertEquals(1, player.getNumberOfEquipped("dungeon silver key"));
+
+		player.getSlot("bag").remove(keyring.getID());
+		assertEquals(0, player.getNumberOfEquipped("dungeon silver key"));
+		assertEquals(0, player.getNumberOfEquipped("keyring"));
+	}
+}
@@ -14,8 +14,10 @@ package games.stendhal.server.entity.npc.fsm;
 
 import static games.stendhal.server.entity.npc.ConversationStates.ATTENDING;
 import static games.stendhal.server.entity.npc.ConversationStates.IDLE;
+import static games.stendhal.server.entity.npc.ConversationStates.QUESTION_1;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static utilities.SpeakerNPCTestHelper.getReply;
@@ -23,6 +25,8 @@ import static utilities.SpeakerNPCTestHelper.getReply;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import games.stendhal.common.parser.Expression;
+import games.stendhal.common.parser.JokerExprMatcher;
 import games.stendhal.common.parser.Sentence;
 import games.stendhal.server.entity.Entity;
 import games.stendhal.server.entity.npc.ChatAction;
@@ -209,4 +213,42 @@ public class EngineTest {
 		assertEquals(reply, getReply(bob));
 	}
 
+	/**
+	 * Tests that the transitions are found by state and trigger, also after
+	 * removing some of them.
+	 */
+	@Test
+	public void testLookupByStateAndTrigger() {
+		final SpeakerNPC bob = new SpeakerNPC("bob");
+		final Engine en = new Engine(bob);
+		en.add(ATTENDING, "help", null, false, ATTENDING, "helped", null, "help");
+		en.add(ATTENDING, "job", null, false, ATTENDING, "working", null);
+		en.add(ConversationStates.ANY, "bye", null, false, IDLE, "bye", null);
+		en.addMatching(QUESTION_1, Expression.JOKER, new JokerExprMatcher(), null, false, ATTENDING, "anything", null);
+		assertEquals(2, en.getTransitions(ATTENDING).size());
+		assertEquals(1, en.getTransitions(QUESTION_1).size());
+
+		final Player pete = PlayerTestHelper.createPlayer("player");
+		en.setCurrentState(ATTENDING);
+		assertTrue(en.step(pete, "help"));
+		assertEquals("helped", getReply(bob));
+		assertTrue(en.step(pete, "jobs"));
+		assertEquals("working", getReply(bob));
+		assertFalse(en.step(pete, "xyzzy"));
+
+		en.setCurrentState(QUESTION_1);
+		assertTrue(en.step(pete, "xyzzy"));
+		assertEquals("anything", getReply(bob));
+		assertEquals(ATTENDING, en.getCurrentState());
+
+		assertTrue(en.remove("help"));
+		assertEquals(1, en.getTransitions(ATTENDING).size());
+		assertTrue(en.step(pete, "job"));
+		assertEquals("working", getReply(bob));
+		assertTrue("jump from any state", en.step(pete, "bye"));
+		assertEquals(IDLE, en.getCurrentState());
+		en.setCurrentState(ATTENDING);
+		assertFalse(en.step(pete, "help"));
+	}
+
 }
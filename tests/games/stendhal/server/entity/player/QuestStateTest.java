@@ -0,0 +1,185 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.entity.player;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import games.stendhal.common.MathHelper;
+import games.stendhal.server.maps.MockStendlRPWorld;
+import utilities.PlayerTestHelper;
+
+/**
+ * Tests for QuestState. The results are compared to the way quest states
+ * were split and joined before.
+ */
+public class QuestStateTest {
+	/** State formats used by the quests. */
+	private static final List<String> FORMATS = Arrays.asList("", "start", "done", "rejected",
+			"done;1420070400000", "rejected;12345", "start;3", "done;5;1420070400000",
+			"bring;grain=5;flour=2", "grain=5;flour=2;", "killed;rat,0,1,cave rat,0,2",
+			"x;;y", ";", ";;", "a;", ";a", "=", "a=", "=5", "a==5", "a=5=6", "a=b", "-3;+4;0x10",
+			"2147483648;-2147483648", "done;0;;7", "Frank;1;2;3;4;5;6;7;8;9");
+
+	@BeforeClass
+	public static void setUpBeforeClass() {
+		MockStendlRPWorld.get();
+	}
+
+	@AfterClass
+	public static void tearDownAfterClass() {
+		MockStendlRPWorld.reset();
+	}
+
+	/**
+	 * Tests reading the sub states of all formats.
+	 */
+	@Test
+	public void testRead() {
+		for (final String raw : states()) {
+			final QuestState state = new QuestState(raw);
+			assertEquals(raw, state.getRaw());
+			for (int i = -1; i < 12; i++) {
+				final String old = oldGet(raw, i);
+				assertEquals(raw + " " + i, old, state.get(i));
+				assertEquals(raw + " " + i, MathHelper.parseIntDefault(old, 0), state.getInt(i, 0));
+				// cached the second time
+				assertEquals(raw + " " + i, MathHelper.parseIntDefault(old, -7), state.getInt(i, -7));
+				assertEquals(raw + " " + i, oldName(old), state.getItemName(i));
+				assertEquals(raw + " " + i, oldQuantity(old), state.getItemQuantity(i));
+			}
+		}
+	}
+
+	/**
+	 * Tests changing sub states of all formats.
+	 */
+	@Test
+	public void testWrite() {
+		for (final String raw : states()) {
+			for (int i = 0; i < 12; i++) {
+				for (final String sub : Arrays.asList("x", "", null, "done", "a=1")) {
+					final QuestState changed = new QuestState(raw).with(i, sub);
+					assertEquals(raw + " " + i + " " + sub, oldSet(raw, i, sub), changed.getRaw());
+					assertEquals(new QuestState(changed.getRaw()).get(i), changed.get(i));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Tests the quest state of a player, also when the slot is changed
+	 * directly.
+	 */
+	@Test
+	public void testPlayer() {
+		final Player player = PlayerTestHelper.createPlayer("bob");
+		assertNull(player.getQuest("test_quest", 0));
+		player.setQuest("test_quest", 2, "3");
+		assertEquals(";;3", player.getQuest("test_quest"));
+		assertEquals(3, player.getNumberOfRepetitions("test_quest", 2));
+		player.setQuest("test_quest", 0, "bring");
+		player.setQuest("test_quest", 1, "flour=2");
+		assertEquals("bring;flour=2;3", player.getQuest("test_quest"));
+		assertEquals("flour", player.getRequiredItemName("test_quest", 1));
+		assertEquals(2, player.getRequiredItemQuantity("test_quest", 1));
+		assertTrue(player.isQuestInState("test_quest", 0, "start", "bring"));
+
+		player.setKeyedSlot("!quests", "test_quest", "done;7");
+		assertEquals("done", player.getQuest("test_quest", 0));
+		assertEquals(7, player.getNumberOfRepetitions("test_quest", 1));
+		assertTrue(player.isQuestCompleted("test_quest"));
+
+		player.removeQuest("test_quest");
+		assertNull(player.getQuest("test_quest", 0));
+		assertFalse(player.hasQuest("test_quest"));
+		player.setQuest("test_quest", 1, "x");
+		assertEquals(";x", player.getQuest("test_quest"));
+	}
+
+	/**
+	 * Gets the known formats and random states.
+	 */
+	private static List<String> states() {
+		final List<String> states = new ArrayList<String>(FORMATS);
+		final Random random = new Random(42);
+		final char[] chars = "ab09=;-".toCharArray();
+		for (int i = 0; i < 500; i++) {
+			final StringBuilder state = new StringBuilder();
+			final int length = random.nextInt(15);
+			for (int j = 0; j < length; j++) {
+				state.append(chars[random.nextInt(chars.length)]);
+			}
+			states.add(state.toString());
+		}
+		return states;
+	}
+
+	private static String oldGet(final String state, final int index) {
+		if (index == -1) {
+			return state;
+		}
+		final String[] elements = state.split(";");
+		if (index < elements.length) {
+			return elements[index];
+		}
+		return "";
+	}
+
+	private static String oldName(final String subState) {
+		final String[] elements = subState.split("=");
+		// the old code failed on sub states consisting only of "="
+		if (elements.length == 0) {
+			return "";
+		}
+		return elements[0];
+	}
+
+	private static int oldQuantity(final String subState) {
+		final String[] elements = subState.split("=");
+		if (elements.length > 1) {
+			return MathHelper.parseIntDefault(elements[1], 1);
+		}
+		return 1;
+	}
+
+	private static String oldSet(final String state, final int index, final String subStatus) {
+		String[] elements = state.split(";");
+		if (elements.length <= index) {
+			final String[] temp = new String[index + 1];
+			System.arraycopy(elements, 0, temp, 0, elements.length);
+			elements = temp;
+		}
+		elements[index] = subStatus;
+		final StringBuilder res = new StringBuilder();
+		for (int i = 0; i < elements.length; i++) {
+			if (i > 0) {
+				res.append(";");
+			}
+			if (elements[i] != null) {
+				res.append(elements[i]);
+			}
+		}
+		return res.toString();
+	}
+}
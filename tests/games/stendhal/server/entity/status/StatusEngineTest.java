@@ -0,0 +1,137 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.entity.status;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import games.stendhal.server.core.events.TurnNotifier;
+import games.stendhal.server.entity.player.Player;
+import games.stendhal.server.maps.MockStendlRPWorld;
+import utilities.PlayerTestHelper;
+
+/**
+ * Tests for StatusEngine.
+ */
+public class StatusEngineTest {
+
+	@BeforeClass
+	public static void setUpBeforeClass() {
+		MockStendlRPWorld.get();
+	}
+
+	@AfterClass
+	public static void tearDownAfterClass() {
+		MockStendlRPWorld.reset();
+	}
+
+	private static void nextTurn() {
+		final TurnNotifier notifier = TurnNotifier.get();
+		notifier.logic(notifier.getCurrentTurnForDebugging() + 1);
+	}
+
+	private static Player createPlayer(final String name, final int hp) {
+		final Player player = PlayerTestHelper.createPlayer(name);
+		player.setBaseHP(1000);
+		player.setHP(hp);
+		return player;
+	}
+
+	/**
+	 * Tests poison, and the cleanup of the attribute in the turn after the
+	 * poison is used up.
+	 */
+	@Test
+	public void testPoison() {
+		final Player player = createPlayer("poisoned", 500);
+		player.getStatusList().inflictStatus(new PoisonStatus(-30, 1, -10), null);
+		assertTrue(player.has("poisoned"));
+
+		for (int i = 0; i < 3; i++) {
+			nextTurn();
+			assertEquals(-10, player.getInt("poisoned"));
+		}
+		assertEquals(470, player.getHP());
+		// the used up poison is removed on its next event
+		nextTurn();
+		assertFalse(player.hasStatus(StatusType.POISONED));
+		assertTrue(player.has("poisoned"));
+		nextTurn();
+		assertFalse(player.has("poisoned"));
+	}
+
+	/**
+	 * Tests eating, with the largest food first.
+	 */
+	@Test
+	public void testEating() {
+		final Player player = createPlayer("eating", 500);
+		player.getStatusList().inflictStatus(new EatStatus(20, 1, 5), null);
+		player.getStatusList().inflictStatus(new EatStatus(20, 1, 10), null);
+		nextTurn();
+		assertEquals(10, player.getInt("eating"));
+		nextTurn();
+		assertEquals(520, player.getHP());
+		nextTurn();
+		assertEquals(5, player.getInt("eating"));
+		for (int i = 0; i < 4; i++) {
+			nextTurn();
+		}
+		assertEquals(540, player.getHP());
+		assertFalse(player.hasStatus(StatusType.EATING));
+		nextTurn();
+		assertFalse(player.has("eating"));
+	}
+
+	/**
+	 * Tests that many entities are handled with a single turn listener, and
+	 * that entities can get statuses again after all of them are gone.
+	 */
+	@Test
+	public void testManyEntities() {
+		final List<Player> players = new ArrayList<Player>();
+		for (int i = 0; i < 100; i++) {
+			final Player player = createPlayer("player" + i, 500);
+			player.getStatusList().inflictStatus(new PoisonStatus(-2 - (i % 3), 1, -1), null);
+			player.getStatusList().inflictStatus(new EatStatus(1, 1, 1), null);
+			players.add(player);
+		}
+		assertEquals(1, TurnNotifier.get().getRemainingTurns(StatusEngine.get()));
+
+		for (int i = 0; i < 10; i++) {
+			nextTurn();
+		}
+		for (int i = 0; i < players.size(); i++) {
+			final Player player = players.get(i);
+			assertEquals(500 - 2 - (i % 3) + 1, player.getHP());
+			assertFalse(player.hasStatus(StatusType.POISONED));
+			assertFalse(player.has("poisoned"));
+			assertFalse(player.has("eating"));
+		}
+
+		// starts again
+		players.get(0).getStatusList().inflictStatus(new PoisonStatus(-1, 1, -1), null);
+		assertEquals(1, TurnNotifier.get().getRemainingTurns(StatusEngine.get()));
+		for (int i = 0; i < 3; i++) {
+			nextTurn();
+		}
+		assertEquals(498, players.get(0).getHP());
+	}
+}
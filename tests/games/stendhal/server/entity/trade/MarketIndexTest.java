@@ -0,0 +1,162 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.entity.trade;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import games.stendhal.server.core.engine.SingletonRepository;
+import games.stendhal.server.core.engine.StendhalRPZone;
+import games.stendhal.server.entity.item.Item;
+import games.stendhal.server.entity.item.StackableItem;
+import games.stendhal.server.entity.player.Player;
+import games.stendhal.server.maps.MockStendhalRPRuleProcessor;
+import games.stendhal.server.maps.MockStendlRPWorld;
+import marauroa.common.Log4J;
+import marauroa.server.game.db.DatabaseFactory;
+import utilities.PlayerTestHelper;
+
+/**
+ * Tests for the indexes of the market.
+ */
+public class MarketIndexTest {
+
+	@BeforeClass
+	public static void beforeClass() {
+		Log4J.init();
+		new DatabaseFactory().initializeDatabase();
+		MockStendlRPWorld.get();
+	}
+
+	@AfterClass
+	public static void afterClass() {
+		MockStendlRPWorld.reset();
+		MockStendhalRPRuleProcessor.get().clearPlayers();
+	}
+
+	private static Offer offer(Market market, Player player, String itemName, long timestamp) {
+		Item item = SingletonRepository.getEntityManager().getItem(itemName);
+		player.equipToInventoryOnly(item);
+		Offer offer = market.createOffer(player, item, 10, 1);
+		offer.put("timestamp", Long.toString(timestamp));
+		return offer;
+	}
+
+	/**
+	 * Tests that the queries by offerer, item and time follow the changes
+	 * of the market.
+	 */
+	@Test
+	public void testQueries() {
+		Player bob = PlayerTestHelper.createPlayer("bob");
+		Player alice = PlayerTestHelper.createPlayer("alice");
+		StendhalRPZone zone = new StendhalRPZone("shop");
+		Market market = Market.createShop();
+		zone.add(market);
+
+		Offer axe = offer(market, bob, "axe", 3000);
+		Offer club = offer(market, alice, "club", 1000);
+		Offer dagger = offer(market, bob, "dagger", 2000);
+
+		assertEquals(2, market.countOffersOfPlayer(bob));
+		assertEquals(Arrays.asList(axe, dagger), market.getOffersOfPlayer(bob));
+		assertEquals(new HashSet<String>(Arrays.asList("axe", "club", "dagger")), market.getOfferedItemNames());
+		assertEquals(Arrays.asList(axe, dagger), market.getOffersForItems(o -> !o.getItemName().equals("club")));
+
+		long now = System.currentTimeMillis();
+		assertEquals(Arrays.asList(club, dagger, axe), market.getOffersOlderThan(0));
+		assertEquals(1000, market.getOfferTimestampSince(Long.MIN_VALUE));
+		assertEquals(2000, market.getOfferTimestampSince(1001));
+		assertEquals(Long.MAX_VALUE, market.getOfferTimestampSince(3001));
+
+		// a changed timestamp moves the offer in the order by time
+		club.put("timestamp", Long.toString(now));
+		assertEquals(Arrays.asList(dagger, axe), market.getOffersOlderThan(1));
+
+		market.expireOffer(dagger);
+		assertEquals(1, market.countOffersOfPlayer(bob));
+		assertEquals(Collections.singletonList(dagger), market.getExpiredOffersOfPlayer(bob));
+		assertEquals(2000, market.getOldestExpiredOfferTimestamp());
+		assertFalse(market.getOfferedItemNames().contains("dagger"));
+
+		Offer prolonged = market.prolongOffer(dagger);
+		assertTrue(market.getExpiredOffersOfPlayer(bob).isEmpty());
+		assertEquals(Long.MAX_VALUE, market.getOldestExpiredOfferTimestamp());
+		assertEquals(Arrays.asList(axe, prolonged), market.getOffersOfPlayer(bob));
+
+		market.removeOffer(axe, bob);
+		assertEquals(Collections.singletonList(prolonged), market.getOffersOfPlayer(bob));
+		assertEquals(new HashSet<String>(Arrays.asList("club", "dagger")), market.getOfferedItemNames());
+	}
+
+	/**
+	 * Tests that earnings are found by seller and by time.
+	 */
+	@Test
+	public void testEarnings() {
+		Player george = PlayerTestHelper.createPlayer("george");
+		PlayerTestHelper.registerPlayer(george);
+		Player ernie = PlayerTestHelper.createPlayer("ernie");
+		StendhalRPZone zone = new StendhalRPZone("shop");
+		Market market = Market.createShop();
+		zone.add(market);
+
+		Offer offer = offer(market, george, "axe", System.currentTimeMillis());
+		Item money = SingletonRepository.getEntityManager().getItem("money");
+		((StackableItem) money).setQuantity(10);
+		ernie.equipToInventoryOnly(money);
+		assertTrue(market.acceptOffer(offer, ernie));
+
+		assertTrue(market.hasEarningsFor(george));
+		assertFalse(market.hasEarningsFor(ernie));
+		List<Earning> earnings = market.getEarningsOlderThan(-10);
+		assertEquals(1, earnings.size());
+		earnings.get(0).put("timestamp", "0");
+		assertEquals(0, market.getOldestEarningTimestamp());
+		assertEquals(earnings, market.getEarningsOlderThan(0));
+
+		assertEquals(1, market.fetchEarnings(george).size());
+		assertFalse(market.hasEarningsFor(george));
+		assertEquals(Long.MAX_VALUE, market.getOldestEarningTimestamp());
+	}
+
+	/**
+	 * Tests that the indexes are rebuilt when a market is loaded.
+	 */
+	@Test
+	public void testLoad() {
+		Player bob = PlayerTestHelper.createPlayer("bob");
+		StendhalRPZone zone = new StendhalRPZone("shop");
+		Market market = Market.createShop();
+		zone.add(market);
+		offer(market, bob, "axe", 2000);
+		offer(market, bob, "club", 1000);
+		market.expireOffer(offer(market, bob, "dagger", 500));
+
+		Market loaded = new Market(market);
+		assertEquals(2, loaded.countOffersOfPlayer(bob));
+		assertEquals(1, loaded.getExpiredOffersOfPlayer(bob).size());
+		assertEquals(new HashSet<String>(Arrays.asList("axe", "club")), loaded.getOfferedItemNames());
+		assertEquals(1000, loaded.getOfferTimestampSince(Long.MIN_VALUE));
+		assertEquals(500, loaded.getOldestExpiredOfferTimestamp());
+	}
+}
@@ -30,6 +30,7 @@ import games.stendhal.server.entity.npc.SpeakerNPC;
 import games.stendhal.server.entity.npc.fsm.Engine;
 import games.stendhal.server.entity.slot.PlayerSlot;
 import games.stendhal.server.entity.trade.Market;
+import games.stendhal.server.entity.trade.Offer;
 import games.stendhal.server.maps.semos.tavern.market.MarketManagerNPC;
 import games.stendhal.server.maps.semos.tavern.market.TradeCenterZoneConfigurator;
 import utilities.PlayerTestHelper;
@@ -64,7 +65,9 @@ public class TradeMangerNPCTest extends ZonePlayerAndNPCTestImpl {
 	@After
 	public void wipeMarket() {
 		Market m = TradeCenterZoneConfigurator.getShopFromZone(player.getZone());
-		m.getSlot(Market.OFFERS_SLOT_NAME).clear();
+		for (Offer offer : m.getOffersForItems(o -> true)) {
+			m.removeOffer(offer, player);
+		}
 		final SpeakerNPC npc = getNPC("Harold");
 		if (npc instanceof MarketManagerNPC) {
 			((MarketManagerNPC) npc).getOfferMap().clear();